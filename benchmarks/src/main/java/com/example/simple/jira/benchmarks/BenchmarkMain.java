@@ -0,0 +1,62 @@
+package com.example.simple.jira.benchmarks;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point running the benchmarks at several thread counts
+ *
+ * Accepts the regular JMH command line. Unless {@code -t} is given the
+ * selected benchmarks run once per thread count of 1, 4 and the number of
+ * available processors. The GC profiler is added unless other profilers are
+ * requested, so every result carries the allocation rate next to the
+ * throughput, and unless {@code -rff} is given the results of each thread
+ * count are written to {@code jmh-result-t<threads>.json} to serve as a
+ * regression baseline
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args JMH command line options
+     * @throws CommandLineOptionException when the options cannot be parsed
+     * @throws RunnerException when a benchmark run fails
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        final Set<Integer> threadCounts = new TreeSet<>();
+        if (commandLine.getThreads().hasValue()) {
+            threadCounts.add(commandLine.getThreads().get());
+        } else {
+            threadCounts.add(1);
+            threadCounts.add(4);
+            threadCounts.add(Runtime.getRuntime().availableProcessors());
+        }
+        for (int threads : threadCounts) {
+            final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).threads(threads);
+            if (commandLine.getProfilers().isEmpty()) {
+                options.addProfiler(GCProfiler.class);
+            }
+            if (!commandLine.getResult().hasValue()) {
+                options.result("jmh-result-t" + threads + ".json").resultFormat(ResultFormatType.JSON);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
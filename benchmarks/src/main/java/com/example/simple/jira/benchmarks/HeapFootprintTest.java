@@ -0,0 +1,249 @@
+package com.example.simple.jira.benchmarks;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.repository.ColumnarTaskStore;
+import com.example.simple.jira.model.repository.DiskTaskStore;
+import com.example.simple.jira.model.repository.OffHeapTaskStore;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Heap footprint and garbage collection cost of a task store holding long descriptions
+ *
+ * Fills {@code --tasks} tasks with distinct descriptions of
+ * {@code --length} characters into the store selected by {@code --store}
+ * ({@code repository}, {@code columnar}, {@code offheap} or {@code disk}),
+ * reports the heap in use after a full collection and the native memory or
+ * disk space held for texts, then replaces random descriptions and reads
+ * random pages for {@code --seconds} seconds and reports the collections that
+ * happened meanwhile. The disk store caches {@code --cache} megabytes of
+ * descriptions in a temporary directory deleted at the end. Run one store
+ * per JVM with a fixed heap so the results are comparable:
+ * <pre>
+ * java -Xms4g -Xmx4g -cp benchmarks.jar com.example.simple.jira.benchmarks.HeapFootprintTest --store offheap
+ * </pre>
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class HeapFootprintTest {
+
+    /** Number of tasks per project */
+    private static final int PROJECT_SIZE = 10_000;
+    /** Number of commands per batch used to fill a project */
+    private static final int FILL_BATCH_SIZE = 1_000;
+    /** Words descriptions are made of */
+    private static final String[] WORDS = {"deploy", "review", "customer", "latency", "database", "rollback",
+        "dashboard", "incident", "migration", "release", "cache", "timeout", "payload", "schema", "retry"};
+
+    private HeapFootprintTest() {
+    }
+
+    /**
+     * Runs the measurement
+     *
+     * @param args {@code --store <name>}, {@code --tasks <n>}, {@code --length <chars>}, {@code --seconds <n>},
+     *        {@code --cache <megabytes>}
+     * @throws InterruptedException when interrupted while waiting for the heap to settle
+     * @throws IOException when the directory of the disk store cannot be created or its files closed
+     */
+    public static void main(final String[] args) throws InterruptedException, IOException {
+        String storeName = "offheap";
+        int taskCount = 1_000_000;
+        int length = 1_000;
+        int seconds = 30;
+        int cacheMegabytes = 64;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--store":
+                    storeName = args[i + 1];
+                    break;
+                case "--tasks":
+                    taskCount = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--length":
+                    length = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--cache":
+                    cacheMegabytes = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final ProjectRepository projects = new ProjectRepository();
+        final TaskStore tasks;
+        Path directory = null;
+        switch (storeName) {
+            case "repository":
+                tasks = new TaskRepository(projects);
+                break;
+            case "columnar":
+                tasks = new ColumnarTaskStore(projects);
+                break;
+            case "offheap":
+                tasks = new OffHeapTaskStore(projects);
+                break;
+            case "disk":
+                directory = Files.createTempDirectory("tasks");
+                tasks = new DiskTaskStore(projects, directory, (long) cacheMegabytes << 20);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown store " + storeName);
+        }
+        try {
+            measure(projects, tasks, storeName, taskCount, length, seconds);
+        } finally {
+            if (tasks instanceof DiskTaskStore) {
+                ((DiskTaskStore) tasks).close();
+            }
+            TempDirectories.deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Fills the store, reports its footprint and measures the collections caused by churn
+     *
+     * @param projects project store under the task store
+     * @param tasks empty store under test
+     * @param storeName name of the store for the report
+     * @param taskCount number of tasks to fill
+     * @param length number of characters per description
+     * @param seconds duration of the churn
+     * @throws InterruptedException when interrupted while waiting for the heap to settle
+     */
+    private static void measure(final ProjectRepository projects, final TaskStore tasks, final String storeName,
+            final int taskCount, final int length, final int seconds) throws InterruptedException {
+        final SplittableRandom random = new SplittableRandom(42);
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final long emptyHeap = usedHeapAfterGc(memory);
+
+        final long fillStart = System.nanoTime();
+        final int projectCount = (taskCount + PROJECT_SIZE - 1) / PROJECT_SIZE;
+        final int[] projectIds = new int[projectCount];
+        final int[] firstTaskIds = new int[projectCount];
+        final List<TaskCommand> batch = new ArrayList<>(FILL_BATCH_SIZE);
+        for (int p = 0; p < projectCount; p++) {
+            projectIds[p] = projects.create("Project " + p).getProjectId();
+            final int inProject = Math.min(PROJECT_SIZE, taskCount - p * PROJECT_SIZE);
+            for (int filled = 0; filled < inProject; filled += batch.size()) {
+                batch.clear();
+                for (int i = filled; i < Math.min(inProject, filled + FILL_BATCH_SIZE); i++) {
+                    batch.add(TaskCommand.add("Task " + i, description(random, length), null, null));
+                }
+                final Task first = tasks.applyBatch(projectIds[p], batch).get(0).getTask();
+                if (filled == 0) {
+                    firstTaskIds[p] = first.getTaskId();
+                }
+            }
+        }
+        final long fillNanos = System.nanoTime() - fillStart;
+        final long filledHeap = usedHeapAfterGc(memory) - emptyHeap;
+        System.out.printf("store=%s tasks=%d length=%d fill=%.1f s%n", storeName, taskCount, length,
+                fillNanos / 1e9);
+        System.out.printf("heap after gc=%.1f MB (%.0f bytes/task)%n", filledHeap / 1048576d,
+                (double) filledHeap / taskCount);
+        if (tasks instanceof OffHeapTaskStore) {
+            final OffHeapTaskStore offHeap = (OffHeapTaskStore) tasks;
+            System.out.printf("off-heap=%.1f MB, live text=%.1f MB%n", offHeap.getOffHeapBytes() / 1048576d,
+                    offHeap.getLiveTextBytes() / 1048576d);
+        }
+        if (tasks instanceof DiskTaskStore) {
+            final DiskTaskStore disk = (DiskTaskStore) tasks;
+            System.out.printf("disk=%.1f MB, live text=%.1f MB, task file=%.1f MB%n", disk.getDiskBytes() / 1048576d,
+                    disk.getLiveTextBytes() / 1048576d, disk.getFileBytes() / 1048576d);
+        }
+
+        final AtomicLong longestPause = new AtomicLong();
+        final NotificationListener listener = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                final GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                longestPause.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+            }
+        };
+        final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        long collectionsBefore = 0;
+        long collectionMillisBefore = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            collectionsBefore += collector.getCollectionCount();
+            collectionMillisBefore += collector.getCollectionTime();
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+        long updates = 0;
+        long reads = 0;
+        final long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        while (System.nanoTime() < deadline) {
+            final int project = random.nextInt(projectCount);
+            final Page<Task> page = tasks.findPage(projectIds[project],
+                    firstTaskIds[project] + random.nextInt(PROJECT_SIZE) - 1, 20);
+            reads++;
+            if (!page.getItems().isEmpty()) {
+                final Task task = page.getItems().get(random.nextInt(page.getItems().size()));
+                tasks.updateTaskDescription(task.getProjectId(), task.getTaskId(), description(random, length));
+                updates++;
+            }
+        }
+        long collections = -collectionsBefore;
+        long collectionMillis = -collectionMillisBefore;
+        for (GarbageCollectorMXBean collector : collectors) {
+            collections += collector.getCollectionCount();
+            collectionMillis += collector.getCollectionTime();
+        }
+        System.out.printf("churn: %d page reads, %d description updates in %d s%n", reads, updates, seconds);
+        System.out.printf("gc: %d collections, %d ms total, longest %d ms%n", collections, collectionMillis,
+                longestPause.get());
+        System.out.printf("heap after gc=%.1f MB%n", (usedHeapAfterGc(memory) - emptyHeap) / 1048576d);
+        if (tasks instanceof DiskTaskStore) {
+            System.out.println("cache: " + ((DiskTaskStore) tasks).getCacheStatistics());
+        }
+        Reference.reachabilityFence(tasks);
+    }
+
+    /**
+     * Creates a description of random words
+     *
+     * @param random source of randomness
+     * @param length number of characters
+     * @return description
+     */
+    private static String description(final SplittableRandom random, final int length) {
+        final StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private static long usedHeapAfterGc(final MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.simple.jira.benchmarks;
+
+import com.example.simple.jira.http.ApiServer;
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.metrics.HistogramSnapshot;
+import com.example.simple.jira.model.metrics.LatencyHistogram;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskRepository;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for the REST API
+ *
+ * Starts an in-process {@link ApiServer} on a free loopback port over fresh
+ * in-memory repositories seeded with one project of {@code --tasks} tasks,
+ * then lets {@code --clients} virtual threads issue requests back to back for
+ * {@code --seconds} seconds. {@code --writes} percent of the requests update
+ * the status of a random task, the rest read one. Prints throughput, error
+ * count and latency percentiles measured on the client side:
+ * <pre>
+ * java -cp benchmarks.jar com.example.simple.jira.benchmarks.HttpLoadTest --clients 256 --seconds 30
+ * </pre>
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class HttpLoadTest {
+
+    /** Task status names cycled by write requests */
+    private static final String[] STATUSES = {"TODO", "IN_PROGRESS", "DONE"};
+
+    private HttpLoadTest() {
+    }
+
+    /**
+     * Runs the load test
+     *
+     * @param args {@code --clients <n>}, {@code --seconds <n>}, {@code --tasks <n>}, {@code --writes <percent>}
+     * @throws IOException when the server cannot be started
+     * @throws InterruptedException when interrupted while waiting for the clients
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int clients = 64;
+        int seconds = 10;
+        int taskCount = 10_000;
+        int writePercent = 10;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            final int value = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--clients":
+                    clients = value;
+                    break;
+                case "--seconds":
+                    seconds = value;
+                    break;
+                case "--tasks":
+                    taskCount = value;
+                    break;
+                case "--writes":
+                    writePercent = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final ProjectRepository projects = new ProjectRepository();
+        final TaskRepository tasks = new TaskRepository(projects);
+        final Project project = projects.create("load");
+        for (int i = 0; i < taskCount; i++) {
+            tasks.addTask(project.getProjectId(), "Task " + i, "Description of task " + i);
+        }
+
+        try (ApiServer server = ApiServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                projects, tasks)) {
+            final String base = "http://127.0.0.1:" + server.getPort() + "/projects/" + project.getProjectId()
+                    + "/tasks/";
+            final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10)).build();
+            final LatencyHistogram latencies = new LatencyHistogram();
+            final LongAdder errors = new LongAdder();
+            final long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            final int tasksInProject = taskCount;
+            final int writes = writePercent;
+            final List<Thread> threads = new ArrayList<>(clients);
+            final long started = System.nanoTime();
+            for (int i = 0; i < clients; i++) {
+                threads.add(Thread.ofVirtual().start(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        final URI uri = URI.create(base + (1 + random.nextInt(tasksInProject)));
+                        final HttpRequest request = random.nextInt(100) < writes
+                                ? HttpRequest.newBuilder(uri).method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                        "{\"status\":\"" + STATUSES[random.nextInt(STATUSES.length)] + "\"}")).build()
+                                : HttpRequest.newBuilder(uri).GET().build();
+                        final long start = System.nanoTime();
+                        try {
+                            final HttpResponse<Void> response = client.send(request,
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (IOException ex) {
+                            errors.increment();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies.record(System.nanoTime() - start);
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            final double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+            final HistogramSnapshot snapshot = latencies.snapshot();
+            System.out.printf("clients=%d tasks=%d writes=%d%% seconds=%.1f%n", clients, taskCount, writePercent,
+                    elapsedSeconds);
+            System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n", snapshot.getCount(), errors.sum(),
+                    snapshot.getCount() / elapsedSeconds);
+            System.out.printf("latency us: mean=%.1f p50=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                    snapshot.getMean() / 1e3, snapshot.getP50() / 1e3, snapshot.getP99() / 1e3,
+                    snapshot.getP999() / 1e3, snapshot.getMax() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.simple.jira.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.persistence.DurableStores;
+import com.example.simple.jira.model.persistence.FsyncPolicy;
+import com.example.simple.jira.model.persistence.JournalStatistics;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Journaled write throughput for each fsync policy and number of concurrent writers
+ *
+ * Every invocation lets {@link #writers} threads apply
+ * {@link #UPDATES_PER_WRITER} status changes each to tasks of their own
+ * project through {@link DurableStores}, one log record per change. The
+ * {@code records} counter is the rate of completed mutations and
+ * {@code syncs} the rate of fsync calls, so their ratio is the number of
+ * records sharing one group commit. The full {@link JournalStatistics} of
+ * every iteration, including the records of its setup, are printed when it
+ * ends. Under {@link FsyncPolicy#INTERVAL} and {@link FsyncPolicy#NEVER}
+ * mutations return once their record is queued, so their rate is the rate
+ * records are accepted. Run with {@code -t 1}, the writers are threads of
+ * the benchmark
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class JournalWriteBenchmark {
+
+    /** Number of tasks owned by each writer */
+    private static final int TASKS_PER_WRITER = 64;
+    /** Number of status changes applied by each writer per invocation */
+    private static final int UPDATES_PER_WRITER = 64;
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    /** Policy deciding when records are forced to disk */
+    @Param({"ALWAYS", "INTERVAL", "NEVER"})
+    FsyncPolicy policy;
+
+    /** Number of concurrent writers */
+    @Param({"1", "8", "32"})
+    int writers;
+
+    /** Threads running the writers */
+    private ExecutorService executor;
+    /** Directory holding the log of the current iteration */
+    private Path directory;
+    /** Stores of the current iteration */
+    private DurableStores stores;
+    /** One round of updates per writer */
+    private List<Callable<Void>> round;
+
+    /**
+     * Records and fsync calls, reported by JMH as rates next to the round rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Journal {
+
+        /** Mutations journaled during the iteration */
+        public long records;
+        /** Fsync calls during the iteration */
+        public long syncs;
+
+        /**
+         * Clears the counters before every iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            syncs = 0;
+        }
+    }
+
+    /**
+     * Starts the writer threads
+     */
+    @Setup(Level.Trial)
+    public void startWriters() {
+        executor = Executors.newFixedThreadPool(writers);
+    }
+
+    /**
+     * Opens empty stores and creates the project and tasks of every writer
+     *
+     * @throws IOException when the directory cannot be created
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-write");
+        stores = DurableStores.open(directory.resolve("tasks.log"), policy, DurableStores.DEFAULT_SYNC_INTERVAL);
+        final TaskStore tasks = stores.getTaskStore();
+        round = new ArrayList<>(writers);
+        for (int w = 0; w < writers; w++) {
+            final int projectId = stores.getProjectStore().create("Writer " + w).getProjectId();
+            final int[] taskIds = new int[TASKS_PER_WRITER];
+            for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                taskIds[i] = tasks.addTask(projectId, "Task " + i, null).getTaskId();
+            }
+            round.add(() -> {
+                for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                    tasks.updateTaskStatus(projectId, taskIds[i % TASKS_PER_WRITER], STATUSES[i % STATUSES.length]);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Prints the statistics of the iteration, closes the stores and deletes their files
+     *
+     * @throws IOException when the closing checkpoint fails
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        try {
+            System.out.println(policy + " x " + writers + " writers: " + stores.getStatistics());
+            stores.close();
+        } finally {
+            TempDirectories.deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Stops the writer threads
+     */
+    @TearDown(Level.Trial)
+    public void stopWriters() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs one round of status changes on every writer and waits for all of them
+     *
+     * @param journal counters of records and fsync calls
+     * @throws InterruptedException when interrupted while waiting for the writers
+     * @throws ExecutionException when a writer fails
+     */
+    @Benchmark
+    public void updateRound(final Journal journal) throws InterruptedException, ExecutionException {
+        final long syncsBefore = stores.getStatistics().getSyncs();
+        for (Future<Void> writer : executor.invokeAll(round)) {
+            writer.get();
+        }
+        journal.records += (long) writers * UPDATES_PER_WRITER;
+        journal.syncs += stores.getStatistics().getSyncs() - syncsBefore;
+    }
+}
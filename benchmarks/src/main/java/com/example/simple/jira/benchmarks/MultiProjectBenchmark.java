@@ -0,0 +1,133 @@
+package com.example.simple.jira.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.repository.PartitionedTaskStore;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Throughput of task store operations spread over many projects
+ *
+ * Unlike {@link TaskStoreBenchmark} every operation picks a random project,
+ * so higher thread counts show how well writers to different projects scale
+ * and cross-project queries read every project
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MultiProjectBenchmark {
+
+    /** Number of tasks in every project before each iteration */
+    private static final int TASKS_PER_PROJECT = 100;
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Cached priority constants indexed by ordinal */
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    /** Number of projects */
+    @Param({"1024"})
+    int projectCount;
+
+    /** Store implementation, {@code repository} or {@code partitioned} */
+    @Param({"repository", "partitioned"})
+    String store;
+
+    /** Store under test */
+    private TaskStore tasks;
+    /** Store under test when it is a {@link TaskRepository} */
+    private TaskRepository repository;
+    /** Store under test when it is a {@link PartitionedTaskStore} */
+    private PartitionedTaskStore partitioned;
+    /** Identifiers of the filled projects */
+    private int[] projectIds;
+
+    /**
+     * Creates the store and fills {@link #projectCount} projects with mixed statuses and priorities
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final ProjectRepository projects = new ProjectRepository();
+        if ("partitioned".equals(store)) {
+            partitioned = new PartitionedTaskStore(projects);
+            tasks = partitioned;
+        } else {
+            repository = new TaskRepository(projects);
+            tasks = repository;
+        }
+        projectIds = new int[projectCount];
+        final List<TaskCommand> batch = new ArrayList<>(TASKS_PER_PROJECT);
+        for (int p = 0; p < projectCount; p++) {
+            projectIds[p] = projects.create("Benchmark " + p).getProjectId();
+            batch.clear();
+            for (int i = 0; i < TASKS_PER_PROJECT; i++) {
+                batch.add(TaskCommand.add("Task " + i, "Description of task " + i,
+                        STATUSES[i % STATUSES.length], PRIORITIES[i / STATUSES.length % PRIORITIES.length]));
+            }
+            tasks.applyBatch(projectIds[p], batch);
+        }
+    }
+
+    /**
+     * Adds a task to a random project
+     *
+     * @return created task
+     */
+    @Benchmark
+    public Task addTask() {
+        return tasks.addTask(randomProject(), "Benchmark task", "Added by the benchmark");
+    }
+
+    /**
+     * Reads all HIGH priority TODO tasks of every project
+     *
+     * @return matching tasks
+     */
+    @Benchmark
+    public List<Task> findAcrossProjects() {
+        return partitioned != null ? partitioned.findAcrossProjects(TaskStatus.TODO, TaskPriority.HIGH)
+                : repository.findAcrossProjects(TaskStatus.TODO, TaskPriority.HIGH);
+    }
+
+    /**
+     * Counts all tasks still to do in every project
+     *
+     * @return number of matching tasks
+     */
+    @Benchmark
+    public long countAcrossProjects() {
+        return partitioned != null ? partitioned.countAcrossProjects(TaskStatus.TODO, null)
+                : repository.countAcrossProjects(TaskStatus.TODO, null);
+    }
+
+    private int randomProject() {
+        return projectIds[ThreadLocalRandom.current().nextInt(projectIds.length)];
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.simple.jira.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectRepository;
+
+/**
+ * Throughput of project reads for a given number of projects
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProjectRepositoryBenchmark {
+
+    /** Number of stored projects */
+    @Param({"10", "1000", "100000"})
+    int projectCount;
+
+    /** Repository under test */
+    private ProjectRepository projects;
+    /** Identifiers of the stored projects */
+    private int[] projectIds;
+
+    /**
+     * Creates the repository with {@link #projectCount} projects
+     */
+    @Setup
+    public void setUp() {
+        projects = new ProjectRepository();
+        projectIds = new int[projectCount];
+        for (int i = 0; i < projectCount; i++) {
+            projectIds[i] = projects.create("Project " + i).getProjectId();
+        }
+    }
+
+    /**
+     * Reads all projects
+     *
+     * @return all projects
+     */
+    @Benchmark
+    public List<Project> findAll() {
+        return projects.findAll();
+    }
+
+    /**
+     * Looks up a random project
+     *
+     * @return found project
+     */
+    @Benchmark
+    public Project findById() {
+        return projects.findById(projectIds[ThreadLocalRandom.current().nextInt(projectIds.length)]);
+    }
+
+    /**
+     * Looks up a missing project through the throwing lookup
+     *
+     * Measures the cost of raising and catching the stackless domain error
+     *
+     * @return caught error
+     */
+    @Benchmark
+    public ModelOperationException findByIdMiss() {
+        try {
+            projects.findById(-projectIds[ThreadLocalRandom.current().nextInt(projectIds.length)]);
+            throw new IllegalStateException("Negative project identifier found");
+        } catch (ModelOperationException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * Looks up a missing project and raises the domain error with a stack trace
+     *
+     * Baseline for {@link #findByIdMiss()}, reporting the miss the way it was
+     * reported before the error became stackless
+     *
+     * @return caught error
+     */
+    @Benchmark
+    public ModelOperationException findByIdMissWithStackTrace() {
+        final int projectId = -projectIds[ThreadLocalRandom.current().nextInt(projectIds.length)];
+        try {
+            if (projects.tryFindById(projectId).isEmpty()) {
+                throw new ModelOperationException("Project with id " + projectId + " not found");
+            }
+            throw new IllegalStateException("Negative project identifier found");
+        } catch (ModelOperationException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * Looks up a missing project through the optional lookup
+     *
+     * @return empty lookup result
+     */
+    @Benchmark
+    public Optional<Project> tryFindByIdMiss() {
+        return projects.tryFindById(-projectIds[ThreadLocalRandom.current().nextInt(projectIds.length)]);
+    }
+}
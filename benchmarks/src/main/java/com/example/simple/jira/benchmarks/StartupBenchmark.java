@@ -0,0 +1,199 @@
+package com.example.simple.jira.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.persistence.DurableStores;
+import com.example.simple.jira.model.persistence.FsyncPolicy;
+import com.example.simple.jira.model.persistence.JournaledProjectStore;
+import com.example.simple.jira.model.persistence.JournaledTaskStore;
+import com.example.simple.jira.model.persistence.SnapshotFile;
+import com.example.simple.jira.model.persistence.WriteAheadLog;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskRepository;
+
+/**
+ * Time to open the durable stores from a snapshot compared to a full log replay
+ *
+ * Both benchmarks open {@link DurableStores} on the same state of
+ * {@link #taskCount} tasks. {@link #fromSnapshot()} finds it in a snapshot
+ * next to an empty log, as left by a checkpoint, while {@link #fromLog()}
+ * finds only the log holding one record per created task and status change.
+ * Every invocation opens a fresh copy of the files, and the checkpoint written
+ * when the opened stores are closed is not timed. Run with {@code -t 1}, more
+ * threads open their copies concurrently and measure a shared disk
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StartupBenchmark {
+
+    /** Name of the log file in the fixture directories */
+    private static final String LOG_FILE = "tasks.log";
+    /** Number of tasks per project of the fixture */
+    private static final int PROJECT_SIZE = 100_000;
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    /**
+     * Snapshot and log files written once per trial
+     */
+    @State(Scope.Benchmark)
+    public static class Fixture {
+
+        /** Number of tasks in the restored state */
+        @Param({"100000", "1000000"})
+        int taskCount;
+
+        /** Directory holding both fixtures */
+        private Path directory;
+        /** Directory holding the snapshot and an empty log */
+        private Path snapshotFixture;
+        /** Directory holding only the full log */
+        private Path logFixture;
+
+        /**
+         * Journals {@link #taskCount} tasks into a log and snapshots the result
+         *
+         * @throws IOException when the files cannot be written
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("startup");
+            snapshotFixture = Files.createDirectory(directory.resolve("snapshot"));
+            logFixture = Files.createDirectory(directory.resolve("log"));
+            final ProjectRepository projects = new ProjectRepository();
+            final TaskRepository tasks = new TaskRepository(projects);
+            try (WriteAheadLog log = WriteAheadLog.open(logFixture.resolve(LOG_FILE), FsyncPolicy.NEVER,
+                    DurableStores.DEFAULT_SYNC_INTERVAL, record -> { })) {
+                final JournaledProjectStore projectStore = new JournaledProjectStore(projects, log);
+                final JournaledTaskStore taskStore = new JournaledTaskStore(tasks, projectStore);
+                int projectId = 0;
+                for (int i = 0; i < taskCount; i++) {
+                    if (i % PROJECT_SIZE == 0) {
+                        projectId = projectStore.create("Project " + i / PROJECT_SIZE).getProjectId();
+                    }
+                    final int taskId = taskStore.addTask(projectId, "Task " + i, "Description of task " + i)
+                            .getTaskId();
+                    taskStore.updateTaskStatus(projectId, taskId, STATUSES[i % STATUSES.length]);
+                }
+            }
+            SnapshotFile.write(snapshotFixture.resolve(LOG_FILE + ".snapshot"), projects, tasks);
+            Files.createFile(snapshotFixture.resolve(LOG_FILE));
+        }
+
+        /**
+         * Deletes the fixture files
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            TempDirectories.deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Private copies of the fixture opened by one invocation
+     */
+    @State(Scope.Thread)
+    public static class Workspace {
+
+        /** Directory holding the copies */
+        private Path directory;
+        /** Copy of the snapshot fixture */
+        private Path snapshotCopy;
+        /** Copy of the log fixture */
+        private Path logCopy;
+        /** Stores opened by the invocation, closed after it */
+        private DurableStores opened;
+
+        /**
+         * Copies both fixtures, so that every invocation starts from the same files
+         *
+         * @param fixture files to copy
+         * @throws IOException when the files cannot be copied
+         */
+        @Setup(Level.Invocation)
+        public void setUp(final Fixture fixture) throws IOException {
+            directory = Files.createTempDirectory("startup-copy");
+            snapshotCopy = copy(fixture.snapshotFixture, directory.resolve("snapshot"));
+            logCopy = copy(fixture.logFixture, directory.resolve("log"));
+        }
+
+        /**
+         * Closes the opened stores and deletes the copies
+         *
+         * @throws IOException when the closing checkpoint fails
+         */
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            try {
+                if (opened != null) {
+                    opened.close();
+                }
+            } finally {
+                opened = null;
+                TempDirectories.deleteRecursively(directory);
+            }
+        }
+
+        private static Path copy(final Path source, final Path target) throws IOException {
+            Files.createDirectory(target);
+            try (Stream<Path> files = Files.list(source)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, target.resolve(file.getFileName()), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+            return target.resolve(LOG_FILE);
+        }
+    }
+
+    /**
+     * Opens the stores from a snapshot and an empty log
+     *
+     * @param workspace files to open
+     * @return opened stores
+     */
+    @Benchmark
+    public DurableStores fromSnapshot(final Workspace workspace) {
+        return workspace.opened = open(workspace.snapshotCopy);
+    }
+
+    /**
+     * Opens the stores by replaying the full log
+     *
+     * @param workspace files to open
+     * @return opened stores
+     */
+    @Benchmark
+    public DurableStores fromLog(final Workspace workspace) {
+        return workspace.opened = open(workspace.logCopy);
+    }
+
+    private static DurableStores open(final Path logFile) {
+        return DurableStores.open(logFile, FsyncPolicy.NEVER, DurableStores.DEFAULT_SYNC_INTERVAL);
+    }
+}
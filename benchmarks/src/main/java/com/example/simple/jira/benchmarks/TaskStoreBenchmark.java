@@ -0,0 +1,204 @@
+package com.example.simple.jira.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.repository.ColumnarTaskStore;
+import com.example.simple.jira.model.repository.DiskTaskStore;
+import com.example.simple.jira.model.repository.OffHeapTaskStore;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskCommandResult;
+import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Throughput of the hot task store operations on one project of a given size
+ *
+ * Every iteration starts from a freshly filled project, so benchmarks that
+ * grow the project measure roughly the parameterized size. All threads work
+ * on the same project, which makes higher thread counts show contention on
+ * the per-project write path
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class TaskStoreBenchmark {
+
+    /** Number of commands per batch used to fill the project */
+    private static final int FILL_BATCH_SIZE = 4096;
+    /** Heap budget of the description cache of the disk store */
+    private static final long DISK_CACHE_BYTES = 64L << 20;
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Statuses of tasks still to be done */
+    private static final Set<TaskStatus> OPEN = EnumSet.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS);
+
+    /** Number of tasks in the project before each iteration */
+    @Param({"10", "1000", "100000", "1000000"})
+    int projectSize;
+
+    /** Store implementation, {@code repository}, {@code columnar}, {@code offheap} or {@code disk} */
+    @Param({"repository", "columnar", "offheap", "disk"})
+    String store;
+
+    /** Store under test */
+    private TaskStore tasks;
+    /** Directory of the disk store, {@code null} for the other stores */
+    private Path directory;
+    /** Identifier of the filled project */
+    private int projectId;
+    /** Identifiers of the tasks created by the fill */
+    private int[] taskIds;
+
+    /**
+     * Creates the store and fills one project with {@link #projectSize} tasks
+     *
+     * @throws IOException when the directory of the disk store cannot be created
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        final ProjectRepository projects = new ProjectRepository();
+        if ("columnar".equals(store)) {
+            tasks = new ColumnarTaskStore(projects);
+        } else if ("offheap".equals(store)) {
+            tasks = new OffHeapTaskStore(projects);
+        } else if ("disk".equals(store)) {
+            directory = Files.createTempDirectory("tasks");
+            tasks = new DiskTaskStore(projects, directory, DISK_CACHE_BYTES);
+        } else {
+            tasks = new TaskRepository(projects);
+        }
+        projectId = projects.create("Benchmark").getProjectId();
+        taskIds = new int[projectSize];
+        final List<TaskCommand> batch = new ArrayList<>(FILL_BATCH_SIZE);
+        int filled = 0;
+        while (filled < projectSize) {
+            batch.clear();
+            for (int i = filled; i < Math.min(projectSize, filled + FILL_BATCH_SIZE); i++) {
+                batch.add(TaskCommand.add("Task " + i, "Description of task " + i,
+                        STATUSES[i % STATUSES.length], null));
+            }
+            for (TaskCommandResult result : tasks.applyBatch(projectId, batch)) {
+                taskIds[filled++] = result.getTask().getTaskId();
+            }
+        }
+    }
+
+    /**
+     * Closes the disk store and deletes its directory
+     *
+     * @throws IOException when the files of the disk store cannot be closed
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        try {
+            if (tasks instanceof DiskTaskStore) {
+                ((DiskTaskStore) tasks).close();
+            }
+        } finally {
+            tasks = null;
+            TempDirectories.deleteRecursively(directory);
+            directory = null;
+        }
+    }
+
+    /**
+     * Adds a task, growing the project during the iteration
+     *
+     * @return created task
+     */
+    @Benchmark
+    public Task addTask() {
+        return tasks.addTask(projectId, "Benchmark task", "Added by the benchmark");
+    }
+
+    /**
+     * Changes the status of a random existing task
+     */
+    @Benchmark
+    public void updateTaskStatus() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        tasks.updateTaskStatus(projectId, taskIds[random.nextInt(taskIds.length)],
+                STATUSES[random.nextInt(STATUSES.length)]);
+    }
+
+    /**
+     * Renames a random existing task
+     */
+    @Benchmark
+    public void renameTask() {
+        final int taskId = taskIds[ThreadLocalRandom.current().nextInt(taskIds.length)];
+        tasks.renameTask(projectId, taskId, "Renamed task " + taskId);
+    }
+
+    /**
+     * Deletes a task, adding it first so the project keeps its size
+     *
+     * The cost of the delete alone is roughly this result minus {@link #addTask()}
+     */
+    @Benchmark
+    public void deleteTask() {
+        final Task added = tasks.addTask(projectId, "Benchmark task", "Added by the benchmark");
+        tasks.deleteTask(projectId, added.getTaskId());
+    }
+
+    /**
+     * Reads all tasks of the project
+     *
+     * @return tasks of the project
+     */
+    @Benchmark
+    public List<Task> findByProject() {
+        return tasks.findByProject(projectId);
+    }
+
+    /**
+     * Reads all tasks of the project, requiring it to have some
+     *
+     * @return tasks of the project
+     */
+    @Benchmark
+    public List<Task> requireTasks() {
+        return tasks.requireTasks(projectId);
+    }
+
+    /**
+     * Reads the 20 most important open tasks of the project
+     *
+     * @return top ranked tasks
+     */
+    @Benchmark
+    public List<Task> topK() {
+        return tasks.topK(projectId, 20, OPEN);
+    }
+}
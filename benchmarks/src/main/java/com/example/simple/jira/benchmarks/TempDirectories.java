@@ -0,0 +1,43 @@
+package com.example.simple.jira.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Removal of the temporary directories created by benchmark fixtures
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class TempDirectories {
+
+    private TempDirectories() {
+    }
+
+    /**
+     * Deletes a directory with everything in it, ignoring a missing directory
+     *
+     * @param directory directory to delete, may be {@code null}
+     * @throws UncheckedIOException when a file cannot be deleted
+     */
+    static void deleteRecursively(final Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
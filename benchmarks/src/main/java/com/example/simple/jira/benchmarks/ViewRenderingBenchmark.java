@@ -0,0 +1,157 @@
+package com.example.simple.jira.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.view.View;
+
+/**
+ * Lines per second rendered for a task board of a given size
+ *
+ * {@link #displayTasks(Lines)} renders the board through {@link View} and
+ * {@link #printlnPerLine(Lines)} formats the same lines the way the view did
+ * before it buffered its output, one string and one flushing
+ * {@link PrintStream#println(String)} per line. Both write to a sink that
+ * discards the bytes, so the results show the cost of formatting and of the
+ * output calls without a terminal. The {@code lines} counter is the rendering
+ * rate, the primary score counts whole boards
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class ViewRenderingBenchmark {
+
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Cached priority constants indexed by ordinal */
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    /** Number of tasks on the board */
+    @Param({"1000", "100000"})
+    int taskCount;
+
+    /** Tasks of the board in identifier order */
+    private List<Task> tasks;
+    /** Number of lines in one rendered board */
+    private int linesPerBoard;
+    /** View under test writing to a discarding channel */
+    private View view;
+    /** Stream of the per-line baseline writing to a discarding stream */
+    private PrintStream console;
+
+    /**
+     * Lines rendered, reported by JMH as a rate next to the board rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Lines {
+
+        /** Lines rendered during the iteration */
+        public long lines;
+
+        /**
+         * Clears the counter before every iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            lines = 0;
+        }
+    }
+
+    /**
+     * Creates the board and the sinks
+     */
+    @Setup
+    public void setUp() {
+        tasks = new ArrayList<>(taskCount);
+        for (int i = 1; i <= taskCount; i++) {
+            tasks.add(new Task(i, "Task " + i, "Description of task " + i, STATUSES[i % STATUSES.length],
+                    PRIORITIES[i % PRIORITIES.length], 1, Task.INITIAL_VERSION));
+        }
+        linesPerBoard = taskCount + 2 * STATUSES.length;
+        view = new View(new DiscardingChannel());
+        console = new PrintStream(new BufferedOutputStream(OutputStream.nullOutputStream()), true);
+    }
+
+    /**
+     * Renders the board through the buffered view
+     *
+     * @param lines counter of rendered lines
+     */
+    @Benchmark
+    public void displayTasks(final Lines lines) {
+        view.displayTasks(tasks);
+        lines.lines += linesPerBoard;
+    }
+
+    /**
+     * Renders the board with one formatted string and one flushing call per line
+     *
+     * @param lines counter of rendered lines
+     */
+    @Benchmark
+    public void printlnPerLine(final Lines lines) {
+        for (TaskStatus status : STATUSES) {
+            console.println("\n==== " + status.name() + " ====");
+            for (Task task : tasks) {
+                if (task.getStatus() == status) {
+                    console.println("Task " + task.getTaskId() + " | " + task.getTitle() + " | "
+                            + task.getDescription() + " | Priority: " + task.getPriority());
+                }
+            }
+        }
+        lines.lines += linesPerBoard;
+    }
+
+    /**
+     * Channel accepting and discarding every byte
+     */
+    private static final class DiscardingChannel implements WritableByteChannel {
+
+        @Override
+        public int write(final ByteBuffer source) {
+            final int written = source.remaining();
+            source.position(source.limit());
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * JMH benchmarks of the repository layer.
+ *
+ * Build the application with {@code mvn install} in the project root, then
+ * {@code mvn package} in the {@code benchmarks} directory, and run
+ * {@code java -jar target/benchmarks.jar}. Without arguments every benchmark
+ * runs at several thread counts with the GC profiler and the results are
+ * written as JSON baselines; regular JMH options narrow the run down.
+ */
+package com.example.simple.jira.benchmarks;
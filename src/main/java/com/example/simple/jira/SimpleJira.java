@@ -1,10 +1,34 @@
 package com.example.simple.jira;
 
 import com.example.simple.jira.controller.Controller;
+import com.example.simple.jira.http.ApiServer;
+import com.example.simple.jira.io.BulkExporter;
+import com.example.simple.jira.io.BulkImporter;
+import com.example.simple.jira.io.ImportFormat;
+import com.example.simple.jira.model.metrics.InstrumentedProjectStore;
+import com.example.simple.jira.model.metrics.InstrumentedTaskStore;
+import com.example.simple.jira.model.metrics.StoreMetrics;
+import com.example.simple.jira.model.persistence.DurableStores;
+import com.example.simple.jira.model.persistence.FsyncPolicy;
 import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.ProjectStore;
 import com.example.simple.jira.model.domain.Project;
 import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
 import com.example.simple.jira.view.View;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Application entry point creating dependencies and launching the controller
@@ -13,6 +37,23 @@ import com.example.simple.jira.view.View;
  * optional initial task title and description. When omitted the application
  * switches to interactive mode and asks the user for required data
  *
+ * The positional arguments may be preceded by options:
+ * {@code --import <file>} seeds the repositories from a CSV or JSONL file
+ * through {@link BulkImporter}, {@code --journal <file>} keeps all data in a
+ * write-ahead log with periodic snapshots loaded on startup (see
+ * {@link DurableStores}) and
+ * {@code --fsync <always|interval|never>} selects its {@link FsyncPolicy}
+ * and {@code --metrics <seconds>} measures every repository call and prints
+ * a latency report to standard error at that interval and on exit.
+ * {@code --script <file>} runs a command script instead of the interactive
+ * menus, {@code -} reads the script from standard input (see
+ * {@link com.example.simple.jira.controller.ScriptRunner}) and
+ * {@code --http <port>} serves the repositories as a REST API (see
+ * {@link ApiServer}) until the process is terminated.
+ * {@code --export <file>} writes all data through {@link BulkExporter}
+ * instead of starting the interactive menus, {@code -} writes JSONL to
+ * standard output and moves all status messages to standard error
+ *
  * @author michalkubina
  * @version 1.0
  */
@@ -23,35 +64,180 @@ public final class SimpleJira {
 
     /**
      * Bootstraps the MVC stack and starts the controller loop, args parser
+     * options (optional, before positional arguments):
+     * {@code --import <file>}, {@code --journal <file>}, {@code --fsync <policy>},
+     * {@code --metrics <seconds>}, {@code --script <file|->}, {@code --http <port>},
+     * {@code --export <file|->}
      * args order:
      * 1. Project name
      * 2. Initial task title (optional)
      * 3. Initial task description (optional)
      *
      * @param args optional command line arguments described in the class documentation
-     * 
+     * @throws IOException when the journal cannot be closed cleanly or the HTTP port cannot be bound
+     * @throws InterruptedException when interrupted while serving HTTP requests
      */
-    public static void main(final String[] args) {
-        final View view = new View();
-        final ProjectRepository projectRepository = new ProjectRepository();
-        final TaskRepository taskRepository = new TaskRepository(projectRepository);
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        Path importFile = null;
+        Path journalFile = null;
+        FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        Duration metricsInterval = null;
+        String script = null;
+        int httpPort = -1;
+        String exportFile = null;
+        int position = 0;
+        while (position < args.length && args[position].startsWith("--")) {
+            if (position + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[position]);
+            }
+            switch (args[position]) {
+                case "--import":
+                    importFile = Path.of(args[position + 1]);
+                    break;
+                case "--journal":
+                    journalFile = Path.of(args[position + 1]);
+                    break;
+                case "--fsync":
+                    fsyncPolicy = FsyncPolicy.valueOf(args[position + 1].toUpperCase(Locale.ROOT));
+                    break;
+                case "--script":
+                    script = args[position + 1];
+                    break;
+                case "--http":
+                    httpPort = Integer.parseInt(args[position + 1]);
+                    break;
+                case "--export":
+                    exportFile = args[position + 1];
+                    break;
+                case "--metrics":
+                    metricsInterval = Duration.ofSeconds(Long.parseLong(args[position + 1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[position]);
+            }
+            position += 2;
+        }
+
+        final View view = "-".equals(exportFile) ? new View(System.err) : new View();
+        final DurableStores durableStores;
+        ProjectStore projectRepository;
+        TaskStore taskRepository;
+        if (journalFile != null) {
+            durableStores = DurableStores.open(journalFile, fsyncPolicy, DurableStores.DEFAULT_SYNC_INTERVAL,
+                    DurableStores.DEFAULT_CHECKPOINT_INTERVAL);
+            projectRepository = durableStores.getProjectStore();
+            taskRepository = durableStores.getTaskStore();
+        } else {
+            durableStores = null;
+            final ProjectRepository projects = new ProjectRepository();
+            projectRepository = projects;
+            taskRepository = new TaskRepository(projects);
+        }
+        final StoreMetrics metrics = metricsInterval == null ? null : new StoreMetrics();
+        final Closeable metricsReporter;
+        if (metrics != null) {
+            projectRepository = new InstrumentedProjectStore(projectRepository, metrics);
+            taskRepository = new InstrumentedTaskStore(taskRepository, metrics);
+            metricsReporter = metrics.startReporting(metricsInterval, System.err::print);
+        } else {
+            metricsReporter = null;
+        }
         final Controller controller = new Controller(view, projectRepository, taskRepository);
 
-        if (args.length > 0) {
-            final String projectName = args[0];
+        if (importFile != null) {
+            final BulkImporter importer = new BulkImporter(projectRepository, taskRepository);
+            view.displayMessage(importer.importFile(importFile) + "\n");
+        }
+
+        if (args.length > position) {
+            final String projectName = args[position];
             final Project project = projectRepository.create(projectName);
             view.displayMessage("Project '" + projectName + "' created from command line arguments\n");
 
-            if (args.length > 1) {
-                final String taskTitle = args[1];
-                final String taskDescription = args.length > 2 ? args[2] : "";
+            if (args.length > position + 1) {
+                final String taskTitle = args[position + 1];
+                final String taskDescription = args.length > position + 2 ? args[position + 2] : "";
                 taskRepository.addTask(project.getProjectId(), taskTitle, taskDescription);
                 view.displayMessage("Initial task '" + taskTitle + "' created from command line arguments\n");
             }
-        } else {
+        } else if (importFile == null && script == null && httpPort < 0 && exportFile == null) {
             view.displayMessage("No command line arguments provided. Use interactive mode to create projects\n");
         }
 
-        controller.run();
+        final CountDownLatch stopped = new CountDownLatch(1);
+        try {
+            if (httpPort >= 0) {
+                serve(view, new InetSocketAddress(httpPort), projectRepository, taskRepository, stopped);
+            } else if (exportFile != null) {
+                export(view, exportFile, projectRepository, taskRepository);
+            } else if (script == null) {
+                controller.run();
+            } else if ("-".equals(script)) {
+                controller.runScript(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            } else {
+                try (Reader reader = Files.newBufferedReader(Path.of(script), StandardCharsets.UTF_8)) {
+                    controller.runScript(reader);
+                }
+            }
+        } finally {
+            if (metrics != null) {
+                metricsReporter.close();
+                System.err.print(metrics.report());
+            }
+            if (durableStores != null) {
+                durableStores.close();
+            }
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Exports all data into a file, or as JSONL to standard output
+     *
+     * @param view view receiving the summary, writing to standard error when exporting to standard output
+     * @param target file to write or {@code -} for standard output
+     * @param projectRepository repository used to access projects
+     * @param taskRepository repository used to access tasks
+     */
+    private static void export(final View view, final String target, final ProjectStore projectRepository,
+                               final TaskStore taskRepository) {
+        final BulkExporter exporter = new BulkExporter(projectRepository, taskRepository);
+        if ("-".equals(target)) {
+            System.out.flush();
+            view.displayMessage(exporter.exportTo(new FileOutputStream(FileDescriptor.out).getChannel(),
+                    ImportFormat.JSONL, false).toString());
+        } else {
+            view.displayMessage(exporter.exportFile(Path.of(target)) + "\n");
+        }
+    }
+
+    /**
+     * Serves HTTP requests until the JVM begins shutting down, the shutdown
+     * hook then waits until the caller has closed the stores
+     *
+     * @param view view receiving the startup message
+     * @param address address to listen on
+     * @param projectRepository repository used to access projects
+     * @param taskRepository repository used to access tasks
+     * @param stopped latch released by the caller once its cleanup is done
+     * @throws IOException when the address cannot be bound
+     * @throws InterruptedException when interrupted while serving
+     */
+    private static void serve(final View view, final InetSocketAddress address, final ProjectStore projectRepository,
+                              final TaskStore taskRepository, final CountDownLatch stopped)
+            throws IOException, InterruptedException {
+        final CountDownLatch stop = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stop.countDown();
+            try {
+                stopped.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, "http-shutdown"));
+        try (ApiServer server = ApiServer.start(address, projectRepository, taskRepository)) {
+            view.displayMessage("Serving HTTP API on port " + server.getPort());
+            stop.await();
+        }
     }
 }
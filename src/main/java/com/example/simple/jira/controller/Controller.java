@@ -5,12 +5,17 @@ import com.example.simple.jira.model.domain.Task;
 import com.example.simple.jira.model.domain.TaskPriority;
 import com.example.simple.jira.model.domain.TaskStatus;
 import com.example.simple.jira.model.exceptions.ModelOperationException;
-import com.example.simple.jira.model.repository.TaskRepository;
-import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskStore;
+import com.example.simple.jira.model.repository.ProjectStore;
 import com.example.simple.jira.view.View;
+import java.io.BufferedReader;
+import java.io.Reader;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Scanner;
 
 /**
@@ -19,10 +24,13 @@ import java.util.Scanner;
  * The {@code Controller} drives the console UI, translates user choices
  * into domain operations and presents any domain errors to the {@code View}.
  * It is intentionally thin — orchestration only — and delegates persistence
- * to repository implementations such as {@link com.example.simple.jira.model.repository.ProjectRepository}
+ * to {@link ProjectStore} and {@link TaskStore} implementations such as
+ * {@link com.example.simple.jira.model.repository.ProjectRepository}
  * and {@link com.example.simple.jira.model.repository.TaskRepository}.
  *
- * Domain-level exceptions thrown by repository or model methods are
+ * Missing projects and tasks are ordinary outcomes of user input and are
+ * handled through the {@code try} lookups and mutations of the stores, other
+ * domain-level exceptions thrown by repository or model methods are
  * represented by {@link ModelOperationException} and are caught and displayed
  * by this class.
  *
@@ -40,12 +48,15 @@ import java.util.Scanner;
  */
 public class Controller {
 
+    /** Size of the buffer used to read scripts */
+    private static final int SCRIPT_BUFFER_SIZE = 64 * 1024;
+
     /** View responsible for user interaction */
     private final View view;
     /** Repository providing access to projects */
-    private final ProjectRepository projectRepository;
+    private final ProjectStore projectRepository;
     /** Repository providing access to tasks */
-    private final TaskRepository taskRepository;
+    private final TaskStore taskRepository;
     /** Scanner reading user input from the console */
     private final Scanner scanner;
 
@@ -56,7 +67,7 @@ public class Controller {
      * @param projectRepository repository used to access projects
      * @param taskRepository repository used to access tasks
      */
-    public Controller(final View view, final ProjectRepository projectRepository, final TaskRepository taskRepository) {
+    public Controller(final View view, final ProjectStore projectRepository, final TaskStore taskRepository) {
         this.view = view;
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
@@ -78,6 +89,22 @@ public class Controller {
         }
     }
 
+    /**
+     * Runs a command script without menus or prompts
+     *
+     * See {@link ScriptRunner} for the command grammar. One result line is
+     * printed per command
+     *
+     * @param script source of command lines, read until its end or an {@code exit} command
+     * @return number of commands that failed
+     */
+    public int runScript(final Reader script) {
+        final BufferedReader reader = script instanceof BufferedReader buffered
+                ? buffered
+                : new BufferedReader(script, SCRIPT_BUFFER_SIZE);
+        return new ScriptRunner(view, projectRepository, taskRepository).run(reader);
+    }
+
     /**
      * Presents available projects, allowing the user to select or create one
      *
@@ -105,14 +132,18 @@ public class Controller {
                 case "0":
                     return null;
                 default:
+                    final int projectId;
                     try {
-                        final int projectId = parseProjectId(input);
-                        return projectRepository.findById(projectId);
+                        projectId = parseProjectId(input);
                     } catch (NumberFormatException ex) {
                         view.displayError("Please enter a valid option or project id");
-                    } catch (ModelOperationException ex) {
-                        view.displayError(ex.getMessage());
+                        break;
+                    }
+                    final Optional<Project> selected = projectRepository.tryFindById(projectId);
+                    if (selected.isPresent()) {
+                        return selected.get();
                     }
+                    view.displayError(projectNotFound(projectId));
             }
         }
     }
@@ -207,15 +238,11 @@ public class Controller {
      * @return updated project instance
      */
     private Project changeTaskStatus(final Project project) {
-        try {
-            taskRepository.requireTasks(project.getProjectId());
-            final int taskId = readInt("Enter task id:");
-            final TaskStatus status = readStatus();
-            taskRepository.updateTaskStatus(project.getProjectId(), taskId, status);
-            view.displayMessage("Task status updated");
-        } catch (ModelOperationException ex) {
-            view.displayError(ex.getMessage());
+        if (!hasTasks(project)) {
+            return project;
         }
+        final int taskId = readInt("Enter task id:");
+        apply(project, TaskCommand.status(taskId, readStatus()), "Task status updated");
         return project;
     }
 
@@ -226,15 +253,11 @@ public class Controller {
      * @return updated project instance
      */
     private Project changeTaskPriority(final Project project) {
-        try {
-            taskRepository.requireTasks(project.getProjectId());
-            final int taskId = readInt("Enter task id:");
-            final TaskPriority priority = readPriority();
-            taskRepository.updateTaskPriority(project.getProjectId(), taskId, priority);
-            view.displayMessage("Task priority updated");
-        } catch (ModelOperationException ex) {
-            view.displayError(ex.getMessage());
+        if (!hasTasks(project)) {
+            return project;
         }
+        final int taskId = readInt("Enter task id:");
+        apply(project, TaskCommand.priority(taskId, readPriority()), "Task priority updated");
         return project;
     }
 
@@ -245,15 +268,11 @@ public class Controller {
      * @return updated project instance
      */
     private Project renameTask(final Project project) {
-        try {
-            taskRepository.requireTasks(project.getProjectId());
-            final int taskId = readInt("Enter task id to rename:");
-            final String newTitle = readNonEmptyLine("Enter new task title:");
-            taskRepository.renameTask(project.getProjectId(), taskId, newTitle);
-            view.displayMessage("Task renamed");
-        } catch (ModelOperationException ex) {
-            view.displayError(ex.getMessage());
+        if (!hasTasks(project)) {
+            return project;
         }
+        final int taskId = readInt("Enter task id to rename:");
+        apply(project, TaskCommand.rename(taskId, readNonEmptyLine("Enter new task title:")), "Task renamed");
         return project;
     }
 
@@ -265,15 +284,12 @@ public class Controller {
      * @return updated project instance
      */
     private Project changeTaskDescription(final Project project) {
-        try {
-            taskRepository.requireTasks(project.getProjectId());
-            final int taskId = readInt("Enter task id to change description:");
-            final String newDescription = readLine("Enter new task description:");
-            taskRepository.updateTaskDescription(project.getProjectId(), taskId, newDescription);
-            view.displayMessage("Task description updated");
-        } catch (ModelOperationException ex) {
-            view.displayError(ex.getMessage());
+        if (!hasTasks(project)) {
+            return project;
         }
+        final int taskId = readInt("Enter task id to change description:");
+        apply(project, TaskCommand.describe(taskId, readLine("Enter new task description:")),
+                "Task description updated");
         return project;
     }
 
@@ -284,16 +300,47 @@ public class Controller {
      * @return updated project instance
      */
     private Project deleteTask(final Project project) {
+        if (!hasTasks(project)) {
+            return project;
+        }
+        final int taskId = readInt("Enter task id to delete:");
+        apply(project, TaskCommand.delete(taskId), "Task removed");
+        return project;
+    }
+    /**
+     * Verifies that the project has tasks to select from, reporting an error otherwise
+     *
+     * @param project currently selected project
+     * @return true when the project has at least one task
+     */
+    private boolean hasTasks(final Project project) {
+        if (taskRepository.findPage(project.getProjectId(), Page.FIRST, 1).getItems().isEmpty()) {
+            view.displayError("No tasks found in project " + project.getProjectId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a task command, reporting a missing task as an error
+     *
+     * @param project currently selected project
+     * @param command command to apply
+     * @param success message displayed when the command was applied
+     */
+    private void apply(final Project project, final TaskCommand command, final String success) {
         try {
-            taskRepository.requireTasks(project.getProjectId());
-            final int taskId = readInt("Enter task id to delete:");
-            taskRepository.deleteTask(project.getProjectId(), taskId);
-            view.displayMessage("Task removed");
+            if (taskRepository.tryApply(project.getProjectId(), command).isPresent()) {
+                view.displayMessage(success);
+            } else {
+                view.displayError("Task with id " + command.getTaskId() + " not found in project "
+                        + project.getProjectId());
+            }
         } catch (ModelOperationException ex) {
             view.displayError(ex.getMessage());
         }
-        return project;
     }
+
     /**
      * Reads a non-empty line from the input stream
      *
@@ -392,8 +439,13 @@ public class Controller {
     private void renameProjectFromList() {
         final int projectId = readInt("Enter project id to rename:");
         try {
-            final Project renamed = projectRepository.rename(projectId, readNonEmptyLine("Enter new project name:"));
-            view.displayMessage("Project renamed to '" + renamed.getProjectName() + "'.");
+            final Optional<Project> renamed = projectRepository.tryRename(projectId,
+                    readNonEmptyLine("Enter new project name:"));
+            if (renamed.isPresent()) {
+                view.displayMessage("Project renamed to '" + renamed.get().getProjectName() + "'.");
+            } else {
+                view.displayError(projectNotFound(projectId));
+            }
         } catch (ModelOperationException ex) {
             view.displayError(ex.getMessage());
         }
@@ -405,14 +457,21 @@ public class Controller {
     private void deleteProjectFromList() {
         final int projectId = readInt("Enter project id to delete:");
         try {
-            projectRepository.delete(projectId);
-            taskRepository.deleteAllForProject(projectId);
-            view.displayMessage("Project deleted");
+            if (projectRepository.tryDelete(projectId)) {
+                taskRepository.deleteAllForProject(projectId);
+                view.displayMessage("Project deleted");
+            } else {
+                view.displayError(projectNotFound(projectId));
+            }
         } catch (ModelOperationException ex) {
             view.displayError(ex.getMessage());
         }
     }
 
+    private static String projectNotFound(final int projectId) {
+        return "Project with id " + projectId + " not found";
+    }
+
     /**
      * Parses a project identifier from user input allowing plain numbers or #prefixed values
      *
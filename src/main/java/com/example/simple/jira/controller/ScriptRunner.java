@@ -0,0 +1,257 @@
+package com.example.simple.jira.controller;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskStore;
+import com.example.simple.jira.view.AppView;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless executor of command scripts
+ *
+ * Every non-empty line not starting with {@code #} is one command, tokenized
+ * by {@link ScriptTokenizer}. Identifiers are plain numbers, statuses and
+ * priorities are enum names in any case and text arguments are quoted when
+ * they contain whitespace:
+ * <pre>
+ * project "name"                      ok &lt;projectId&gt;
+ * rename-project &lt;project&gt; "name"     ok
+ * delete-project &lt;project&gt;            ok
+ * projects                            ok &lt;count&gt; {&lt;projectId&gt; "name"}
+ * add &lt;project&gt; "title" ["desc"]       ok &lt;taskId&gt;
+ * status &lt;project&gt; &lt;task&gt; &lt;STATUS&gt;     ok
+ * priority &lt;project&gt; &lt;task&gt; &lt;PRIORITY&gt; ok
+ * rename &lt;project&gt; &lt;task&gt; "title"      ok
+ * describe &lt;project&gt; &lt;task&gt; "desc"     ok
+ * delete &lt;project&gt; &lt;task&gt;              ok
+ * tasks &lt;project&gt;                     ok &lt;count&gt; {&lt;taskId&gt; &lt;STATUS&gt; &lt;PRIORITY&gt; "title" "desc"}
+ * exit
+ * </pre>
+ * Each command produces exactly one result line, failures produce
+ * {@code error <line number> <message>} and execution continues. No menus are
+ * rendered and results are buffered, output is flushed only when no further
+ * input is immediately available, so piped scripts run at the speed of the
+ * stores while interactive automation still sees every answer
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class ScriptRunner {
+
+    /** View receiving the result lines */
+    private final AppView view;
+    /** Repository providing access to projects */
+    private final ProjectStore projectRepository;
+    /** Repository providing access to tasks */
+    private final TaskStore taskRepository;
+    /** Tokenizer reused for every line */
+    private final ScriptTokenizer tokenizer = new ScriptTokenizer();
+    /** Builder reused for every result line */
+    private final StringBuilder result = new StringBuilder(128);
+
+    /**
+     * Creates a script runner
+     *
+     * @param view view receiving the result lines
+     * @param projectRepository repository used to access projects
+     * @param taskRepository repository used to access tasks
+     */
+    public ScriptRunner(final AppView view, final ProjectStore projectRepository, final TaskStore taskRepository) {
+        this.view = view;
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Executes commands until the end of the input or an {@code exit} command
+     *
+     * @param script source of command lines
+     * @return number of commands that failed
+     * @throws UncheckedIOException when the script cannot be read
+     */
+    public int run(final BufferedReader script) {
+        int failures = 0;
+        int lineNumber = 0;
+        try {
+            String line;
+            while ((line = script.readLine()) != null) {
+                lineNumber++;
+                final List<String> tokens = tokenizeOrReport(line, lineNumber);
+                if (tokens == null) {
+                    failures++;
+                } else if (!tokens.isEmpty() && !tokens.get(0).startsWith("#")) {
+                    if ("exit".equals(tokens.get(0))) {
+                        break;
+                    }
+                    result.setLength(0);
+                    try {
+                        execute(tokens);
+                    } catch (ModelOperationException | IllegalArgumentException ex) {
+                        failures++;
+                        result.setLength(0);
+                        result.append("error ").append(lineNumber).append(' ').append(ex.getMessage());
+                    }
+                    view.displayResult(result);
+                }
+                if (!script.ready()) {
+                    view.flush();
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read script", ex);
+        } finally {
+            view.flush();
+        }
+        return failures;
+    }
+
+    private List<String> tokenizeOrReport(final String line, final int lineNumber) {
+        try {
+            return tokenizer.tokenize(line);
+        } catch (IllegalArgumentException ex) {
+            result.setLength(0);
+            view.displayResult(result.append("error ").append(lineNumber).append(' ').append(ex.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Executes one tokenized command and writes its result into {@link #result}
+     *
+     * @param tokens command name followed by its arguments
+     * @throws ModelOperationException when the stores reject the command
+     * @throws IllegalArgumentException when the command is malformed
+     */
+    private void execute(final List<String> tokens) {
+        final String command = tokens.get(0);
+        switch (command) {
+            case "project":
+                arguments(tokens, 1, 1, "project \"name\"");
+                result.append("ok ").append(projectRepository.create(tokens.get(1)).getProjectId());
+                break;
+            case "rename-project":
+                arguments(tokens, 2, 2, "rename-project <project> \"name\"");
+                projectRepository.rename(number(tokens.get(1)), tokens.get(2));
+                result.append("ok");
+                break;
+            case "delete-project":
+                arguments(tokens, 1, 1, "delete-project <project>");
+                final int deletedProjectId = number(tokens.get(1));
+                projectRepository.delete(deletedProjectId);
+                taskRepository.deleteAllForProject(deletedProjectId);
+                result.append("ok");
+                break;
+            case "projects":
+                arguments(tokens, 0, 0, "projects");
+                final List<Project> projects = projectRepository.findAll();
+                result.append("ok ").append(projects.size());
+                for (Project project : projects) {
+                    result.append(' ').append(project.getProjectId()).append(' ');
+                    ScriptTokenizer.appendQuoted(result, project.getProjectName());
+                }
+                break;
+            case "add":
+                arguments(tokens, 2, 3, "add <project> \"title\" [\"description\"]");
+                final String description = tokens.size() > 3 ? tokens.get(3) : "";
+                result.append("ok ").append(taskRepository.addTask(number(tokens.get(1)), tokens.get(2), description)
+                        .getTaskId());
+                break;
+            case "status":
+                arguments(tokens, 3, 3, "status <project> <task> <STATUS>");
+                taskRepository.updateTaskStatus(number(tokens.get(1)), number(tokens.get(2)),
+                        constant(TaskStatus.class, tokens.get(3)));
+                result.append("ok");
+                break;
+            case "priority":
+                arguments(tokens, 3, 3, "priority <project> <task> <PRIORITY>");
+                taskRepository.updateTaskPriority(number(tokens.get(1)), number(tokens.get(2)),
+                        constant(TaskPriority.class, tokens.get(3)));
+                result.append("ok");
+                break;
+            case "rename":
+                arguments(tokens, 3, 3, "rename <project> <task> \"title\"");
+                taskRepository.renameTask(number(tokens.get(1)), number(tokens.get(2)), tokens.get(3));
+                result.append("ok");
+                break;
+            case "describe":
+                arguments(tokens, 3, 3, "describe <project> <task> \"description\"");
+                taskRepository.updateTaskDescription(number(tokens.get(1)), number(tokens.get(2)), tokens.get(3));
+                result.append("ok");
+                break;
+            case "delete":
+                arguments(tokens, 2, 2, "delete <project> <task>");
+                taskRepository.deleteTask(number(tokens.get(1)), number(tokens.get(2)));
+                result.append("ok");
+                break;
+            case "tasks":
+                arguments(tokens, 1, 1, "tasks <project>");
+                final List<Task> tasks = taskRepository.findByProject(number(tokens.get(1)));
+                result.append("ok ").append(tasks.size());
+                for (Task task : tasks) {
+                    result.append(' ').append(task.getTaskId()).append(' ').append(task.getStatus().name())
+                            .append(' ').append(task.getPriority().name()).append(' ');
+                    ScriptTokenizer.appendQuoted(result, task.getTitle()).append(' ');
+                    ScriptTokenizer.appendQuoted(result, task.getDescription());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command);
+        }
+    }
+
+    /**
+     * Verifies the number of arguments of a command
+     *
+     * @param tokens command name followed by its arguments
+     * @param min minimum number of arguments
+     * @param max maximum number of arguments
+     * @param usage usage shown when the count does not match
+     * @throws IllegalArgumentException when the count is out of range
+     */
+    private static void arguments(final List<String> tokens, final int min, final int max, final String usage) {
+        final int count = tokens.size() - 1;
+        if (count < min || count > max) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    /**
+     * Parses an enum argument ignoring case
+     *
+     * @param type enum class
+     * @param token argument text
+     * @param <E> enum type
+     * @return matching constant
+     * @throws IllegalArgumentException when no constant matches
+     */
+    private static <E extends Enum<E>> E constant(final Class<E> type, final String token) {
+        try {
+            return Enum.valueOf(type, token.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " " + token, ex);
+        }
+    }
+
+    /**
+     * Parses an identifier argument
+     *
+     * @param token argument text
+     * @return parsed identifier
+     * @throws IllegalArgumentException when the argument is not a number
+     */
+    private static int number(final String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a number: " + token, ex);
+        }
+    }
+}
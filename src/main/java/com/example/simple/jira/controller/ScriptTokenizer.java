@@ -0,0 +1,103 @@
+package com.example.simple.jira.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass tokenizer for lines of a command script
+ *
+ * Tokens are separated by whitespace. A token starting with a double quote
+ * extends to the closing quote and may contain whitespace and the escapes
+ * {@code \"}, {@code \\}, {@code \n} and {@code \t}. The token list and the
+ * scratch buffer are reused between lines, so instances are not thread safe
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class ScriptTokenizer {
+
+    /** Tokens of the last line */
+    private final List<String> tokens = new ArrayList<>();
+    /** Scratch buffer for quoted tokens */
+    private final StringBuilder quoted = new StringBuilder();
+
+    /**
+     * Splits a line into tokens
+     *
+     * @param line script line
+     * @return tokens of the line, valid until the next call
+     * @throws IllegalArgumentException when a quoted token is not terminated
+     */
+    List<String> tokenize(final String line) {
+        tokens.clear();
+        final int length = line.length();
+        int index = 0;
+        while (true) {
+            while (index < length && Character.isWhitespace(line.charAt(index))) {
+                index++;
+            }
+            if (index == length) {
+                return tokens;
+            }
+            if (line.charAt(index) != '"') {
+                final int start = index;
+                while (index < length && !Character.isWhitespace(line.charAt(index))) {
+                    index++;
+                }
+                tokens.add(line.substring(start, index));
+                continue;
+            }
+            quoted.setLength(0);
+            index++;
+            while (true) {
+                if (index == length) {
+                    throw new IllegalArgumentException("Unterminated quoted string");
+                }
+                final char c = line.charAt(index++);
+                if (c == '"') {
+                    break;
+                }
+                if (c != '\\' || index == length) {
+                    quoted.append(c);
+                    continue;
+                }
+                final char escaped = line.charAt(index++);
+                quoted.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped);
+            }
+            tokens.add(quoted.toString());
+        }
+    }
+
+    /**
+     * Appends a value as a quoted token readable by {@link #tokenize(String)}
+     *
+     * @param target builder receiving the token
+     * @param value value to quote, {@code null} is written as an empty string
+     * @return the builder
+     */
+    static StringBuilder appendQuoted(final StringBuilder target, final String value) {
+        target.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        target.append("\\\"");
+                        break;
+                    case '\\':
+                        target.append("\\\\");
+                        break;
+                    case '\n':
+                        target.append("\\n");
+                        break;
+                    case '\t':
+                        target.append("\\t");
+                        break;
+                    default:
+                        target.append(c);
+                }
+            }
+        }
+        return target.append('"');
+    }
+}
@@ -1,5 +1,5 @@
 /**
  * Controllers and classes responsible for application flow (UI -> model).
- * Contains the main controller that drives the console interaction loop.
+ * Contains the main controller that drives the console interaction loop and the headless script runner.
  */
 package com.example.simple.jira.controller;
@@ -0,0 +1,431 @@
+package com.example.simple.jira.http;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskCommandResult;
+import com.example.simple.jira.model.repository.TaskStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Routes REST requests to the stores and encodes the answers as JSON
+ *
+ * Every request is handled synchronously on its own virtual thread, so store
+ * calls simply block. Projects and tasks are written as
+ * {@code {"id":1,"name":"...","version":1}} and
+ * {@code {"id":1,"projectId":1,"title":"...","description":"...","status":"TODO","priority":"LOW","version":1}},
+ * lists as {@code {"items":[...]}} with {@code nextCursor} and {@code hasMore}
+ * for paged listings and failures as {@code {"error":"..."}}. An
+ * {@code If-Match} header carrying a version turns updates and deletions
+ * into compare-and-set operations answered with 412 on a version conflict
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class ApiHandler implements HttpHandler {
+
+    /** Largest accepted request body in bytes */
+    static final int MAX_BODY_SIZE = 1024 * 1024;
+    /** Page size used when the request has no limit */
+    static final int DEFAULT_PAGE_SIZE = 100;
+    /** Largest accepted page size */
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    /** Initial size of response buffers */
+    private static final int RESPONSE_CAPACITY = 512;
+    /** Content type of every response */
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    /** Repository providing access to projects */
+    private final ProjectStore projectRepository;
+    /** Repository providing access to tasks */
+    private final TaskStore taskRepository;
+
+    /**
+     * Creates a handler
+     *
+     * @param projectRepository repository used to access projects
+     * @param taskRepository repository used to access tasks
+     */
+    ApiHandler(final ProjectStore projectRepository, final TaskStore taskRepository) {
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    @Override
+    public void handle(final HttpExchange exchange) throws IOException {
+        final JsonWriter json = new JsonWriter(RESPONSE_CAPACITY);
+        int status;
+        try {
+            status = route(exchange, json);
+        } catch (RequestException ex) {
+            status = ex.status;
+            error(json, ex.getMessage());
+        } catch (VersionConflictException ex) {
+            status = 412;
+            error(json, ex.getMessage());
+        } catch (ModelOperationException ex) {
+            status = 404;
+            error(json, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            status = 400;
+            error(json, ex.getMessage());
+        } catch (RuntimeException ex) {
+            status = 500;
+            error(json, "Internal error");
+        }
+        try (exchange) {
+            if (json.size() == 0) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(status, json.size());
+                try (OutputStream body = exchange.getResponseBody()) {
+                    json.writeTo(body);
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatches a request by path and method
+     *
+     * @param exchange request being handled
+     * @param json response body, left empty for responses without content
+     * @return HTTP status code
+     * @throws IOException when the request body cannot be read
+     */
+    private int route(final HttpExchange exchange, final JsonWriter json) throws IOException {
+        final String[] segments = segments(exchange.getRequestURI().getRawPath());
+        if (segments.length == 0 || segments.length > 4 || !"projects".equals(segments[0])
+                || segments.length >= 3 && !"tasks".equals(segments[2])) {
+            throw new RequestException(404, "No such resource " + exchange.getRequestURI().getRawPath());
+        }
+        final String method = exchange.getRequestMethod();
+        final Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        final long expectedVersion = expectedVersion(exchange);
+        switch (segments.length) {
+            case 1:
+                if ("GET".equals(method)) {
+                    final Page<Project> page = projectRepository.findPage(intParameter(query, "after", Page.FIRST),
+                            limit(query));
+                    json.beginObject().name("items").beginArray();
+                    for (Project project : page.getItems()) {
+                        project(json, project);
+                    }
+                    json.endArray();
+                    cursor(json, page).endObject();
+                    return 200;
+                }
+                if ("POST".equals(method)) {
+                    project(json, projectRepository.create(required(body(exchange), "name")));
+                    return 201;
+                }
+                break;
+            case 2:
+                final int projectId = id(segments[1]);
+                if ("GET".equals(method)) {
+                    project(json, projectRepository.findById(projectId));
+                    return 200;
+                }
+                if ("PUT".equals(method) || "PATCH".equals(method)) {
+                    final String name = required(body(exchange), "name");
+                    project(json, projectRepository.rename(projectId, expectedVersion, name));
+                    return 200;
+                }
+                if ("DELETE".equals(method)) {
+                    projectRepository.delete(projectId, expectedVersion);
+                    taskRepository.deleteAllForProject(projectId);
+                    return 204;
+                }
+                break;
+            case 3:
+                final int tasksProjectId = id(segments[1]);
+                if ("GET".equals(method)) {
+                    listTasks(json, tasksProjectId, query);
+                    return 200;
+                }
+                if ("POST".equals(method)) {
+                    task(json, addTask(tasksProjectId, body(exchange)));
+                    return 201;
+                }
+                break;
+            default:
+                final int taskProjectId = id(segments[1]);
+                final int taskId = id(segments[3]);
+                if ("GET".equals(method)) {
+                    task(json, taskRepository.findTask(taskProjectId, taskId));
+                    return 200;
+                }
+                if ("PATCH".equals(method) || "PUT".equals(method)) {
+                    task(json, updateTask(taskProjectId, taskId, expectedVersion, body(exchange)));
+                    return 200;
+                }
+                if ("DELETE".equals(method)) {
+                    taskRepository.deleteTask(taskProjectId, taskId, expectedVersion);
+                    return 204;
+                }
+                break;
+        }
+        throw new RequestException(405, "Method " + method + " not allowed");
+    }
+
+    /**
+     * Writes the tasks of a project selected by the query parameters
+     * {@code q} (full-text search), {@code status}, {@code priority} or a page
+     * given by {@code after} and {@code limit}
+     */
+    private void listTasks(final JsonWriter json, final int projectId, final Map<String, String> query) {
+        final String text = query.get("q");
+        final String status = query.get("status");
+        final String priority = query.get("priority");
+        final Page<Task> page;
+        final List<Task> tasks;
+        if (text != null) {
+            page = null;
+            tasks = taskRepository.search(projectId, text, limit(query));
+        } else if (status != null) {
+            page = null;
+            tasks = taskRepository.findByProjectAndStatus(projectId, constant(TaskStatus.class, status));
+        } else if (priority != null) {
+            page = null;
+            tasks = taskRepository.findByProjectAndPriority(projectId, constant(TaskPriority.class, priority));
+        } else {
+            page = taskRepository.findPage(projectId, intParameter(query, "after", Page.FIRST), limit(query));
+            tasks = page.getItems();
+        }
+        json.beginObject().name("items").beginArray();
+        for (Task task : tasks) {
+            task(json, task);
+        }
+        json.endArray();
+        if (page != null) {
+            cursor(json, page);
+        }
+        json.endObject();
+    }
+
+    private Task addTask(final int projectId, final Map<String, String> body) {
+        final String description = body.getOrDefault("description", "");
+        final String status = body.get("status");
+        final String priority = body.get("priority");
+        if (status == null && priority == null) {
+            return taskRepository.addTask(projectId, required(body, "title"), description == null ? "" : description);
+        }
+        final TaskCommand command = TaskCommand.add(required(body, "title"), description == null ? "" : description,
+                status == null ? TaskStatus.TODO : constant(TaskStatus.class, status),
+                priority == null ? TaskPriority.NOT_SET : constant(TaskPriority.class, priority));
+        return taskRepository.applyBatch(projectId, List.of(command)).get(0).getTask();
+    }
+
+    /**
+     * Applies all fields present in the body in one atomic batch, the first
+     * command checks the expected version
+     */
+    private Task updateTask(final int projectId, final int taskId, final long expectedVersion,
+                            final Map<String, String> body) {
+        final List<TaskCommand> commands = new ArrayList<>(4);
+        if (body.containsKey("title")) {
+            commands.add(TaskCommand.rename(taskId, required(body, "title")));
+        }
+        if (body.containsKey("description")) {
+            commands.add(TaskCommand.describe(taskId, required(body, "description")));
+        }
+        if (body.containsKey("status")) {
+            commands.add(TaskCommand.status(taskId, constant(TaskStatus.class, required(body, "status"))));
+        }
+        if (body.containsKey("priority")) {
+            commands.add(TaskCommand.priority(taskId, constant(TaskPriority.class, required(body, "priority"))));
+        }
+        if (commands.isEmpty()) {
+            final Task task = taskRepository.findTask(projectId, taskId);
+            if (expectedVersion != VersionConflictException.ANY_VERSION && task.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Task with id " + taskId + " in project " + projectId
+                        + " is at version " + task.getVersion() + ", expected " + expectedVersion,
+                        expectedVersion, task.getVersion());
+            }
+            return task;
+        }
+        commands.set(0, commands.get(0).expectingVersion(expectedVersion));
+        final List<TaskCommandResult> results = taskRepository.applyBatch(projectId, commands);
+        return results.get(results.size() - 1).getTask();
+    }
+
+    private static void project(final JsonWriter json, final Project project) {
+        json.beginObject()
+                .name("id").value(project.getProjectId())
+                .name("name").value(project.getProjectName())
+                .name("version").value(project.getVersion())
+                .endObject();
+    }
+
+    private static void task(final JsonWriter json, final Task task) {
+        json.beginObject()
+                .name("id").value(task.getTaskId())
+                .name("projectId").value(task.getProjectId())
+                .name("title").value(task.getTitle())
+                .name("description").value(task.getDescription())
+                .name("status").value(task.getStatus().name())
+                .name("priority").value(task.getPriority().name())
+                .name("version").value(task.getVersion())
+                .endObject();
+    }
+
+    private static JsonWriter cursor(final JsonWriter json, final Page<?> page) {
+        return json.name("nextCursor").value(page.getNextCursor()).name("hasMore").value(page.hasMore());
+    }
+
+    private static void error(final JsonWriter json, final String message) {
+        json.beginObject().name("error").value(message).endObject();
+    }
+
+    /**
+     * Reads and parses the request body
+     *
+     * @param exchange request being handled
+     * @return members of the JSON object in the body
+     * @throws IOException when the body cannot be read
+     * @throws RequestException when the body is larger than {@link #MAX_BODY_SIZE}
+     */
+    private static Map<String, String> body(final HttpExchange exchange) throws IOException {
+        final byte[] bytes;
+        try (InputStream input = exchange.getRequestBody()) {
+            bytes = input.readNBytes(MAX_BODY_SIZE + 1);
+        }
+        if (bytes.length > MAX_BODY_SIZE) {
+            throw new RequestException(413, "Request body exceeds " + MAX_BODY_SIZE + " bytes");
+        }
+        return JsonObjectParser.parse(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the version expected by the {@code If-Match} header
+     *
+     * @param exchange request being handled
+     * @return expected version or {@link VersionConflictException#ANY_VERSION} without the header
+     * @throws IllegalArgumentException when the header is not a positive number
+     */
+    private static long expectedVersion(final HttpExchange exchange) {
+        final String header = exchange.getRequestHeaders().getFirst("If-Match");
+        if (header == null || "*".equals(header.trim())) {
+            return VersionConflictException.ANY_VERSION;
+        }
+        String value = header.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            final long version = Long.parseLong(value);
+            if (version > 0) {
+                return version;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        throw new IllegalArgumentException("If-Match must be a version number: " + header);
+    }
+
+    private static String required(final Map<String, String> body, final String name) {
+        final String value = body.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field " + name);
+        }
+        return value;
+    }
+
+    private static String[] segments(final String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return start == end ? new String[0] : path.substring(start, end).split("/");
+    }
+
+    private static Map<String, String> query(final String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Map.of();
+        }
+        final Map<String, String> parameters = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            final int equals = pair.indexOf('=');
+            final String name = equals < 0 ? pair : pair.substring(0, equals);
+            final String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static int limit(final Map<String, String> query) {
+        final int limit = intParameter(query, "limit", DEFAULT_PAGE_SIZE);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+        return limit;
+    }
+
+    private static int intParameter(final Map<String, String> query, final String name, final int defaultValue) {
+        final String value = query.get(name);
+        return value == null ? defaultValue : id(value);
+    }
+
+    /**
+     * Parses a numeric path segment or parameter
+     *
+     * @param token text to parse
+     * @return parsed number
+     * @throws IllegalArgumentException when the text is not a number
+     */
+    private static int id(final String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a number: " + token, ex);
+        }
+    }
+
+    private static <E extends Enum<E>> E constant(final Class<E> type, final String token) {
+        try {
+            return Enum.valueOf(type, token.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " " + token, ex);
+        }
+    }
+
+    /**
+     * Failure answered with a specific status code
+     */
+    private static final class RequestException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /** HTTP status code of the response */
+        private final int status;
+
+        RequestException(final int status, final String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+}
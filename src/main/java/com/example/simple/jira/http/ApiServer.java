@@ -0,0 +1,101 @@
+package com.example.simple.jira.http;
+
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskStore;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded REST server exposing the project and task stores as JSON
+ *
+ * Runs on the JDK HTTP server with one virtual thread per request, so slow
+ * clients or blocking store calls (journal fsync, locks) park cheaply instead
+ * of exhausting a worker pool. Resources:
+ * <pre>
+ * GET    /projects?after=&amp;limit=               paged projects
+ * POST   /projects                             {"name"} 201
+ * GET    /projects/{id}
+ * PUT    /projects/{id}                        {"name"}
+ * DELETE /projects/{id}                        204, removes its tasks too
+ * GET    /projects/{id}/tasks?after=&amp;limit=     paged tasks, or ?status= ?priority= ?q=&amp;limit=
+ * POST   /projects/{id}/tasks                  {"title", "description", "status", "priority"} 201
+ * GET    /projects/{id}/tasks/{taskId}
+ * PATCH  /projects/{id}/tasks/{taskId}         any of the task fields, applied atomically
+ * DELETE /projects/{id}/tasks/{taskId}         204
+ * </pre>
+ * Unknown ids answer 404, malformed requests 400. {@code PUT}, {@code PATCH}
+ * and {@code DELETE} accept {@code If-Match: <version>} and answer 412 when
+ * the entity changed since that version was read
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class ApiServer implements Closeable {
+
+    /** Port used when none is configured */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * JDK server property enabling TCP_NODELAY, the server flushes headers and
+     * body separately and Nagle's algorithm would otherwise hold the body back
+     * for a delayed ACK (about 40 ms per keep-alive request). It is read once,
+     * so it has to be set before the first server is created
+     */
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    /** Number of pending connections the listening socket queues */
+    private static final int BACKLOG = 1024;
+
+    /** Underlying HTTP server */
+    private final HttpServer server;
+    /** Executor running every exchange on a fresh virtual thread */
+    private final ExecutorService executor;
+
+    private ApiServer(final HttpServer server, final ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Binds and starts a server
+     *
+     * @param address address to listen on, port 0 picks a free port
+     * @param projectRepository repository used to access projects
+     * @param taskRepository repository used to access tasks
+     * @return running server
+     * @throws IOException when the address cannot be bound
+     */
+    public static ApiServer start(final InetSocketAddress address, final ProjectStore projectRepository,
+                                  final TaskStore taskRepository) throws IOException {
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        final HttpServer server = HttpServer.create(address, BACKLOG);
+        final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.createContext("/", new ApiHandler(projectRepository, taskRepository));
+        server.setExecutor(executor);
+        server.start();
+        return new ApiServer(server, executor);
+    }
+
+    /**
+     * Returns the port the server listens on
+     *
+     * @return bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits for running exchanges to finish
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
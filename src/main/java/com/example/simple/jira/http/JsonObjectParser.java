@@ -0,0 +1,163 @@
+package com.example.simple.jira.http;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parser of flat JSON objects used as request bodies
+ *
+ * Member values may be strings, numbers, booleans or null and are returned
+ * as their text, nested objects and arrays are rejected
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class JsonObjectParser {
+
+    /** Text being parsed */
+    private final String text;
+    /** Index of the next character */
+    private int position;
+
+    private JsonObjectParser(final String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a flat JSON object
+     *
+     * @param text JSON text
+     * @return member values by name, {@code null} for JSON null
+     * @throws IllegalArgumentException when the text is not a flat JSON object
+     */
+    static Map<String, String> parse(final String text) {
+        final JsonObjectParser parser = new JsonObjectParser(text);
+        parser.skipWhitespace();
+        final Map<String, String> members = parser.object();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("Unexpected content after the object");
+        }
+        return members;
+    }
+
+    private Map<String, String> object() {
+        final Map<String, String> members = new HashMap<>();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            final String name = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            members.put(name, value());
+            skipWhitespace();
+            final char next = next();
+            if (next == '}') {
+                return members;
+            }
+            if (next != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private String value() {
+        final char first = peek();
+        if (first == '"') {
+            return string();
+        }
+        if (first == '{' || first == '[') {
+            throw error("Nested values are not supported");
+        }
+        final int start = position;
+        while (position < text.length() && ",} \t\r\n".indexOf(text.charAt(position)) < 0) {
+            position++;
+        }
+        final String literal = text.substring(start, position);
+        if (literal.isEmpty()) {
+            throw error("Missing value");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String string() {
+        expect('"');
+        final StringBuilder value = new StringBuilder();
+        while (true) {
+            final char c = next();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            final char escaped = next();
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text, position, position + 4, 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void expect(final char expected) {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        return text.charAt(position);
+    }
+
+    private char next() {
+        final char c = peek();
+        position++;
+        return c;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at offset " + position);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.simple.jira.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON encoder writing UTF-8 straight into a growable byte array
+ *
+ * Separators are tracked with one bit per nesting level, numbers are written
+ * digit by digit and strings are escaped and encoded character by character,
+ * so a response costs a single buffer and no intermediate strings. Nesting
+ * is limited to 63 levels. Instances are not thread safe
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class JsonWriter {
+
+    /** Hexadecimal digits used by unicode escapes */
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /** Encoded output */
+    private byte[] buffer;
+    /** Number of used bytes */
+    private int size;
+    /** Current nesting level */
+    private int depth;
+    /** Bit per nesting level set once the level holds a value */
+    private long hasValue;
+    /** Whether a member name was just written */
+    private boolean afterName;
+
+    /**
+     * Creates a writer
+     *
+     * @param capacity initial buffer size in bytes
+     */
+    JsonWriter(final int capacity) {
+        this.buffer = new byte[Math.max(16, capacity)];
+    }
+
+    JsonWriter beginObject() {
+        separator();
+        put((byte) '{');
+        open();
+        return this;
+    }
+
+    JsonWriter endObject() {
+        depth--;
+        put((byte) '}');
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        put((byte) '[');
+        open();
+        return this;
+    }
+
+    JsonWriter endArray() {
+        depth--;
+        put((byte) ']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next object member
+     *
+     * @param name member name
+     * @return this writer
+     */
+    JsonWriter name(final String name) {
+        separator();
+        string(name);
+        put((byte) ':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value
+     *
+     * @param value string, {@code null} is written as JSON null
+     * @return this writer
+     */
+    JsonWriter value(final String value) {
+        separator();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    JsonWriter value(final int value) {
+        separator();
+        if (value == Integer.MIN_VALUE) {
+            ascii(Integer.toString(value));
+            return this;
+        }
+        ensure(11);
+        int remaining = value;
+        if (remaining < 0) {
+            buffer[size++] = '-';
+            remaining = -remaining;
+        }
+        int divisor = 1;
+        while (remaining / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer[size++] = (byte) ('0' + remaining / divisor % 10);
+            divisor /= 10;
+        }
+        return this;
+    }
+
+    JsonWriter value(final long value) {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return value((int) value);
+        }
+        separator();
+        ascii(Long.toString(value));
+        return this;
+    }
+
+    JsonWriter value(final boolean value) {
+        separator();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Returns the number of encoded bytes
+     *
+     * @return output size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Writes the encoded bytes without copying them
+     *
+     * @param output destination stream
+     * @throws IOException when the stream cannot be written
+     */
+    void writeTo(final OutputStream output) throws IOException {
+        output.write(buffer, 0, size);
+    }
+
+    private void open() {
+        depth++;
+        hasValue &= ~(1L << depth);
+    }
+
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if ((hasValue & (1L << depth)) != 0) {
+            put((byte) ',');
+        }
+        hasValue |= 1L << depth;
+    }
+
+    private void string(final String value) {
+        put((byte) '"');
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            ensure(6);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[size++] = '\\';
+                    buffer[size++] = (byte) c;
+                } else if (c >= 0x20) {
+                    buffer[size++] = (byte) c;
+                } else if (c == '\n') {
+                    buffer[size++] = '\\';
+                    buffer[size++] = 'n';
+                } else if (c == '\r') {
+                    buffer[size++] = '\\';
+                    buffer[size++] = 'r';
+                } else if (c == '\t') {
+                    buffer[size++] = '\\';
+                    buffer[size++] = 't';
+                } else {
+                    buffer[size++] = '\\';
+                    buffer[size++] = 'u';
+                    buffer[size++] = '0';
+                    buffer[size++] = '0';
+                    buffer[size++] = HEX[c >> 4];
+                    buffer[size++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[size++] = '?';
+            } else {
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        put((byte) '"');
+    }
+
+    private void ascii(final String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[size++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void put(final byte value) {
+        ensure(1);
+        buffer[size++] = value;
+    }
+
+    private void ensure(final int bytes) {
+        if (size + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+        }
+    }
+}
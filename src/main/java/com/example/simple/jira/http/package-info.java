@@ -0,0 +1,5 @@
+/**
+ * HTTP/JSON access to the simple Jira repositories.
+ * Contains an embedded server on the JDK HTTP server with a virtual thread per request and hand-rolled JSON codecs.
+ */
+package com.example.simple.jira.http;
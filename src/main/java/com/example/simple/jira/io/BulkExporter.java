@@ -0,0 +1,272 @@
+package com.example.simple.jira.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Streaming exporter writing all projects and tasks as CSV or JSON Lines
+ *
+ * Rows use the fields read by {@link BulkImporter}, followed by the
+ * {@code projectId} and {@code taskId} of the exported entities, so an export
+ * can be imported again. A project without tasks is written as a row with an
+ * empty title. Projects are written in identifier order and the tasks of each
+ * project in task identifier order. Line breaks in CSV values are written
+ * inside quoted fields, which {@link BulkImporter} does not read back, so
+ * JSONL is the format to use when values may contain them
+ *
+ * Projects and tasks are read page by page and encoded straight into one
+ * reusable buffer handed to the channel whenever it fills up, so memory use
+ * does not depend on the amount of data and no strings are built per row.
+ * Output may be compressed with gzip. The stores are not locked, each page
+ * is consistent on its own and a project deleted during the export is
+ * written with the tasks read before it disappeared
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class BulkExporter {
+
+    /** Default size of the output buffer in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /** Number of projects or tasks read from the stores at once */
+    private static final int PAGE_SIZE = 1024;
+    /** Header row of CSV exports */
+    private static final String CSV_HEADER = "project,title,description,status,priority,projectId,taskId\n";
+    /** File name suffix selecting gzip compression */
+    private static final String GZIP_SUFFIX = ".gz";
+
+    /** Store providing exported projects */
+    private final ProjectStore projectStore;
+    /** Store providing exported tasks */
+    private final TaskStore taskStore;
+    /** Size of the output buffer in bytes */
+    private final int bufferSize;
+    /** Reusable encoder of the output */
+    private final ChannelWriter writer;
+
+    /**
+     * Creates an exporter using {@link #DEFAULT_BUFFER_SIZE}
+     *
+     * @param projectStore store providing projects
+     * @param taskStore store providing tasks
+     */
+    public BulkExporter(final ProjectStore projectStore, final TaskStore taskStore) {
+        this(projectStore, taskStore, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an exporter writing through a buffer of the provided size
+     *
+     * @param projectStore store providing projects
+     * @param taskStore store providing tasks
+     * @param bufferSize size of the output buffer in bytes
+     */
+    public BulkExporter(final ProjectStore projectStore, final TaskStore taskStore, final int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size must be at least 16 bytes: " + bufferSize);
+        }
+        this.projectStore = projectStore;
+        this.taskStore = taskStore;
+        this.bufferSize = bufferSize;
+        this.writer = new ChannelWriter(bufferSize);
+    }
+
+    /**
+     * Exports into a file, replacing its content, the format is detected
+     * from the file name and a {@code .gz} suffix enables compression
+     *
+     * @param file file to write
+     * @return statistics of the export
+     * @throws UncheckedIOException when the file cannot be written
+     */
+    public ExportSummary exportFile(final Path file) {
+        final String fileName = file.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return exportTo(channel, ImportFormat.fromFileName(fileName), isGzip(fileName));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write export file " + file, ex);
+        }
+    }
+
+    /**
+     * Exports into a channel
+     *
+     * @param channel destination of the rows, not closed by this method
+     * @param format format of the rows
+     * @param gzip whether to compress the output with gzip
+     * @return statistics of the export
+     * @throws UncheckedIOException when the channel cannot be written
+     */
+    public synchronized ExportSummary exportTo(final WritableByteChannel channel, final ImportFormat format,
+                                               final boolean gzip) {
+        final long start = System.nanoTime();
+        long projects = 0;
+        long tasks = 0;
+        try {
+            final GZIPOutputStream compressed = gzip
+                    ? new GZIPOutputStream(new RetainingOutputStream(Channels.newOutputStream(channel)), bufferSize)
+                    : null;
+            try {
+                writer.open(compressed == null ? channel : Channels.newChannel(compressed));
+                if (format == ImportFormat.CSV) {
+                    writer.ascii(CSV_HEADER);
+                }
+                int cursor = Page.FIRST;
+                Page<Project> page;
+                do {
+                    page = projectStore.findPage(cursor, PAGE_SIZE);
+                    for (Project project : page.getItems()) {
+                        tasks += writeProject(project, format);
+                        projects++;
+                    }
+                    cursor = page.getNextCursor();
+                } while (page.hasMore());
+                writer.flush();
+            } finally {
+                if (compressed != null) {
+                    compressed.close();
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write export data after " + writer.size() + " bytes", ex);
+        }
+        return new ExportSummary(projects, tasks, writer.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Detects whether a file name asks for gzip compression
+     *
+     * @param fileName name or path of the file
+     * @return {@code true} for {@code .gz} files
+     */
+    static boolean isGzip(final String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX);
+    }
+
+    /**
+     * Writes all tasks of a project, or a project row when it has none
+     *
+     * @param project project to write
+     * @param format format of the rows
+     * @return number of tasks written
+     * @throws IOException when the channel fails
+     */
+    private long writeProject(final Project project, final ImportFormat format) throws IOException {
+        long written = 0;
+        int cursor = Page.FIRST;
+        Page<Task> page;
+        do {
+            try {
+                page = taskStore.findPage(project.getProjectId(), cursor, PAGE_SIZE);
+            } catch (ModelOperationException ex) {
+                break;
+            }
+            for (Task task : page.getItems()) {
+                writeRow(project, task, format);
+                written++;
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        if (written == 0) {
+            writeRow(project, null, format);
+        }
+        return written;
+    }
+
+    /**
+     * Encodes one row
+     *
+     * @param project project of the row
+     * @param task task of the row, {@code null} for a project without tasks
+     * @param format format of the row
+     * @throws IOException when the channel fails
+     */
+    private void writeRow(final Project project, final Task task, final ImportFormat format) throws IOException {
+        if (format == ImportFormat.CSV) {
+            writer.csvField(project.getProjectName());
+            if (task != null) {
+                writer.ascii(',');
+                writer.csvField(task.getTitle());
+                writer.ascii(',');
+                writer.csvField(task.getDescription());
+                writer.ascii(',');
+                writer.ascii(task.getStatus().name());
+                writer.ascii(',');
+                writer.ascii(task.getPriority().name());
+            } else {
+                writer.ascii(",,,,");
+            }
+            writer.ascii(',');
+            writer.number(project.getProjectId());
+            writer.ascii(',');
+            if (task != null) {
+                writer.number(task.getTaskId());
+            }
+        } else {
+            writer.ascii("{\"project\":");
+            writer.jsonString(project.getProjectName());
+            if (task != null) {
+                writer.ascii(",\"title\":");
+                writer.jsonString(task.getTitle());
+                writer.ascii(",\"description\":");
+                writer.jsonString(task.getDescription());
+                writer.ascii(",\"status\":\"");
+                writer.ascii(task.getStatus().name());
+                writer.ascii("\",\"priority\":\"");
+                writer.ascii(task.getPriority().name());
+                writer.ascii('"');
+            }
+            writer.ascii(",\"projectId\":");
+            writer.number(project.getProjectId());
+            if (task != null) {
+                writer.ascii(",\"taskId\":");
+                writer.number(task.getTaskId());
+            }
+            writer.ascii('}');
+        }
+        writer.ascii('\n');
+    }
+
+    /**
+     * Stream forwarding writes to another stream without ever closing it,
+     * so finishing the gzip stream leaves the caller's channel open
+     */
+    private static final class RetainingOutputStream extends FilterOutputStream {
+
+        /**
+         * Creates a stream forwarding to the provided one
+         *
+         * @param out stream receiving the bytes
+         */
+        RetainingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
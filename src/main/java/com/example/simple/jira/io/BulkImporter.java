@@ -0,0 +1,423 @@
+package com.example.simple.jira.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Streaming importer seeding project and task stores from CSV or JSON Lines files
+ *
+ * Every row describes one task through the fields {@code project},
+ * {@code title}, {@code description}, {@code status} and {@code priority}.
+ * Projects are created on first use of their name, or reused when a project
+ * with that name already exists, and a row with an empty title only ensures
+ * the project exists. CSV input lists the fields in that order, may start
+ * with a header row and supports double-quoted fields that do not span lines.
+ * JSONL input contains one flat object with string values per line, members
+ * with other values are skipped. Files ending in {@code .gz} are decompressed
+ *
+ * Input is read line by line through a fixed size buffer and tasks are handed
+ * to {@link TaskStore#applyBatch(int, List)} in bounded batches, so memory use
+ * does not depend on the size of the file. Batches already applied stay in
+ * place when a later row turns out to be malformed
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class BulkImporter {
+
+    /** Default number of buffered tasks flushed in one go */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    /** Size of the character buffer used to read the input */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /** Store receiving imported projects */
+    private final ProjectStore projectStore;
+    /** Store receiving imported tasks */
+    private final TaskStore taskStore;
+    /** Maximum number of tasks buffered before they are flushed */
+    private final int batchSize;
+
+    /** Identifiers of known projects by name */
+    private final Map<String, Integer> projectIds = new HashMap<>();
+    /** Tasks waiting to be flushed, grouped by project identifier */
+    private final Map<Integer, List<TaskCommand>> pending = new LinkedHashMap<>();
+    /** Number of tasks waiting to be flushed */
+    private int pendingCount;
+    /** Number of projects created by the current import */
+    private long projectsCreated;
+    /** Number of tasks created by the current import */
+    private long tasksCreated;
+    /** Reusable field holder for parsed rows */
+    private final List<String> fields = new ArrayList<>(5);
+    /** Reusable buffer for decoding field values */
+    private final StringBuilder token = new StringBuilder();
+
+    /**
+     * Creates an importer using {@link #DEFAULT_BATCH_SIZE}
+     *
+     * @param projectStore store receiving projects
+     * @param taskStore store receiving tasks
+     */
+    public BulkImporter(final ProjectStore projectStore, final TaskStore taskStore) {
+        this(projectStore, taskStore, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an importer flushing tasks in batches of the provided size
+     *
+     * @param projectStore store receiving projects
+     * @param taskStore store receiving tasks
+     * @param batchSize maximum number of tasks buffered before they are flushed
+     */
+    public BulkImporter(final ProjectStore projectStore, final TaskStore taskStore, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.projectStore = projectStore;
+        this.taskStore = taskStore;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports a file, detecting its format from the file name
+     *
+     * @param file file to import
+     * @return statistics of the import
+     * @throws UncheckedIOException when the file cannot be read
+     * @throws ModelOperationException when a row is malformed
+     */
+    public ImportSummary importFile(final Path file) {
+        final String fileName = file.getFileName().toString();
+        try (InputStream input = BulkExporter.isGzip(fileName)
+                ? new GZIPInputStream(Files.newInputStream(file), READ_BUFFER_SIZE) : Files.newInputStream(file);
+             Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            return importFrom(reader, ImportFormat.fromFileName(fileName));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read import file " + file, ex);
+        }
+    }
+
+    /**
+     * Imports rows from a character stream
+     *
+     * @param reader source of the rows, not closed by this method
+     * @param format format of the rows
+     * @return statistics of the import
+     * @throws UncheckedIOException when the input cannot be read
+     * @throws ModelOperationException when a row is malformed
+     */
+    public synchronized ImportSummary importFrom(final Reader reader, final ImportFormat format) {
+        final long start = System.nanoTime();
+        projectIds.clear();
+        for (Project project : projectStore.findAll()) {
+            projectIds.putIfAbsent(project.getProjectName(), project.getProjectId());
+        }
+        projectsCreated = 0;
+        tasksCreated = 0;
+        long rows = 0;
+        long lineNumber = 0;
+        final BufferedReader lines = new BufferedReader(reader, READ_BUFFER_SIZE);
+        try {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    if (format == ImportFormat.CSV) {
+                        parseCsv(line);
+                        if (rows == 0 && lineNumber == 1 && "project".equalsIgnoreCase(fields.get(0).trim())) {
+                            continue;
+                        }
+                    } else {
+                        parseJson(line);
+                    }
+                    importRow();
+                } catch (ModelOperationException ex) {
+                    throw new ModelOperationException("Line " + lineNumber + ": " + ex.getMessage(), ex);
+                }
+                rows++;
+            }
+            flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read import data at line " + lineNumber, ex);
+        } finally {
+            pending.clear();
+            pendingCount = 0;
+        }
+        return new ImportSummary(rows, projectsCreated, tasksCreated, System.nanoTime() - start);
+    }
+
+    /**
+     * Converts the parsed fields of a row into pending store operations
+     */
+    private void importRow() {
+        final String projectName = field(0);
+        if (projectName.isEmpty()) {
+            throw new ModelOperationException("Project name must not be empty");
+        }
+        Integer projectId = projectIds.get(projectName);
+        if (projectId == null) {
+            projectId = projectStore.create(projectName).getProjectId();
+            projectIds.put(projectName, projectId);
+            projectsCreated++;
+        }
+        final String title = field(1);
+        if (title.isEmpty()) {
+            return;
+        }
+        final TaskStatus status = parseEnum(TaskStatus.class, field(3));
+        final TaskPriority priority = parseEnum(TaskPriority.class, field(4));
+        pending.computeIfAbsent(projectId, id -> new ArrayList<>())
+                .add(TaskCommand.add(title, field(2), status, priority));
+        if (++pendingCount >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Applies all pending tasks, one batch per project
+     */
+    private void flush() {
+        for (Map.Entry<Integer, List<TaskCommand>> entry : pending.entrySet()) {
+            tasksCreated += taskStore.applyBatch(entry.getKey(), entry.getValue()).size();
+        }
+        pending.clear();
+        pendingCount = 0;
+    }
+
+    /**
+     * Returns a trimmed field of the current row
+     *
+     * @param index position of the field
+     * @return field value or an empty string when the row is shorter
+     */
+    private String field(final int index) {
+        if (index >= fields.size() || fields.get(index) == null) {
+            return "";
+        }
+        return fields.get(index).trim();
+    }
+
+    /**
+     * Parses an enum constant ignoring case
+     *
+     * @param type enum type
+     * @param value textual value, empty for the default
+     * @param <E> enum type
+     * @return enum constant or {@code null} when the value is empty
+     */
+    private static <E extends Enum<E>> E parseEnum(final Class<E> type, final String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ModelOperationException("Unknown " + type.getSimpleName() + " '" + value + "'");
+        }
+    }
+
+    /**
+     * Splits a CSV line into {@link #fields}
+     *
+     * @param line line to parse
+     */
+    private void parseCsv(final String line) {
+        fields.clear();
+        token.setLength(0);
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    token.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    token.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(token.toString());
+                token.setLength(0);
+            } else {
+                token.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ModelOperationException("Unterminated quoted field");
+        }
+        fields.add(token.toString());
+    }
+
+    /**
+     * Parses a flat JSON object into {@link #fields}, skipping members whose value is not a string
+     *
+     * @param line line to parse
+     */
+    private void parseJson(final String line) {
+        fields.clear();
+        for (int i = 0; i < 5; i++) {
+            fields.add(null);
+        }
+        int position = skipWhitespace(line, 0);
+        position = expect(line, position, '{');
+        position = skipWhitespace(line, position);
+        if (position < line.length() && line.charAt(position) == '}') {
+            return;
+        }
+        while (true) {
+            position = readString(line, skipWhitespace(line, position));
+            final int slot = slotOf(token);
+            position = expect(line, skipWhitespace(line, position), ':');
+            position = skipWhitespace(line, position);
+            if (position < line.length() && line.charAt(position) != '"') {
+                position = skipLiteral(line, position);
+            } else {
+                position = readString(line, position);
+                if (slot >= 0) {
+                    fields.set(slot, token.toString());
+                }
+            }
+            position = skipWhitespace(line, position);
+            if (position < line.length() && line.charAt(position) == ',') {
+                position++;
+                continue;
+            }
+            expect(line, position, '}');
+            return;
+        }
+    }
+
+    /**
+     * Maps a JSON key to its position in {@link #fields}
+     *
+     * @param key key of the JSON member
+     * @return field position or {@code -1} for unknown keys
+     */
+    private static int slotOf(final CharSequence key) {
+        switch (key.toString()) {
+            case "project":
+                return 0;
+            case "title":
+                return 1;
+            case "description":
+                return 2;
+            case "status":
+                return 3;
+            case "priority":
+                return 4;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Reads a JSON string starting at the provided position into {@link #token}
+     *
+     * @param line line being parsed
+     * @param start position of the opening quote
+     * @return position after the closing quote
+     */
+    private int readString(final String line, final int start) {
+        int position = expect(line, start, '"');
+        token.setLength(0);
+        while (position < line.length()) {
+            final char c = line.charAt(position++);
+            if (c == '"') {
+                return position;
+            }
+            if (c != '\\') {
+                token.append(c);
+                continue;
+            }
+            if (position >= line.length()) {
+                break;
+            }
+            final char escaped = line.charAt(position++);
+            switch (escaped) {
+                case 'b':
+                    token.append('\b');
+                    break;
+                case 'f':
+                    token.append('\f');
+                    break;
+                case 'n':
+                    token.append('\n');
+                    break;
+                case 'r':
+                    token.append('\r');
+                    break;
+                case 't':
+                    token.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > line.length()) {
+                        throw new ModelOperationException("Truncated unicode escape");
+                    }
+                    try {
+                        token.append((char) Integer.parseInt(line, position, position + 4, 16));
+                    } catch (NumberFormatException ex) {
+                        throw new ModelOperationException("Invalid unicode escape", ex);
+                    }
+                    position += 4;
+                    break;
+                default:
+                    token.append(escaped);
+            }
+        }
+        throw new ModelOperationException("Unterminated JSON string");
+    }
+
+    private static int expect(final String line, final int position, final char expected) {
+        if (position >= line.length() || line.charAt(position) != expected) {
+            throw new ModelOperationException("Expected '" + expected + "' at column " + (position + 1));
+        }
+        return position + 1;
+    }
+
+    private static int skipLiteral(final String line, final int start) {
+        int position = start;
+        while (position < line.length() && line.charAt(position) != ',' && line.charAt(position) != '}'
+                && !Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        if (position == start) {
+            throw new ModelOperationException("Expected value at column " + (start + 1));
+        }
+        return position;
+    }
+
+    private static int skipWhitespace(final String line, int position) {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+}
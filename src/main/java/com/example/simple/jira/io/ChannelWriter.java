@@ -0,0 +1,220 @@
+package com.example.simple.jira.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * UTF-8 text encoder writing through one reusable buffer into a channel
+ *
+ * Characters are encoded straight into the array backing a heap
+ * {@link ByteBuffer}, which is handed to the channel whenever it fills up,
+ * so no intermediate strings or byte arrays are created per value. Unpaired
+ * surrogates are written as {@code ?} like {@link String#getBytes}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class ChannelWriter {
+
+    /** Longest UTF-8 encoding of one code point */
+    private static final int MAX_CHAR_BYTES = 4;
+    /** Hexadecimal digits used for JSON unicode escapes */
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /** Buffer collecting encoded bytes */
+    private final ByteBuffer buffer;
+    /** Array backing {@link #buffer} */
+    private final byte[] bytes;
+    /** Channel receiving the bytes */
+    private WritableByteChannel channel;
+    /** Next free position in {@link #bytes} */
+    private int position;
+    /** Number of bytes handed to the channel */
+    private long written;
+
+    /**
+     * Creates a writer with a buffer of the provided size
+     *
+     * @param bufferSize buffer capacity in bytes
+     */
+    ChannelWriter(final int bufferSize) {
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Starts writing into a channel, resetting the byte count
+     *
+     * @param target channel receiving the bytes
+     */
+    void open(final WritableByteChannel target) {
+        this.channel = target;
+        this.position = 0;
+        this.written = 0;
+    }
+
+    /**
+     * Returns the number of bytes written so far, including buffered ones
+     *
+     * @return byte count
+     */
+    long size() {
+        return written + position;
+    }
+
+    /**
+     * Writes a character known to be ASCII
+     *
+     * @param c character to write
+     * @throws IOException when the channel fails
+     */
+    void ascii(final char c) throws IOException {
+        ensure(1);
+        bytes[position++] = (byte) c;
+    }
+
+    /**
+     * Writes text known to be ASCII
+     *
+     * @param text text to write
+     * @throws IOException when the channel fails
+     */
+    void ascii(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            ascii(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a number in decimal notation
+     *
+     * @param value number to write
+     * @throws IOException when the channel fails
+     */
+    void number(final long value) throws IOException {
+        ascii(Long.toString(value));
+    }
+
+    /**
+     * Writes text as is
+     *
+     * @param text text to encode
+     * @throws IOException when the channel fails
+     */
+    void text(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            i = encode(text, i);
+        }
+    }
+
+    /**
+     * Writes a CSV field, quoted when it contains a separator, a quote or a line break
+     *
+     * @param text field value
+     * @throws IOException when the channel fails
+     */
+    void csvField(final String text) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            final char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            text(text);
+            return;
+        }
+        ascii('"');
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                ascii('"');
+            }
+            i = encode(text, i);
+        }
+        ascii('"');
+    }
+
+    /**
+     * Writes a quoted JSON string
+     *
+     * @param text string value
+     * @throws IOException when the channel fails
+     */
+    void jsonString(final String text) throws IOException {
+        ascii('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                ascii('\\');
+                ascii(c);
+            } else if (c == '\n') {
+                ascii("\\n");
+            } else if (c == '\r') {
+                ascii("\\r");
+            } else if (c == '\t') {
+                ascii("\\t");
+            } else if (c < 0x20) {
+                ascii("\\u00");
+                ascii((char) HEX[c >> 4]);
+                ascii((char) HEX[c & 0xF]);
+            } else {
+                i = encode(text, i);
+            }
+        }
+        ascii('"');
+    }
+
+    /**
+     * Hands all buffered bytes to the channel
+     *
+     * @throws IOException when the channel fails
+     */
+    void flush() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        written += position;
+        position = 0;
+    }
+
+    /**
+     * Encodes the character at an index, together with its low surrogate when paired
+     *
+     * @param text text being written
+     * @param index index of the character
+     * @return index of the last character consumed
+     * @throws IOException when the channel fails
+     */
+    private int encode(final String text, final int index) throws IOException {
+        ensure(MAX_CHAR_BYTES);
+        final char c = text.charAt(index);
+        if (c < 0x80) {
+            bytes[position++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[position++] = (byte) (0xC0 | c >> 6);
+            bytes[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (!Character.isSurrogate(c)) {
+            bytes[position++] = (byte) (0xE0 | c >> 12);
+            bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1))) {
+            final int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+            bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+            return index + 1;
+        } else {
+            bytes[position++] = '?';
+        }
+        return index;
+    }
+
+    private void ensure(final int count) throws IOException {
+        if (bytes.length - position < count) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.simple.jira.io;
+
+/**
+ * Immutable statistics describing a finished export
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class ExportSummary {
+
+    /** Number of projects written */
+    private final long projects;
+    /** Number of tasks written */
+    private final long tasks;
+    /** Number of bytes written before compression */
+    private final long bytes;
+    /** Wall clock duration of the export in nanoseconds */
+    private final long elapsedNanos;
+
+    /**
+     * Creates a new export summary
+     *
+     * @param projects number of projects written
+     * @param tasks number of tasks written
+     * @param bytes number of bytes written before compression
+     * @param elapsedNanos duration of the export in nanoseconds
+     */
+    public ExportSummary(final long projects, final long tasks, final long bytes, final long elapsedNanos) {
+        this.projects = projects;
+        this.tasks = tasks;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of projects written
+     *
+     * @return project count
+     */
+    public long getProjects() {
+        return projects;
+    }
+
+    /**
+     * Returns the number of tasks written
+     *
+     * @return task count
+     */
+    public long getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the size of the encoded output before compression
+     *
+     * @return byte count
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the duration of the export
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the export throughput
+     *
+     * @return encoded megabytes per second
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1_000d / elapsedNanos;
+    }
+
+    /**
+     * Formats the summary for display
+     *
+     * @return human readable summary
+     */
+    @Override
+    public String toString() {
+        return String.format("Exported %d projects and %d tasks (%d bytes) in %.3f s, %.1f MB/sec",
+                projects, tasks, bytes, elapsedNanos / 1_000_000_000d, getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.simple.jira.io;
+
+import java.util.Locale;
+
+/**
+ * File formats read by {@link BulkImporter} and written by {@link BulkExporter}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public enum ImportFormat {
+    /** Comma separated values, one task per line */
+    CSV,
+    /** JSON Lines, one flat JSON object per line */
+    JSONL;
+
+    /**
+     * Detects the format from a file name extension, ignoring a trailing {@code .gz}
+     *
+     * @param fileName name or path of the file
+     * @return {@link #JSONL} for {@code .jsonl} and {@code .ndjson} files, {@link #CSV} otherwise
+     */
+    public static ImportFormat fromFileName(final String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".gz")) {
+            lower = lower.substring(0, lower.length() - 3);
+        }
+        return lower.endsWith(".jsonl") || lower.endsWith(".ndjson") ? JSONL : CSV;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.simple.jira.io;
+
+/**
+ * Immutable statistics describing a finished import
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class ImportSummary {
+
+    /** Number of data rows read from the input */
+    private final long rows;
+    /** Number of projects created */
+    private final long projectsCreated;
+    /** Number of tasks created */
+    private final long tasksCreated;
+    /** Wall clock duration of the import in nanoseconds */
+    private final long elapsedNanos;
+
+    /**
+     * Creates a new import summary
+     *
+     * @param rows number of data rows read
+     * @param projectsCreated number of projects created
+     * @param tasksCreated number of tasks created
+     * @param elapsedNanos duration of the import in nanoseconds
+     */
+    public ImportSummary(final long rows, final long projectsCreated, final long tasksCreated, final long elapsedNanos) {
+        this.rows = rows;
+        this.projectsCreated = projectsCreated;
+        this.tasksCreated = tasksCreated;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of data rows read
+     *
+     * @return row count
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of projects created
+     *
+     * @return project count
+     */
+    public long getProjectsCreated() {
+        return projectsCreated;
+    }
+
+    /**
+     * Returns the number of tasks created
+     *
+     * @return task count
+     */
+    public long getTasksCreated() {
+        return tasksCreated;
+    }
+
+    /**
+     * Returns the duration of the import
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the import throughput
+     *
+     * @return rows processed per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000d / elapsedNanos;
+    }
+
+    /**
+     * Formats the summary for display
+     *
+     * @return human readable summary
+     */
+    @Override
+    public String toString() {
+        return String.format("Imported %d rows (%d projects, %d tasks) in %.3f s, %.0f rows/sec",
+                rows, projectsCreated, tasksCreated, elapsedNanos / 1_000_000_000d, getRowsPerSecond());
+    }
+}
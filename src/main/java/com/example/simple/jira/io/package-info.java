@@ -0,0 +1,6 @@
+/**
+ * Bulk data transfer between files and the repositories.
+ * Contains streaming importers that seed project and task stores from large files
+ * and exporters that write them back through NIO channels.
+ */
+package com.example.simple.jira.io;
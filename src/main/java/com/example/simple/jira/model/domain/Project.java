@@ -6,27 +6,45 @@ import com.example.simple.jira.model.repository.TaskRepository;
  * Immutable representation of a Jira-like project
  *
  * Project instances carry only identifier and name, while related tasks are
- * managed by {@link TaskRepository}
+ * managed by {@link TaskRepository}. The version starts at
+ * {@link #INITIAL_VERSION} and is incremented by every rename
  *
  * @author michalkubina
  * @version 1.0
  */
 public final class Project {
 
+    /** Version of newly created projects */
+    public static final long INITIAL_VERSION = 1;
+
     /** Identifier of the project */
     private final int projectId;
     /** Human readable project name */
     private final String projectName;
+    /** Version incremented by every change of the project */
+    private final long version;
 
     /**
-     * Creates a new immutable project instance
+     * Creates a new immutable project instance at {@link #INITIAL_VERSION}
      *
      * @param projectId identifier assigned by the repository
      * @param projectName descriptive name of the project
      */
     public Project(final int projectId, final String projectName) {
+        this(projectId, projectName, INITIAL_VERSION);
+    }
+
+    /**
+     * Creates a new immutable project instance with an explicit version
+     *
+     * @param projectId identifier assigned by the repository
+     * @param projectName descriptive name of the project
+     * @param version version of this project state
+     */
+    public Project(final int projectId, final String projectName, final long version) {
         this.projectId = projectId;
         this.projectName = projectName;
+        this.version = version;
     }
 
     /**
@@ -47,13 +65,22 @@ public final class Project {
         return projectName;
     }
 
+    /**
+     * Returns the version of this project state
+     *
+     * @return version, starting at {@link #INITIAL_VERSION}
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Creates a copy of the project with a new name
      *
      * @param newName updated project name
-     * @return project with the new name applied
+     * @return project with the new name applied at the next version
      */
     public Project withName(final String newName) {
-        return new Project(projectId, newName);
+        return new Project(projectId, newName, version + 1);
     }
 }
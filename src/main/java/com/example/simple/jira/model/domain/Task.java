@@ -1,27 +1,47 @@
 package com.example.simple.jira.model.domain;
 
+import java.util.Objects;
+import java.util.function.Supplier;
+
 /**
  * Immutable representation of a single task within a project
  *
+ * Every task carries a version that starts at {@link #INITIAL_VERSION} and is
+ * incremented by each {@code with} copy, so stores can reject updates based
+ * on an outdated read
+ *
+ * Stores keeping descriptions outside the heap create tasks through
+ * {@link #withLazyDescription}, which defers reading the description until
+ * {@link #getDescription()} is first called. Copies made by {@code with}
+ * methods that keep the description share the pending read, so it happens at
+ * most once for all of them
+ *
  * @author michalkubina
  * @version 1.0
  */
 public final class Task {
 
+    /** Version of newly created tasks */
+    public static final long INITIAL_VERSION = 1;
+
     /** Identifier of the task generated by the repository */
     private final int taskId;
     /** Human readable title summarizing the work item */
     private final String title;
-    /** Detailed description of the work item */
+    /** Detailed description of the work item, unused while {@link #lazyDescription} is set */
     private final String description;
+    /** Deferred read of the description, {@code null} for descriptions known up front */
+    private final LazyDescription lazyDescription;
     /** Current status of the task */
     private final TaskStatus status;
     /** Identifier of the project to which the task belongs */
     private final int projectId;
     /** Priority level of the task */
     private final TaskPriority priority;
+    /** Version incremented by every change of the task */
+    private final long version;
     /**
-     * Creates a new immutable task instance
+     * Creates a new immutable task instance at {@link #INITIAL_VERSION}
      *
      * @param taskId identifier generated by the repository
      * @param title short summary of the task
@@ -31,12 +51,57 @@ public final class Task {
      * @param projectId owning project identifier
      */
     public Task(final int taskId, final String title, final String description, final TaskStatus status, final TaskPriority priority, final int projectId) {
+        this(taskId, title, description, status, priority, projectId, INITIAL_VERSION);
+    }
+
+    /**
+     * Creates a new immutable task instance with an explicit version
+     *
+     * @param taskId identifier generated by the repository
+     * @param title short summary of the task
+     * @param description detailed description of the work item
+     * @param status current workflow status
+     * @param priority priority level of the task
+     * @param projectId owning project identifier
+     * @param version version of this task state
+     */
+    public Task(final int taskId, final String title, final String description, final TaskStatus status, final TaskPriority priority, final int projectId, final long version) {
+        this(taskId, title, description, null, status, priority, projectId, version);
+    }
+
+    private Task(final int taskId, final String title, final String description,
+            final LazyDescription lazyDescription, final TaskStatus status, final TaskPriority priority,
+            final int projectId, final long version) {
         this.taskId = taskId;
         this.title = title;
         this.description = description;
+        this.lazyDescription = lazyDescription;
         this.status = status;
         this.projectId = projectId;
         this.priority = priority;
+        this.version = version;
+    }
+
+    /**
+     * Creates a task whose description is read on first use
+     *
+     * The loader is called at most once, by the first caller of
+     * {@link #getDescription()} on this task or any copy sharing the
+     * description, possibly on another thread than the one creating the task
+     *
+     * @param taskId identifier generated by the repository
+     * @param title short summary of the task
+     * @param description thread safe loader of the description, may return {@code null}
+     * @param status current workflow status
+     * @param priority priority level of the task
+     * @param projectId owning project identifier
+     * @param version version of this task state
+     * @return task reading its description on demand
+     */
+    public static Task withLazyDescription(final int taskId, final String title, final Supplier<String> description,
+            final TaskStatus status, final TaskPriority priority, final int projectId, final long version) {
+        return new Task(taskId, title, null, new LazyDescription(description), status, priority, projectId,
+                version);
     }
 
     /**
@@ -58,12 +123,26 @@ public final class Task {
     }
 
     /**
-     * Returns the task description
+     * Returns the task description, reading it first when it is lazy
      *
      * @return immutable description
      */
     public String getDescription() {
-        return description;
+        return lazyDescription == null ? description : lazyDescription.get();
+    }
+
+    /**
+     * Tells whether another task has the same description
+     *
+     * Tasks sharing a lazy description, such as a task and its status or
+     * priority copies, are compared without reading the description
+     *
+     * @param other task to compare with
+     * @return true when both descriptions are equal
+     */
+    public boolean hasSameDescription(final Task other) {
+        return lazyDescription != null && lazyDescription == other.lazyDescription
+                || Objects.equals(getDescription(), other.getDescription());
     }
 
     /**
@@ -93,24 +172,43 @@ public final class Task {
         return projectId;
     }
 
+    /**
+     * Returns the version of this task state
+     *
+     * @return version, starting at {@link #INITIAL_VERSION}
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Creates a copy of the task with a new status
      *
      * @param newStatus updated workflow status
-     * @return task copy reflecting the new status
+     * @return task copy reflecting the new status at the next version
      */
     public Task withStatus(final TaskStatus newStatus) {
-        return new Task(taskId, title, description, newStatus, priority, projectId);
+        return new Task(taskId, title, description, lazyDescription, newStatus, priority, projectId, version + 1);
     }
 
     /**
      * Creates a copy of the task with updated priority
      *
      * @param newPriority new priority level
-     * @return task copy reflecting the new priority
+     * @return task copy reflecting the new priority at the next version
      */
     public Task withPriority(final TaskPriority newPriority) {
-        return new Task(taskId, title, description, status, newPriority, projectId);
+        return new Task(taskId, title, description, lazyDescription, status, newPriority, projectId, version + 1);
+    }
+
+    /**
+     * Creates a copy of the task with a new title, keeping the description unread
+     *
+     * @param newTitle new title value
+     * @return task copy with the new title at the next version
+     */
+    public Task withTitle(final String newTitle) {
+        return new Task(taskId, newTitle, description, lazyDescription, status, priority, projectId, version + 1);
     }
 
     /**
@@ -118,13 +216,36 @@ public final class Task {
      *
      * @param newTitle new title value
      * @param newDescription new description value
-     * @return task copy with updated textual fields
+     * @return task copy with updated textual fields at the next version
      */
     public Task withDetails(final String newTitle, final String newDescription) {
-        return new Task(taskId, newTitle, newDescription, status, priority, projectId);
+        return new Task(taskId, newTitle, newDescription, status, priority, projectId, version + 1);
     }
-}
-
 
+    /**
+     * Description read once on first use and shared by the copies of a task
+     */
+    private static final class LazyDescription {
+        /** Reads the description, {@code null} once it has been read */
+        private volatile Supplier<String> loader;
+        /** Description, valid once {@link #loader} is {@code null} */
+        private String value;
 
+        private LazyDescription(final Supplier<String> loader) {
+            this.loader = loader;
+        }
 
+        private String get() {
+            if (loader != null) {
+                synchronized (this) {
+                    final Supplier<String> pending = loader;
+                    if (pending != null) {
+                        value = pending.get();
+                        loader = null;
+                    }
+                }
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.simple.jira.model.events;
+
+/**
+ * Reaction of an {@link EventPublisher} to a subscriber whose buffer is full
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public enum BackpressurePolicy {
+    /** Cancels the subscription and signals {@code onError}, the subscriber has to resynchronize */
+    FAIL,
+    /** Discards the event being published */
+    DROP_NEWEST,
+    /** Discards the oldest buffered event to make room */
+    DROP_OLDEST,
+    /**
+     * Makes the writer wait for room, so a slow subscriber slows every writer
+     *
+     * Repositories publish while holding their locks and reject publishers
+     * with this policy, since a waiting writer would stall the other writers
+     * and a subscriber writing back would deadlock. Meant for publishers fed
+     * outside of any lock
+     */
+    BLOCK
+}
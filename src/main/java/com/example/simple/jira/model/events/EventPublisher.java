@@ -0,0 +1,368 @@
+package com.example.simple.jira.model.events;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publisher handing events to subscribers through bounded per-subscriber buffers
+ *
+ * {@link #publish(Object)} only appends the event to the ring buffer of every
+ * subscriber and, when that subscriber's drain task is idle, schedules it on
+ * the executor, so writers never run subscriber code. Each subscriber
+ * receives events in publication order at the pace of its own
+ * {@link Flow.Subscription#request(long)} demand and a full buffer is handled
+ * by the configured {@link BackpressurePolicy}. Without subscribers publishing
+ * costs one volatile read, callers can skip creating events entirely by
+ * checking {@link #hasSubscribers()}
+ *
+ * @param <T> event type
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class EventPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+
+    /** Buffer capacity per subscriber used by the default constructor */
+    public static final int DEFAULT_BUFFER_SIZE = Flow.defaultBufferSize();
+
+    /** Executor running the drain tasks delivering events to subscribers */
+    private final Executor executor;
+    /** Capacity of every subscriber buffer */
+    private final int bufferSize;
+    /** Reaction to full subscriber buffers */
+    private final BackpressurePolicy policy;
+    /** Active subscriptions */
+    private final CopyOnWriteArrayList<BufferedSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+    /** Number of events discarded by the drop policies */
+    private final LongAdder dropped = new LongAdder();
+    /** Whether the publisher has been closed */
+    private volatile boolean closed;
+
+    /**
+     * Creates a publisher delivering on the common pool with buffers of
+     * {@link #DEFAULT_BUFFER_SIZE} events that fail subscribers falling behind
+     */
+    public EventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_SIZE, BackpressurePolicy.FAIL);
+    }
+
+    /**
+     * Creates a publisher
+     *
+     * @param executor executor delivering events to subscribers
+     * @param bufferSize maximum number of undelivered events per subscriber
+     * @param policy reaction to a full subscriber buffer
+     * @throws IllegalArgumentException when the buffer size is not positive
+     */
+    public EventPublisher(final Executor executor, final int bufferSize, final BackpressurePolicy policy) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.bufferSize = bufferSize;
+        this.policy = Objects.requireNonNull(policy, "policy");
+    }
+
+    /**
+     * Subscribes to events published from now on
+     *
+     * @param subscriber subscriber receiving the events
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        final BufferedSubscription<T> subscription = new BufferedSubscription<>(this, subscriber);
+        subscriber.onSubscribe(subscription);
+        if (closed) {
+            subscription.complete();
+            return;
+        }
+        subscriptions.add(subscription);
+        if (closed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Tells whether any subscriber is registered
+     *
+     * @return true when published events would be delivered
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Returns the number of registered subscribers
+     *
+     * @return subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Returns the reaction to full subscriber buffers
+     *
+     * @return backpressure policy
+     */
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of events discarded because a subscriber buffer was full
+     *
+     * @return dropped event count summed over all subscribers
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Hands an event to every subscriber
+     *
+     * Returns immediately unless the policy is {@link BackpressurePolicy#BLOCK}
+     * and a subscriber buffer is full
+     *
+     * @param event event to publish
+     */
+    public void publish(final T event) {
+        for (BufferedSubscription<T> subscription : subscriptions) {
+            if (!subscription.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Completes every subscriber once its buffered events are delivered,
+     * later subscribers are completed immediately
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (BufferedSubscription<T> subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Subscription owning the ring buffer and the drain task of one subscriber
+     *
+     * The buffer is guarded by a lock held only to move single events in and
+     * out, the drain task runs on the publisher's executor at most once at a
+     * time and calls the subscriber outside the lock
+     *
+     * @param <T> event type
+     */
+    private static final class BufferedSubscription<T> implements Flow.Subscription, Runnable {
+
+        /** Publisher owning the subscription */
+        private final EventPublisher<T> publisher;
+        /** Subscriber receiving the events */
+        private final Flow.Subscriber<? super T> subscriber;
+        /** Ring buffer of undelivered events */
+        private final Object[] buffer;
+        /** Lock guarding the buffer and the terminal state */
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Signalled when a blocked writer may find room */
+        private final Condition notFull = lock.newCondition();
+        /** Outstanding demand, {@link Long#MAX_VALUE} means unbounded */
+        private final AtomicLong demand = new AtomicLong();
+        /** Number of drain requests, the drain task runs while it is positive */
+        private final AtomicInteger work = new AtomicInteger();
+        /** Index of the oldest buffered event */
+        private int head;
+        /** Number of buffered events */
+        private int count;
+        /** Whether the subscriber is completed once the buffer is empty */
+        private boolean completed;
+        /** Error delivered to the subscriber before any further events */
+        private Throwable failure;
+        /** Whether the subscription is cancelled or terminated */
+        private volatile boolean cancelled;
+
+        BufferedSubscription(final EventPublisher<T> publisher, final Flow.Subscriber<? super T> subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+            this.buffer = new Object[publisher.bufferSize];
+        }
+
+        /**
+         * Buffers an event according to the backpressure policy
+         *
+         * @param event event to buffer
+         * @return false when an event was discarded
+         */
+        boolean offer(final T event) {
+            boolean accepted = true;
+            lock.lock();
+            try {
+                if (cancelled || completed || failure != null) {
+                    return true;
+                }
+                if (count == buffer.length) {
+                    switch (publisher.policy) {
+                        case DROP_NEWEST:
+                            return false;
+                        case DROP_OLDEST:
+                            buffer[head] = null;
+                            head = next(head);
+                            count--;
+                            accepted = false;
+                            break;
+                        case BLOCK:
+                            while (count == buffer.length && !cancelled) {
+                                notFull.awaitUninterruptibly();
+                            }
+                            if (cancelled) {
+                                return true;
+                            }
+                            break;
+                        default:
+                            failure = new IllegalStateException("Subscriber fell behind by more than "
+                                    + buffer.length + " events");
+                            accepted = false;
+                            break;
+                    }
+                }
+                if (failure == null) {
+                    final int tail = head + count;
+                    buffer[tail < buffer.length ? tail : tail - buffer.length] = event;
+                    count++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            signal();
+            return accepted;
+        }
+
+        void complete() {
+            lock.lock();
+            try {
+                completed = true;
+            } finally {
+                lock.unlock();
+            }
+            signal();
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                lock.lock();
+                try {
+                    if (failure == null) {
+                        failure = new IllegalArgumentException("Requested demand must be positive: " + n);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> {
+                    final long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            publisher.subscriptions.remove(this);
+            lock.lock();
+            try {
+                Arrays.fill(buffer, null);
+                count = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Delivers buffered events while there is demand, then the terminal signal when due
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                while (!cancelled) {
+                    final Object event;
+                    final Throwable error;
+                    final boolean done;
+                    lock.lock();
+                    try {
+                        error = failure;
+                        done = error == null && count == 0 && completed;
+                        if (error != null || count == 0 || demand.get() == 0) {
+                            event = null;
+                        } else {
+                            event = buffer[head];
+                            buffer[head] = null;
+                            head = next(head);
+                            count--;
+                            notFull.signal();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (error != null) {
+                        cancel();
+                        subscriber.onError(error);
+                        break;
+                    }
+                    if (event == null) {
+                        if (done) {
+                            cancel();
+                            subscriber.onComplete();
+                        }
+                        break;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    deliver(event);
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(final Object event) {
+            try {
+                subscriber.onNext((T) event);
+            } catch (RuntimeException ex) {
+                cancel();
+                subscriber.onError(ex);
+            }
+        }
+
+        private void signal() {
+            if (work.getAndIncrement() == 0) {
+                try {
+                    publisher.executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    cancel();
+                    subscriber.onError(ex);
+                }
+            }
+        }
+
+        private int next(final int index) {
+            return index + 1 == buffer.length ? 0 : index + 1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.simple.jira.model.events;
+
+import com.example.simple.jira.model.domain.Project;
+
+/**
+ * Change of a single project
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class ProjectEvent {
+
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        /** Project was created, only the new state is present */
+        CREATED,
+        /** Project name changed */
+        RENAMED,
+        /** Project was deleted, only the old state is present */
+        DELETED
+    }
+
+    /** Kind of change */
+    private final Type type;
+    /** Project state before the change, null for created projects */
+    private final Project before;
+    /** Project state after the change, null for deleted projects */
+    private final Project after;
+
+    /**
+     * Creates an event
+     *
+     * @param type kind of change
+     * @param before project state before the change, null for created projects
+     * @param after project state after the change, null for deleted projects
+     */
+    public ProjectEvent(final Type type, final Project before, final Project after) {
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Returns the kind of change
+     *
+     * @return change type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the identifier of the changed project
+     *
+     * @return project identifier
+     */
+    public int getProjectId() {
+        return after != null ? after.getProjectId() : before.getProjectId();
+    }
+
+    /**
+     * Returns the project state before the change
+     *
+     * @return previous state, null for created projects
+     */
+    public Project getBefore() {
+        return before;
+    }
+
+    /**
+     * Returns the project state after the change
+     *
+     * @return new state, null for deleted projects
+     */
+    public Project getAfter() {
+        return after;
+    }
+}
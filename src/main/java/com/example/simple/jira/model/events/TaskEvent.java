@@ -0,0 +1,98 @@
+package com.example.simple.jira.model.events;
+
+import com.example.simple.jira.model.domain.Task;
+
+/**
+ * Change of a single task
+ *
+ * Every event carries the complete task state before and after the change,
+ * so consumers can update counters or views without reading the repository
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class TaskEvent {
+
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        /** Task was created, only the new state is present */
+        CREATED,
+        /** Task title changed */
+        RENAMED,
+        /** Task description changed */
+        DESCRIPTION_CHANGED,
+        /** Task status changed */
+        STATUS_CHANGED,
+        /** Task priority changed */
+        PRIORITY_CHANGED,
+        /** Task was deleted, only the old state is present */
+        DELETED
+    }
+
+    /** Kind of change */
+    private final Type type;
+    /** Task state before the change, null for created tasks */
+    private final Task before;
+    /** Task state after the change, null for deleted tasks */
+    private final Task after;
+
+    /**
+     * Creates an event
+     *
+     * @param type kind of change
+     * @param before task state before the change, null for created tasks
+     * @param after task state after the change, null for deleted tasks
+     */
+    public TaskEvent(final Type type, final Task before, final Task after) {
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Returns the kind of change
+     *
+     * @return change type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the identifier of the project owning the changed task
+     *
+     * @return project identifier
+     */
+    public int getProjectId() {
+        return after != null ? after.getProjectId() : before.getProjectId();
+    }
+
+    /**
+     * Returns the identifier of the changed task
+     *
+     * @return task identifier
+     */
+    public int getTaskId() {
+        return after != null ? after.getTaskId() : before.getTaskId();
+    }
+
+    /**
+     * Returns the task state before the change
+     *
+     * @return previous state, null for created tasks
+     */
+    public Task getBefore() {
+        return before;
+    }
+
+    /**
+     * Returns the task state after the change
+     *
+     * @return new state, null for deleted tasks
+     */
+    public Task getAfter() {
+        return after;
+    }
+}
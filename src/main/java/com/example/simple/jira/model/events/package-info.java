@@ -0,0 +1,5 @@
+/**
+ * Change events published by the simple Jira repositories.
+ * Contains the typed project and task events and a {@link java.util.concurrent.Flow.Publisher} with bounded per-subscriber buffers.
+ */
+package com.example.simple.jira.model.events;
@@ -3,6 +3,10 @@ package com.example.simple.jira.model.exceptions;
 /**
  * Signals issues while manipulating immutable model objects
  *
+ * Expected misses such as unknown identifiers are raised in stackless mode,
+ * see {@link #ModelOperationException(String, boolean)}, so that reporting
+ * them costs no more than building the message
+ *
  * @author michalkubina
  * @version 1.0
  */
@@ -29,4 +33,19 @@ public class ModelOperationException extends RuntimeException {
     public ModelOperationException(final String message, final Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Creates a new exception containing the provided message, optionally
+     * without a stack trace
+     *
+     * A stackless exception skips {@link Throwable#fillInStackTrace()}, the
+     * dominant cost of throwing, and is meant for failures the caller is
+     * expected to handle such as a missing project or task
+     *
+     * @param message detail describing what prevented the operation
+     * @param writableStackTrace false to create the exception without a stack trace
+     */
+    public ModelOperationException(final String message, final boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
+    }
 }
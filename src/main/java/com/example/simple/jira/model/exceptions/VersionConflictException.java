@@ -0,0 +1,73 @@
+package com.example.simple.jira.model.exceptions;
+
+/**
+ * Signals that a compare-and-set mutation found a different version than expected
+ *
+ * The caller read an outdated state and should re-read the entity and decide
+ * whether to retry
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class VersionConflictException extends ModelOperationException {
+
+    /**
+     * Expected version accepting any stored version, shared by the
+     * compare-and-set operations of projects and tasks
+     */
+    public static final long ANY_VERSION = 0;
+
+    /** Serialization identifier */
+    private static final long serialVersionUID = 1L;
+
+    /** Version the caller expected */
+    private final long expectedVersion;
+    /** Version actually stored */
+    private final long actualVersion;
+
+    /**
+     * Creates a new exception describing the conflict
+     *
+     * @param message detail describing the conflicting entity and versions
+     * @param expectedVersion version the caller expected
+     * @param actualVersion version actually stored
+     */
+    public VersionConflictException(final String message, final long expectedVersion, final long actualVersion) {
+        super(message);
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    /**
+     * Creates a new exception describing the conflict with its cause
+     *
+     * @param message detail describing the conflicting entity and versions
+     * @param expectedVersion version the caller expected
+     * @param actualVersion version actually stored
+     * @param cause root cause of the failure
+     */
+    public VersionConflictException(final String message, final long expectedVersion, final long actualVersion,
+            final Throwable cause) {
+        super(message, cause);
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    /**
+     * Returns the version the caller expected
+     *
+     * @return expected version
+     */
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /**
+     * Returns the version actually stored
+     *
+     * @return current version
+     */
+    public long getActualVersion() {
+        return actualVersion;
+    }
+}
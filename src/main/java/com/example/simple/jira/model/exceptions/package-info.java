@@ -1,5 +1,5 @@
 /**
  * Domain exception types used by repositories and controllers.
- * Contains error types used to report invalid model operations (e.g. not found).
+ * Contains error types used to report invalid model operations (e.g. not found, version conflicts).
  */
 package com.example.simple.jira.model.exceptions;
@@ -0,0 +1,112 @@
+package com.example.simple.jira.model.metrics;
+
+/**
+ * Immutable copy of a {@link LatencyHistogram} with percentile queries
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class HistogramSnapshot {
+
+    /** Number of values per bucket */
+    private final long[] counts;
+    /** Number of recorded values */
+    private final long count;
+    /** Sum of all recorded values */
+    private final long total;
+    /** Largest recorded value */
+    private final long max;
+
+    /**
+     * Creates a snapshot, taking ownership of the bucket counts
+     *
+     * @param counts number of values per bucket
+     * @param total sum of all recorded values
+     * @param max largest recorded value
+     */
+    HistogramSnapshot(final long[] counts, final long total, final long max) {
+        this.counts = counts;
+        this.total = total;
+        this.max = max;
+        long sum = 0;
+        for (long bucketCount : counts) {
+            sum += bucketCount;
+        }
+        this.count = sum;
+    }
+
+    /**
+     * Returns the number of recorded values
+     *
+     * @return value count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the largest recorded value
+     *
+     * @return maximum in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the mean of the recorded values
+     *
+     * @return mean in nanoseconds, zero when empty
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns the value below or at which the given share of values falls
+     *
+     * @param percentile requested percentile between 0 and 100
+     * @return highest value of the bucket holding the percentile, at most the maximum, zero when empty
+     */
+    public long getPercentile(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, LatencyHistogram.highestValueOf(bucket));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the median
+     *
+     * @return 50th percentile in nanoseconds
+     */
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    /**
+     * Returns the 99th percentile
+     *
+     * @return 99th percentile in nanoseconds
+     */
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * Returns the 99.9th percentile
+     *
+     * @return 99.9th percentile in nanoseconds
+     */
+    public long getP999() {
+        return getPercentile(99.9);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.simple.jira.model.metrics;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.ProjectStore;
+
+/**
+ * Project store decorator recording call counts, errors and latencies per method
+ *
+ * Every call, including the default query methods of the interface, is
+ * forwarded to the delegate and timed with {@link System#nanoTime()}. Calls
+ * throwing a {@link ModelOperationException} are also counted as errors.
+ * Metric holders are resolved once in the constructor, so recording a call
+ * neither locks nor allocates
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class InstrumentedProjectStore implements ProjectStore {
+
+    /** Store serving the calls */
+    private final ProjectStore delegate;
+    /** Metrics of {@code findAll} */
+    private final MethodMetrics findAll;
+    /** Metrics of {@code findPage} */
+    private final MethodMetrics findPage;
+    /** Metrics of {@code findById} */
+    private final MethodMetrics findById;
+    /** Metrics of {@code create} */
+    private final MethodMetrics create;
+    /** Metrics of {@code save} */
+    private final MethodMetrics save;
+    /** Metrics of {@code rename} */
+    private final MethodMetrics rename;
+    /** Metrics of {@code delete} */
+    private final MethodMetrics delete;
+    /** Metrics of {@code rename} with an expected version */
+    private final MethodMetrics renameCas;
+    /** Metrics of {@code delete} with an expected version */
+    private final MethodMetrics deleteCas;
+    /** Metrics of {@code tryFindById} */
+    private final MethodMetrics tryFindById;
+    /** Metrics of {@code tryRename} */
+    private final MethodMetrics tryRename;
+    /** Metrics of {@code tryDelete} */
+    private final MethodMetrics tryDelete;
+
+    /**
+     * Creates an instrumenting decorator
+     *
+     * @param delegate store serving the calls
+     * @param metrics registry receiving the measurements, may be shared with other stores
+     */
+    public InstrumentedProjectStore(final ProjectStore delegate, final StoreMetrics metrics) {
+        this.delegate = delegate;
+        this.findAll = metrics.method("ProjectStore.findAll");
+        this.findPage = metrics.method("ProjectStore.findPage");
+        this.findById = metrics.method("ProjectStore.findById");
+        this.create = metrics.method("ProjectStore.create");
+        this.save = metrics.method("ProjectStore.save");
+        this.rename = metrics.method("ProjectStore.rename");
+        this.delete = metrics.method("ProjectStore.delete");
+        this.renameCas = metrics.method("ProjectStore.rename(cas)");
+        this.deleteCas = metrics.method("ProjectStore.delete(cas)");
+        this.tryFindById = metrics.method("ProjectStore.tryFindById");
+        this.tryRename = metrics.method("ProjectStore.tryRename");
+        this.tryDelete = metrics.method("ProjectStore.tryDelete");
+    }
+
+    @Override
+    public List<Project> findAll() {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (ModelOperationException ex) {
+            findAll.error();
+            throw ex;
+        } finally {
+            findAll.record(start);
+        }
+    }
+
+    @Override
+    public Page<Project> findPage(final int afterProjectId, final int pageSize) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findPage(afterProjectId, pageSize);
+        } catch (ModelOperationException ex) {
+            findPage.error();
+            throw ex;
+        } finally {
+            findPage.record(start);
+        }
+    }
+
+    @Override
+    public Project findById(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findById(projectId);
+        } catch (ModelOperationException ex) {
+            findById.error();
+            throw ex;
+        } finally {
+            findById.record(start);
+        }
+    }
+
+    @Override
+    public Project create(final String projectName) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.create(projectName);
+        } catch (ModelOperationException ex) {
+            create.error();
+            throw ex;
+        } finally {
+            create.record(start);
+        }
+    }
+
+    @Override
+    public Project save(final Project project) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.save(project);
+        } catch (ModelOperationException ex) {
+            save.error();
+            throw ex;
+        } finally {
+            save.record(start);
+        }
+    }
+
+    @Override
+    public Project rename(final int projectId, final String newName) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.rename(projectId, newName);
+        } catch (ModelOperationException ex) {
+            rename.error();
+            throw ex;
+        } finally {
+            rename.record(start);
+        }
+    }
+
+    @Override
+    public void delete(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            delegate.delete(projectId);
+        } catch (ModelOperationException ex) {
+            delete.error();
+            throw ex;
+        } finally {
+            delete.record(start);
+        }
+    }
+
+    @Override
+    public Project rename(final int projectId, final long expectedVersion, final String newName) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.rename(projectId, expectedVersion, newName);
+        } catch (ModelOperationException ex) {
+            renameCas.error();
+            throw ex;
+        } finally {
+            renameCas.record(start);
+        }
+    }
+
+    @Override
+    public void delete(final int projectId, final long expectedVersion) {
+        final long start = System.nanoTime();
+        try {
+            delegate.delete(projectId, expectedVersion);
+        } catch (ModelOperationException ex) {
+            deleteCas.error();
+            throw ex;
+        } finally {
+            deleteCas.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Project> tryFindById(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.tryFindById(projectId);
+        } catch (ModelOperationException ex) {
+            tryFindById.error();
+            throw ex;
+        } finally {
+            tryFindById.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Project> tryRename(final int projectId, final String newName) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.tryRename(projectId, newName);
+        } catch (ModelOperationException ex) {
+            tryRename.error();
+            throw ex;
+        } finally {
+            tryRename.record(start);
+        }
+    }
+
+    @Override
+    public boolean tryDelete(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.tryDelete(projectId);
+        } catch (ModelOperationException ex) {
+            tryDelete.error();
+            throw ex;
+        } finally {
+            tryDelete.record(start);
+        }
+    }
+}
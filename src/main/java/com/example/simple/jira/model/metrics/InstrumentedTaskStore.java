@@ -0,0 +1,477 @@
+package com.example.simple.jira.model.metrics;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskCommandResult;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Task store decorator recording call counts, errors and latencies per method
+ *
+ * Every call, including the default query methods of the interface, is
+ * forwarded to the delegate and timed with {@link System#nanoTime()}. Calls
+ * throwing a {@link ModelOperationException} are also counted as errors.
+ * Metric holders are resolved once in the constructor, so recording a call
+ * neither locks nor allocates
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class InstrumentedTaskStore implements TaskStore {
+
+    /** Store serving the calls */
+    private final TaskStore delegate;
+    /** Metrics of {@code findByProject} */
+    private final MethodMetrics findByProject;
+    /** Metrics of {@code findPage} */
+    private final MethodMetrics findPage;
+    /** Metrics of {@code findByProjectAndStatus} */
+    private final MethodMetrics findByProjectAndStatus;
+    /** Metrics of {@code findByProjectAndPriority} */
+    private final MethodMetrics findByProjectAndPriority;
+    /** Metrics of {@code countByStatus} */
+    private final MethodMetrics countByStatus;
+    /** Metrics of {@code countByPriority} */
+    private final MethodMetrics countByPriority;
+    /** Metrics of {@code countByStatusAndPriority} */
+    private final MethodMetrics countByStatusAndPriority;
+    /** Metrics of {@code findTask} */
+    private final MethodMetrics findTask;
+    /** Metrics of {@code requireTasks} */
+    private final MethodMetrics requireTasks;
+    /** Metrics of {@code search(all)} */
+    private final MethodMetrics searchAll;
+    /** Metrics of {@code search(project)} */
+    private final MethodMetrics searchProject;
+    /** Metrics of {@code addTask} */
+    private final MethodMetrics addTask;
+    /** Metrics of {@code updateTaskStatus} */
+    private final MethodMetrics updateTaskStatus;
+    /** Metrics of {@code updateTaskPriority} */
+    private final MethodMetrics updateTaskPriority;
+    /** Metrics of {@code renameTask} */
+    private final MethodMetrics renameTask;
+    /** Metrics of {@code updateTaskDescription} */
+    private final MethodMetrics updateTaskDescription;
+    /** Metrics of {@code deleteTask} */
+    private final MethodMetrics deleteTask;
+    /** Metrics of {@code deleteAllForProject} */
+    private final MethodMetrics deleteAllForProject;
+    /** Metrics of {@code applyBatch} */
+    private final MethodMetrics applyBatch;
+    /** Metrics of {@code updateTaskStatus} with an expected version */
+    private final MethodMetrics updateTaskStatusCas;
+    /** Metrics of {@code updateTaskPriority} with an expected version */
+    private final MethodMetrics updateTaskPriorityCas;
+    /** Metrics of {@code renameTask} with an expected version */
+    private final MethodMetrics renameTaskCas;
+    /** Metrics of {@code updateTaskDescription} with an expected version */
+    private final MethodMetrics updateTaskDescriptionCas;
+    /** Metrics of {@code deleteTask} with an expected version */
+    private final MethodMetrics deleteTaskCas;
+    /** Metrics of {@code tryFindTask} */
+    private final MethodMetrics tryFindTask;
+    /** Metrics of {@code tryApply} */
+    private final MethodMetrics tryApply;
+    /** Metrics of {@code topK} */
+    private final MethodMetrics topK;
+
+    /**
+     * Creates an instrumenting decorator
+     *
+     * @param delegate store serving the calls
+     * @param metrics registry receiving the measurements, may be shared with other stores
+     */
+    public InstrumentedTaskStore(final TaskStore delegate, final StoreMetrics metrics) {
+        this.delegate = delegate;
+        this.findByProject = metrics.method("TaskStore.findByProject");
+        this.findPage = metrics.method("TaskStore.findPage");
+        this.findByProjectAndStatus = metrics.method("TaskStore.findByProjectAndStatus");
+        this.findByProjectAndPriority = metrics.method("TaskStore.findByProjectAndPriority");
+        this.countByStatus = metrics.method("TaskStore.countByStatus");
+        this.countByPriority = metrics.method("TaskStore.countByPriority");
+        this.countByStatusAndPriority = metrics.method("TaskStore.countByStatusAndPriority");
+        this.findTask = metrics.method("TaskStore.findTask");
+        this.requireTasks = metrics.method("TaskStore.requireTasks");
+        this.searchAll = metrics.method("TaskStore.search(all)");
+        this.searchProject = metrics.method("TaskStore.search(project)");
+        this.addTask = metrics.method("TaskStore.addTask");
+        this.updateTaskStatus = metrics.method("TaskStore.updateTaskStatus");
+        this.updateTaskPriority = metrics.method("TaskStore.updateTaskPriority");
+        this.renameTask = metrics.method("TaskStore.renameTask");
+        this.updateTaskDescription = metrics.method("TaskStore.updateTaskDescription");
+        this.deleteTask = metrics.method("TaskStore.deleteTask");
+        this.deleteAllForProject = metrics.method("TaskStore.deleteAllForProject");
+        this.applyBatch = metrics.method("TaskStore.applyBatch");
+        this.updateTaskStatusCas = metrics.method("TaskStore.updateTaskStatus(cas)");
+        this.updateTaskPriorityCas = metrics.method("TaskStore.updateTaskPriority(cas)");
+        this.renameTaskCas = metrics.method("TaskStore.renameTask(cas)");
+        this.updateTaskDescriptionCas = metrics.method("TaskStore.updateTaskDescription(cas)");
+        this.deleteTaskCas = metrics.method("TaskStore.deleteTask(cas)");
+        this.tryFindTask = metrics.method("TaskStore.tryFindTask");
+        this.tryApply = metrics.method("TaskStore.tryApply");
+        this.topK = metrics.method("TaskStore.topK");
+    }
+
+    @Override
+    public List<Task> findByProject(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findByProject(projectId);
+        } catch (ModelOperationException ex) {
+            findByProject.error();
+            throw ex;
+        } finally {
+            findByProject.record(start);
+        }
+    }
+
+    @Override
+    public Page<Task> findPage(final int projectId, final int afterTaskId, final int pageSize) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findPage(projectId, afterTaskId, pageSize);
+        } catch (ModelOperationException ex) {
+            findPage.error();
+            throw ex;
+        } finally {
+            findPage.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> findByProjectAndStatus(final int projectId, final TaskStatus status) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findByProjectAndStatus(projectId, status);
+        } catch (ModelOperationException ex) {
+            findByProjectAndStatus.error();
+            throw ex;
+        } finally {
+            findByProjectAndStatus.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> findByProjectAndPriority(final int projectId, final TaskPriority priority) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findByProjectAndPriority(projectId, priority);
+        } catch (ModelOperationException ex) {
+            findByProjectAndPriority.error();
+            throw ex;
+        } finally {
+            findByProjectAndPriority.record(start);
+        }
+    }
+
+    @Override
+    public int countByStatus(final int projectId, final TaskStatus status) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.countByStatus(projectId, status);
+        } catch (ModelOperationException ex) {
+            countByStatus.error();
+            throw ex;
+        } finally {
+            countByStatus.record(start);
+        }
+    }
+
+    @Override
+    public int countByPriority(final int projectId, final TaskPriority priority) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.countByPriority(projectId, priority);
+        } catch (ModelOperationException ex) {
+            countByPriority.error();
+            throw ex;
+        } finally {
+            countByPriority.record(start);
+        }
+    }
+
+    @Override
+    public int countByStatusAndPriority(final int projectId, final TaskStatus status, final TaskPriority priority) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.countByStatusAndPriority(projectId, status, priority);
+        } catch (ModelOperationException ex) {
+            countByStatusAndPriority.error();
+            throw ex;
+        } finally {
+            countByStatusAndPriority.record(start);
+        }
+    }
+
+    @Override
+    public Task findTask(final int projectId, final int taskId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.findTask(projectId, taskId);
+        } catch (ModelOperationException ex) {
+            findTask.error();
+            throw ex;
+        } finally {
+            findTask.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> requireTasks(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.requireTasks(projectId);
+        } catch (ModelOperationException ex) {
+            requireTasks.error();
+            throw ex;
+        } finally {
+            requireTasks.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> search(final String query, final int limit) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.search(query, limit);
+        } catch (ModelOperationException ex) {
+            searchAll.error();
+            throw ex;
+        } finally {
+            searchAll.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> search(final int projectId, final String query, final int limit) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.search(projectId, query, limit);
+        } catch (ModelOperationException ex) {
+            searchProject.error();
+            throw ex;
+        } finally {
+            searchProject.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> topK(final int projectId, final int k, final Set<TaskStatus> statuses) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.topK(projectId, k, statuses);
+        } catch (ModelOperationException ex) {
+            topK.error();
+            throw ex;
+        } finally {
+            topK.record(start);
+        }
+    }
+
+    @Override
+    public Task addTask(final int projectId, final String title, final String description) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.addTask(projectId, title, description);
+        } catch (ModelOperationException ex) {
+            addTask.error();
+            throw ex;
+        } finally {
+            addTask.record(start);
+        }
+    }
+
+    @Override
+    public void updateTaskStatus(final int projectId, final int taskId, final TaskStatus status) {
+        final long start = System.nanoTime();
+        try {
+            delegate.updateTaskStatus(projectId, taskId, status);
+        } catch (ModelOperationException ex) {
+            updateTaskStatus.error();
+            throw ex;
+        } finally {
+            updateTaskStatus.record(start);
+        }
+    }
+
+    @Override
+    public void updateTaskPriority(final int projectId, final int taskId, final TaskPriority priority) {
+        final long start = System.nanoTime();
+        try {
+            delegate.updateTaskPriority(projectId, taskId, priority);
+        } catch (ModelOperationException ex) {
+            updateTaskPriority.error();
+            throw ex;
+        } finally {
+            updateTaskPriority.record(start);
+        }
+    }
+
+    @Override
+    public void renameTask(final int projectId, final int taskId, final String newTitle) {
+        final long start = System.nanoTime();
+        try {
+            delegate.renameTask(projectId, taskId, newTitle);
+        } catch (ModelOperationException ex) {
+            renameTask.error();
+            throw ex;
+        } finally {
+            renameTask.record(start);
+        }
+    }
+
+    @Override
+    public void updateTaskDescription(final int projectId, final int taskId, final String newDescription) {
+        final long start = System.nanoTime();
+        try {
+            delegate.updateTaskDescription(projectId, taskId, newDescription);
+        } catch (ModelOperationException ex) {
+            updateTaskDescription.error();
+            throw ex;
+        } finally {
+            updateTaskDescription.record(start);
+        }
+    }
+
+    @Override
+    public void deleteTask(final int projectId, final int taskId) {
+        final long start = System.nanoTime();
+        try {
+            delegate.deleteTask(projectId, taskId);
+        } catch (ModelOperationException ex) {
+            deleteTask.error();
+            throw ex;
+        } finally {
+            deleteTask.record(start);
+        }
+    }
+
+    @Override
+    public void deleteAllForProject(final int projectId) {
+        final long start = System.nanoTime();
+        try {
+            delegate.deleteAllForProject(projectId);
+        } catch (ModelOperationException ex) {
+            deleteAllForProject.error();
+            throw ex;
+        } finally {
+            deleteAllForProject.record(start);
+        }
+    }
+
+    @Override
+    public List<TaskCommandResult> applyBatch(final int projectId, final List<TaskCommand> commands) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.applyBatch(projectId, commands);
+        } catch (ModelOperationException ex) {
+            applyBatch.error();
+            throw ex;
+        } finally {
+            applyBatch.record(start);
+        }
+    }
+
+    @Override
+    public Task updateTaskStatus(final int projectId, final int taskId, final long expectedVersion,
+                                 final TaskStatus status) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.updateTaskStatus(projectId, taskId, expectedVersion, status);
+        } catch (ModelOperationException ex) {
+            updateTaskStatusCas.error();
+            throw ex;
+        } finally {
+            updateTaskStatusCas.record(start);
+        }
+    }
+
+    @Override
+    public Task updateTaskPriority(final int projectId, final int taskId, final long expectedVersion,
+                                   final TaskPriority priority) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.updateTaskPriority(projectId, taskId, expectedVersion, priority);
+        } catch (ModelOperationException ex) {
+            updateTaskPriorityCas.error();
+            throw ex;
+        } finally {
+            updateTaskPriorityCas.record(start);
+        }
+    }
+
+    @Override
+    public Task renameTask(final int projectId, final int taskId, final long expectedVersion, final String newTitle) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.renameTask(projectId, taskId, expectedVersion, newTitle);
+        } catch (ModelOperationException ex) {
+            renameTaskCas.error();
+            throw ex;
+        } finally {
+            renameTaskCas.record(start);
+        }
+    }
+
+    @Override
+    public Task updateTaskDescription(final int projectId, final int taskId, final long expectedVersion,
+                                      final String newDescription) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.updateTaskDescription(projectId, taskId, expectedVersion, newDescription);
+        } catch (ModelOperationException ex) {
+            updateTaskDescriptionCas.error();
+            throw ex;
+        } finally {
+            updateTaskDescriptionCas.record(start);
+        }
+    }
+
+    @Override
+    public void deleteTask(final int projectId, final int taskId, final long expectedVersion) {
+        final long start = System.nanoTime();
+        try {
+            delegate.deleteTask(projectId, taskId, expectedVersion);
+        } catch (ModelOperationException ex) {
+            deleteTaskCas.error();
+            throw ex;
+        } finally {
+            deleteTaskCas.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Task> tryFindTask(final int projectId, final int taskId) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.tryFindTask(projectId, taskId);
+        } catch (ModelOperationException ex) {
+            tryFindTask.error();
+            throw ex;
+        } finally {
+            tryFindTask.record(start);
+        }
+    }
+
+    @Override
+    public Optional<Task> tryApply(final int projectId, final TaskCommand command) {
+        final long start = System.nanoTime();
+        try {
+            return delegate.tryApply(projectId, command);
+        } catch (ModelOperationException ex) {
+            tryApply.error();
+            throw ex;
+        } finally {
+            tryApply.record(start);
+        }
+    }
+}
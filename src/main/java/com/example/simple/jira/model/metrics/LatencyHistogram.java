@@ -0,0 +1,96 @@
+package com.example.simple.jira.model.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, allocation-free histogram of latencies in nanoseconds
+ *
+ * Values are counted in log-linear buckets: values below
+ * {@value #SUB_BUCKETS} have a bucket each and every further power of two is
+ * split into {@value #SUB_BUCKETS} equal buckets, so any recorded value is
+ * reported with a relative error below 1/{@value #SUB_BUCKETS}. Recording
+ * computes the bucket with a few bit operations and increments one slot of
+ * an {@link AtomicLongArray}, so it never locks and never allocates
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    /** Number of bits selecting the bucket within a power of two */
+    private static final int SUB_BUCKET_BITS = 4;
+    /** Number of buckets per power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Total number of buckets covering every non-negative long */
+    static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** Number of values per bucket */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    /** Sum of all recorded values */
+    private final LongAdder total = new LongAdder();
+    /** Largest recorded value */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value
+     *
+     * @param nanos latency in nanoseconds, negative values are recorded as zero
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        total.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Captures the current state
+     *
+     * Concurrent recordings may be partially visible, the snapshot is
+     * consistent per bucket
+     *
+     * @return immutable snapshot of the histogram
+     */
+    public HistogramSnapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new HistogramSnapshot(counts, total.sum(), max.get());
+    }
+
+    /**
+     * Returns the bucket of a value
+     *
+     * @param value non-negative value
+     * @return bucket index
+     */
+    static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the largest value counted in a bucket
+     *
+     * @param bucket bucket index
+     * @return highest value mapping to the bucket
+     */
+    static long highestValueOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
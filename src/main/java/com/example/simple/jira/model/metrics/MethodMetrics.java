@@ -0,0 +1,53 @@
+package com.example.simple.jira.model.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one instrumented method
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class MethodMetrics {
+
+    /** Qualified method name */
+    private final String method;
+    /** Number of calls that threw a domain error */
+    private final LongAdder errors = new LongAdder();
+    /** Latencies of all calls */
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Creates empty metrics
+     *
+     * @param method qualified method name
+     */
+    MethodMetrics(final String method) {
+        this.method = method;
+    }
+
+    /**
+     * Records a finished call
+     *
+     * @param startNanos {@link System#nanoTime()} taken before the call
+     */
+    void record(final long startNanos) {
+        latencies.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts a call that threw a domain error
+     */
+    void error() {
+        errors.increment();
+    }
+
+    /**
+     * Captures the current statistics
+     *
+     * @return immutable statistics
+     */
+    MethodStatistics snapshot() {
+        return new MethodStatistics(method, errors.sum(), latencies.snapshot());
+    }
+}
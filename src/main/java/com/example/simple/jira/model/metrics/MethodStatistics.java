@@ -0,0 +1,67 @@
+package com.example.simple.jira.model.metrics;
+
+/**
+ * Immutable statistics of one instrumented method
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class MethodStatistics {
+
+    /** Qualified method name such as {@code TaskStore.addTask} */
+    private final String method;
+    /** Number of failed calls */
+    private final long errors;
+    /** Latencies of all calls */
+    private final HistogramSnapshot latencies;
+
+    /**
+     * Creates the statistics
+     *
+     * @param method qualified method name
+     * @param errors number of calls that threw a domain error
+     * @param latencies latencies of all calls
+     */
+    MethodStatistics(final String method, final long errors, final HistogramSnapshot latencies) {
+        this.method = method;
+        this.errors = errors;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Returns the qualified method name
+     *
+     * @return method name prefixed with the store interface
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the number of calls, successful or not
+     *
+     * @return call count
+     */
+    public long getCalls() {
+        return latencies.getCount();
+    }
+
+    /**
+     * Returns the number of calls that threw a
+     * {@link com.example.simple.jira.model.exceptions.ModelOperationException}
+     *
+     * @return error count
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the latencies of all calls
+     *
+     * @return latency histogram snapshot in nanoseconds
+     */
+    public HistogramSnapshot getLatencies() {
+        return latencies;
+    }
+}
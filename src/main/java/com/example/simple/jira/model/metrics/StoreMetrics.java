@@ -0,0 +1,95 @@
+package com.example.simple.jira.model.metrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the metrics recorded by instrumented stores
+ *
+ * One registry may be shared by several decorators, methods are keyed by
+ * their qualified name. Statistics are cumulative since the registry was
+ * created and can be read as a snapshot, rendered as a text report or
+ * reported periodically
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class StoreMetrics {
+
+    /** Header of the text report */
+    private static final String REPORT_HEADER = String.format(Locale.ROOT, "%-40s %12s %8s %10s %10s %10s %10s %10s%n",
+            "method", "calls", "errors", "mean(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+
+    /** Metrics by qualified method name, ordered for reports */
+    private final ConcurrentSkipListMap<String, MethodMetrics> methods = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the metrics of a method, creating them on first use
+     *
+     * @param method qualified method name
+     * @return live metrics of the method
+     */
+    MethodMetrics method(final String method) {
+        return methods.computeIfAbsent(method, MethodMetrics::new);
+    }
+
+    /**
+     * Captures the statistics of every method
+     *
+     * @return immutable list of statistics ordered by method name
+     */
+    public List<MethodStatistics> snapshot() {
+        final List<MethodStatistics> statistics = new ArrayList<>(methods.size());
+        for (MethodMetrics metrics : methods.values()) {
+            statistics.add(metrics.snapshot());
+        }
+        return Collections.unmodifiableList(statistics);
+    }
+
+    /**
+     * Renders the statistics of every called method as a text table
+     *
+     * @return report with one line per method, latencies in microseconds
+     */
+    public String report() {
+        final StringBuilder report = new StringBuilder(REPORT_HEADER);
+        for (MethodStatistics statistics : snapshot()) {
+            if (statistics.getCalls() == 0) {
+                continue;
+            }
+            final HistogramSnapshot latencies = statistics.getLatencies();
+            report.append(String.format(Locale.ROOT, "%-40s %12d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    statistics.getMethod(), statistics.getCalls(), statistics.getErrors(),
+                    latencies.getMean() / 1_000, latencies.getP50() / 1_000.0, latencies.getP99() / 1_000.0,
+                    latencies.getP999() / 1_000.0, latencies.getMax() / 1_000.0));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Starts handing the text report to a sink at a fixed rate
+     *
+     * @param interval time between reports
+     * @param sink consumer of the rendered reports, called from a daemon thread
+     * @return handle stopping the reports when closed
+     */
+    public Closeable startReporting(final Duration interval, final Consumer<String> sink) {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long period = interval.toMillis();
+        scheduler.scheduleAtFixedRate(() -> sink.accept(report()), period, period, TimeUnit.MILLISECONDS);
+        return scheduler::shutdownNow;
+    }
+}
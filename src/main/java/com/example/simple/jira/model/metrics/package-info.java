@@ -0,0 +1,5 @@
+/**
+ * Runtime metrics for the simple Jira repositories.
+ * Contains lock-free latency histograms and store decorators recording calls, errors and latencies per method.
+ */
+package com.example.simple.jira.model.metrics;
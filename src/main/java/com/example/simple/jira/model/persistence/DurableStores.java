@@ -0,0 +1,210 @@
+package com.example.simple.jira.model.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Durable pair of project and task stores backed by a write-ahead log and snapshots
+ *
+ * Opening loads the latest {@link SnapshotFile}, replays the log written
+ * since then into fresh in-memory repositories and wraps them in journaling
+ * decorators, so the returned stores continue exactly where the previous
+ * process stopped
+ *
+ * A checkpoint rotates the log into an archive, writes a new snapshot and
+ * drops the archive. Log records hold resulting states, so records that are
+ * already reflected in a snapshot can be replayed again harmlessly, which
+ * lets checkpoints run while writers keep going. Files used next to the log
+ * file {@code L}: {@code L.snapshot} and, during a checkpoint, {@code L.prev}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class DurableStores implements Closeable {
+
+    /** Default interval between forces for {@link FsyncPolicy#INTERVAL} */
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofMillis(100);
+    /** Default interval between periodic checkpoints */
+    public static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofMinutes(5);
+
+    /** Log shared by both stores */
+    private final WriteAheadLog log;
+    /** Snapshot file next to the log */
+    private final Path snapshotFile;
+    /** Archive receiving the log during a checkpoint */
+    private final Path archiveFile;
+    /** Repository holding the project state */
+    private final ProjectRepository projects;
+    /** Repository holding the task state */
+    private final TaskRepository tasks;
+    /** Journaling project store */
+    private final JournaledProjectStore projectStore;
+    /** Journaling task store */
+    private final JournaledTaskStore taskStore;
+    /** Scheduler running periodic checkpoints, {@code null} when disabled */
+    private final ScheduledExecutorService checkpointScheduler;
+    /** Number of completed checkpoints */
+    private final AtomicLong checkpoints = new AtomicLong();
+    /** Number of failed checkpoints */
+    private final AtomicLong checkpointFailures = new AtomicLong();
+    /** Description of the most recent checkpoint failure, {@code null} when none failed */
+    private volatile String lastCheckpointError;
+
+    private DurableStores(final WriteAheadLog log, final Path snapshotFile, final Path archiveFile,
+            final ProjectRepository projects, final TaskRepository tasks, final Duration checkpointInterval) {
+        this.log = log;
+        this.snapshotFile = snapshotFile;
+        this.archiveFile = archiveFile;
+        this.projects = projects;
+        this.tasks = tasks;
+        this.projectStore = new JournaledProjectStore(projects, log);
+        this.taskStore = new JournaledTaskStore(tasks, projectStore);
+        if (checkpointInterval == null || checkpointInterval.isZero()) {
+            this.checkpointScheduler = null;
+        } else {
+            this.checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "snapshot-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long period = checkpointInterval.toMillis();
+            checkpointScheduler.scheduleWithFixedDelay(this::periodicCheckpoint, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens durable stores without periodic checkpoints
+     *
+     * @param logFile file holding the write-ahead log
+     * @param policy policy deciding when records are forced to disk
+     * @param syncInterval interval between forces for {@link FsyncPolicy#INTERVAL}
+     * @return stores reflecting the snapshot and the replayed log
+     * @throws java.io.UncheckedIOException when the files cannot be opened or read
+     */
+    public static DurableStores open(final Path logFile, final FsyncPolicy policy, final Duration syncInterval) {
+        return open(logFile, policy, syncInterval, null);
+    }
+
+    /**
+     * Opens durable stores from a log file and its snapshot, creating them when missing
+     *
+     * @param logFile file holding the write-ahead log
+     * @param policy policy deciding when records are forced to disk
+     * @param syncInterval interval between forces for {@link FsyncPolicy#INTERVAL}
+     * @param checkpointInterval interval between periodic checkpoints, {@code null} or zero to disable
+     * @return stores reflecting the snapshot and the replayed log
+     * @throws java.io.UncheckedIOException when the files cannot be opened or read
+     */
+    public static DurableStores open(final Path logFile, final FsyncPolicy policy, final Duration syncInterval,
+            final Duration checkpointInterval) {
+        final Path snapshotFile = logFile.resolveSibling(logFile.getFileName() + ".snapshot");
+        final Path archiveFile = logFile.resolveSibling(logFile.getFileName() + ".prev");
+        final ProjectRepository projects = new ProjectRepository();
+        final TaskRepository tasks = new TaskRepository(projects);
+        SnapshotFile.load(snapshotFile, projects, tasks);
+        WriteAheadLog.replay(archiveFile, record -> JournalCodec.apply(record, projects, tasks));
+        final WriteAheadLog log = WriteAheadLog.open(logFile, policy, syncInterval,
+                record -> JournalCodec.apply(record, projects, tasks));
+        return new DurableStores(log, snapshotFile, archiveFile, projects, tasks, checkpointInterval);
+    }
+
+    /**
+     * Returns the durable project store
+     *
+     * @return project store journaling its mutations
+     */
+    public ProjectStore getProjectStore() {
+        return projectStore;
+    }
+
+    /**
+     * Returns the durable task store
+     *
+     * @return task store journaling its mutations
+     */
+    public TaskStore getTaskStore() {
+        return taskStore;
+    }
+
+    /**
+     * Returns counters describing the cost of journaling and the checkpoints so far
+     *
+     * @return log and checkpoint statistics
+     */
+    public JournalStatistics getStatistics() {
+        final JournalStatistics journal = log.statistics();
+        return new JournalStatistics(journal.getRecords(), journal.getBytes(), journal.getBatches(),
+                journal.getSyncs(), journal.getSyncNanos(), checkpoints.get(), checkpointFailures.get(),
+                lastCheckpointError);
+    }
+
+    /**
+     * Writes a snapshot of the current state and drops the log it covers
+     *
+     * A failure is counted in {@link #getStatistics()} and leaves the
+     * archive in place. The next checkpoint then keeps appending to the log
+     * instead of rotating it over the archive, and its snapshot covers the
+     * records of both
+     *
+     * @return number of tasks in the snapshot
+     * @throws java.io.UncheckedIOException when the snapshot cannot be written
+     */
+    public synchronized long checkpoint() {
+        final long taskCount;
+        try {
+            if (!Files.exists(archiveFile)) {
+                log.rotate(archiveFile);
+            }
+            taskCount = SnapshotFile.write(snapshotFile, projects, tasks);
+        } catch (RuntimeException ex) {
+            checkpointFailures.incrementAndGet();
+            lastCheckpointError = ex.toString();
+            throw ex;
+        }
+        checkpoints.incrementAndGet();
+        try {
+            Files.deleteIfExists(archiveFile);
+        } catch (IOException ex) {
+            // harmless, the archive is replayed idempotently on the next start
+        }
+        return taskCount;
+    }
+
+    private void periodicCheckpoint() {
+        try {
+            checkpoint();
+        } catch (RuntimeException ex) {
+            System.err.println("Checkpoint into " + snapshotFile + " failed, retrying in the next interval ("
+                    + checkpointFailures.get() + " failures so far): " + ex);
+        }
+    }
+
+    /**
+     * Stops periodic checkpoints, writes a final checkpoint and closes the log
+     *
+     * @throws IOException when the final write fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdownNow();
+        }
+        try {
+            checkpoint();
+        } finally {
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.simple.jira.model.persistence;
+
+/**
+ * Strategies deciding when journaled records are forced to stable storage
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public enum FsyncPolicy {
+    /**
+     * Every mutation waits until its record is forced to disk. Records of
+     * concurrent writers are group committed with a single fsync
+     */
+    ALWAYS,
+    /**
+     * Mutations return once their record is queued and the log is forced at a
+     * fixed interval, bounding the window of lost writes after a crash
+     */
+    INTERVAL,
+    /**
+     * Mutations return once their record is queued and the log is forced only
+     * when it is closed, leaving durability to the operating system
+     */
+    NEVER
+}
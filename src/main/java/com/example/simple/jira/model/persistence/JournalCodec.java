@@ -0,0 +1,243 @@
+package com.example.simple.jira.model.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskCommandResult;
+import com.example.simple.jira.model.repository.TaskRepository;
+
+/**
+ * Binary encoding of journal records
+ *
+ * Records describe resulting states rather than operations, so replaying
+ * them is independent of identifier allocation order. Strings are written as
+ * a length followed by UTF-8 bytes, with {@code -1} standing for {@code null}.
+ * Saved projects and tasks carry their versions
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class JournalCodec {
+
+    /** Project created, renamed or saved */
+    private static final byte PROJECT_SAVED = 1;
+    /** Project removed */
+    private static final byte PROJECT_DELETED = 2;
+    /** Task created or updated */
+    private static final byte TASK_SAVED = 3;
+    /** Task removed */
+    private static final byte TASK_DELETED = 4;
+    /** All tasks of a project removed */
+    private static final byte TASKS_CLEARED = 5;
+    /** Several task records that must be replayed together */
+    private static final byte TASK_BATCH = 6;
+
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Cached priority constants indexed by ordinal */
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    private JournalCodec() {
+    }
+
+    static byte[] projectSaved(final Project project) {
+        final Encoder encoder = new Encoder(PROJECT_SAVED);
+        encoder.writeInt(project.getProjectId());
+        encoder.writeString(project.getProjectName());
+        encoder.writeLong(project.getVersion());
+        return encoder.toByteArray();
+    }
+
+    static byte[] projectDeleted(final int projectId) {
+        final Encoder encoder = new Encoder(PROJECT_DELETED);
+        encoder.writeInt(projectId);
+        return encoder.toByteArray();
+    }
+
+    static byte[] taskSaved(final Task task) {
+        final Encoder encoder = new Encoder(TASK_SAVED);
+        encoder.writeTask(task);
+        return encoder.toByteArray();
+    }
+
+    static byte[] taskDeleted(final int projectId, final int taskId) {
+        final Encoder encoder = new Encoder(TASK_DELETED);
+        encoder.writeInt(projectId);
+        encoder.writeInt(taskId);
+        return encoder.toByteArray();
+    }
+
+    static byte[] tasksCleared(final int projectId) {
+        final Encoder encoder = new Encoder(TASKS_CLEARED);
+        encoder.writeInt(projectId);
+        return encoder.toByteArray();
+    }
+
+    static byte[] taskBatch(final List<TaskCommandResult> results) {
+        final Encoder encoder = new Encoder(TASK_BATCH);
+        encoder.writeInt(results.size());
+        for (TaskCommandResult result : results) {
+            final Task task = result.getTask();
+            if (result.getCommand().getType() == TaskCommand.Type.DELETE) {
+                encoder.writeByte(TASK_DELETED);
+                encoder.writeInt(task.getProjectId());
+                encoder.writeInt(task.getTaskId());
+            } else {
+                encoder.writeByte(TASK_SAVED);
+                encoder.writeTask(task);
+            }
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Applies a journal record to the repositories
+     *
+     * Deletions of entries that no longer exist are ignored, since records of
+     * concurrent project and task operations may interleave in the log
+     *
+     * @param record payload of the record
+     * @param projects repository receiving project records
+     * @param tasks repository receiving task records
+     * @throws ModelOperationException when the record type is unknown
+     */
+    static void apply(final ByteBuffer record, final ProjectRepository projects, final TaskRepository tasks) {
+        final byte type = record.get();
+        switch (type) {
+            case PROJECT_SAVED:
+                final int savedProjectId = record.getInt();
+                final String name = readString(record);
+                projects.save(new Project(savedProjectId, name, record.getLong()));
+                break;
+            case PROJECT_DELETED:
+                final int projectId = record.getInt();
+                try {
+                    projects.delete(projectId);
+                } catch (ModelOperationException ex) {
+                    // already gone
+                }
+                break;
+            case TASKS_CLEARED:
+                tasks.deleteAllForProject(record.getInt());
+                break;
+            case TASK_BATCH:
+                final int count = record.getInt();
+                for (int i = 0; i < count; i++) {
+                    applyTaskRecord(record.get(), record, tasks);
+                }
+                break;
+            default:
+                applyTaskRecord(type, record, tasks);
+        }
+    }
+
+    private static void applyTaskRecord(final byte type, final ByteBuffer record, final TaskRepository tasks) {
+        if (type == TASK_SAVED) {
+            tasks.restore(readTask(record));
+        } else if (type == TASK_DELETED) {
+            final int projectId = record.getInt();
+            final int taskId = record.getInt();
+            try {
+                tasks.deleteTask(projectId, taskId);
+            } catch (ModelOperationException ex) {
+                // already gone
+            }
+        } else {
+            throw new ModelOperationException("Unknown journal record type " + type);
+        }
+    }
+
+    private static Task readTask(final ByteBuffer record) {
+        final int taskId = record.getInt();
+        final int projectId = record.getInt();
+        final TaskStatus status = STATUSES[record.get()];
+        final TaskPriority priority = PRIORITIES[record.get()];
+        final String title = readString(record);
+        final String description = readString(record);
+        return new Task(taskId, title, description, status, priority, projectId, record.getLong());
+    }
+
+    private static String readString(final ByteBuffer record) {
+        final int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds a single record in memory
+     */
+    private static final class Encoder {
+        /** Collected bytes */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        /** Primitive writer over {@link #bytes} */
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private Encoder(final byte type) {
+            writeByte(type);
+        }
+
+        private void writeByte(final int value) {
+            try {
+                out.writeByte(value);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void writeInt(final int value) {
+            try {
+                out.writeInt(value);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void writeLong(final long value) {
+            try {
+                out.writeLong(value);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void writeString(final String value) {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(encoded.length);
+            bytes.writeBytes(encoded);
+        }
+
+        private void writeTask(final Task task) {
+            writeInt(task.getTaskId());
+            writeInt(task.getProjectId());
+            writeByte(task.getStatus().ordinal());
+            writeByte(task.getPriority().ordinal());
+            writeString(task.getTitle());
+            writeString(task.getDescription());
+            writeLong(task.getVersion());
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.simple.jira.model.persistence;
+
+/**
+ * Immutable counters describing the work done by a {@link WriteAheadLog}
+ *
+ * Statistics obtained from {@link DurableStores#getStatistics()} also count
+ * the checkpoints, statistics of a bare log report none
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class JournalStatistics {
+
+    /** Number of records written */
+    private final long records;
+    /** Number of bytes written including framing */
+    private final long bytes;
+    /** Number of group commits, each writing one or more records */
+    private final long batches;
+    /** Number of fsync calls */
+    private final long syncs;
+    /** Total time spent in fsync calls in nanoseconds */
+    private final long syncNanos;
+    /** Number of completed checkpoints */
+    private final long checkpoints;
+    /** Number of failed checkpoints */
+    private final long checkpointFailures;
+    /** Description of the most recent checkpoint failure, {@code null} when none failed */
+    private final String lastCheckpointError;
+
+    /**
+     * Creates a new statistics snapshot
+     *
+     * @param records number of records written
+     * @param bytes number of bytes written
+     * @param batches number of group commits
+     * @param syncs number of fsync calls
+     * @param syncNanos total time spent in fsync calls in nanoseconds
+     */
+    public JournalStatistics(final long records, final long bytes, final long batches, final long syncs,
+            final long syncNanos) {
+        this(records, bytes, batches, syncs, syncNanos, 0, 0, null);
+    }
+
+    /**
+     * Creates a new statistics snapshot including checkpoint counters
+     *
+     * @param records number of records written
+     * @param bytes number of bytes written
+     * @param batches number of group commits
+     * @param syncs number of fsync calls
+     * @param syncNanos total time spent in fsync calls in nanoseconds
+     * @param checkpoints number of completed checkpoints
+     * @param checkpointFailures number of failed checkpoints
+     * @param lastCheckpointError description of the most recent checkpoint failure, {@code null} when none failed
+     */
+    public JournalStatistics(final long records, final long bytes, final long batches, final long syncs,
+            final long syncNanos, final long checkpoints, final long checkpointFailures,
+            final String lastCheckpointError) {
+        this.records = records;
+        this.bytes = bytes;
+        this.batches = batches;
+        this.syncs = syncs;
+        this.syncNanos = syncNanos;
+        this.checkpoints = checkpoints;
+        this.checkpointFailures = checkpointFailures;
+        this.lastCheckpointError = lastCheckpointError;
+    }
+
+    /**
+     * Returns the number of records written
+     *
+     * @return record count
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns the number of bytes written including framing
+     *
+     * @return byte count
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of group commits
+     *
+     * @return batch count
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Returns the number of fsync calls
+     *
+     * @return sync count
+     */
+    public long getSyncs() {
+        return syncs;
+    }
+
+    /**
+     * Returns the total time spent in fsync calls
+     *
+     * @return time in nanoseconds
+     */
+    public long getSyncNanos() {
+        return syncNanos;
+    }
+
+    /**
+     * Returns the number of completed checkpoints
+     *
+     * @return checkpoint count
+     */
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Returns the number of failed checkpoints
+     *
+     * While checkpoints fail the log is never truncated and keeps growing
+     *
+     * @return failure count
+     */
+    public long getCheckpointFailures() {
+        return checkpointFailures;
+    }
+
+    /**
+     * Returns the description of the most recent checkpoint failure
+     *
+     * @return error description, {@code null} when no checkpoint failed
+     */
+    public String getLastCheckpointError() {
+        return lastCheckpointError;
+    }
+
+    /**
+     * Returns the average number of records per fsync call
+     *
+     * @return records per sync, {@code 0} when nothing was synced
+     */
+    public double getRecordsPerSync() {
+        return syncs == 0 ? 0 : (double) records / syncs;
+    }
+
+    /**
+     * Returns the average duration of an fsync call
+     *
+     * @return time in nanoseconds, {@code 0} when nothing was synced
+     */
+    public double getAverageSyncNanos() {
+        return syncs == 0 ? 0 : (double) syncNanos / syncs;
+    }
+
+    /**
+     * Formats the statistics for display
+     *
+     * @return human readable statistics
+     */
+    @Override
+    public String toString() {
+        final String journal = String.format("%d records, %d bytes, %d batches, %d syncs (%.1f records/sync,"
+                + " %.3f ms/sync)", records, bytes, batches, syncs, getRecordsPerSync(),
+                getAverageSyncNanos() / 1_000_000d);
+        if (checkpointFailures == 0) {
+            return journal;
+        }
+        return journal + ", " + checkpointFailures + " failed checkpoints, last: " + lastCheckpointError;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.simple.jira.model.persistence;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.ProjectStore;
+
+/**
+ * Project store decorator recording every successful mutation in a {@link WriteAheadLog}
+ *
+ * Reads are served directly by the delegate. Mutations are applied to the
+ * delegate first and journaled afterwards, then wait for durability as
+ * required by the {@link FsyncPolicy} of the log. A mutation whose record
+ * the log refuses is undone in the delegate before the error is rethrown
+ *
+ * Mutations hold the stripe of their project, which a
+ * {@link JournaledTaskStore} created over this store shares, so deleting a
+ * project and changing its tasks are journaled in the order they were applied
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class JournaledProjectStore implements ProjectStore {
+
+    /** Repository holding the current state, the one the log is replayed into */
+    private final ProjectRepository delegate;
+    /** Log receiving mutation records */
+    private final WriteAheadLog log;
+    /** Monitors ordering records of the same project, shared with the task store */
+    private final LockStripes stripes = new LockStripes();
+
+    /**
+     * Creates a journaling decorator
+     *
+     * @param delegate repository holding the current state
+     * @param log log receiving mutation records
+     */
+    public JournaledProjectStore(final ProjectRepository delegate, final WriteAheadLog log) {
+        this.delegate = delegate;
+        this.log = log;
+    }
+
+    /**
+     * Returns the log receiving mutation records
+     *
+     * @return write-ahead log
+     */
+    WriteAheadLog log() {
+        return log;
+    }
+
+    /**
+     * Returns the monitors ordering records of the same project
+     *
+     * @return lock stripes keyed by project identifier
+     */
+    LockStripes stripes() {
+        return stripes;
+    }
+
+    @Override
+    public List<Project> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Project> findPage(final int afterProjectId, final int pageSize) {
+        return delegate.findPage(afterProjectId, pageSize);
+    }
+
+    @Override
+    public Project findById(final int projectId) {
+        return delegate.findById(projectId);
+    }
+
+    @Override
+    public Optional<Project> tryFindById(final int projectId) {
+        return delegate.tryFindById(projectId);
+    }
+
+    /**
+     * Creates a project and journals its current state
+     *
+     * The identifier is known only after creation, so the state is re-read
+     * under the project's stripe to stay ordered with concurrent mutations
+     *
+     * @param projectName name of the new project
+     * @return created project instance
+     */
+    @Override
+    public Project create(final String projectName) {
+        final Project created = delegate.create(projectName);
+        final long sequence;
+        synchronized (stripes.forId(created.getProjectId())) {
+            final Optional<Project> current = delegate.tryFindById(created.getProjectId());
+            if (current.isEmpty()) {
+                return created;
+            }
+            sequence = append(() -> JournalCodec.projectSaved(current.get()),
+                    () -> delegate.tryDelete(created.getProjectId()));
+        }
+        log.awaitDurable(sequence);
+        return created;
+    }
+
+    @Override
+    public Project save(final Project project) {
+        final Project saved;
+        final long sequence;
+        synchronized (stripes.forId(project.getProjectId())) {
+            final Optional<Project> previous = delegate.tryFindById(project.getProjectId());
+            saved = delegate.save(project);
+            sequence = append(() -> JournalCodec.projectSaved(saved), () -> {
+                if (previous.isPresent()) {
+                    delegate.save(previous.get());
+                } else {
+                    delegate.tryDelete(project.getProjectId());
+                }
+            });
+        }
+        log.awaitDurable(sequence);
+        return saved;
+    }
+
+    @Override
+    public Project rename(final int projectId, final String newName) {
+        return rename(projectId, VersionConflictException.ANY_VERSION, newName);
+    }
+
+    @Override
+    public void delete(final int projectId) {
+        delete(projectId, VersionConflictException.ANY_VERSION);
+    }
+
+    @Override
+    public Project rename(final int projectId, final long expectedVersion, final String newName) {
+        final Project renamed;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Project previous = delegate.findById(projectId);
+            renamed = delegate.rename(projectId, expectedVersion, newName);
+            sequence = append(() -> JournalCodec.projectSaved(renamed), () -> delegate.save(previous));
+        }
+        log.awaitDurable(sequence);
+        return renamed;
+    }
+
+    @Override
+    public void delete(final int projectId, final long expectedVersion) {
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Project previous = delegate.findById(projectId);
+            delegate.delete(projectId, expectedVersion);
+            sequence = append(() -> JournalCodec.projectDeleted(projectId), () -> delegate.save(previous));
+        }
+        log.awaitDurable(sequence);
+    }
+
+    /**
+     * Queues the record of a mutation already applied to the delegate,
+     * undoing the mutation when the record cannot be queued
+     *
+     * @param record encodes the record from the applied mutation
+     * @param undo restores the delegate state from before the mutation
+     * @return sequence number of the record
+     */
+    private long append(final Supplier<byte[]> record, final Runnable undo) {
+        try {
+            return log.append(record.get());
+        } catch (RuntimeException ex) {
+            try {
+                undo.run();
+            } catch (RuntimeException undoFailure) {
+                ex.addSuppressed(undoFailure);
+            }
+            throw ex;
+        }
+    }
+}
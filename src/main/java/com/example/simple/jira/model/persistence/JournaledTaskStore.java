@@ -0,0 +1,355 @@
+package com.example.simple.jira.model.persistence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+import com.example.simple.jira.model.repository.Page;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskCommandResult;
+import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Task store decorator recording every successful mutation in a {@link WriteAheadLog}
+ *
+ * Reads are served directly by the delegate. Each mutation is applied to the
+ * delegate and the resulting task state is journaled while the project's
+ * stripe is held, so records of one project appear in the log in the order
+ * they were applied. When the log refuses the record, because it is closed
+ * or an earlier write failed, the prior state is restored in the delegate
+ * before the error is rethrown, so the delegate never keeps a mutation a
+ * restart would lose. Waiting for durability happens after the stripe is
+ * released, which lets concurrent writers share a group commit
+ *
+ * The stripes and the log are those of the {@link JournaledProjectStore}
+ * the store is created over. A task mutation therefore cannot be journaled
+ * after the deletion of its project once it was applied before it, which
+ * would make a replay restore tasks of a project that no longer exists
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public class JournaledTaskStore implements TaskStore {
+
+    /** Repository holding the current state, the one the log is replayed into */
+    private final TaskRepository delegate;
+    /** Log receiving mutation records */
+    private final WriteAheadLog log;
+    /** Monitors ordering records of the same project, shared with the project store */
+    private final LockStripes stripes;
+
+    /**
+     * Creates a journaling decorator writing to the log of a project store
+     *
+     * @param delegate repository holding the current state
+     * @param projects journaled store of the projects the tasks belong to
+     */
+    public JournaledTaskStore(final TaskRepository delegate, final JournaledProjectStore projects) {
+        this.delegate = delegate;
+        this.log = projects.log();
+        this.stripes = projects.stripes();
+    }
+
+    @Override
+    public List<Task> findByProject(final int projectId) {
+        return delegate.findByProject(projectId);
+    }
+
+    @Override
+    public Page<Task> findPage(final int projectId, final int afterTaskId, final int pageSize) {
+        return delegate.findPage(projectId, afterTaskId, pageSize);
+    }
+
+    @Override
+    public List<Task> findByProjectAndStatus(final int projectId, final TaskStatus status) {
+        return delegate.findByProjectAndStatus(projectId, status);
+    }
+
+    @Override
+    public List<Task> findByProjectAndPriority(final int projectId, final TaskPriority priority) {
+        return delegate.findByProjectAndPriority(projectId, priority);
+    }
+
+    @Override
+    public int countByStatus(final int projectId, final TaskStatus status) {
+        return delegate.countByStatus(projectId, status);
+    }
+
+    @Override
+    public int countByPriority(final int projectId, final TaskPriority priority) {
+        return delegate.countByPriority(projectId, priority);
+    }
+
+    @Override
+    public int countByStatusAndPriority(final int projectId, final TaskStatus status, final TaskPriority priority) {
+        return delegate.countByStatusAndPriority(projectId, status, priority);
+    }
+
+    @Override
+    public List<Task> search(final String query, final int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public List<Task> search(final int projectId, final String query, final int limit) {
+        return delegate.search(projectId, query, limit);
+    }
+
+    @Override
+    public List<Task> topK(final int projectId, final int k, final Set<TaskStatus> statuses) {
+        return delegate.topK(projectId, k, statuses);
+    }
+
+    @Override
+    public Task findTask(final int projectId, final int taskId) {
+        return delegate.findTask(projectId, taskId);
+    }
+
+    @Override
+    public Optional<Task> tryFindTask(final int projectId, final int taskId) {
+        return delegate.tryFindTask(projectId, taskId);
+    }
+
+    @Override
+    public List<Task> requireTasks(final int projectId) {
+        return delegate.requireTasks(projectId);
+    }
+
+    @Override
+    public Task addTask(final int projectId, final String title, final String description) {
+        final Task task;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            task = delegate.addTask(projectId, title, description);
+            sequence = append(() -> JournalCodec.taskSaved(task),
+                    () -> delegate.deleteTask(projectId, task.getTaskId()));
+        }
+        log.awaitDurable(sequence);
+        return task;
+    }
+
+    @Override
+    public void updateTaskStatus(final int projectId, final int taskId, final TaskStatus status) {
+        updateTaskStatus(projectId, taskId, VersionConflictException.ANY_VERSION, status);
+    }
+
+    @Override
+    public void updateTaskPriority(final int projectId, final int taskId, final TaskPriority priority) {
+        updateTaskPriority(projectId, taskId, VersionConflictException.ANY_VERSION, priority);
+    }
+
+    @Override
+    public void renameTask(final int projectId, final int taskId, final String newTitle) {
+        renameTask(projectId, taskId, VersionConflictException.ANY_VERSION, newTitle);
+    }
+
+    @Override
+    public void updateTaskDescription(final int projectId, final int taskId, final String newDescription) {
+        updateTaskDescription(projectId, taskId, VersionConflictException.ANY_VERSION, newDescription);
+    }
+
+    @Override
+    public void deleteTask(final int projectId, final int taskId) {
+        deleteTask(projectId, taskId, VersionConflictException.ANY_VERSION);
+    }
+
+    @Override
+    public Task updateTaskStatus(final int projectId, final int taskId, final long expectedVersion,
+                                 final TaskStatus status) {
+        final Task updated;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Task previous = delegate.findTask(projectId, taskId);
+            updated = delegate.updateTaskStatus(projectId, taskId, expectedVersion, status);
+            sequence = append(() -> JournalCodec.taskSaved(updated), () -> delegate.restore(previous));
+        }
+        log.awaitDurable(sequence);
+        return updated;
+    }
+
+    @Override
+    public Task updateTaskPriority(final int projectId, final int taskId, final long expectedVersion,
+                                   final TaskPriority priority) {
+        final Task updated;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Task previous = delegate.findTask(projectId, taskId);
+            updated = delegate.updateTaskPriority(projectId, taskId, expectedVersion, priority);
+            sequence = append(() -> JournalCodec.taskSaved(updated), () -> delegate.restore(previous));
+        }
+        log.awaitDurable(sequence);
+        return updated;
+    }
+
+    @Override
+    public Task renameTask(final int projectId, final int taskId, final long expectedVersion,
+                           final String newTitle) {
+        final Task updated;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Task previous = delegate.findTask(projectId, taskId);
+            updated = delegate.renameTask(projectId, taskId, expectedVersion, newTitle);
+            sequence = append(() -> JournalCodec.taskSaved(updated), () -> delegate.restore(previous));
+        }
+        log.awaitDurable(sequence);
+        return updated;
+    }
+
+    @Override
+    public Task updateTaskDescription(final int projectId, final int taskId, final long expectedVersion,
+                                      final String newDescription) {
+        final Task updated;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Task previous = delegate.findTask(projectId, taskId);
+            updated = delegate.updateTaskDescription(projectId, taskId, expectedVersion, newDescription);
+            sequence = append(() -> JournalCodec.taskSaved(updated), () -> delegate.restore(previous));
+        }
+        log.awaitDurable(sequence);
+        return updated;
+    }
+
+    @Override
+    public void deleteTask(final int projectId, final int taskId, final long expectedVersion) {
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Task previous = delegate.findTask(projectId, taskId);
+            delegate.deleteTask(projectId, taskId, expectedVersion);
+            sequence = append(() -> JournalCodec.taskDeleted(projectId, taskId), () -> delegate.restore(previous));
+        }
+        log.awaitDurable(sequence);
+    }
+
+    /**
+     * Removes all tasks of a project and journals the removal
+     *
+     * Tasks of a project that no longer exists cannot be read back and are
+     * not restored when the log refuses the record
+     *
+     * @param projectId identifier of the project whose tasks should be removed
+     */
+    @Override
+    public void deleteAllForProject(final int projectId) {
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final List<Task> previous = existingTasks(projectId);
+            delegate.deleteAllForProject(projectId);
+            sequence = append(() -> JournalCodec.tasksCleared(projectId),
+                    () -> delegate.restoreProject(projectId, previous));
+        }
+        log.awaitDurable(sequence);
+    }
+
+    /**
+     * Applies a batch through the delegate and journals it as a single record,
+     * so a crash can never leave a partially replayed batch behind
+     *
+     * @param projectId project id containing the tasks
+     * @param commands commands applied in list order
+     * @return per-command results
+     */
+    @Override
+    public List<TaskCommandResult> applyBatch(final int projectId, final List<TaskCommand> commands) {
+        final List<TaskCommandResult> results;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Map<Integer, Task> previous = new HashMap<>();
+            for (TaskCommand command : commands) {
+                if (command.getType() != TaskCommand.Type.ADD && !previous.containsKey(command.getTaskId())) {
+                    previous.put(command.getTaskId(),
+                            delegate.tryFindTask(projectId, command.getTaskId()).orElse(null));
+                }
+            }
+            results = delegate.applyBatch(projectId, commands);
+            sequence = append(() -> JournalCodec.taskBatch(results), () -> {
+                for (TaskCommandResult result : results) {
+                    if (result.getCommand().getType() == TaskCommand.Type.ADD) {
+                        delegate.tryApply(projectId, TaskCommand.delete(result.getTask().getTaskId()));
+                    }
+                }
+                previous.values().stream().filter(Objects::nonNull).forEach(delegate::restore);
+            });
+        }
+        log.awaitDurable(sequence);
+        return results;
+    }
+
+    /**
+     * Applies a single command through the delegate and journals its result,
+     * journaling nothing when the project or the target task is missing
+     *
+     * @param projectId project id containing the task
+     * @param command command to apply
+     * @return task produced by the command, or the removed task for deletes
+     */
+    @Override
+    public Optional<Task> tryApply(final int projectId, final TaskCommand command) {
+        final Optional<Task> result;
+        final long sequence;
+        synchronized (stripes.forId(projectId)) {
+            final Optional<Task> previous = command.getType() == TaskCommand.Type.ADD
+                    ? Optional.empty() : delegate.tryFindTask(projectId, command.getTaskId());
+            result = delegate.tryApply(projectId, command);
+            if (result.isEmpty()) {
+                return result;
+            }
+            final Task task = result.get();
+            if (command.getType() == TaskCommand.Type.DELETE) {
+                sequence = append(() -> JournalCodec.taskDeleted(projectId, task.getTaskId()),
+                        () -> delegate.restore(task));
+            } else {
+                sequence = append(() -> JournalCodec.taskSaved(task), () -> {
+                    if (previous.isPresent()) {
+                        delegate.restore(previous.get());
+                    } else {
+                        delegate.tryApply(projectId, TaskCommand.delete(task.getTaskId()));
+                    }
+                });
+            }
+        }
+        log.awaitDurable(sequence);
+        return result;
+    }
+
+    private List<Task> existingTasks(final int projectId) {
+        try {
+            return delegate.findByProject(projectId);
+        } catch (ModelOperationException ex) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Queues the record of a mutation already applied to the delegate,
+     * undoing the mutation when the record cannot be queued
+     *
+     * Called with the project's stripe held, so no other journaled mutation
+     * of the project can slip in between the mutation and its undo
+     *
+     * @param record encodes the record from the applied mutation
+     * @param undo restores the delegate state from before the mutation
+     * @return sequence number of the record
+     */
+    private long append(final Supplier<byte[]> record, final Runnable undo) {
+        try {
+            return log.append(record.get());
+        } catch (RuntimeException ex) {
+            try {
+                undo.run();
+            } catch (RuntimeException undoFailure) {
+                ex.addSuppressed(undoFailure);
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.simple.jira.model.persistence;
+
+/**
+ * Fixed set of monitors selected by identifier
+ *
+ * Journaling decorators hold the stripe of an entity while they apply a
+ * mutation and queue its record, which keeps the log order of records for
+ * the same entity identical to the order the mutations were applied in
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class LockStripes {
+
+    /** Number of stripes, a power of two */
+    private static final int STRIPES = 64;
+
+    /** Monitors guarding the stripes */
+    private final Object[] monitors = new Object[STRIPES];
+
+    LockStripes() {
+        for (int i = 0; i < STRIPES; i++) {
+            monitors[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the monitor guarding the provided identifier
+     *
+     * @param id entity identifier
+     * @return monitor of the stripe
+     */
+    Object forId(final int id) {
+        final int hash = id * 0x9E3779B9;
+        return monitors[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
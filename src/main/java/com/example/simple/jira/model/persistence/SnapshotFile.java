@@ -0,0 +1,268 @@
+package com.example.simple.jira.model.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskRepository;
+
+/**
+ * Compact binary snapshot of all projects and tasks
+ *
+ * Layout, all integers big endian:
+ * <pre>
+ * header   int magic, int version, int projectCount, long taskCount, int nextProjectId, int nextTaskId
+ * project  int projectId, string name, long version, int taskCount, task[taskCount]
+ * task     int taskId, byte status ordinal, byte priority ordinal, string title, string description,
+ *          long version
+ * string   int byteLength (-1 for null), UTF-8 bytes
+ * </pre>
+ * The header keeps the identifier generators, so identifiers of entities
+ * deleted before the snapshot are never handed out again once the log
+ * covering them is dropped
+ * Tasks follow their project in ascending identifier order, which lets the
+ * loader rebuild every project's task tree in linear time. Snapshots are
+ * written to a temporary file and atomically moved into place, and loaded
+ * through a {@link MappedByteBuffer}, so a snapshot must stay below 2 GiB
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class SnapshotFile {
+
+    /** Magic number identifying snapshot files, "SJSN" */
+    private static final int MAGIC = 0x534A534E;
+    /** Version of the layout */
+    private static final int VERSION = 1;
+    /** Size of the header in bytes */
+    private static final int HEADER_SIZE = 28;
+    /** Size of the buffer used while writing */
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Cached priority constants indexed by ordinal */
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot of the provided stores
+     *
+     * Projects deleted while the snapshot is written are skipped, callers
+     * needing an exact point in time combine snapshots with a log. The
+     * identifier generators are read after all entities, so they cover
+     * every identifier in the snapshot
+     *
+     * @param file destination of the snapshot, replaced atomically
+     * @param projects repository providing projects and the project identifier generator
+     * @param tasks repository providing tasks and the task identifier generator
+     * @return number of tasks written
+     * @throws UncheckedIOException when the snapshot cannot be written
+     */
+    public static long write(final Path file, final ProjectRepository projects, final TaskRepository tasks) {
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final Writer writer = new Writer(channel);
+            writer.buffer.position(HEADER_SIZE);
+            int projectCount = 0;
+            long taskCount = 0;
+            for (Project project : projects.findAll()) {
+                final List<Task> projectTasks;
+                try {
+                    projectTasks = tasks.findByProject(project.getProjectId());
+                } catch (ModelOperationException ex) {
+                    continue;
+                }
+                writer.putInt(project.getProjectId());
+                writer.putString(project.getProjectName());
+                writer.putLong(project.getVersion());
+                writer.putInt(projectTasks.size());
+                for (Task task : projectTasks) {
+                    writer.putInt(task.getTaskId());
+                    writer.putByte(task.getStatus().ordinal());
+                    writer.putByte(task.getPriority().ordinal());
+                    writer.putString(task.getTitle());
+                    writer.putString(task.getDescription());
+                    writer.putLong(task.getVersion());
+                }
+                projectCount++;
+                taskCount += projectTasks.size();
+            }
+            writer.flush();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION).putInt(projectCount).putLong(taskCount)
+                    .putInt(projects.getNextProjectId()).putInt(tasks.getNextTaskId()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            WriteAheadLog.forceDirectory(file);
+            return taskCount;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write snapshot " + file, ex);
+        }
+    }
+
+    /**
+     * Loads a snapshot into empty repositories
+     *
+     * @param file snapshot file, a missing file is treated as empty
+     * @param projects repository receiving projects
+     * @param tasks repository receiving tasks
+     * @return number of tasks loaded
+     * @throws UncheckedIOException when the snapshot cannot be read
+     * @throws ModelOperationException when the file is not a valid snapshot
+     */
+    public static long load(final Path file, final ProjectRepository projects, final TaskRepository tasks) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ModelOperationException("Snapshot " + file + " exceeds the 2 GiB mapping limit");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new ModelOperationException("File " + file + " is not a snapshot");
+            }
+            final int layout = buffer.getInt();
+            if (layout != VERSION) {
+                throw new ModelOperationException("Snapshot " + file + " has unsupported layout version " + layout);
+            }
+            final int projectCount = buffer.getInt();
+            final long taskCount = buffer.getLong();
+            projects.advanceProjectIdPast(buffer.getInt() - 1);
+            tasks.advanceTaskIdPast(buffer.getInt() - 1);
+            final Reader reader = new Reader(buffer);
+            final List<Task> projectTasks = new ArrayList<>();
+            for (int p = 0; p < projectCount; p++) {
+                final int projectId = buffer.getInt();
+                final String name = reader.getString();
+                projects.save(new Project(projectId, name, buffer.getLong()));
+                final int count = buffer.getInt();
+                projectTasks.clear();
+                for (int t = 0; t < count; t++) {
+                    final int taskId = buffer.getInt();
+                    final TaskStatus status = STATUSES[buffer.get()];
+                    final TaskPriority priority = PRIORITIES[buffer.get()];
+                    final String title = reader.getString();
+                    final String description = reader.getString();
+                    final long version = buffer.getLong();
+                    projectTasks.add(new Task(taskId, title, description, status, priority, projectId, version));
+                }
+                tasks.restoreProject(projectId, projectTasks);
+            }
+            return taskCount;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read snapshot " + file, ex);
+        } catch (RuntimeException ex) {
+            if (ex instanceof ModelOperationException) {
+                throw ex;
+            }
+            throw new ModelOperationException("Snapshot " + file + " is corrupted", ex);
+        }
+    }
+
+    /**
+     * Buffered writer encoding primitives into a reusable direct buffer
+     */
+    private static final class Writer {
+        /** Destination channel */
+        private final FileChannel channel;
+        /** Reusable output buffer */
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+        private Writer(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putByte(final int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        private void putInt(final int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(final long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putString(final String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Decoder of length prefixed strings reusing a scratch array
+     */
+    private static final class Reader {
+        /** Mapped snapshot */
+        private final ByteBuffer buffer;
+        /** Scratch space for string bytes */
+        private byte[] scratch = new byte[256];
+
+        private Reader(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private String getString() {
+            final int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
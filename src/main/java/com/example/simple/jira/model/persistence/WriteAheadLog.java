@@ -0,0 +1,533 @@
+package com.example.simple.jira.model.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Append-only log of binary records written through a {@link FileChannel}
+ *
+ * Writers enqueue records and a single committer thread drains the queue,
+ * writing everything queued so far with one channel write and, depending on
+ * the {@link FsyncPolicy}, one fsync. Concurrent writers are therefore group
+ * committed and no writer ever pays for an fsync of its own
+ *
+ * Every record is framed by its length and a CRC32 checksum. When the log is
+ * opened existing records are replayed in order and a torn or corrupted tail
+ * left by a crash is truncated
+ *
+ * The log can be rotated, which moves everything written so far to an archive
+ * file and continues in an empty file. Checkpointing uses this to drop history
+ * that is covered by a snapshot
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class WriteAheadLog implements Closeable {
+
+    /** Size of the length and checksum header of each record */
+    private static final int HEADER_SIZE = 8;
+    /** Upper bound for a single record, protects replay from corrupted lengths */
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    /** Number of queued records after which writers wait for the committer */
+    private static final int MAX_PENDING_RECORDS = 64 * 1024;
+    /** Initial size of the read and write buffers */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    /** Queue entry asking the committer to rotate the file, compared by identity */
+    private static final byte[] ROTATE = new byte[0];
+
+    /** Path of the log file */
+    private final Path file;
+    /** Channel of the log file, replaced by rotations */
+    private FileChannel channel;
+    /** Policy deciding when the log is forced */
+    private final FsyncPolicy policy;
+    /** Interval between forces for {@link FsyncPolicy#INTERVAL} */
+    private final long syncIntervalNanos;
+    /** Thread draining the queue */
+    private final Thread committer;
+
+    /** Guards the queue and sequence counters */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signalled when records are queued or the log is closed */
+    private final Condition workAvailable = lock.newCondition();
+    /** Signalled when a group commit completes */
+    private final Condition committed = lock.newCondition();
+    /** Records waiting for the committer */
+    private List<byte[]> queue = new ArrayList<>();
+    /** Sequence number of the last queued record */
+    private long queuedSequence;
+    /** Sequence number of the last record written and, if required, forced */
+    private long committedSequence;
+    /** Whether the log stopped accepting records */
+    private boolean closed;
+    /** First I/O failure of the committer, fails all later writers */
+    private IOException failure;
+    /** Destination of the pending rotation */
+    private Path rotationTarget;
+
+    /** Reusable buffer the committer encodes batches into */
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /** Checksum calculator used by the committer */
+    private final CRC32 checksum = new CRC32();
+    /** Statistics updated by the committer */
+    private volatile JournalStatistics statistics = new JournalStatistics(0, 0, 0, 0, 0);
+
+    private WriteAheadLog(final Path file, final FileChannel channel, final FsyncPolicy policy,
+            final Duration syncInterval) {
+        this.file = file;
+        this.channel = channel;
+        this.policy = policy;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.committer = new Thread(this::commitLoop, "wal-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Opens or creates a log, replaying its records before accepting new ones
+     *
+     * @param file log file
+     * @param policy policy deciding when records are forced to disk
+     * @param syncInterval interval between forces for {@link FsyncPolicy#INTERVAL}
+     * @param replayHandler consumer receiving the payload of every existing record in order
+     * @return open log positioned after the last valid record
+     * @throws UncheckedIOException when the file cannot be opened or read
+     */
+    public static WriteAheadLog open(final Path file, final FsyncPolicy policy, final Duration syncInterval,
+            final Consumer<ByteBuffer> replayHandler) {
+        try {
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                final long valid = replay(channel, replayHandler);
+                channel.truncate(valid);
+                channel.position(valid);
+            } catch (IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+            return new WriteAheadLog(file, channel, policy, syncInterval);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open write-ahead log " + file, ex);
+        }
+    }
+
+    /**
+     * Replays the valid records of a log file without opening it for writing
+     *
+     * @param file log file, a missing file is treated as empty
+     * @param replayHandler consumer receiving the payload of every valid record in order
+     * @throws UncheckedIOException when the file cannot be read
+     */
+    public static void replay(final Path file, final Consumer<ByteBuffer> replayHandler) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            replay(channel, replayHandler);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read write-ahead log " + file, ex);
+        }
+    }
+
+    /**
+     * Queues a record for writing
+     *
+     * The call blocks only while the queue is full. Use
+     * {@link #awaitDurable(long)} with the returned sequence number to wait
+     * until the record is persisted according to the policy
+     *
+     * @param record payload of the record
+     * @return sequence number of the record
+     * @throws ModelOperationException when the log is closed
+     * @throws UncheckedIOException when an earlier write failed
+     */
+    public long append(final byte[] record) {
+        if (record.length > MAX_RECORD_SIZE) {
+            throw new ModelOperationException("Journal record of " + record.length + " bytes exceeds the size limit");
+        }
+        lock.lock();
+        try {
+            while (queue.size() >= MAX_PENDING_RECORDS && !closed && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            ensureWritable();
+            queue.add(record);
+            workAvailable.signal();
+            return ++queuedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record is persisted as required by the policy
+     *
+     * Only {@link FsyncPolicy#ALWAYS} waits for the fsync covering the record,
+     * the other policies return immediately
+     *
+     * @param sequence sequence number returned by {@link #append(byte[])}
+     * @throws UncheckedIOException when writing the record failed
+     */
+    public void awaitDurable(final long sequence) {
+        if (policy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (committedSequence < sequence && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            if (committedSequence < sequence) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves all records queued so far to an archive file and continues in an empty log
+     *
+     * The archive is forced to disk before the call returns and replaces any
+     * existing file at that path
+     *
+     * @param archive destination of the records written so far
+     * @throws UncheckedIOException when the rotation fails
+     */
+    public void rotate(final Path archive) {
+        lock.lock();
+        try {
+            while (rotationTarget != null && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            ensureWritable();
+            rotationTarget = archive;
+            queue.add(ROTATE);
+            final long sequence = ++queuedSequence;
+            workAvailable.signal();
+            while (committedSequence < sequence && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            if (committedSequence < sequence) {
+                throw new UncheckedIOException("Write-ahead log rotation failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the policy used by this log
+     *
+     * @return fsync policy
+     */
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns counters describing the work done so far
+     *
+     * @return statistics snapshot
+     */
+    public JournalStatistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Writes and forces all queued records and closes the log file
+     *
+     * @throws IOException when the final write or closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (committer.isAlive()) {
+            try {
+                committer.join();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void ensureWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new ModelOperationException("Write-ahead log is closed");
+        }
+    }
+
+    /**
+     * Body of the committer thread
+     */
+    private void commitLoop() {
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        while (true) {
+            final List<byte[]> batch;
+            final long batchSequence;
+            final boolean closing;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    if (dirty && policy == FsyncPolicy.INTERVAL) {
+                        final long remaining = lastSync + syncIntervalNanos - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        workAvailable.awaitNanos(remaining);
+                    } else {
+                        workAvailable.await();
+                    }
+                }
+                batch = queue;
+                queue = new ArrayList<>();
+                batchSequence = queuedSequence;
+                closing = closed;
+            } catch (InterruptedException ex) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    dirty = write(batch) || dirty;
+                }
+                final long now = System.nanoTime();
+                if (dirty && (policy == FsyncPolicy.ALWAYS || closing
+                        || (policy == FsyncPolicy.INTERVAL && now - lastSync >= syncIntervalNanos))) {
+                    channel.force(false);
+                    final long end = System.nanoTime();
+                    final JournalStatistics current = statistics;
+                    statistics = new JournalStatistics(current.getRecords(), current.getBytes(),
+                            current.getBatches(), current.getSyncs() + 1, current.getSyncNanos() + end - now);
+                    lastSync = end;
+                    dirty = false;
+                }
+            } catch (IOException ex) {
+                lock.lock();
+                try {
+                    failure = ex;
+                    closed = true;
+                    committed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                committedSequence = batchSequence;
+                committed.signalAll();
+                if (closing && queue.isEmpty()) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Frames and writes a batch of records with as few channel writes as possible
+     *
+     * @param batch records to write, possibly including rotation requests
+     * @return whether records were written after the last rotation of the batch
+     * @throws IOException when writing fails
+     */
+    private boolean write(final List<byte[]> batch) throws IOException {
+        long records = 0;
+        long bytes = 0;
+        boolean dirty = false;
+        writeBuffer.clear();
+        for (byte[] record : batch) {
+            if (record == ROTATE) {
+                flush();
+                rotateFile();
+                dirty = false;
+                continue;
+            }
+            if (writeBuffer.remaining() < HEADER_SIZE + record.length) {
+                flush();
+                if (writeBuffer.capacity() < HEADER_SIZE + record.length) {
+                    writeBuffer = ByteBuffer.allocateDirect(HEADER_SIZE + record.length);
+                }
+            }
+            checksum.reset();
+            checksum.update(record);
+            writeBuffer.putInt(record.length).putInt((int) checksum.getValue()).put(record);
+            records++;
+            bytes += HEADER_SIZE + record.length;
+            dirty = true;
+        }
+        flush();
+        final JournalStatistics current = statistics;
+        statistics = new JournalStatistics(current.getRecords() + records, current.getBytes() + bytes,
+                current.getBatches() + 1, current.getSyncs(), current.getSyncNanos());
+        return dirty;
+    }
+
+    /**
+     * Forces the directory holding a file, making a preceding rename or
+     * creation of the file durable
+     *
+     * Platforms that cannot open a directory for reading, such as Windows,
+     * persist the rename on their own and are skipped
+     *
+     * @param file file whose directory entry must survive a crash
+     * @throws IOException when forcing the directory fails
+     */
+    static void forceDirectory(final Path file) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException ex) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Forces and archives the current file and replaces it with an empty one
+     *
+     * The directory is forced after the rename, so a crash cannot bring back
+     * the archived records as the current log
+     *
+     * @throws IOException when the file cannot be moved or recreated
+     */
+    private void rotateFile() throws IOException {
+        final Path target;
+        lock.lock();
+        try {
+            target = rotationTarget;
+        } finally {
+            lock.unlock();
+        }
+        channel.force(false);
+        channel.close();
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        forceDirectory(file);
+        lock.lock();
+        try {
+            rotationTarget = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Replays all valid records of the log
+     *
+     * @param channel channel positioned at the start of the log
+     * @param handler consumer receiving the record payloads
+     * @return length of the valid prefix of the log
+     * @throws IOException when reading fails
+     */
+    private static long replay(final FileChannel channel, final Consumer<ByteBuffer> handler) throws IOException {
+        final CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        long valid = 0;
+        while (true) {
+            buffer = fill(channel, buffer, HEADER_SIZE);
+            if (buffer.remaining() < HEADER_SIZE) {
+                break;
+            }
+            final int length = buffer.getInt(buffer.position());
+            final int expected = buffer.getInt(buffer.position() + 4);
+            if (length < 0 || length > MAX_RECORD_SIZE) {
+                break;
+            }
+            buffer = fill(channel, buffer, HEADER_SIZE + length);
+            if (buffer.remaining() < HEADER_SIZE + length) {
+                break;
+            }
+            final ByteBuffer payload = buffer.slice(buffer.position() + HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+            handler.accept(payload.asReadOnlyBuffer());
+            buffer.position(buffer.position() + HEADER_SIZE + length);
+            valid += HEADER_SIZE + length;
+        }
+        return valid;
+    }
+
+    /**
+     * Makes sure the buffer holds at least the requested number of bytes unless the file ends
+     *
+     * @param channel channel to read from
+     * @param buffer buffer in read mode
+     * @param required number of bytes needed
+     * @return buffer in read mode, possibly a larger replacement
+     * @throws IOException when reading fails
+     */
+    private static ByteBuffer fill(final FileChannel channel, ByteBuffer buffer, final int required)
+            throws IOException {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocate(required).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < required && channel.read(buffer) >= 0) {
+            // keep reading until enough bytes are buffered or the file ends
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Durable persistence for the simple Jira repositories.
+ * Contains the append-only write-ahead log and store decorators journaling every mutation.
+ */
+package com.example.simple.jira.model.persistence;
@@ -0,0 +1,118 @@
+package com.example.simple.jira.model.repository;
+
+/**
+ * Immutable counters describing the work done by the text cache of a {@link DiskTaskStore}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class CacheStatistics {
+
+    /** Number of reads answered from the cache */
+    private final long hits;
+    /** Number of reads that went to disk */
+    private final long misses;
+    /** Number of entries dropped to stay within the budget */
+    private final long evictions;
+    /** Number of cached texts */
+    private final long entries;
+    /** Estimated heap taken by the cached texts in bytes */
+    private final long bytes;
+    /** Heap budget of the cache in bytes */
+    private final long capacityBytes;
+
+    /**
+     * Creates a new statistics snapshot
+     *
+     * @param hits number of reads answered from the cache
+     * @param misses number of reads that went to disk
+     * @param evictions number of entries dropped to stay within the budget
+     * @param entries number of cached texts
+     * @param bytes estimated heap taken by the cached texts
+     * @param capacityBytes heap budget of the cache
+     */
+    public CacheStatistics(final long hits, final long misses, final long evictions, final long entries,
+            final long bytes, final long capacityBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.bytes = bytes;
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Returns the number of reads answered from the cache
+     *
+     * @return hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of reads that went to disk
+     *
+     * @return miss count
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries dropped to stay within the budget
+     *
+     * @return eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of cached texts
+     *
+     * @return entry count
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the estimated heap taken by the cached texts
+     *
+     * @return size in bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the heap budget of the cache
+     *
+     * @return budget in bytes
+     */
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * Returns the share of reads answered from the cache
+     *
+     * @return hit rate between {@code 0} and {@code 1}, {@code 0} when nothing was read
+     */
+    public double getHitRate() {
+        final long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    /**
+     * Formats the statistics for display
+     *
+     * @return human readable statistics
+     */
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries, %.1f/%.1f MB",
+                hits, misses, getHitRate() * 100, evictions, entries, bytes / 1048576d, capacityBytes / 1048576d);
+    }
+}
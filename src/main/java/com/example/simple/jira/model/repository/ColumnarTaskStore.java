@@ -0,0 +1,1058 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+
+/**
+ * Memory efficient task store keeping tasks in columnar primitive arrays
+ *
+ * Every task occupies one slot of parallel columns: task and project
+ * identifiers as {@code int}, status and priority ordinals as {@code byte}, the
+ * version as {@code long} and
+ * title and description as {@code int} references into deduplicating
+ * {@link TextPool}s, one on-heap {@link StringPool} unless a subclass such as
+ * {@link OffHeapTaskStore} or {@link DiskTaskStore} provides others. Tasks
+ * read from a pool that defers reads get a lazy description. Each project keeps the slots of its tasks in an
+ * {@code int} array ordered by task identifier together with per status and
+ * priority counters. Freed slots are reused
+ *
+ * A task costs 30 bytes of columns, and every distinct string about 20 bytes
+ * of pool bookkeeping plus the string itself, roughly half of what the task
+ * objects, tree nodes and indexes of {@link TaskRepository} take for the same
+ * tasks. {@link Task} instances are materialized only by
+ * reads, so queries returning many tasks allocate proportionally, and filters
+ * scan the primitive columns before materializing matches
+ *
+ * All state is guarded by one read-write lock: reads run concurrently with
+ * each other while writers are serialized. Project existence is validated
+ * through the provided {@link ProjectStore}
+ *
+ * @author michalkubina
+ * @version 1.0
+ * @see TaskRepository
+ */
+public class ColumnarTaskStore implements TaskStore {
+
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Cached priority constants indexed by ordinal */
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+    /** Initial number of slots */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Store used to validate project existence */
+    private final ProjectStore projectStore;
+    /** Guards all columns, the text pools and the project slots */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Generator for task identifiers */
+    private final AtomicInteger nextTaskId = new AtomicInteger(1);
+    /** Deduplicated titles */
+    private final TextPool titleTexts;
+    /** Deduplicated descriptions */
+    private final TextPool descriptionTexts;
+    /** Full-text index over task titles and descriptions */
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    /** Slots of the tasks of every project that has tasks */
+    private final Map<Integer, ProjectSlots> projects = new HashMap<>();
+
+    /** Task identifier per slot */
+    private int[] taskIds = new int[INITIAL_CAPACITY];
+    /** Project identifier per slot */
+    private int[] projectIds = new int[INITIAL_CAPACITY];
+    /** Status ordinal per slot */
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    /** Priority ordinal per slot */
+    private byte[] priorities = new byte[INITIAL_CAPACITY];
+    /** Title reference per slot */
+    private int[] titles = new int[INITIAL_CAPACITY];
+    /** Description reference per slot */
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    /** Task version per slot */
+    private long[] versions = new long[INITIAL_CAPACITY];
+    /** Number of slots ever used */
+    private int slotCount;
+    /** Released slots available for reuse */
+    private int[] freeSlots = new int[16];
+    /** Number of entries in {@link #freeSlots} */
+    private int freeCount;
+
+    /**
+     * Creates an empty store validating projects against the provided store
+     *
+     * @param projectStore store used to confirm project existence
+     */
+    public ColumnarTaskStore(final ProjectStore projectStore) {
+        this(projectStore, new StringPool());
+    }
+
+    /**
+     * Creates an empty store keeping titles and descriptions in the provided pool
+     *
+     * @param projectStore store used to confirm project existence
+     * @param strings pool receiving titles and descriptions
+     */
+    ColumnarTaskStore(final ProjectStore projectStore, final TextPool strings) {
+        this(projectStore, strings, strings);
+    }
+
+    /**
+     * Creates an empty store keeping titles and descriptions in separate pools
+     *
+     * @param projectStore store used to confirm project existence
+     * @param titleTexts pool receiving titles
+     * @param descriptionTexts pool receiving descriptions
+     */
+    ColumnarTaskStore(final ProjectStore projectStore, final TextPool titleTexts, final TextPool descriptionTexts) {
+        this.projectStore = projectStore;
+        this.titleTexts = titleTexts;
+        this.descriptionTexts = descriptionTexts;
+    }
+
+    /**
+     * Retrieves tasks associated with the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @return immutable list of tasks materialized from the columns, ordered by task id
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> findByProject(final int projectId) {
+        projectStore.findById(projectId);
+        lock.readLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            return project == null ? Collections.emptyList() : materialize(project, 0, project.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves a page of tasks of the selected project in task id order
+     *
+     * @param projectId identifier of the owning project
+     * @param afterTaskId cursor, only tasks with a greater id are returned; {@link Page#FIRST} to start
+     * @param pageSize maximum number of tasks on the page
+     * @return page of tasks, only the page itself is materialized
+     * @throws ModelOperationException when the project does not exist
+     */
+    public Page<Task> findPage(final int projectId, final int afterTaskId, final int pageSize) {
+        projectStore.findById(projectId);
+        final List<Task> window;
+        lock.readLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            if (project == null) {
+                window = Collections.emptyList();
+            } else {
+                final int found = positionOf(project, afterTaskId);
+                final int start = found >= 0 ? found + 1 : -found - 1;
+                final int end = project.size - start <= pageSize ? project.size : start + pageSize + 1;
+                window = materialize(project, start, end);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Pages.fromIterator(window.iterator(), afterTaskId, pageSize, Task::getTaskId);
+    }
+
+    /**
+     * Retrieves tasks of the selected project with the provided status
+     *
+     * @param projectId identifier of the owning project
+     * @param status requested status
+     * @return immutable list of matching tasks ordered by task id
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> findByProjectAndStatus(final int projectId, final TaskStatus status) {
+        return filter(projectId, true, (byte) status.ordinal());
+    }
+
+    /**
+     * Retrieves tasks of the selected project with the provided priority
+     *
+     * @param projectId identifier of the owning project
+     * @param priority requested priority
+     * @return immutable list of matching tasks ordered by task id
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> findByProjectAndPriority(final int projectId, final TaskPriority priority) {
+        return filter(projectId, false, (byte) priority.ordinal());
+    }
+
+    /**
+     * Counts tasks of the selected project with the provided status from the project counters
+     *
+     * @param projectId identifier of the owning project
+     * @param status requested status
+     * @return number of matching tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    public int countByStatus(final int projectId, final TaskStatus status) {
+        int count = 0;
+        for (TaskPriority priority : PRIORITIES) {
+            count += countByStatusAndPriority(projectId, status, priority);
+        }
+        return count;
+    }
+
+    /**
+     * Counts tasks of the selected project with the provided priority from the project counters
+     *
+     * @param projectId identifier of the owning project
+     * @param priority requested priority
+     * @return number of matching tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    public int countByPriority(final int projectId, final TaskPriority priority) {
+        int count = 0;
+        for (TaskStatus status : STATUSES) {
+            count += countByStatusAndPriority(projectId, status, priority);
+        }
+        return count;
+    }
+
+    /**
+     * Counts tasks of the selected project with the provided status and priority in O(1)
+     *
+     * @param projectId identifier of the owning project
+     * @param status requested status
+     * @param priority requested priority
+     * @return number of matching tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    public int countByStatusAndPriority(final int projectId, final TaskStatus status, final TaskPriority priority) {
+        projectStore.findById(projectId);
+        lock.readLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            return project == null ? 0 : project.counts[counter(status.ordinal(), priority.ordinal())];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves a single task of the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @return task materialized from the columns
+     * @throws ModelOperationException when the project or the task does not exist
+     */
+    public Task findTask(final int projectId, final int taskId) {
+        projectStore.findById(projectId);
+        lock.readLock().lock();
+        try {
+            final Task task = lookup(projectId, taskId);
+            if (task == null) {
+                throw taskNotFound(projectId, taskId);
+            }
+            return task;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves a single task without throwing when it or its project is missing
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @return immutable task instance, empty when the project or the task does not exist
+     */
+    public Optional<Task> tryFindTask(final int projectId, final int taskId) {
+        if (projectStore.tryFindById(projectId).isEmpty()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(lookup(projectId, taskId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ensures the selected project contains at least one task
+     *
+     * @param projectId identifier of the owning project
+     * @return immutable list of current tasks ordered by task id
+     * @throws ModelOperationException when the project does not exist or has no tasks
+     */
+    public List<Task> requireTasks(final int projectId) {
+        projectStore.findById(projectId);
+        lock.readLock().lock();
+        try {
+            final ProjectSlots project = requireProject(projectId);
+            return materialize(project, 0, project.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a new task to the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param title task title provided by the user
+     * @param description task description provided by the user
+     * @return immutable task instance that was created
+     * @throws ModelOperationException when the project does not exist
+     */
+    public Task addTask(final int projectId, final String title, final String description) {
+        projectStore.findById(projectId);
+        final Task task = new Task(nextTaskId.getAndIncrement(), title, description, TaskStatus.TODO,
+                TaskPriority.NOT_SET, projectId);
+        lock.writeLock().lock();
+        try {
+            insert(task);
+            searchIndex.update(null, task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return task;
+    }
+
+    /**
+     * Updates the status of a task within the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param status new status to apply
+     */
+    public void updateTaskStatus(final int projectId, final int taskId, final TaskStatus status) {
+        updateTaskStatus(projectId, taskId, VersionConflictException.ANY_VERSION, status);
+    }
+
+    /**
+     * Updates the status of a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param status new status to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task updateTaskStatus(final int projectId, final int taskId, final long expectedVersion,
+                                 final TaskStatus status) {
+        return updateTask(projectId, taskId, expectedVersion, task -> task.withStatus(status));
+    }
+
+    /**
+     * Updates the priority of a task within the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param priority new priority to apply
+     */
+    public void updateTaskPriority(final int projectId, final int taskId, final TaskPriority priority) {
+        updateTaskPriority(projectId, taskId, VersionConflictException.ANY_VERSION, priority);
+    }
+
+    /**
+     * Updates the priority of a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param priority new priority to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task updateTaskPriority(final int projectId, final int taskId, final long expectedVersion,
+                                   final TaskPriority priority) {
+        return updateTask(projectId, taskId, expectedVersion, task -> task.withPriority(priority));
+    }
+
+    /**
+     * Renames a task within the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param newTitle new title to apply
+     */
+    public void renameTask(final int projectId, final int taskId, final String newTitle) {
+        renameTask(projectId, taskId, VersionConflictException.ANY_VERSION, newTitle);
+    }
+
+    /**
+     * Renames a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param newTitle new title to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task renameTask(final int projectId, final int taskId, final long expectedVersion, final String newTitle) {
+        return updateTask(projectId, taskId, expectedVersion,
+                task -> task.withTitle(newTitle));
+    }
+
+    /**
+     * Updates the description of a task within the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param newDescription new description to apply
+     */
+    public void updateTaskDescription(final int projectId, final int taskId, final String newDescription) {
+        updateTaskDescription(projectId, taskId, VersionConflictException.ANY_VERSION, newDescription);
+    }
+
+    /**
+     * Updates the description of a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param newDescription new description to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task updateTaskDescription(final int projectId, final int taskId, final long expectedVersion,
+                                      final String newDescription) {
+        return updateTask(projectId, taskId, expectedVersion,
+                task -> task.withDetails(task.getTitle(), newDescription));
+    }
+
+    /**
+     * Removes a task from the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task to be removed
+     * @throws ModelOperationException when the project or task cannot be found
+     */
+    public void deleteTask(final int projectId, final int taskId) {
+        deleteTask(projectId, taskId, VersionConflictException.ANY_VERSION);
+    }
+
+    /**
+     * Removes a task from the selected project if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task to be removed
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @throws ModelOperationException when the project or task cannot be found
+     * @throws VersionConflictException when the task is at another version
+     */
+    public void deleteTask(final int projectId, final int taskId, final long expectedVersion) {
+        projectStore.findById(projectId);
+        lock.writeLock().lock();
+        try {
+            final ProjectSlots project = requireProject(projectId);
+            final int position = requirePosition(project, projectId, taskId);
+            checkVersion(project.slots[position], expectedVersion);
+            final Task removed = searchIndex.isEnabled() ? materialize(project.slots[position]) : null;
+            removeAt(project, position);
+            searchIndex.update(removed, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all tasks for the specified project
+     *
+     * @param projectId identifier of the project whose tasks should be removed
+     */
+    public void deleteAllForProject(final int projectId) {
+        lock.writeLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            while (project != null && project.size > 0) {
+                final Task removed = searchIndex.isEnabled() ? materialize(project.slots[project.size - 1]) : null;
+                removeAt(project, project.size - 1);
+                searchIndex.update(removed, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of commands to the selected project in a single atomic step
+     *
+     * Every command is first validated against the project state overlaid
+     * with the effects of the preceding commands, and the columns are written
+     * only when all of them succeed
+     *
+     * @param projectId identifier of the owning project
+     * @param commands commands applied in list order
+     * @return immutable list of per-command results
+     * @throws ModelOperationException when the project does not exist or any command fails
+     */
+    public List<TaskCommandResult> applyBatch(final int projectId, final List<TaskCommand> commands) {
+        projectStore.findById(projectId);
+        final List<TaskCommandResult> results = new ArrayList<>(commands.size());
+        lock.writeLock().lock();
+        try {
+            final Map<Integer, Task> planned = new HashMap<>();
+            for (int index = 0; index < commands.size(); index++) {
+                final TaskCommand command = commands.get(index);
+                try {
+                    final Task task = plan(projectId, planned, command);
+                    planned.put(task.getTaskId(), command.getType() == TaskCommand.Type.DELETE ? null : task);
+                    results.add(new TaskCommandResult(command, task));
+                } catch (ModelOperationException ex) {
+                    throw command.failedInBatch(index, ex);
+                }
+            }
+            for (TaskCommandResult result : results) {
+                final Task task = result.getTask();
+                if (result.getCommand().getType() == TaskCommand.Type.ADD) {
+                    insert(task);
+                    searchIndex.update(null, task);
+                    continue;
+                }
+                final ProjectSlots project = projects.get(projectId);
+                final int position = positionOf(project, task.getTaskId());
+                final Task before = searchIndex.isEnabled() ? materialize(project.slots[position]) : null;
+                if (result.getCommand().getType() == TaskCommand.Type.DELETE) {
+                    removeAt(project, position);
+                    searchIndex.update(before, null);
+                } else {
+                    store(project, project.slots[position], before, task);
+                    searchIndex.update(before, task);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Applies a single command in one atomic step without throwing when its
+     * project or target task is missing
+     *
+     * @param projectId identifier of the owning project
+     * @param command command to apply
+     * @return task produced by the command, or the removed task for deletes;
+     *         empty when the project or the target task does not exist
+     * @throws VersionConflictException when the command expects another version of the task
+     */
+    public Optional<Task> tryApply(final int projectId, final TaskCommand command) {
+        if (projectStore.tryFindById(projectId).isEmpty()) {
+            return Optional.empty();
+        }
+        lock.writeLock().lock();
+        try {
+            if (command.getType() == TaskCommand.Type.ADD) {
+                final Task task = command.toTask(nextTaskId.getAndIncrement(), projectId);
+                insert(task);
+                searchIndex.update(null, task);
+                return Optional.of(task);
+            }
+            final ProjectSlots project = projects.get(projectId);
+            final int position = positionOf(project, command.getTaskId());
+            if (position < 0) {
+                return Optional.empty();
+            }
+            final int slot = project.slots[position];
+            final Task before = materialize(slot);
+            final Task task = command.applyTo(before);
+            if (command.getType() == TaskCommand.Type.DELETE) {
+                removeAt(project, position);
+                searchIndex.update(before, null);
+            } else {
+                store(project, slot, before, task);
+                searchIndex.update(before, task);
+            }
+            return Optional.of(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches task titles and descriptions across all projects
+     *
+     * @param query free text query, every term of which must match
+     * @param limit maximum number of results
+     * @return immutable list of matching tasks, best match first
+     */
+    public List<Task> search(final String query, final int limit) {
+        searchIndex.ensureBuilt(this::buildSearchIndex);
+        lock.readLock().lock();
+        try {
+            return searchIndex.search(query, limit, this::lookup);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches task titles and descriptions of the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param query free text query, every term of which must match
+     * @param limit maximum number of results
+     * @return immutable list of matching tasks, best match first
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> search(final int projectId, final String query, final int limit) {
+        projectStore.findById(projectId);
+        searchIndex.ensureBuilt(this::buildSearchIndex);
+        lock.readLock().lock();
+        try {
+            return searchIndex.searchProject(projectId, query, limit, this::lookup);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Atomically updates a single task
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task to be updated
+     * @param expectedVersion version the task must have, {@link VersionConflictException#ANY_VERSION} for any
+     * @param transformer function that produces a modified task instance
+     * @return updated task
+     */
+    private Task updateTask(final int projectId, final int taskId, final long expectedVersion,
+                            final Function<Task, Task> transformer) {
+        projectStore.findById(projectId);
+        lock.writeLock().lock();
+        try {
+            final ProjectSlots project = requireProject(projectId);
+            final int slot = project.slots[requirePosition(project, projectId, taskId)];
+            checkVersion(slot, expectedVersion);
+            final Task before = materialize(slot);
+            final Task after = transformer.apply(before);
+            store(project, slot, before, after);
+            searchIndex.update(before, after);
+            return after;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a task exactly as provided, replacing any task with the same identifier
+     *
+     * Project existence is not validated and the identifier generator is moved
+     * past the task identifier. Intended for subclasses rebuilding the store
+     * from their own files
+     *
+     * @param task task to store
+     */
+    void restore(final Task task) {
+        lock.writeLock().lock();
+        try {
+            final ProjectSlots project = projects.get(task.getProjectId());
+            final int position = positionOf(project, task.getTaskId());
+            if (position < 0) {
+                insert(task);
+                searchIndex.update(null, task);
+            } else {
+                final Task before = materialize(project.slots[position]);
+                store(project, project.slots[position], before, task);
+                searchIndex.update(before, task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        advanceTaskIdPast(task.getTaskId());
+    }
+
+    /**
+     * Overwrites the status, priority and version of a stored task, keeping its texts
+     *
+     * Does nothing when the task is not stored. Intended for subclasses
+     * rebuilding the store from their own files
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @param status status to store
+     * @param priority priority to store
+     * @param version version to store
+     */
+    void restoreFields(final int projectId, final int taskId, final TaskStatus status, final TaskPriority priority,
+                       final long version) {
+        lock.writeLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            final int position = positionOf(project, taskId);
+            if (position >= 0) {
+                final int slot = project.slots[position];
+                project.counts[counter(statuses[slot], priorities[slot])]--;
+                statuses[slot] = (byte) status.ordinal();
+                priorities[slot] = (byte) priority.ordinal();
+                project.counts[counter(statuses[slot], priorities[slot])]++;
+                versions[slot] = version;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a stored task, doing nothing when it is not stored
+     *
+     * Intended for subclasses rebuilding the store from their own files
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     */
+    void restoreRemoval(final int projectId, final int taskId) {
+        lock.writeLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            final int position = positionOf(project, taskId);
+            if (position >= 0) {
+                final Task removed = searchIndex.isEnabled() ? materialize(project.slots[position]) : null;
+                removeAt(project, position);
+                searchIndex.update(removed, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the identifier above every task identifier handed out so far,
+     * including identifiers of tasks deleted since
+     *
+     * @return next unused task identifier
+     */
+    int getNextTaskId() {
+        return nextTaskId.get();
+    }
+
+    /**
+     * Moves the identifier generator past a task identifier that may have been used before
+     *
+     * @param taskId identifier that must never be handed out again
+     */
+    void advanceTaskIdPast(final int taskId) {
+        nextTaskId.accumulateAndGet(taskId + 1, Math::max);
+    }
+
+    /**
+     * Passes every stored task to the provided action while holding off writers
+     *
+     * May be called while the write lock is held, for example from
+     * {@link #beforeWrite(Task, boolean)}
+     *
+     * @param action consumer receiving the tasks, those of one project ordered by task identifier
+     */
+    void forEachTask(final Consumer<Task> action) {
+        lock.readLock().lock();
+        try {
+            for (ProjectSlots project : projects.values()) {
+                for (int i = 0; i < project.size; i++) {
+                    action.accept(materialize(project.slots[i]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Called under the write lock before a task is written into the columns
+     *
+     * Does nothing by default. Subclasses keeping their own copy of the tasks
+     * record the change here, and an exception leaves the columns untouched
+     *
+     * @param task new task version
+     * @param textChanged whether its title or description differs from the stored version, true for new tasks
+     */
+    void beforeWrite(final Task task, final boolean textChanged) {
+    }
+
+    /**
+     * Called under the write lock before a task is removed from the columns
+     *
+     * Does nothing by default. Subclasses keeping their own copy of the tasks
+     * record the removal here, and an exception leaves the columns untouched
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the removed task
+     */
+    void beforeRemove(final int projectId, final int taskId) {
+    }
+
+    /**
+     * Computes the task produced by a single batch command without writing it
+     *
+     * @param projectId identifier of the owning project
+     * @param planned task versions produced by preceding commands, {@code null} for deleted tasks
+     * @param command command to apply
+     * @return new task version, or the task to remove for delete commands
+     * @throws ModelOperationException when the target task does not exist
+     */
+    private Task plan(final int projectId, final Map<Integer, Task> planned, final TaskCommand command) {
+        if (command.getType() == TaskCommand.Type.ADD) {
+            return command.toTask(nextTaskId.getAndIncrement(), projectId);
+        }
+        final Task task = planned.containsKey(command.getTaskId())
+                ? planned.get(command.getTaskId())
+                : lookup(projectId, command.getTaskId());
+        if (task == null) {
+            throw taskNotFound(projectId, command.getTaskId());
+        }
+        return command.applyTo(task);
+    }
+
+    /**
+     * Materializes the tasks of a project matching a status or priority ordinal
+     *
+     * @param projectId identifier of the owning project
+     * @param byStatus whether the ordinal is a status rather than a priority
+     * @param ordinal requested ordinal
+     * @return immutable list of matching tasks ordered by task id
+     */
+    private List<Task> filter(final int projectId, final boolean byStatus, final byte ordinal) {
+        projectStore.findById(projectId);
+        lock.readLock().lock();
+        try {
+            final ProjectSlots project = projects.get(projectId);
+            if (project == null) {
+                return Collections.emptyList();
+            }
+            final byte[] column = byStatus ? statuses : priorities;
+            final List<Task> matches = new ArrayList<>();
+            for (int i = 0; i < project.size; i++) {
+                if (column[project.slots[i]] == ordinal) {
+                    matches.add(materialize(project.slots[i]));
+                }
+            }
+            return Collections.unmodifiableList(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes a new task into a free slot and registers it with its project
+     *
+     * @param task task to insert
+     */
+    private void insert(final Task task) {
+        beforeWrite(task, true);
+        final int slot = allocateSlot();
+        taskIds[slot] = task.getTaskId();
+        projectIds[slot] = task.getProjectId();
+        statuses[slot] = (byte) task.getStatus().ordinal();
+        priorities[slot] = (byte) task.getPriority().ordinal();
+        titles[slot] = titleTexts.intern(task.getTitle());
+        descriptions[slot] = descriptionTexts.intern(task.getDescription());
+        versions[slot] = task.getVersion();
+        final ProjectSlots project = projects.computeIfAbsent(task.getProjectId(), id -> new ProjectSlots());
+        final int position = -positionOf(project, task.getTaskId()) - 1;
+        if (project.size == project.slots.length) {
+            project.slots = Arrays.copyOf(project.slots, project.size + (project.size >> 1) + 1);
+        }
+        System.arraycopy(project.slots, position, project.slots, position + 1, project.size - position);
+        project.slots[position] = slot;
+        project.size++;
+        project.counts[counter(statuses[slot], priorities[slot])]++;
+    }
+
+    /**
+     * Overwrites the columns of an occupied slot with a new task version
+     *
+     * @param project slots of the owning project
+     * @param slot slot of the task
+     * @param before task currently held by the slot, {@code null} when not materialized
+     * @param task new task version
+     */
+    private void store(final ProjectSlots project, final int slot, final Task before, final Task task) {
+        final boolean titleChanged = !Objects.equals(titleTexts.get(titles[slot]), task.getTitle());
+        final boolean descriptionChanged = before == null
+                ? !Objects.equals(descriptionTexts.get(descriptions[slot]), task.getDescription())
+                : !before.hasSameDescription(task);
+        beforeWrite(task, titleChanged || descriptionChanged);
+        project.counts[counter(statuses[slot], priorities[slot])]--;
+        statuses[slot] = (byte) task.getStatus().ordinal();
+        priorities[slot] = (byte) task.getPriority().ordinal();
+        project.counts[counter(statuses[slot], priorities[slot])]++;
+        versions[slot] = task.getVersion();
+        if (titleChanged) {
+            titleTexts.release(titles[slot]);
+            titles[slot] = titleTexts.intern(task.getTitle());
+        }
+        if (descriptionChanged) {
+            descriptionTexts.release(descriptions[slot]);
+            descriptions[slot] = descriptionTexts.intern(task.getDescription());
+        }
+    }
+
+    /**
+     * Removes the task at a position of a project and frees its slot
+     *
+     * @param project slots of the owning project
+     * @param position position of the task within the project
+     */
+    private void removeAt(final ProjectSlots project, final int position) {
+        final int slot = project.slots[position];
+        beforeRemove(projectIds[slot], taskIds[slot]);
+        project.counts[counter(statuses[slot], priorities[slot])]--;
+        System.arraycopy(project.slots, position + 1, project.slots, position, project.size - position - 1);
+        project.size--;
+        if (project.size == 0) {
+            projects.remove(projectIds[slot]);
+        }
+        titleTexts.release(titles[slot]);
+        descriptionTexts.release(descriptions[slot]);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == taskIds.length) {
+            final int capacity = slotCount + (slotCount >> 1);
+            taskIds = Arrays.copyOf(taskIds, capacity);
+            projectIds = Arrays.copyOf(projectIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Finds the position of a task within a project by binary search
+     *
+     * @param project slots of the project, may be {@code null}
+     * @param taskId identifier of the task
+     * @return position of the task, or {@code -(insertion point) - 1} when absent
+     */
+    private int positionOf(final ProjectSlots project, final int taskId) {
+        if (project == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = project.size - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int middleId = taskIds[project.slots[middle]];
+            if (middleId < taskId) {
+                low = middle + 1;
+            } else if (middleId > taskId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int requirePosition(final ProjectSlots project, final int projectId, final int taskId) {
+        final int position = positionOf(project, taskId);
+        if (position < 0) {
+            throw taskNotFound(projectId, taskId);
+        }
+        return position;
+    }
+
+    private ProjectSlots requireProject(final int projectId) {
+        final ProjectSlots project = projects.get(projectId);
+        if (project == null) {
+            throw new ModelOperationException("No tasks found in project " + projectId, false);
+        }
+        return project;
+    }
+
+    private Task lookup(final int projectId, final int taskId) {
+        final ProjectSlots project = projects.get(projectId);
+        final int position = positionOf(project, taskId);
+        return position < 0 ? null : materialize(project.slots[position]);
+    }
+
+    private List<Task> materialize(final ProjectSlots project, final int from, final int to) {
+        final Task[] tasks = new Task[to - from];
+        for (int i = from; i < to; i++) {
+            tasks[i - from] = materialize(project.slots[i]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(tasks));
+    }
+
+    private Task materialize(final int slot) {
+        final Supplier<String> description = descriptionTexts.defer(descriptions[slot]);
+        if (description != null) {
+            return Task.withLazyDescription(taskIds[slot], titleTexts.get(titles[slot]), description,
+                    STATUSES[statuses[slot]], PRIORITIES[priorities[slot]], projectIds[slot], versions[slot]);
+        }
+        return new Task(taskIds[slot], titleTexts.get(titles[slot]), descriptionTexts.get(descriptions[slot]),
+                STATUSES[statuses[slot]], PRIORITIES[priorities[slot]], projectIds[slot], versions[slot]);
+    }
+
+    /**
+     * Indexes every stored task while holding off writers
+     */
+    private void buildSearchIndex() {
+        lock.writeLock().lock();
+        try {
+            for (ProjectSlots project : projects.values()) {
+                for (int i = 0; i < project.size; i++) {
+                    searchIndex.update(null, materialize(project.slots[i]));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Verifies the version of a task before it is materialized
+     *
+     * @param slot slot of the task
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @throws VersionConflictException when the versions differ
+     */
+    private void checkVersion(final int slot, final long expectedVersion) {
+        if (expectedVersion != VersionConflictException.ANY_VERSION && versions[slot] != expectedVersion) {
+            TaskCommand.checkVersion(materialize(slot), expectedVersion);
+        }
+    }
+
+    private static int counter(final int statusOrdinal, final int priorityOrdinal) {
+        return statusOrdinal * PRIORITIES.length + priorityOrdinal;
+    }
+
+    private static ModelOperationException taskNotFound(final int projectId, final int taskId) {
+        return new ModelOperationException("Task with id " + taskId + " not found in project " + projectId, false);
+    }
+
+    /**
+     * Slots of the tasks of one project ordered by task identifier
+     */
+    private static final class ProjectSlots {
+        /** Slots ordered by the identifier of the task they hold */
+        private int[] slots = new int[8];
+        /** Number of used entries of {@link #slots} */
+        private int size;
+        /** Task counts per status and priority combination */
+        private final int[] counts = new int[STATUSES.length * PRIORITIES.length];
+    }
+}
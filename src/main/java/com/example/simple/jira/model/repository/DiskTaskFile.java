@@ -0,0 +1,469 @@
+package com.example.simple.jira.model.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Append-only file holding every field of the tasks of a {@link DiskTaskStore}
+ *
+ * The file starts with a header of magic number, layout version and the next
+ * task identifier at the time the file was written, followed by records framed
+ * by their length and a CRC32 checksum like those of the write-ahead log. A
+ * saved record carries all fields of a task, a fields record only the status,
+ * priority and version of a change leaving the texts alone, and a removed
+ * record the identifiers of a deleted task. Opening the file replays its
+ * records into a {@link ColumnarTaskStore} and truncates a torn tail left by
+ * a crash
+ *
+ * <pre>
+ * header   int magic, int version, int nextTaskId
+ * record   int length, int crc32, payload of length bytes
+ * saved    byte 1, int taskId, int projectId, byte status, byte priority, long version, string title,
+ *          string description
+ * fields   byte 2, int taskId, int projectId, byte status, byte priority, long version
+ * removed  byte 3, int taskId, int projectId
+ * string   int byteLength (-1 for null), UTF-8 bytes
+ * </pre>
+ *
+ * Records are written to the file as they are appended, so a crashed process
+ * loses nothing, but the file is forced only when it is rewritten or closed
+ * and a power failure may lose the latest changes. The owner rewrites the
+ * file with one saved record per live task once {@link #needsRewrite()}, the
+ * new file is written next to it and atomically moved into place. Instances
+ * are not thread safe
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class DiskTaskFile implements Closeable {
+
+    /** Minimum number of bytes appended since the last rewrite before the next one */
+    static final long MIN_REWRITE_BYTES = 1 << 20;
+    /** Magic number identifying task files, "SJTF" */
+    private static final int MAGIC = 0x534A5446;
+    /** Version of the layout */
+    private static final int VERSION = 1;
+    /** Size of the file header in bytes */
+    private static final int HEADER_SIZE = 12;
+    /** Size of the length and checksum header of each record */
+    private static final int FRAME_SIZE = 8;
+    /** Upper bound for a single record, protects replay from corrupted lengths */
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    /** Initial size of the read and write buffers */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Record type of a task with all its fields */
+    private static final byte SAVED = 1;
+    /** Record type of a status, priority and version change */
+    private static final byte FIELDS = 2;
+    /** Record type of a deleted task */
+    private static final byte REMOVED = 3;
+
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Cached priority constants indexed by ordinal */
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    /** Path of the file */
+    private final Path file;
+    /** Checksum of the record being written */
+    private final CRC32 checksum = new CRC32();
+    /** Channel of the file, replaced by rewrites */
+    private FileChannel channel;
+    /** Reusable buffer holding the record being written */
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /** Length of the file */
+    private long size;
+    /** Length of the file after it was opened or last rewritten */
+    private long rewrittenSize;
+
+    private DiskTaskFile(final Path file, final FileChannel channel, final long size) {
+        this.file = file;
+        this.channel = channel;
+        this.size = size;
+        this.rewrittenSize = size;
+    }
+
+    /**
+     * Opens or creates a task file, replaying its records into the provided store
+     *
+     * @param file task file
+     * @param store empty store receiving the tasks, project existence is not validated
+     * @return open file positioned after the last valid record
+     * @throws UncheckedIOException when the file cannot be opened or read
+     * @throws ModelOperationException when the file is not a valid task file
+     */
+    static DiskTaskFile open(final Path file, final ColumnarTaskStore store) {
+        try {
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                if (channel.size() == 0) {
+                    writeFully(channel, header(store.getNextTaskId()), 0);
+                }
+                final long valid = replay(file, channel, store);
+                channel.truncate(valid);
+                return new DiskTaskFile(file, channel, valid);
+            } catch (IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open task file " + file, ex);
+        }
+    }
+
+    /**
+     * Appends all fields of a task
+     *
+     * @param task task to save
+     * @throws UncheckedIOException when the record cannot be written
+     * @throws ModelOperationException when the texts exceed the record size limit
+     */
+    void save(final Task task) {
+        encodeSaved(task);
+        append();
+    }
+
+    /**
+     * Appends the status, priority and version of a task whose texts are unchanged
+     *
+     * @param task new task version
+     * @throws UncheckedIOException when the record cannot be written
+     */
+    void saveFields(final Task task) {
+        start(1 + 4 + 4 + 1 + 1 + 8).put(FIELDS).putInt(task.getTaskId()).putInt(task.getProjectId())
+                .put((byte) task.getStatus().ordinal()).put((byte) task.getPriority().ordinal())
+                .putLong(task.getVersion());
+        append();
+    }
+
+    /**
+     * Appends the removal of a task
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the removed task
+     * @throws UncheckedIOException when the record cannot be written
+     */
+    void remove(final int projectId, final int taskId) {
+        start(1 + 4 + 4).put(REMOVED).putInt(taskId).putInt(projectId);
+        append();
+    }
+
+    /**
+     * Tells whether the bytes appended since the last rewrite exceed both the
+     * size of the file it produced and {@link #MIN_REWRITE_BYTES}
+     *
+     * The file therefore stays below about twice its live size plus the
+     * minimum, and a rewrite copies at most twice the bytes appended since the last one
+     *
+     * @return true when the file should be rewritten
+     */
+    boolean needsRewrite() {
+        return size - rewrittenSize > Math.max(rewrittenSize, MIN_REWRITE_BYTES);
+    }
+
+    /**
+     * Replaces the file with one holding a saved record per provided task
+     *
+     * The new file is forced before it is moved into place, so a failure at
+     * any point leaves either the old or the new file complete
+     *
+     * @param nextTaskId identifier above every task identifier handed out so far
+     * @param tasks action passing every live task to the consumer it receives
+     * @throws UncheckedIOException when the new file cannot be written
+     */
+    void rewrite(final int nextTaskId, final Consumer<Consumer<Task>> tasks) {
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        final FileChannel target;
+        try {
+            target = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create task file " + temporary, ex);
+        }
+        final long[] written = {HEADER_SIZE};
+        try {
+            writeFully(target, header(nextTaskId), 0);
+            tasks.accept(task -> {
+                encodeSaved(task);
+                written[0] += write(target, written[0]);
+            });
+            target.force(true);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly(target);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            if (ex instanceof IOException) {
+                throw new UncheckedIOException("Cannot rewrite task file " + file, (IOException) ex);
+            }
+            throw (RuntimeException) ex;
+        }
+        closeQuietly(channel);
+        channel = target;
+        size = written[0];
+        rewrittenSize = written[0];
+    }
+
+    /**
+     * Returns the length of the file
+     *
+     * @return file bytes
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Forces and closes the file, it must not be used afterwards
+     *
+     * @throws IOException when the file cannot be forced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Appends the record in {@link #buffer} to the file
+     *
+     * A failed write is cut off again, so that later records are not hidden
+     * behind a torn one when the file is replayed
+     */
+    private void append() {
+        try {
+            size += write(channel, size);
+        } catch (UncheckedIOException ex) {
+            try {
+                channel.truncate(size);
+            } catch (IOException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            throw ex;
+        }
+    }
+
+    private void encodeSaved(final Task task) {
+        final byte[] title = encode(task.getTitle());
+        final byte[] description = encode(task.getDescription());
+        final ByteBuffer record = start(1 + 4 + 4 + 1 + 1 + 8 + stringSize(title) + stringSize(description))
+                .put(SAVED).putInt(task.getTaskId()).putInt(task.getProjectId())
+                .put((byte) task.getStatus().ordinal()).put((byte) task.getPriority().ordinal())
+                .putLong(task.getVersion());
+        putString(record, title);
+        putString(record, description);
+    }
+
+    /**
+     * Prepares {@link #buffer} for a record payload of the provided size
+     *
+     * @param payloadSize size of the payload in bytes
+     * @return buffer positioned at the start of the payload
+     * @throws ModelOperationException when the payload exceeds the record size limit
+     */
+    private ByteBuffer start(final int payloadSize) {
+        if (payloadSize < 0 || payloadSize > MAX_RECORD_SIZE) {
+            throw new ModelOperationException("Task record of " + payloadSize + " bytes exceeds the size limit");
+        }
+        if (buffer.capacity() < FRAME_SIZE + payloadSize) {
+            buffer = ByteBuffer.allocate(Math.max(FRAME_SIZE + payloadSize, buffer.capacity() * 2));
+        }
+        buffer.clear().position(FRAME_SIZE);
+        return buffer;
+    }
+
+    /**
+     * Frames the record in {@link #buffer} and writes it at the provided position
+     *
+     * @param target channel to write to
+     * @param position position of the record in the file
+     * @return number of bytes written
+     * @throws UncheckedIOException when the record cannot be written
+     */
+    private int write(final FileChannel target, final long position) {
+        buffer.flip();
+        final int length = buffer.limit();
+        checksum.reset();
+        checksum.update(buffer.slice(FRAME_SIZE, length - FRAME_SIZE));
+        buffer.putInt(0, length - FRAME_SIZE).putInt(4, (int) checksum.getValue());
+        try {
+            writeFully(target, buffer, position);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write task file " + file, ex);
+        }
+        return length;
+    }
+
+    /**
+     * Replays all valid records of the file
+     *
+     * @param file task file, used in error messages
+     * @param channel channel positioned at the start of the file
+     * @param store store receiving the tasks
+     * @return length of the valid prefix of the file
+     * @throws IOException when reading fails
+     * @throws ModelOperationException when the file is not a valid task file
+     */
+    private static long replay(final Path file, final FileChannel channel, final ColumnarTaskStore store)
+            throws IOException {
+        ByteBuffer buffer = fill(channel, ByteBuffer.allocate(BUFFER_SIZE).flip(), HEADER_SIZE);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new ModelOperationException("File " + file + " is not a task file");
+        }
+        final int layout = buffer.getInt();
+        if (layout != VERSION) {
+            throw new ModelOperationException("Task file " + file + " has unsupported layout version " + layout);
+        }
+        store.advanceTaskIdPast(buffer.getInt() - 1);
+        final CRC32 crc = new CRC32();
+        long valid = HEADER_SIZE;
+        while (true) {
+            buffer = fill(channel, buffer, FRAME_SIZE);
+            if (buffer.remaining() < FRAME_SIZE) {
+                break;
+            }
+            final int length = buffer.getInt(buffer.position());
+            final int expected = buffer.getInt(buffer.position() + 4);
+            if (length < 0 || length > MAX_RECORD_SIZE) {
+                break;
+            }
+            buffer = fill(channel, buffer, FRAME_SIZE + length);
+            if (buffer.remaining() < FRAME_SIZE + length) {
+                break;
+            }
+            final ByteBuffer payload = buffer.slice(buffer.position() + FRAME_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+            try {
+                apply(payload, store);
+            } catch (RuntimeException ex) {
+                throw new ModelOperationException("Task file " + file + " is corrupted", ex);
+            }
+            buffer.position(buffer.position() + FRAME_SIZE + length);
+            valid += FRAME_SIZE + length;
+        }
+        return valid;
+    }
+
+    private static void apply(final ByteBuffer payload, final ColumnarTaskStore store) {
+        final byte type = payload.get();
+        final int taskId = payload.getInt();
+        final int projectId = payload.getInt();
+        switch (type) {
+            case SAVED: {
+                final TaskStatus status = STATUSES[payload.get()];
+                final TaskPriority priority = PRIORITIES[payload.get()];
+                final long version = payload.getLong();
+                final String title = getString(payload);
+                final String description = getString(payload);
+                store.restore(new Task(taskId, title, description, status, priority, projectId, version));
+                break;
+            }
+            case FIELDS:
+                store.restoreFields(projectId, taskId, STATUSES[payload.get()], PRIORITIES[payload.get()],
+                        payload.getLong());
+                break;
+            case REMOVED:
+                store.restoreRemoval(projectId, taskId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown task record type " + type);
+        }
+    }
+
+    /**
+     * Makes sure the buffer holds at least the requested number of bytes unless the file ends
+     *
+     * @param channel channel to read from
+     * @param buffer buffer in read mode
+     * @param required number of bytes needed
+     * @return buffer in read mode, possibly a larger replacement
+     * @throws IOException when reading fails
+     */
+    private static ByteBuffer fill(final FileChannel channel, ByteBuffer buffer, final int required)
+            throws IOException {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocate(required).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < required && channel.read(buffer) >= 0) {
+            // keep reading until enough bytes are buffered or the file ends
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer header(final int nextTaskId) {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(nextTaskId).flip();
+    }
+
+    private static void writeFully(final FileChannel target, final ByteBuffer source, final long position)
+            throws IOException {
+        while (source.hasRemaining()) {
+            target.write(source, position + source.position());
+        }
+    }
+
+    private static byte[] encode(final String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(final byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(final ByteBuffer target, final byte[] bytes) {
+        if (bytes == null) {
+            target.putInt(-1);
+        } else {
+            target.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(final ByteBuffer source) {
+        final int length = source.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final String value = new String(source.array(), source.arrayOffset() + source.position(), length,
+                StandardCharsets.UTF_8);
+        source.position(source.position() + length);
+        return value;
+    }
+
+    private static void closeQuietly(final FileChannel target) {
+        try {
+            target.close();
+        } catch (IOException ex) {
+            // nothing is written through the channel afterwards
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.simple.jira.model.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Columnar task store persisted to a task file and keeping descriptions in files behind a bounded cache
+ *
+ * Behaves exactly like {@link ColumnarTaskStore}, except that every change
+ * is also appended to a {@link DiskTaskFile} named {@link #FILE_NAME} in the
+ * provided directory, and descriptions live as UTF-8 in files of a
+ * {@link DiskTextPool} in the same directory. The heap still holds the primitive columns and the titles of
+ * every task, so it keeps growing with the number of tasks, but a
+ * description costs only a few ints per distinct text plus a share of a
+ * scan resistant cache of decoded descriptions limited to the provided
+ * budget. Long descriptions therefore no longer decide how many tasks fit
+ * into the heap. Titles stay on the heap because every listing shows them
+ *
+ * Tasks returned by reads carry a lazy description: it is read from the
+ * cache or the file on the first call of
+ * {@link com.example.simple.jira.model.domain.Task#getDescription()}, and
+ * status, priority and title updates never read it. The search index, bulk
+ * export and the HTTP API read every description they touch, so they are
+ * served at disk speed once the working set exceeds the cache, without
+ * evicting the descriptions read repeatedly
+ *
+ * The task file holds every field of every task and is the authoritative
+ * copy: opening a store on a directory that already holds one rebuilds the
+ * columns and the description files from it, and a change is applied only
+ * after its record was written. The description files are unnamed scratch
+ * space that disappears with the store or the process. Projects are not part
+ * of the task file, the provided project store must hold the same projects
+ * again when the store is reopened, and tasks of missing projects are kept
+ * but cannot be read until their project is back. Only one store may have a
+ * directory open at a time
+ *
+ * The file grows with every change and is rewritten under the write lock
+ * once it holds about as many stale records as live ones, so writers stall
+ * for the time it takes to write all tasks once in a while. The store is not
+ * journaled like {@link TaskRepository}, it is durable on its own
+ *
+ * @author michalkubina
+ * @version 1.0
+ * @see ColumnarTaskStore
+ */
+public class DiskTaskStore extends ColumnarTaskStore implements Closeable {
+
+    /** Name of the task file in the store directory */
+    public static final String FILE_NAME = "tasks.dat";
+
+    /** File storage of descriptions */
+    private final DiskTextPool descriptions;
+    /** Authoritative copy of all tasks, {@code null} while it is replayed */
+    private final DiskTaskFile file;
+
+    /**
+     * Opens the store kept in a directory, creating an empty one when the
+     * directory holds no task file, and validates projects against the
+     * provided store
+     *
+     * @param projectStore store used to confirm project existence
+     * @param directory existing directory holding the task file and receiving the description files
+     * @param cacheBytes heap budget of the description cache in bytes
+     * @throws IllegalArgumentException when the directory does not exist or the budget is negative
+     * @throws UncheckedIOException when the task file cannot be opened or read
+     * @throws ModelOperationException when the task file is not valid
+     */
+    public DiskTaskStore(final ProjectStore projectStore, final Path directory, final long cacheBytes) {
+        this(projectStore, new DiskTextPool(requireDirectory(directory), requireBudget(cacheBytes)),
+                directory.resolve(FILE_NAME));
+    }
+
+    private DiskTaskStore(final ProjectStore projectStore, final DiskTextPool descriptions, final Path file) {
+        super(projectStore, new StringPool(), descriptions);
+        this.descriptions = descriptions;
+        try {
+            this.file = DiskTaskFile.open(file, this);
+        } catch (RuntimeException ex) {
+            try {
+                descriptions.close();
+            } catch (IOException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the description cache
+     *
+     * @return statistics snapshot, approximate while readers are running
+     */
+    public CacheStatistics getCacheStatistics() {
+        return descriptions.cacheStatistics();
+    }
+
+    /**
+     * Returns the size of the description files in use, approximate while
+     * writers are running
+     *
+     * @return disk bytes
+     */
+    public long getDiskBytes() {
+        return descriptions.diskBytes();
+    }
+
+    /**
+     * Returns the encoded size of all distinct descriptions, approximate while
+     * writers are running
+     *
+     * @return live bytes
+     */
+    public long getLiveTextBytes() {
+        return descriptions.liveBytes();
+    }
+
+    /**
+     * Returns the size of the task file, approximate while writers are running
+     *
+     * @return task file bytes
+     */
+    public long getFileBytes() {
+        return file.size();
+    }
+
+    /**
+     * Forces and closes the task file and closes the description files, the
+     * store must not be used afterwards
+     *
+     * @throws IOException when a file cannot be forced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            file.close();
+        } finally {
+            descriptions.close();
+        }
+    }
+
+    /**
+     * Appends the new task version to the task file, rewriting the file first when it is due
+     *
+     * @param task new task version
+     * @param textChanged whether its title or description differs from the stored version
+     * @throws UncheckedIOException when the task file cannot be written
+     */
+    @Override
+    void beforeWrite(final Task task, final boolean textChanged) {
+        if (file == null) {
+            return;
+        }
+        rewriteIfDue();
+        if (textChanged) {
+            file.save(task);
+        } else {
+            file.saveFields(task);
+        }
+    }
+
+    /**
+     * Appends the removal of a task to the task file, rewriting the file first when it is due
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the removed task
+     * @throws UncheckedIOException when the task file cannot be written
+     */
+    @Override
+    void beforeRemove(final int projectId, final int taskId) {
+        if (file == null) {
+            return;
+        }
+        rewriteIfDue();
+        file.remove(projectId, taskId);
+    }
+
+    private void rewriteIfDue() {
+        if (file.needsRewrite()) {
+            file.rewrite(getNextTaskId(), this::forEachTask);
+        }
+    }
+
+    private static Path requireDirectory(final Path directory) {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        return directory;
+    }
+
+    private static long requireBudget(final long cacheBytes) {
+        if (cacheBytes < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + cacheBytes);
+        }
+        return cacheBytes;
+    }
+}
@@ -0,0 +1,459 @@
+package com.example.simple.jira.model.repository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Reference counted pool of deduplicated texts kept in files with a bounded cache in front
+ *
+ * Texts are appended as UTF-8 to segment files of about {@link #SEGMENT_SIZE}
+ * bytes in the provided directory and never overwritten, so a location stays
+ * valid as long as its segment is. The heap only holds a few primitive
+ * entries per distinct text, the same as {@link OffHeapTextPool}, plus the
+ * recently read texts in a {@link TextCache}. Texts enter the cache when
+ * first read rather than when written, so writing many texts does not push
+ * out the ones being read. Equal texts share one reference, candidates with
+ * the same hash and length are compared after reading them through the cache
+ *
+ * Released texts leave holes in their segment. A full segment whose live
+ * texts drop below half of it is compacted by appending them to the current
+ * segment, and any segment without live texts is dropped. Deferred reads keep
+ * their segment reachable, so its file stays readable until the last of them
+ * is gone, then a {@link Cleaner} closes it. Files are opened with
+ * {@link StandardOpenOption#DELETE_ON_CLOSE}, which unlinks them right
+ * away on most platforms, so they never outlive the process and cannot be
+ * reopened. Nothing is forced to disk, the files only move texts out of the
+ * heap and are never an authoritative copy. Instances are not thread safe
+ * except for the suppliers returned by {@link #defer(int)}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class DiskTextPool implements TextPool {
+
+    /** Size after which a new segment is started, in bytes */
+    static final int SEGMENT_SIZE = 64 << 20;
+    /** Closes the files of unreachable segments */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /** Directory holding the segment files */
+    private final Path directory;
+    /** Recently read texts by {@link #cacheKey(Segment, long)} */
+    private final TextCache cache;
+
+    /** Segments by index, {@code null} for dropped ones */
+    private Segment[] segments = new Segment[4];
+    /** Segment receiving new texts, {@code -1} when none */
+    private int currentSegment = -1;
+    /** Identifier given to the next segment, never reused so cache keys stay unique */
+    private long nextSegmentId;
+
+    /** Segment index in the high and offset in the low half per reference */
+    private long[] locations = new long[16];
+    /** Encoded length in bytes per reference */
+    private int[] lengths = new int[16];
+    /** Hash code of the text per reference */
+    private int[] hashes = new int[16];
+    /** Number of holders per reference, zero for free references */
+    private int[] refCounts = new int[16];
+    /** Hash table of references plus one, zero marks an empty bucket */
+    private int[] table = new int[32];
+    /** Number of distinct texts in the pool */
+    private int size;
+    /** Number of references ever handed out */
+    private int highWater;
+    /** Released references available for reuse */
+    private int[] freeRefs = new int[16];
+    /** Number of entries in {@link #freeRefs} */
+    private int freeCount;
+
+    /** Bytes of live texts */
+    private long liveBytes;
+    /** Bytes written to the segments still in use */
+    private long diskBytes;
+
+    /**
+     * Creates an empty pool
+     *
+     * @param directory existing directory receiving the segment files
+     * @param cacheBytes heap budget of the cache of decoded texts
+     */
+    DiskTextPool(final Path directory, final long cacheBytes) {
+        this.directory = directory;
+        this.cache = new TextCache(cacheBytes);
+    }
+
+    /**
+     * Adds a holder of the provided text
+     *
+     * @param value text to store, may be {@code null}
+     * @return reference of the text, {@link #NULL_REF} for {@code null}
+     * @throws UncheckedIOException when the text cannot be written
+     */
+    @Override
+    public int intern(final String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        final int hash = value.hashCode();
+        final int mask = table.length - 1;
+        int bucket = bucketOf(hash, mask);
+        while (table[bucket] != 0) {
+            final int ref = table[bucket] - 1;
+            if (hashes[ref] == hash && lengths[ref] == bytes.length && value.equals(get(ref))) {
+                refCounts[ref]++;
+                return ref;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        final long location = write(bytes);
+        final int ref = allocate();
+        locations[ref] = location;
+        lengths[ref] = bytes.length;
+        hashes[ref] = hash;
+        refCounts[ref] = 1;
+        table[bucket] = ref + 1;
+        liveBytes += bytes.length;
+        segments[segmentOf(location)].liveBytes += bytes.length;
+        size++;
+        if (size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        return ref;
+    }
+
+    /**
+     * Returns the text of a reference, from the cache or read from its segment
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     * @return stored text, {@code null} for {@link #NULL_REF}
+     * @throws UncheckedIOException when the text cannot be read
+     */
+    @Override
+    public String get(final int ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        return read(segments[segmentOf(locations[ref])], offsetOf(locations[ref]), lengths[ref]);
+    }
+
+    /**
+     * Returns a read of the text of a reference deferred until the supplier is called
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     * @return thread safe supplier of the text, also valid after the reference is released
+     */
+    @Override
+    public Supplier<String> defer(final int ref) {
+        if (ref == NULL_REF) {
+            return () -> null;
+        }
+        final Segment segment = segments[segmentOf(locations[ref])];
+        final long offset = offsetOf(locations[ref]);
+        final int length = lengths[ref];
+        return () -> read(segment, offset, length);
+    }
+
+    /**
+     * Removes a holder of a reference, dropping the text with its last holder
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     */
+    @Override
+    public void release(final int ref) {
+        if (ref == NULL_REF || --refCounts[ref] > 0) {
+            return;
+        }
+        final int mask = table.length - 1;
+        int hole = bucketOf(hashes[ref], mask);
+        while (table[hole] != ref + 1) {
+            hole = (hole + 1) & mask;
+        }
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            final int home = bucketOf(hashes[table[next] - 1], mask);
+            final boolean staysPut = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!staysPut) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+        size--;
+        liveBytes -= lengths[ref];
+        final int index = segmentOf(locations[ref]);
+        final Segment segment = segments[index];
+        segment.liveBytes -= lengths[ref];
+        if (lengths[ref] > 0) {
+            cache.invalidate(cacheKey(segment, offsetOf(locations[ref])));
+        }
+        if (freeCount == freeRefs.length) {
+            freeRefs = Arrays.copyOf(freeRefs, freeCount * 2);
+        }
+        freeRefs[freeCount++] = ref;
+        if (segment.liveBytes == 0 || index != currentSegment && segment.liveBytes * 2 < segment.writtenBytes) {
+            compact(index);
+        }
+    }
+
+    /**
+     * Returns the number of distinct texts in the pool
+     *
+     * @return distinct text count
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the bytes written to the segments still in use, read without synchronization
+     *
+     * @return disk bytes
+     */
+    long diskBytes() {
+        return diskBytes;
+    }
+
+    /**
+     * Returns the encoded size of all live texts, read without synchronization
+     *
+     * @return live bytes
+     */
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Returns the counters and current size of the cache
+     *
+     * @return statistics snapshot
+     */
+    CacheStatistics cacheStatistics() {
+        return cache.statistics();
+    }
+
+    /**
+     * Closes the files of all segments still in use
+     *
+     * Reads of the pool and of the suppliers returned by {@link #defer(int)}
+     * fail afterwards, segments already dropped are closed by the cleaner
+     *
+     * @throws IOException when a file cannot be closed
+     */
+    void close() throws IOException {
+        IOException failure = null;
+        for (Segment segment : segments) {
+            if (segment != null) {
+                try {
+                    segment.channel.close();
+                } catch (IOException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    } else {
+                        failure.addSuppressed(ex);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Moves the live texts of a segment to the current one and drops it
+     *
+     * Each compaction scans all references once and frees at least half a
+     * segment, so its cost is amortized over the releases that caused it
+     *
+     * @param index index of the segment to drop, the current one only when it has no live texts
+     */
+    private void compact(final int index) {
+        final Segment source = segments[index];
+        for (int ref = 0; ref < highWater && source.liveBytes > 0; ref++) {
+            if (refCounts[ref] > 0 && segmentOf(locations[ref]) == index) {
+                locations[ref] = write(readBytes(source, offsetOf(locations[ref]), lengths[ref]));
+                segments[segmentOf(locations[ref])].liveBytes += lengths[ref];
+                source.liveBytes -= lengths[ref];
+            }
+        }
+        segments[index] = null;
+        diskBytes -= source.writtenBytes;
+        if (index == currentSegment) {
+            currentSegment = -1;
+        }
+    }
+
+    /**
+     * Returns a text from the cache or reads it from its segment into the cache
+     *
+     * Empty texts share their location with the next text of the segment and
+     * are therefore never cached
+     *
+     * @param segment segment holding the text
+     * @param offset position of the text in the segment
+     * @param length encoded length in bytes
+     * @return decoded text
+     */
+    private String read(final Segment segment, final long offset, final int length) {
+        if (length == 0) {
+            return "";
+        }
+        final long key = cacheKey(segment, offset);
+        String value = cache.get(key);
+        if (value == null) {
+            value = new String(readBytes(segment, offset, length), StandardCharsets.UTF_8);
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    private byte[] readBytes(final Segment segment, final long offset, final int length) {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (segment.channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Text beyond end of segment " + segment.id);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read task text from " + directory, ex);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Appends encoded text to the current segment, starting a new one when it is full
+     *
+     * @param bytes encoded text
+     * @return location of the text
+     */
+    private long write(final byte[] bytes) {
+        if (currentSegment < 0 || segments[currentSegment].writtenBytes > 0
+                && segments[currentSegment].writtenBytes + bytes.length > SEGMENT_SIZE) {
+            currentSegment = addSegment();
+        }
+        final Segment segment = segments[currentSegment];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer, segment.writtenBytes + buffer.position());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write task text to " + directory, ex);
+        }
+        final long location = (long) currentSegment << 32 | segment.writtenBytes;
+        segment.writtenBytes += bytes.length;
+        diskBytes += bytes.length;
+        return location;
+    }
+
+    private int addSegment() {
+        final FileChannel channel;
+        try {
+            final Path file = Files.createTempFile(directory, "tasks-", ".txt");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create task text file in " + directory, ex);
+        }
+        final Segment segment = new Segment(nextSegmentId++, channel);
+        CLEANER.register(segment, () -> {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                // the file is unlinked or deleted on close either way
+            }
+        });
+        int index = 0;
+        while (index < segments.length && (segments[index] != null || index == currentSegment)) {
+            index++;
+        }
+        if (index == segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        segments[index] = segment;
+        return index;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeRefs[--freeCount];
+        }
+        if (highWater == refCounts.length) {
+            final int capacity = highWater + (highWater >> 1);
+            locations = Arrays.copyOf(locations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            refCounts = Arrays.copyOf(refCounts, capacity);
+        }
+        return highWater++;
+    }
+
+    private void resize(final int capacity) {
+        final int[] resized = new int[capacity];
+        final int mask = capacity - 1;
+        for (int entry : table) {
+            if (entry != 0) {
+                int bucket = bucketOf(hashes[entry - 1], mask);
+                while (resized[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                resized[bucket] = entry;
+            }
+        }
+        table = resized;
+    }
+
+    private static long cacheKey(final Segment segment, final long offset) {
+        return segment.id << 32 | offset;
+    }
+
+    private static int segmentOf(final long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static long offsetOf(final long location) {
+        return (int) location;
+    }
+
+    private static int bucketOf(final int hashCode, final int mask) {
+        final int hash = hashCode * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * One append-only file of texts
+     */
+    private static final class Segment {
+        /** Identifier unique within the pool */
+        private final long id;
+        /** Channel of the file, closed with the pool or once the segment is unreachable */
+        private final FileChannel channel;
+        /** Bytes appended so far, changed by the pool only */
+        private long writtenBytes;
+        /** Bytes of the live texts in this segment, changed by the pool only */
+        private long liveBytes;
+
+        private Segment(final long id, final FileChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocator of task identifiers reserving them from a shared counter in blocks
+ *
+ * Allocators sharing one counter hand out globally unique identifiers while
+ * touching the shared counter only once per block, identifiers of a single
+ * allocator increase monotonically. The current block is kept as
+ * {@code limit << 32 | next} in one {@link AtomicLong}, so allocation is a
+ * single compare-and-set on memory private to the allocator. A block lost
+ * to a concurrent refill is skipped. A block size of one allocates straight
+ * from the shared counter
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class IdBlockAllocator {
+
+    /** Counter shared by all allocators, holds the first identifier of the next block */
+    private final AtomicInteger shared;
+    /** Number of identifiers reserved at once */
+    private final int blockSize;
+    /** Current block, limit in the high and next identifier in the low 32 bits */
+    private final AtomicLong block = new AtomicLong();
+
+    /**
+     * Creates an allocator
+     *
+     * @param shared counter shared with other allocators, holding the next free identifier
+     * @param blockSize number of identifiers reserved at once
+     */
+    IdBlockAllocator(final AtomicInteger shared, final int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.shared = shared;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocates the next identifier
+     *
+     * @return identifier never returned by any allocator sharing the counter
+     */
+    int next() {
+        if (blockSize == 1) {
+            return shared.getAndIncrement();
+        }
+        while (true) {
+            final long current = block.get();
+            final int next = (int) current;
+            final int limit = (int) (current >>> 32);
+            if (next < limit) {
+                if (block.compareAndSet(current, current + 1)) {
+                    return next;
+                }
+                continue;
+            }
+            final int start = shared.getAndAdd(blockSize);
+            if (block.compareAndSet(current, (long) (start + blockSize) << 32 | (start + 1))) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * Returns a bound of all identifiers allocated so far
+     *
+     * @return identifier greater than every identifier handed out by allocators sharing the counter
+     */
+    int nextUnallocated() {
+        return shared.get();
+    }
+
+    /**
+     * Moves the shared counter past a restored identifier
+     *
+     * Blocks reserved earlier are unaffected, so restoring is only safe
+     * before identifiers are allocated
+     *
+     * @param taskId identifier that must never be allocated
+     */
+    void advancePast(final int taskId) {
+        shared.accumulateAndGet(taskId + 1, Math::max);
+    }
+}
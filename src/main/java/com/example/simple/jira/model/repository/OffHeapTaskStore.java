@@ -0,0 +1,60 @@
+package com.example.simple.jira.model.repository;
+
+/**
+ * Columnar task store keeping titles and descriptions outside the Java heap
+ *
+ * Behaves exactly like {@link ColumnarTaskStore}, except that the texts live
+ * as UTF-8 in native memory slabs of an {@link OffHeapTextPool}. The heap
+ * then only holds the primitive columns and a few ints per distinct text,
+ * so long descriptions no longer fill the old generation and do not have to
+ * be traced or copied by the garbage collector. Texts are decoded whenever a
+ * read materializes a {@link com.example.simple.jira.model.domain.Task}, so
+ * the decoded strings are short-lived and reads of large result sets cost
+ * one decode per title and description
+ *
+ * Native memory is released when the texts are deleted and their slab is
+ * compacted, or when the store itself is no longer reachable
+ *
+ * @author michalkubina
+ * @version 1.0
+ * @see ColumnarTaskStore
+ */
+public class OffHeapTaskStore extends ColumnarTaskStore {
+
+    /** Native storage of titles and descriptions */
+    private final OffHeapTextPool texts;
+
+    /**
+     * Creates an empty store validating projects against the provided store
+     *
+     * @param projectStore store used to confirm project existence
+     */
+    public OffHeapTaskStore(final ProjectStore projectStore) {
+        this(projectStore, new OffHeapTextPool());
+    }
+
+    private OffHeapTaskStore(final ProjectStore projectStore, final OffHeapTextPool texts) {
+        super(projectStore, texts);
+        this.texts = texts;
+    }
+
+    /**
+     * Returns the native memory currently held for task texts, approximate
+     * while writers are running
+     *
+     * @return reserved bytes
+     */
+    public long getOffHeapBytes() {
+        return texts.reservedBytes();
+    }
+
+    /**
+     * Returns the encoded size of all distinct task texts, approximate while
+     * writers are running
+     *
+     * @return live bytes
+     */
+    public long getLiveTextBytes() {
+        return texts.liveBytes();
+    }
+}
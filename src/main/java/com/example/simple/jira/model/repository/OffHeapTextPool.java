@@ -0,0 +1,339 @@
+package com.example.simple.jira.model.repository;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reference counted pool of deduplicated texts kept outside the Java heap
+ *
+ * Texts are stored as UTF-8 in native memory slabs of {@link #SLAB_SIZE}
+ * bytes filled by bump allocation, texts larger than an eighth of a slab get
+ * a slab of their own, whose index is reused once the text is released. The
+ * heap only holds a few primitive entries per distinct text: its location,
+ * length, hash and holder count, plus the same open addressing lookup table
+ * as {@link StringPool}. Equal texts share one reference, candidates are
+ * compared byte by byte in native memory
+ *
+ * Released texts leave holes in their slab. Once the holes take more space
+ * than the live texts and at least one slab, all live texts are copied into
+ * fresh slabs and the old ones become unreachable, so the space in use stays
+ * below twice the live bytes plus one slab. Every slab is allocated from its
+ * own automatic {@link Arena} and its native memory is freed when the garbage
+ * collector finds it unreachable. A text is decoded into a new
+ * {@link String} on every {@link #get(int)}. Instances are not thread safe
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class OffHeapTextPool implements TextPool {
+
+    /** Size of a regular slab in bytes */
+    static final int SLAB_SIZE = 1 << 20;
+    /** Texts longer than this many bytes get a slab of their own */
+    private static final int LARGE_TEXT = SLAB_SIZE / 8;
+
+    /** Native memory slabs, {@code null} for released dedicated slabs */
+    private MemorySegment[] slabs = new MemorySegment[4];
+    /** Number of entries ever used in {@link #slabs} */
+    private int slabCount;
+    /** Indices of released dedicated slabs available for reuse */
+    private int[] freeSlabs = new int[4];
+    /** Number of entries in {@link #freeSlabs} */
+    private int freeSlabCount;
+    /** Slab currently filled by bump allocation, {@code -1} when none */
+    private int currentSlab = -1;
+    /** Next free offset in the current slab */
+    private int currentOffset;
+
+    /** Slab index in the high and offset in the low half per reference */
+    private long[] locations = new long[16];
+    /** Encoded length in bytes per reference */
+    private int[] lengths = new int[16];
+    /** Hash code of the text per reference */
+    private int[] hashes = new int[16];
+    /** Number of holders per reference, zero for free references */
+    private int[] refCounts = new int[16];
+    /** Hash table of references plus one, zero marks an empty bucket */
+    private int[] table = new int[32];
+    /** Number of distinct texts in the pool */
+    private int size;
+    /** Number of references ever handed out */
+    private int highWater;
+    /** Released references available for reuse */
+    private int[] freeRefs = new int[16];
+    /** Number of entries in {@link #freeRefs} */
+    private int freeCount;
+
+    /** Bytes of live texts */
+    private long liveBytes;
+    /** Bytes of released texts still occupying regular slabs */
+    private long garbageBytes;
+    /** Bytes of native memory held by all slabs */
+    private long reservedBytes;
+
+    /**
+     * Adds a holder of the provided text
+     *
+     * @param value text to store, may be {@code null}
+     * @return reference of the text, {@link #NULL_REF} for {@code null}
+     */
+    @Override
+    public int intern(final String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        final int hash = value.hashCode();
+        final int mask = table.length - 1;
+        int bucket = bucketOf(hash, mask);
+        while (table[bucket] != 0) {
+            final int ref = table[bucket] - 1;
+            if (hashes[ref] == hash && lengths[ref] == bytes.length && contentEquals(ref, bytes)) {
+                refCounts[ref]++;
+                return ref;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        final int ref = allocate();
+        locations[ref] = write(bytes);
+        lengths[ref] = bytes.length;
+        hashes[ref] = hash;
+        refCounts[ref] = 1;
+        table[bucket] = ref + 1;
+        liveBytes += bytes.length;
+        size++;
+        if (size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        return ref;
+    }
+
+    /**
+     * Decodes the text of a reference
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     * @return new string with the stored text, {@code null} for {@link #NULL_REF}
+     */
+    @Override
+    public String get(final int ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        final byte[] bytes = new byte[lengths[ref]];
+        MemorySegment.copy(slabs[slabOf(locations[ref])], ValueLayout.JAVA_BYTE, offsetOf(locations[ref]),
+                bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Removes a holder of a reference, dropping the text with its last holder
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     */
+    @Override
+    public void release(final int ref) {
+        if (ref == NULL_REF || --refCounts[ref] > 0) {
+            return;
+        }
+        final int mask = table.length - 1;
+        int hole = bucketOf(hashes[ref], mask);
+        while (table[hole] != ref + 1) {
+            hole = (hole + 1) & mask;
+        }
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            final int home = bucketOf(hashes[table[next] - 1], mask);
+            final boolean staysPut = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!staysPut) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+        size--;
+        liveBytes -= lengths[ref];
+        if (lengths[ref] > LARGE_TEXT) {
+            final int slab = slabOf(locations[ref]);
+            reservedBytes -= slabs[slab].byteSize();
+            slabs[slab] = null;
+            if (freeSlabCount == freeSlabs.length) {
+                freeSlabs = Arrays.copyOf(freeSlabs, freeSlabCount * 2);
+            }
+            freeSlabs[freeSlabCount++] = slab;
+        } else {
+            garbageBytes += lengths[ref];
+        }
+        if (freeCount == freeRefs.length) {
+            freeRefs = Arrays.copyOf(freeRefs, freeCount * 2);
+        }
+        freeRefs[freeCount++] = ref;
+        if (garbageBytes > liveBytes && garbageBytes >= SLAB_SIZE) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the number of distinct texts in the pool
+     *
+     * @return distinct text count
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the native memory held by the pool, read without synchronization
+     *
+     * @return reserved bytes
+     */
+    long reservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * Returns the encoded size of all live texts, read without synchronization
+     *
+     * @return live bytes
+     */
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Copies all live texts into fresh slabs, dropping the old ones
+     */
+    private void compact() {
+        final MemorySegment[] old = slabs;
+        slabs = new MemorySegment[4];
+        slabCount = 0;
+        freeSlabCount = 0;
+        currentSlab = -1;
+        reservedBytes = 0;
+        for (int ref = 0; ref < highWater; ref++) {
+            if (refCounts[ref] > 0) {
+                final MemorySegment source = old[slabOf(locations[ref])];
+                final long offset = offsetOf(locations[ref]);
+                if (lengths[ref] > LARGE_TEXT) {
+                    locations[ref] = (long) addSlab(source) << 32;
+                } else {
+                    locations[ref] = write(source.asSlice(offset, lengths[ref]));
+                }
+            }
+        }
+        garbageBytes = 0;
+    }
+
+    /**
+     * Copies encoded text into slab memory
+     *
+     * @param bytes encoded text
+     * @return location of the copy
+     */
+    private long write(final byte[] bytes) {
+        final long location = reserve(bytes.length);
+        MemorySegment.copy(bytes, 0, slabs[slabOf(location)], ValueLayout.JAVA_BYTE, offsetOf(location),
+                bytes.length);
+        return location;
+    }
+
+    /**
+     * Copies encoded text from another segment into slab memory
+     *
+     * @param text segment holding exactly the text
+     * @return location of the copy
+     */
+    private long write(final MemorySegment text) {
+        final long location = reserve((int) text.byteSize());
+        MemorySegment.copy(text, 0, slabs[slabOf(location)], offsetOf(location), text.byteSize());
+        return location;
+    }
+
+    /**
+     * Reserves space for a text, in the current slab, a new slab or a dedicated one
+     *
+     * @param length number of bytes
+     * @return location of the reserved space
+     */
+    private long reserve(final int length) {
+        if (length > LARGE_TEXT) {
+            return (long) addSlab(Arena.ofAuto().allocate(length, 1)) << 32;
+        }
+        if (currentSlab < 0 || currentOffset + length > SLAB_SIZE) {
+            currentSlab = addSlab(Arena.ofAuto().allocate(SLAB_SIZE, 1));
+            currentOffset = 0;
+        }
+        final long location = (long) currentSlab << 32 | currentOffset;
+        currentOffset += length;
+        return location;
+    }
+
+    private int addSlab(final MemorySegment slab) {
+        reservedBytes += slab.byteSize();
+        if (freeSlabCount > 0) {
+            final int index = freeSlabs[--freeSlabCount];
+            slabs[index] = slab;
+            return index;
+        }
+        if (slabCount == slabs.length) {
+            slabs = Arrays.copyOf(slabs, slabCount * 2);
+        }
+        slabs[slabCount] = slab;
+        return slabCount++;
+    }
+
+    private boolean contentEquals(final int ref, final byte[] bytes) {
+        final long offset = offsetOf(locations[ref]);
+        return MemorySegment.mismatch(slabs[slabOf(locations[ref])], offset, offset + bytes.length,
+                MemorySegment.ofArray(bytes), 0, bytes.length) < 0;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeRefs[--freeCount];
+        }
+        if (highWater == refCounts.length) {
+            final int capacity = highWater + (highWater >> 1);
+            locations = Arrays.copyOf(locations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            refCounts = Arrays.copyOf(refCounts, capacity);
+        }
+        return highWater++;
+    }
+
+    private void resize(final int capacity) {
+        final int[] resized = new int[capacity];
+        final int mask = capacity - 1;
+        for (int entry : table) {
+            if (entry != 0) {
+                int bucket = bucketOf(hashes[entry - 1], mask);
+                while (resized[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                resized[bucket] = entry;
+            }
+        }
+        table = resized;
+    }
+
+    private static int slabOf(final long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static long offsetOf(final long location) {
+        return (int) location;
+    }
+
+    private static int bucketOf(final int hashCode, final int mask) {
+        final int hash = hashCode * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
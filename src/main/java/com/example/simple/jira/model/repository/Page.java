@@ -0,0 +1,68 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.List;
+
+/**
+ * Immutable page of a cursor based read
+ *
+ * The cursor is the identifier of the last item of the page. Passing it to the
+ * next call continues right after that item, so iterating pages never skips or
+ * repeats items that exist for the whole iteration, even while other threads
+ * add or remove items concurrently
+ *
+ * @param <T> type of the items
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class Page<T> {
+
+    /** Cursor value starting an iteration at the smallest identifier */
+    public static final int FIRST = 0;
+
+    /** Items of the page */
+    private final List<T> items;
+    /** Cursor continuing after this page */
+    private final int nextCursor;
+    /** Whether more items followed when the page was read */
+    private final boolean hasMore;
+
+    /**
+     * Creates a new page
+     *
+     * @param items items of the page
+     * @param nextCursor cursor continuing after this page
+     * @param hasMore whether more items follow
+     */
+    public Page(final List<T> items, final int nextCursor, final boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Returns the items of the page
+     *
+     * @return immutable list of items ordered by identifier
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the cursor continuing after this page
+     *
+     * @return identifier of the last item, or the requested cursor for an empty page
+     */
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns whether more items followed when the page was read
+     *
+     * @return {@code true} when another page should be requested
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Helpers building {@link Page} instances
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class Pages {
+
+    private Pages() {
+    }
+
+    /**
+     * Reads one page from an iterator positioned after the cursor
+     *
+     * @param items iterator over the items following the cursor in identifier order
+     * @param afterId cursor the iterator was positioned after
+     * @param pageSize maximum number of items on the page
+     * @param idOf function extracting the identifier of an item
+     * @param <T> type of the items
+     * @return page of at most {@code pageSize} items
+     * @throws IllegalArgumentException when the page size is not positive
+     */
+    static <T> Page<T> fromIterator(final Iterator<T> items, final int afterId, final int pageSize,
+            final ToIntFunction<T> idOf) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        final List<T> page = new ArrayList<>(Math.min(pageSize, 1024));
+        while (page.size() < pageSize && items.hasNext()) {
+            page.add(items.next());
+        }
+        final int nextCursor = page.isEmpty() ? afterId : idOf.applyAsInt(page.get(page.size() - 1));
+        return new Page<>(Collections.unmodifiableList(page), nextCursor, items.hasNext());
+    }
+
+    /**
+     * Reads one page from a list ordered by identifier
+     *
+     * @param sorted items in ascending identifier order
+     * @param afterId cursor, only items with a greater identifier are returned
+     * @param pageSize maximum number of items on the page
+     * @param idOf function extracting the identifier of an item
+     * @param <T> type of the items
+     * @return page of at most {@code pageSize} items
+     * @throws IllegalArgumentException when the page size is not positive
+     */
+    static <T> Page<T> fromSorted(final List<T> sorted, final int afterId, final int pageSize,
+            final ToIntFunction<T> idOf) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (idOf.applyAsInt(sorted.get(middle)) <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return fromIterator(sorted.listIterator(low), afterId, pageSize, idOf);
+    }
+}
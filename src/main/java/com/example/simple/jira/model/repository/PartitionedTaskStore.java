@@ -0,0 +1,479 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.events.EventPublisher;
+import com.example.simple.jira.model.events.TaskEvent;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Task store sharding projects across independent {@link TaskRepository} partitions
+ *
+ * Every project lives in exactly one partition chosen by a hash of its
+ * identifier, so all operations on one project are handled by that partition
+ * alone with the same guarantees as a single {@link TaskRepository}. Writers
+ * to projects of different partitions share no map and no counter: task
+ * identifiers are reserved from one shared counter in blocks of
+ * {@link #ID_BLOCK_SIZE} by an {@link IdBlockAllocator} per partition, so they
+ * stay unique across the store and increase within every project, but are
+ * no longer dense nor ordered by creation time across projects
+ *
+ * Queries spanning all projects, {@link #findAcrossProjects} and
+ * {@link #countAcrossProjects}, fan out over the partitions in parallel on
+ * the common {@link ForkJoinPool}. The partitions share one full-text index,
+ * one rank index serving {@link #topKAcrossProjects(int, Set)} and one
+ * {@link EventPublisher}, and {@link #openReadView()} opens a
+ * {@link ReadView} covering all of them
+ *
+ * @author michalkubina
+ * @version 1.0
+ * @see TaskRepository
+ */
+public class PartitionedTaskStore implements TaskStore {
+
+    /** Number of task identifiers a partition reserves at once */
+    public static final int ID_BLOCK_SIZE = 256;
+    /** Golden ratio multiplier spreading consecutive project identifiers over the partitions */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /** Partitions indexed by project hash, the length is a power of two */
+    private final TaskRepository[] partitions;
+    /** Mask selecting a partition from a project hash */
+    private final int mask;
+    /** Repository used to validate project existence */
+    private final ProjectRepository projectRepository;
+    /** Full-text index shared by all partitions */
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    /** Rank index shared by all partitions */
+    private final TaskRankIndex rankIndex = new TaskRankIndex();
+    /** Publisher of task change events of all partitions */
+    private final EventPublisher<TaskEvent> events;
+    /** Identity of the partitions whose writes the read views of this store preserve */
+    private final Object readViewGroup = new Object();
+
+    /**
+     * Creates a store with two partitions per available processor
+     *
+     * @param projectRepository repository used to confirm project existence
+     */
+    public PartitionedTaskStore(final ProjectRepository projectRepository) {
+        this(projectRepository, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a store with the requested number of partitions publishing its
+     * changes with a default {@link EventPublisher}
+     *
+     * @param projectRepository repository used to confirm project existence
+     * @param partitionCount minimum number of partitions, rounded up to a power of two
+     * @throws IllegalArgumentException when the partition count is not positive
+     */
+    public PartitionedTaskStore(final ProjectRepository projectRepository, final int partitionCount) {
+        this(projectRepository, partitionCount, new EventPublisher<>());
+    }
+
+    /**
+     * Creates a store
+     *
+     * @param projectRepository repository used to confirm project existence
+     * @param partitionCount minimum number of partitions, rounded up to a power of two
+     * @param events publisher receiving task change events of all partitions
+     * @throws IllegalArgumentException when the partition count is not positive or too large, or the
+     *         publisher blocks writers on full buffers
+     */
+    public PartitionedTaskStore(final ProjectRepository projectRepository, final int partitionCount,
+                                final EventPublisher<TaskEvent> events) {
+        if (partitionCount < 1 || partitionCount > 1 << 16) {
+            throw new IllegalArgumentException("Partition count must be between 1 and 65536: " + partitionCount);
+        }
+        final AtomicInteger nextTaskId = new AtomicInteger(1);
+        this.partitions = new TaskRepository[partitionCount == 1 ? 1 : Integer.highestOneBit(partitionCount - 1) << 1];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new TaskRepository(projectRepository, events,
+                    new IdBlockAllocator(nextTaskId, ID_BLOCK_SIZE), searchIndex, rankIndex, readViewGroup);
+        }
+        this.mask = partitions.length - 1;
+        this.projectRepository = projectRepository;
+        this.events = events;
+    }
+
+    /**
+     * Returns the number of partitions
+     *
+     * @return partition count, a power of two
+     */
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Returns the stream of task changes of all partitions
+     *
+     * Events of one project are published in the order its changes were applied
+     *
+     * @return publisher of events for every task change from now on
+     */
+    public Flow.Publisher<TaskEvent> getEvents() {
+        return events;
+    }
+
+    @Override
+    public List<Task> findByProject(final int projectId) {
+        return partition(projectId).findByProject(projectId);
+    }
+
+    @Override
+    public Page<Task> findPage(final int projectId, final int afterTaskId, final int pageSize) {
+        return partition(projectId).findPage(projectId, afterTaskId, pageSize);
+    }
+
+    @Override
+    public List<Task> findByProjectAndStatus(final int projectId, final TaskStatus status) {
+        return partition(projectId).findByProjectAndStatus(projectId, status);
+    }
+
+    @Override
+    public List<Task> findByProjectAndPriority(final int projectId, final TaskPriority priority) {
+        return partition(projectId).findByProjectAndPriority(projectId, priority);
+    }
+
+    @Override
+    public int countByStatus(final int projectId, final TaskStatus status) {
+        return partition(projectId).countByStatus(projectId, status);
+    }
+
+    @Override
+    public int countByPriority(final int projectId, final TaskPriority priority) {
+        return partition(projectId).countByPriority(projectId, priority);
+    }
+
+    @Override
+    public int countByStatusAndPriority(final int projectId, final TaskStatus status, final TaskPriority priority) {
+        return partition(projectId).countByStatusAndPriority(projectId, status, priority);
+    }
+
+    @Override
+    public Task findTask(final int projectId, final int taskId) {
+        return partition(projectId).findTask(projectId, taskId);
+    }
+
+    @Override
+    public Optional<Task> tryFindTask(final int projectId, final int taskId) {
+        return partition(projectId).tryFindTask(projectId, taskId);
+    }
+
+    @Override
+    public List<Task> requireTasks(final int projectId) {
+        return partition(projectId).requireTasks(projectId);
+    }
+
+    /**
+     * Searches task titles and descriptions across all projects
+     *
+     * The first search builds the shared full-text index from every partition
+     *
+     * @param query free text query, every term of which must match
+     * @param limit maximum number of results
+     * @return immutable list of matching tasks, best match first
+     */
+    @Override
+    public List<Task> search(final String query, final int limit) {
+        searchIndex.ensureBuilt(this::buildSearchIndex);
+        return searchIndex.search(query, limit, this::lookup);
+    }
+
+    /**
+     * Searches task titles and descriptions of the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param query free text query, every term of which must match
+     * @param limit maximum number of results
+     * @return immutable list of matching tasks, best match first
+     * @throws ModelOperationException when the project does not exist
+     */
+    @Override
+    public List<Task> search(final int projectId, final String query, final int limit) {
+        projectRepository.findById(projectId);
+        searchIndex.ensureBuilt(this::buildSearchIndex);
+        return searchIndex.searchProject(projectId, query, limit, this::lookup);
+    }
+
+    /**
+     * Retrieves the most important tasks of the selected project in
+     * {@link TaskStore#RANK_ORDER} in O(k + log n)
+     *
+     * @param projectId identifier of the owning project
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @return immutable list of at most {@code k} tasks read from a single consistent snapshot
+     * @throws IllegalArgumentException when {@code k} is negative
+     * @throws ModelOperationException when the project does not exist
+     */
+    @Override
+    public List<Task> topK(final int projectId, final int k, final Set<TaskStatus> statuses) {
+        return partition(projectId).topK(projectId, k, statuses);
+    }
+
+    /**
+     * Retrieves the most important tasks of all projects in {@link TaskStore#RANK_ORDER}
+     *
+     * The first call builds the shared rank index from every partition
+     *
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @return immutable list of at most {@code k} tasks, most important first
+     * @throws IllegalArgumentException when {@code k} is negative
+     */
+    public List<Task> topKAcrossProjects(final int k, final Set<TaskStatus> statuses) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Result limit must not be negative: " + k);
+        }
+        rankIndex.ensureBuilt(this::buildRankIndex);
+        return rankIndex.topK(k, statuses, this::lookup);
+    }
+
+    /**
+     * Retrieves the tasks of all projects matching a status and priority,
+     * querying the partitions in parallel
+     *
+     * The result is not a snapshot of one instant, every project is read
+     * consistently but projects may be read at different times
+     *
+     * @param status required status, {@code null} for any
+     * @param priority required priority, {@code null} for any
+     * @return immutable list of matching tasks ordered by project id and task id
+     */
+    public List<Task> findAcrossProjects(final TaskStatus status, final TaskPriority priority) {
+        return ForkJoinPool.commonPool().invoke(new PartitionQuery<>(partitions, 0, partitions.length,
+                partition -> partition.findAcrossProjects(status, priority), PartitionedTaskStore::merge));
+    }
+
+    /**
+     * Counts the tasks of all projects matching a status and priority,
+     * querying the partitions in parallel
+     *
+     * @param status required status, {@code null} for any
+     * @param priority required priority, {@code null} for any
+     * @return number of matching tasks
+     */
+    public long countAcrossProjects(final TaskStatus status, final TaskPriority priority) {
+        return ForkJoinPool.commonPool().invoke(new PartitionQuery<>(partitions, 0, partitions.length,
+                partition -> partition.countAcrossProjects(status, priority), Long::sum));
+    }
+
+    @Override
+    public Task addTask(final int projectId, final String title, final String description) {
+        return partition(projectId).addTask(projectId, title, description);
+    }
+
+    @Override
+    public void updateTaskStatus(final int projectId, final int taskId, final TaskStatus status) {
+        partition(projectId).updateTaskStatus(projectId, taskId, status);
+    }
+
+    @Override
+    public Task updateTaskStatus(final int projectId, final int taskId, final long expectedVersion,
+                                 final TaskStatus status) {
+        return partition(projectId).updateTaskStatus(projectId, taskId, expectedVersion, status);
+    }
+
+    @Override
+    public void updateTaskPriority(final int projectId, final int taskId, final TaskPriority priority) {
+        partition(projectId).updateTaskPriority(projectId, taskId, priority);
+    }
+
+    @Override
+    public Task updateTaskPriority(final int projectId, final int taskId, final long expectedVersion,
+                                   final TaskPriority priority) {
+        return partition(projectId).updateTaskPriority(projectId, taskId, expectedVersion, priority);
+    }
+
+    @Override
+    public void renameTask(final int projectId, final int taskId, final String newTitle) {
+        partition(projectId).renameTask(projectId, taskId, newTitle);
+    }
+
+    @Override
+    public Task renameTask(final int projectId, final int taskId, final long expectedVersion, final String newTitle) {
+        return partition(projectId).renameTask(projectId, taskId, expectedVersion, newTitle);
+    }
+
+    @Override
+    public void updateTaskDescription(final int projectId, final int taskId, final String newDescription) {
+        partition(projectId).updateTaskDescription(projectId, taskId, newDescription);
+    }
+
+    @Override
+    public Task updateTaskDescription(final int projectId, final int taskId, final long expectedVersion,
+                                      final String newDescription) {
+        return partition(projectId).updateTaskDescription(projectId, taskId, expectedVersion, newDescription);
+    }
+
+    @Override
+    public void deleteTask(final int projectId, final int taskId) {
+        partition(projectId).deleteTask(projectId, taskId);
+    }
+
+    @Override
+    public void deleteTask(final int projectId, final int taskId, final long expectedVersion) {
+        partition(projectId).deleteTask(projectId, taskId, expectedVersion);
+    }
+
+    @Override
+    public void deleteAllForProject(final int projectId) {
+        partition(projectId).deleteAllForProject(projectId);
+    }
+
+    @Override
+    public List<TaskCommandResult> applyBatch(final int projectId, final List<TaskCommand> commands) {
+        return partition(projectId).applyBatch(projectId, commands);
+    }
+
+    @Override
+    public Optional<Task> tryApply(final int projectId, final TaskCommand command) {
+        return partition(projectId).tryApply(projectId, command);
+    }
+
+    /**
+     * Opens a point-in-time view of all projects and the tasks of every partition
+     *
+     * Opening takes O(1), the view must be closed once the reader is done
+     *
+     * @return open read view
+     */
+    public ReadView openReadView() {
+        return projectRepository.openReadView(readViewGroup, projectId -> partition(projectId).liveTasks(projectId));
+    }
+
+    /**
+     * Stores a task exactly as provided, see {@link TaskRepository#restore(Task)}
+     *
+     * @param task task to store
+     */
+    public void restore(final Task task) {
+        partition(task.getProjectId()).restore(task);
+    }
+
+    /**
+     * Replaces all tasks of a project, see {@link TaskRepository#restoreProject(int, List)}
+     *
+     * @param projectId identifier of the owning project
+     * @param sortedTasks tasks ordered by ascending identifier
+     */
+    public void restoreProject(final int projectId, final List<Task> sortedTasks) {
+        partition(projectId).restoreProject(projectId, sortedTasks);
+    }
+
+    private TaskRepository partition(final int projectId) {
+        final int hash = projectId * HASH_MULTIPLIER;
+        return partitions[(hash ^ hash >>> 16) & mask];
+    }
+
+    private void buildSearchIndex() {
+        for (TaskRepository partition : partitions) {
+            partition.buildSearchIndex();
+        }
+    }
+
+    private void buildRankIndex() {
+        for (TaskRepository partition : partitions) {
+            partition.buildRankIndex();
+        }
+    }
+
+    private Task lookup(final int projectId, final int taskId) {
+        return partition(projectId).lookup(projectId, taskId);
+    }
+
+    /**
+     * Merges two lists of tasks ordered by project id and task id
+     *
+     * @param first tasks of some partitions
+     * @param second tasks of other partitions
+     * @return immutable merged list in the same order
+     */
+    private static List<Task> merge(final List<Task> first, final List<Task> second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        final List<Task> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() && j < second.size()) {
+            final Task left = first.get(i);
+            final Task right = second.get(j);
+            final int order = left.getProjectId() != right.getProjectId()
+                    ? Integer.compare(left.getProjectId(), right.getProjectId())
+                    : Integer.compare(left.getTaskId(), right.getTaskId());
+            if (order <= 0) {
+                merged.add(left);
+                i++;
+            } else {
+                merged.add(right);
+                j++;
+            }
+        }
+        merged.addAll(first.subList(i, first.size()));
+        merged.addAll(second.subList(j, second.size()));
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * Fork-join task querying a range of partitions, halving the range until
+     * a single partition remains and combining the halves on the way back
+     *
+     * @param <R> result type
+     */
+    private static final class PartitionQuery<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Partitions of the store */
+        private final transient TaskRepository[] partitions;
+        /** First partition of the range, inclusive */
+        private final int from;
+        /** Last partition of the range, exclusive */
+        private final int to;
+        /** Query run on a single partition */
+        private final transient Function<TaskRepository, R> query;
+        /** Combination of the results of two ranges */
+        private final transient BinaryOperator<R> combiner;
+
+        PartitionQuery(final TaskRepository[] partitions, final int from, final int to,
+                       final Function<TaskRepository, R> query, final BinaryOperator<R> combiner) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+            this.query = query;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from == 1) {
+                return query.apply(partitions[from]);
+            }
+            final int middle = (from + to) >>> 1;
+            final PartitionQuery<R> right = new PartitionQuery<>(partitions, middle, to, query, combiner);
+            right.fork();
+            final R left = new PartitionQuery<>(partitions, from, middle, query, combiner).compute();
+            return combiner.apply(left, right.join());
+        }
+    }
+}
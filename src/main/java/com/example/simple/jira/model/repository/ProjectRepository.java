@@ -1,13 +1,22 @@
 package com.example.simple.jira.model.repository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
+import com.example.simple.jira.model.events.BackpressurePolicy;
+import com.example.simple.jira.model.events.EventPublisher;
+import com.example.simple.jira.model.events.ProjectEvent;
 import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
 import com.example.simple.jira.model.domain.Project;
 
 /**
@@ -22,6 +31,17 @@ import com.example.simple.jira.model.domain.Project;
  * {@link com.example.simple.jira.model.exceptions.ModelOperationException}
  * when requested operations cannot be completed.
  *
+ * Every change is published as a {@link ProjectEvent} through
+ * {@link #getEvents()}. Mutations are serialized by a lock so events are
+ * published in the order the changes were applied, reads never take it
+ * except to rebuild the cached {@link #findAll()} snapshot.
+ * Renames and deletions have compare-and-set variants checking the
+ * {@link Project#getVersion() version} the caller last read under that lock
+ *
+ * The repository also keeps the list of open {@link ReadView}s. Registering
+ * a view takes the same lock, so views start between two project mutations
+ * and every later mutation preserves the state it replaces for them
+ *
  * @see com.example.simple.jira.model.domain.Project
  * @see com.example.simple.jira.model.repository.ProjectStore
  * @see com.example.simple.jira.model.repository.TaskStore
@@ -31,28 +51,97 @@ import com.example.simple.jira.model.domain.Project;
  */
 public class ProjectRepository implements ProjectStore {
 
+    /** Shared empty list of read views */
+    private static final ReadView[] NO_READ_VIEWS = new ReadView[0];
+
     /**
-     * Explicit no-arg constructor. Present to provide a documented public
-     * constructor so Javadoc does not emit a "default constructor" warning
+     * Creates a repository publishing its changes with a default
+     * {@link EventPublisher}
      */
     public ProjectRepository() {
-        // Intentionally empty - repository is in-memory and needs no config
+        this(new EventPublisher<>());
+    }
+
+    /**
+     * Creates a repository publishing its changes through the provided publisher
+     *
+     * @param events publisher receiving project change events
+     * @throws IllegalArgumentException when the publisher blocks writers on full buffers
+     */
+    public ProjectRepository(final EventPublisher<ProjectEvent> events) {
+        this.events = requireNonBlocking(events);
     }
 
-    /** Storage for projects indexed by identifier */
-    private final Map<Integer, Project> projects = new ConcurrentHashMap<>();
+    /**
+     * Accepts a publisher for a repository, which publishes while holding its locks
+     *
+     * @param events publisher receiving change events
+     * @param <E> event type
+     * @return the provided publisher
+     * @throws IllegalArgumentException when the publisher uses {@link BackpressurePolicy#BLOCK}
+     */
+    static <E> EventPublisher<E> requireNonBlocking(final EventPublisher<E> events) {
+        if (Objects.requireNonNull(events, "events").getPolicy() == BackpressurePolicy.BLOCK) {
+            throw new IllegalArgumentException("Repositories publish under their locks and cannot wait for "
+                    + "subscribers, use a dropping or failing backpressure policy");
+        }
+        return events;
+    }
+
+    /** Storage for projects ordered by identifier */
+    private final ConcurrentNavigableMap<Integer, Project> projects = new ConcurrentSkipListMap<>();
     /** Generator for project identifiers */
     private final AtomicInteger nextProjectId = new AtomicInteger(1);
+    /** Lock serializing mutations together with the publication of their events */
+    private final Object writeLock = new Object();
+    /** Immutable list of all projects in identifier order, null after a change until the next read */
+    private volatile List<Project> snapshot;
+    /** Open read views, replaced as a whole under the write lock */
+    private volatile ReadView[] readViews = NO_READ_VIEWS;
+    /** Publisher of project change events */
+    private final EventPublisher<ProjectEvent> events;
+
+    /**
+     * Returns the stream of project changes
+     *
+     * @return publisher of events for every project created, renamed or deleted from now on
+     */
+    public Flow.Publisher<ProjectEvent> getEvents() {
+        return events;
+    }
 
     /**
      * Retrieves an immutable snapshot of all projects
      *
-     * @return unmodifiable list of projects currently stored in the repository
+     * The snapshot is cached and shared by all callers until a mutation
+     * changes a project, only the first read after such a change copies the
+     * projects again
+     *
+     * @return unmodifiable list of projects currently stored in the repository in identifier order
      */
     public List<Project> findAll() {
-        final List<Project> result = new ArrayList<>(projects.values());
-        result.sort((left, right) -> Integer.compare(left.getProjectId(), right.getProjectId()));
-        return Collections.unmodifiableList(result);
+        final List<Project> cached = snapshot;
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (writeLock) {
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(projects.values()));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Retrieves a page of projects in identifier order
+     *
+     * @param afterProjectId cursor, only projects with a greater id are returned; {@link Page#FIRST} to start
+     * @param pageSize maximum number of projects on the page
+     * @return page of projects
+     */
+    public Page<Project> findPage(final int afterProjectId, final int pageSize) {
+        return Pages.fromIterator(projects.tailMap(afterProjectId, false).values().iterator(), afterProjectId,
+                pageSize, Project::getProjectId);
     }
 
     /**
@@ -65,11 +154,21 @@ public class ProjectRepository implements ProjectStore {
     public Project findById(final int projectId) {
         final Project project = projects.get(projectId);
         if (project == null) {
-            throw new ModelOperationException("Project with id " + projectId + " not found");
+            throw new ModelOperationException("Project with id " + projectId + " not found", false);
         }
         return project;
     }
 
+    /**
+     * Retrieves a project by identifier without throwing when it is missing
+     *
+     * @param projectId identifier of the desired project
+     * @return immutable project instance, empty when not found
+     */
+    public Optional<Project> tryFindById(final int projectId) {
+        return Optional.ofNullable(projects.get(projectId));
+    }
+
     /**
      * Creates a new project and persists it in the repository
      *
@@ -79,21 +178,51 @@ public class ProjectRepository implements ProjectStore {
     public Project create(final String projectName) {
         final int projectId = nextProjectId.getAndIncrement();
         final Project project = new Project(projectId, projectName);
-        projects.put(projectId, project);
+        synchronized (writeLock) {
+            preserve(projectId, null);
+            projects.put(projectId, project);
+            publish(null, project);
+        }
         return project;
     }
 
     /**
      * Persists the provided immutable project replacing any prior version
      *
+     * The identifier generator is moved past the identifier of the saved
+     * project so that later calls to {@link #create(String)} never reuse it
+     *
      * @param project project instance that should be stored
      * @return stored project reference
      */
     public Project save(final Project project) {
-        projects.put(project.getProjectId(), project);
+        synchronized (writeLock) {
+            preserve(project.getProjectId(), projects.get(project.getProjectId()));
+            publish(projects.put(project.getProjectId(), project), project);
+        }
+        advanceProjectIdPast(project.getProjectId());
         return project;
     }
 
+    /**
+     * Returns the identifier above every project identifier handed out so
+     * far, including identifiers of projects deleted since
+     *
+     * @return next unused project identifier
+     */
+    public int getNextProjectId() {
+        return nextProjectId.get();
+    }
+
+    /**
+     * Moves the identifier generator past a project identifier that may have been used before
+     *
+     * @param projectId identifier that {@link #create(String)} must never return
+     */
+    public void advanceProjectIdPast(final int projectId) {
+        nextProjectId.accumulateAndGet(projectId + 1, Math::max);
+    }
+
     /**
      * Updates the human readable name of an existing project
      *
@@ -103,20 +232,182 @@ public class ProjectRepository implements ProjectStore {
      * @throws ModelOperationException when the project does not exist
      */
     public Project rename(final int projectId, final String newName) {
-        final Project project = findById(projectId);
-        final Project renamed = project.withName(newName);
-        return save(renamed);
+        return rename(projectId, VersionConflictException.ANY_VERSION, newName);
     }
 
     /**
-     * Removes a project from the repository
+     * Renames a project if it is still at the expected version
+     *
+     * @param projectId identifier of the project to rename
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param newName new project name
+     * @return renamed project instance
+     * @throws ModelOperationException when the project does not exist
+     * @throws VersionConflictException when the project is at another version
+     */
+    public Project rename(final int projectId, final long expectedVersion, final String newName) {
+        synchronized (writeLock) {
+            final Project project = findById(projectId);
+            checkVersion(project, expectedVersion);
+            final Project renamed = project.withName(newName);
+            preserve(projectId, project);
+            projects.put(projectId, renamed);
+            publish(project, renamed);
+            return renamed;
+        }
+    }
+
+    /**
+     * Updates the name of a project without throwing when it is missing
      *
+     * @param projectId identifier of the project to rename
+     * @param newName new project name
+     * @return renamed project instance, empty when not found
+     */
+    public Optional<Project> tryRename(final int projectId, final String newName) {
+        synchronized (writeLock) {
+            final Project project = projects.get(projectId);
+            if (project == null) {
+                return Optional.empty();
+            }
+            final Project renamed = project.withName(newName);
+            preserve(projectId, project);
+            projects.put(projectId, renamed);
+            publish(project, renamed);
+            return Optional.of(renamed);
+        }
+    }
+
+    /**
+     * Removes a project from the repository
      * @param projectId identifier of the project to be removed
      * @throws ModelOperationException when the project does not exist
      */
     public void delete(final int projectId) {
-        if (projects.remove(projectId) == null) {
-            throw new ModelOperationException("Project with id " + projectId + " not found");
+        delete(projectId, VersionConflictException.ANY_VERSION);
+    }
+
+    /**
+     * Removes a project if it is still at the expected version
+     *
+     * @param projectId identifier of the project to be removed
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @throws ModelOperationException when the project does not exist
+     * @throws VersionConflictException when the project is at another version
+     */
+    public void delete(final int projectId, final long expectedVersion) {
+        synchronized (writeLock) {
+            final Project project = findById(projectId);
+            checkVersion(project, expectedVersion);
+            preserve(projectId, project);
+            publish(projects.remove(projectId), null);
+        }
+    }
+
+    /**
+     * Removes a project without throwing when it is missing
+     *
+     * @param projectId identifier of the project to be removed
+     * @return true when the project was removed, false when not found
+     */
+    public boolean tryDelete(final int projectId) {
+        synchronized (writeLock) {
+            final Project project = projects.get(projectId);
+            if (project == null) {
+                return false;
+            }
+            preserve(projectId, project);
+            publish(projects.remove(projectId), null);
+            return true;
+        }
+    }
+
+    /**
+     * Opens a read view of the projects and of the tasks of one task store
+     *
+     * @param taskGroup identity of the task stores whose writes the view preserves
+     * @param liveTasks live task state of a project, {@code null} when it has no tasks
+     * @return open read view
+     */
+    ReadView openReadView(final Object taskGroup, final IntFunction<ProjectTasks> liveTasks) {
+        final ReadView view = new ReadView(this, taskGroup, liveTasks);
+        synchronized (writeLock) {
+            final ReadView[] views = Arrays.copyOf(readViews, readViews.length + 1);
+            views[views.length - 1] = view;
+            readViews = views;
+        }
+        return view;
+    }
+
+    /**
+     * Stops preserving states for a read view
+     *
+     * @param view view being closed
+     */
+    void closeReadView(final ReadView view) {
+        synchronized (writeLock) {
+            final ReadView[] views = readViews;
+            for (int i = 0; i < views.length; i++) {
+                if (views[i] == view) {
+                    final ReadView[] remaining = Arrays.copyOf(views, views.length - 1);
+                    System.arraycopy(views, i + 1, remaining, i, views.length - i - 1);
+                    readViews = views.length == 1 ? NO_READ_VIEWS : remaining;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the open read views, task stores preserve the task states they
+     * replace for each of them
+     *
+     * @return open views, never modified
+     */
+    ReadView[] readViews() {
+        return readViews;
+    }
+
+    /**
+     * Preserves the state of a project about to be replaced for every open read view
+     *
+     * @param projectId identifier of the project
+     * @param before current state, {@code null} when the project does not exist yet
+     */
+    private void preserve(final int projectId, final Project before) {
+        for (ReadView view : readViews) {
+            view.preserveProject(projectId, before);
+        }
+    }
+
+    private static void checkVersion(final Project project, final long expectedVersion) {
+        if (expectedVersion != VersionConflictException.ANY_VERSION && project.getVersion() != expectedVersion) {
+            throw new VersionConflictException("Project with id " + project.getProjectId() + " is at version "
+                    + project.getVersion() + ", expected " + expectedVersion, expectedVersion, project.getVersion());
+        }
+    }
+
+    /**
+     * Discards the cached snapshot and publishes the event describing a
+     * change, nothing when nothing changed
+     *
+     * @param before project state before the change, null when created
+     * @param after project state after the change, null when deleted
+     */
+    private void publish(final Project before, final Project after) {
+        if (before == after) {
+            return;
+        }
+        snapshot = null;
+        if (!events.hasSubscribers()) {
+            return;
+        }
+        if (before == null) {
+            events.publish(new ProjectEvent(ProjectEvent.Type.CREATED, null, after));
+        } else if (after == null) {
+            events.publish(new ProjectEvent(ProjectEvent.Type.DELETED, before, null));
+        } else if (!Objects.equals(before.getProjectName(), after.getProjectName())) {
+            events.publish(new ProjectEvent(ProjectEvent.Type.RENAMED, before, after));
         }
     }
 
@@ -1,11 +1,19 @@
 package com.example.simple.jira.model.repository;
 
 import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Persistence contract for projects
  *
+ * Next to the throwing lookups and mutations the store offers {@code try}
+ * variants reporting a missing project through their result, for callers
+ * that treat a miss as an ordinary outcome. Their default implementations
+ * translate the exceptions of the throwing variants, stores override them
+ * to avoid throwing at all
+ *
  * @author michalkubina
  * @version 1.0
  */
@@ -17,6 +25,22 @@ public interface ProjectStore {
      */
     List<Project> findAll();
 
+    /**
+     * Return a page of projects ordered by identifier
+     *
+     * Iterating with the cursor of each returned page visits every project
+     * that exists for the whole iteration exactly once, regardless of
+     * concurrent changes. The default implementation pages over
+     * {@link #findAll()}
+     *
+     * @param afterProjectId cursor, only projects with a greater id are returned; {@link Page#FIRST} to start
+     * @param pageSize maximum number of projects on the page
+     * @return page of projects
+     */
+    default Page<Project> findPage(int afterProjectId, int pageSize) {
+        return Pages.fromSorted(findAll(), afterProjectId, pageSize, Project::getProjectId);
+    }
+
     /**
      * Find a project by its identifier
      *
@@ -26,6 +50,20 @@ public interface ProjectStore {
      */
     Project findById(int projectId);
 
+    /**
+     * Find a project by its identifier without failing when it is missing
+     *
+     * @param projectId project identifier
+     * @return project instance, empty when not found
+     */
+    default Optional<Project> tryFindById(int projectId) {
+        try {
+            return Optional.of(findById(projectId));
+        } catch (ModelOperationException ex) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Create a new project with the provided name
      *
@@ -57,4 +95,62 @@ public interface ProjectStore {
      * @param projectId id of the project to delete
      */
     void delete(int projectId);
+
+    /**
+     * Rename a project if it is still at the expected version
+     *
+     * @param projectId id of the project to rename
+     * @param expectedVersion version the caller last read
+     * @param newName new name for the project
+     * @return renamed project at its new version
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the project changed meanwhile
+     */
+    Project rename(int projectId, long expectedVersion, String newName);
+
+    /**
+     * Delete a project if it is still at the expected version
+     *
+     * @param projectId id of the project to delete
+     * @param expectedVersion version the caller last read
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the project changed meanwhile
+     */
+    void delete(int projectId, long expectedVersion);
+
+    /**
+     * Rename a project without failing when it is missing
+     *
+     * @param projectId id of the project to rename
+     * @param newName new name for the project
+     * @return renamed project instance, empty when not found
+     * @throws ModelOperationException when the project exists but cannot be renamed
+     */
+    default Optional<Project> tryRename(int projectId, String newName) {
+        try {
+            return Optional.of(rename(projectId, newName));
+        } catch (ModelOperationException ex) {
+            if (tryFindById(projectId).isPresent()) {
+                throw ex;
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Delete a project without failing when it is missing
+     *
+     * @param projectId id of the project to delete
+     * @return true when the project was deleted, false when not found
+     * @throws ModelOperationException when the project exists but cannot be deleted
+     */
+    default boolean tryDelete(int projectId) {
+        try {
+            delete(projectId);
+            return true;
+        } catch (ModelOperationException ex) {
+            if (tryFindById(projectId).isPresent()) {
+                throw ex;
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,229 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+
+/**
+ * Immutable, indexed state of the tasks of one project
+ *
+ * Besides the primary {@link TaskTree} ordered by identifier the state keeps
+ * one tree per {@link TaskStatus}, per {@link TaskPriority} and per status
+ * and priority combination, indexed by ordinal. All of them are maintained
+ * incrementally: a change touches O(log n) nodes of at most seven trees and
+ * copies three small arrays, while queries by status or priority return an
+ * existing tree and counts are read from tree sizes in O(1). Walking the
+ * combination trees from the highest priority down yields the tasks in
+ * {@link TaskStore#RANK_ORDER}, so the top k tasks are found in O(k + log n)
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class ProjectTasks {
+
+    /** Number of statuses */
+    private static final int STATUS_COUNT = TaskStatus.values().length;
+    /** Number of priorities */
+    private static final int PRIORITY_COUNT = TaskPriority.values().length;
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    /** Shared state of a project without tasks */
+    static final ProjectTasks EMPTY = new ProjectTasks(TaskTree.EMPTY, emptyTrees(STATUS_COUNT),
+            emptyTrees(PRIORITY_COUNT), emptyTrees(STATUS_COUNT * PRIORITY_COUNT));
+
+    /** All tasks ordered by identifier */
+    private final TaskTree all;
+    /** Tasks per status ordinal */
+    private final TaskTree[] byStatus;
+    /** Tasks per priority ordinal */
+    private final TaskTree[] byPriority;
+    /** Tasks indexed by {@code status ordinal * PRIORITY_COUNT + priority ordinal} */
+    private final TaskTree[] byCombination;
+
+    private ProjectTasks(final TaskTree all, final TaskTree[] byStatus, final TaskTree[] byPriority,
+            final TaskTree[] byCombination) {
+        this.all = all;
+        this.byStatus = byStatus;
+        this.byPriority = byPriority;
+        this.byCombination = byCombination;
+    }
+
+    /**
+     * Builds the state from tasks already ordered by identifier in linear time
+     *
+     * @param sortedTasks tasks in strictly ascending identifier order
+     * @return indexed state containing the tasks
+     */
+    static ProjectTasks ofSorted(final List<Task> sortedTasks) {
+        final List<List<Task>> statusLists = emptyLists(STATUS_COUNT);
+        final List<List<Task>> priorityLists = emptyLists(PRIORITY_COUNT);
+        final List<List<Task>> combinationLists = emptyLists(STATUS_COUNT * PRIORITY_COUNT);
+        for (Task task : sortedTasks) {
+            statusLists.get(task.getStatus().ordinal()).add(task);
+            priorityLists.get(task.getPriority().ordinal()).add(task);
+            combinationLists.get(slot(task)).add(task);
+        }
+        return new ProjectTasks(TaskTree.ofSorted(sortedTasks), trees(statusLists), trees(priorityLists),
+                trees(combinationLists));
+    }
+
+    /**
+     * Returns all tasks ordered by identifier
+     *
+     * @return primary task tree
+     */
+    TaskTree all() {
+        return all;
+    }
+
+    /**
+     * Returns the tasks with the provided status ordered by identifier
+     *
+     * @param status requested status
+     * @return task tree of the status
+     */
+    TaskTree withStatus(final TaskStatus status) {
+        return byStatus[status.ordinal()];
+    }
+
+    /**
+     * Returns the tasks with the provided priority ordered by identifier
+     *
+     * @param priority requested priority
+     * @return task tree of the priority
+     */
+    TaskTree withPriority(final TaskPriority priority) {
+        return byPriority[priority.ordinal()];
+    }
+
+    /**
+     * Returns the number of tasks with the provided status and priority
+     *
+     * @param status requested status
+     * @param priority requested priority
+     * @return task count
+     */
+    int count(final TaskStatus status, final TaskPriority priority) {
+        return byCombination[status.ordinal() * PRIORITY_COUNT + priority.ordinal()].size();
+    }
+
+    /**
+     * Returns the first tasks in {@link TaskStore#RANK_ORDER}
+     *
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @return immutable list of at most {@code k} tasks, most important first
+     */
+    List<Task> topK(final int k, final Set<TaskStatus> statuses) {
+        final List<Task> top = new ArrayList<>(Math.min(k, all.size()));
+        for (int priority = PRIORITY_COUNT - 1; priority >= 0 && top.size() < k; priority--) {
+            for (int status = 0; status < STATUS_COUNT && top.size() < k; status++) {
+                if (statuses != null && !statuses.contains(STATUSES[status])) {
+                    continue;
+                }
+                final Iterator<Task> tasks = byCombination[status * PRIORITY_COUNT + priority].iterator();
+                while (tasks.hasNext() && top.size() < k) {
+                    top.add(tasks.next());
+                }
+            }
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Returns whether the project has no tasks
+     *
+     * @return {@code true} when empty
+     */
+    boolean isEmpty() {
+        return all.isEmpty();
+    }
+
+    /**
+     * Looks up a task by its identifier
+     *
+     * @param taskId identifier of the task
+     * @return task or {@code null} when the project has no such task
+     */
+    Task find(final int taskId) {
+        return all.find(taskId);
+    }
+
+    /**
+     * Returns a state containing the provided task, replacing any task with the
+     * same identifier and updating every index
+     *
+     * @param task task to insert or replace
+     * @return state reflecting the change
+     */
+    ProjectTasks with(final Task task) {
+        final Task previous = all.find(task.getTaskId());
+        final TaskTree[] statuses = byStatus.clone();
+        final TaskTree[] priorities = byPriority.clone();
+        final TaskTree[] combinations = byCombination.clone();
+        if (previous != null) {
+            statuses[previous.getStatus().ordinal()] = statuses[previous.getStatus().ordinal()].without(previous.getTaskId());
+            priorities[previous.getPriority().ordinal()] = priorities[previous.getPriority().ordinal()].without(previous.getTaskId());
+            combinations[slot(previous)] = combinations[slot(previous)].without(previous.getTaskId());
+        }
+        statuses[task.getStatus().ordinal()] = statuses[task.getStatus().ordinal()].with(task);
+        priorities[task.getPriority().ordinal()] = priorities[task.getPriority().ordinal()].with(task);
+        combinations[slot(task)] = combinations[slot(task)].with(task);
+        return new ProjectTasks(all.with(task), statuses, priorities, combinations);
+    }
+
+    /**
+     * Returns a state without the task with the provided identifier
+     *
+     * @param taskId identifier of the task to remove
+     * @return state reflecting the change, or this state when nothing was removed
+     */
+    ProjectTasks without(final int taskId) {
+        final Task previous = all.find(taskId);
+        if (previous == null) {
+            return this;
+        }
+        final TaskTree[] statuses = byStatus.clone();
+        final TaskTree[] priorities = byPriority.clone();
+        final TaskTree[] combinations = byCombination.clone();
+        statuses[previous.getStatus().ordinal()] = statuses[previous.getStatus().ordinal()].without(taskId);
+        priorities[previous.getPriority().ordinal()] = priorities[previous.getPriority().ordinal()].without(taskId);
+        combinations[slot(previous)] = combinations[slot(previous)].without(taskId);
+        return new ProjectTasks(all.without(taskId), statuses, priorities, combinations);
+    }
+
+    private static int slot(final Task task) {
+        return task.getStatus().ordinal() * PRIORITY_COUNT + task.getPriority().ordinal();
+    }
+
+    private static List<List<Task>> emptyLists(final int count) {
+        final List<List<Task>> lists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private static TaskTree[] trees(final List<List<Task>> sortedLists) {
+        final TaskTree[] trees = new TaskTree[sortedLists.size()];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = TaskTree.ofSorted(sortedLists.get(i));
+        }
+        return trees;
+    }
+
+    private static TaskTree[] emptyTrees(final int count) {
+        final TaskTree[] trees = new TaskTree[count];
+        for (int i = 0; i < count; i++) {
+            trees[i] = TaskTree.EMPTY;
+        }
+        return trees;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Point-in-time view of all projects and their tasks
+ *
+ * Opening a view only registers it, which takes O(1) regardless of the
+ * amount of data. From then on every writer about to replace the state of a
+ * project or of its tasks first hands the state it replaces to each open
+ * view, so a view reads the live repositories except where they changed
+ * since it was opened, and there it reads the preserved state. The first
+ * read of a project's tasks also pins the state it returned, so a task
+ * write racing with the opening of the view is either seen by every read of
+ * the view or by none
+ *
+ * All reads are lock-free and the view may be traversed by many threads at
+ * once. Writers pay only for the states they replace while a view is open,
+ * nothing otherwise. Preserved states are kept until the view is closed, so
+ * views are meant to be short-lived and must be closed
+ *
+ * @author michalkubina
+ * @version 1.0
+ * @see TaskRepository#openReadView()
+ * @see PartitionedTaskStore#openReadView()
+ */
+public final class ReadView implements AutoCloseable {
+
+    /** Repository owning the live projects and the list of open views */
+    private final ProjectRepository projectRepository;
+    /** Identity of the task stores whose writes this view preserves */
+    private final Object taskGroup;
+    /** Live task state of a project, {@code null} when it has no tasks */
+    private final IntFunction<ProjectTasks> liveTasks;
+    /** Project states replaced since the view was opened, empty when the project did not exist */
+    private final Map<Integer, Optional<Project>> projects = new ConcurrentHashMap<>();
+    /** Task states replaced or read since the view was opened */
+    private final Map<Integer, ProjectTasks> tasks = new ConcurrentHashMap<>();
+    /** All projects of the view, built on first use */
+    private volatile List<Project> allProjects;
+    /** Whether the view has been closed */
+    private volatile boolean closed;
+
+    /**
+     * Creates a view, registered by the project repository
+     *
+     * @param projectRepository repository owning the live projects
+     * @param taskGroup identity of the task stores whose writes this view preserves
+     * @param liveTasks live task state of a project, {@code null} when it has no tasks
+     */
+    ReadView(final ProjectRepository projectRepository, final Object taskGroup,
+             final IntFunction<ProjectTasks> liveTasks) {
+        this.projectRepository = projectRepository;
+        this.taskGroup = taskGroup;
+        this.liveTasks = liveTasks;
+    }
+
+    /**
+     * Retrieves all projects as they were when the view was opened
+     *
+     * @return unmodifiable list of projects in identifier order
+     * @throws ModelOperationException when the view is closed
+     */
+    public List<Project> findAllProjects() {
+        ensureOpen();
+        List<Project> result = allProjects;
+        if (result == null) {
+            final NavigableMap<Integer, Project> found = new TreeMap<>();
+            for (Project live : projectRepository.findAll()) {
+                found.put(live.getProjectId(), live);
+            }
+            for (Map.Entry<Integer, Optional<Project>> preserved : projects.entrySet()) {
+                if (preserved.getValue().isPresent()) {
+                    found.put(preserved.getKey(), preserved.getValue().get());
+                } else {
+                    found.remove(preserved.getKey());
+                }
+            }
+            result = Collections.unmodifiableList(new ArrayList<>(found.values()));
+            allProjects = result;
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves a project as it was when the view was opened
+     *
+     * @param projectId identifier of the project
+     * @return project, empty when it did not exist
+     * @throws ModelOperationException when the view is closed
+     */
+    public Optional<Project> findProject(final int projectId) {
+        ensureOpen();
+        final Optional<Project> live = projectRepository.tryFindById(projectId);
+        final Optional<Project> preserved = projects.get(projectId);
+        return preserved != null ? preserved : live;
+    }
+
+    /**
+     * Retrieves the tasks of a project as they were when the view was opened
+     *
+     * @param projectId identifier of the owning project
+     * @return unmodifiable list of tasks ordered by task id, empty when the project did not exist
+     * @throws ModelOperationException when the view is closed
+     */
+    public List<Task> findTasks(final int projectId) {
+        return projectTasks(projectId).all();
+    }
+
+    /**
+     * Retrieves a task as it was when the view was opened
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @return task, empty when it or its project did not exist
+     * @throws ModelOperationException when the view is closed
+     */
+    public Optional<Task> findTask(final int projectId, final int taskId) {
+        return Optional.ofNullable(projectTasks(projectId).find(taskId));
+    }
+
+    /**
+     * Closes the view, releasing the states preserved for it, the view must
+     * not be read afterwards
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            projectRepository.closeReadView(this);
+            projects.clear();
+            tasks.clear();
+            allProjects = null;
+        }
+    }
+
+    /**
+     * Preserves the state of a project about to be replaced, unless an
+     * earlier state is preserved already
+     *
+     * @param projectId identifier of the project
+     * @param before current state, {@code null} when the project does not exist
+     */
+    void preserveProject(final int projectId, final Project before) {
+        projects.putIfAbsent(projectId, Optional.ofNullable(before));
+    }
+
+    /**
+     * Preserves the task state of a project about to be replaced, unless an
+     * earlier state is preserved already
+     *
+     * @param group identity of the task store performing the write
+     * @param projectId identifier of the owning project
+     * @param before current task state, {@code null} when the project has no tasks
+     */
+    void preserveTasks(final Object group, final int projectId, final ProjectTasks before) {
+        if (group == taskGroup) {
+            tasks.putIfAbsent(projectId, before == null ? ProjectTasks.EMPTY : before);
+        }
+    }
+
+    private ProjectTasks projectTasks(final int projectId) {
+        if (findProject(projectId).isEmpty()) {
+            return ProjectTasks.EMPTY;
+        }
+        final ProjectTasks preserved = tasks.get(projectId);
+        if (preserved != null) {
+            return preserved;
+        }
+        final ProjectTasks live = liveTasks.apply(projectId);
+        final ProjectTasks pinned = tasks.putIfAbsent(projectId, live == null ? ProjectTasks.EMPTY : live);
+        return pinned != null ? pinned : live == null ? ProjectTasks.EMPTY : live;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ModelOperationException("Read view is closed");
+        }
+    }
+}
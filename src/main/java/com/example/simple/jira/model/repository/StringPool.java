@@ -0,0 +1,153 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.Arrays;
+
+/**
+ * Reference counted pool of deduplicated strings addressed by int references
+ *
+ * Equal strings share one reference and one instance. The lookup table is an
+ * open addressing array of references with linear probing, so the pool costs
+ * a few ints per distinct string instead of a hash map entry and boxed keys.
+ * References of released strings are reused. Instances are not thread safe
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class StringPool implements TextPool {
+
+    /** Strings indexed by reference, {@code null} for free references */
+    private String[] values = new String[16];
+    /** Number of holders per reference */
+    private int[] refCounts = new int[16];
+    /** Hash table of references plus one, zero marks an empty bucket */
+    private int[] table = new int[32];
+    /** Number of distinct strings in the pool */
+    private int size;
+    /** Number of references ever handed out */
+    private int highWater;
+    /** Released references available for reuse */
+    private int[] freeRefs = new int[16];
+    /** Number of entries in {@link #freeRefs} */
+    private int freeCount;
+
+    /**
+     * Adds a holder of the provided string
+     *
+     * @param value string to store, may be {@code null}
+     * @return reference of the string, {@link #NULL_REF} for {@code null}
+     */
+    @Override
+    public int intern(final String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        final int mask = table.length - 1;
+        int bucket = bucketOf(value, mask);
+        while (table[bucket] != 0) {
+            final int ref = table[bucket] - 1;
+            if (values[ref].equals(value)) {
+                refCounts[ref]++;
+                return ref;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        final int ref = allocate();
+        values[ref] = value;
+        refCounts[ref] = 1;
+        table[bucket] = ref + 1;
+        size++;
+        if (size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        return ref;
+    }
+
+    /**
+     * Returns the string of a reference
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     * @return pooled string, {@code null} for {@link #NULL_REF}
+     */
+    @Override
+    public String get(final int ref) {
+        return ref == NULL_REF ? null : values[ref];
+    }
+
+    /**
+     * Removes a holder of a reference, dropping the string with its last holder
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     */
+    @Override
+    public void release(final int ref) {
+        if (ref == NULL_REF || --refCounts[ref] > 0) {
+            return;
+        }
+        final int mask = table.length - 1;
+        int hole = bucketOf(values[ref], mask);
+        while (table[hole] != ref + 1) {
+            hole = (hole + 1) & mask;
+        }
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            final int home = bucketOf(values[table[next] - 1], mask);
+            final boolean staysPut = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!staysPut) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+        values[ref] = null;
+        size--;
+        if (freeCount == freeRefs.length) {
+            freeRefs = Arrays.copyOf(freeRefs, freeCount * 2);
+        }
+        freeRefs[freeCount++] = ref;
+    }
+
+    /**
+     * Returns the number of distinct strings in the pool
+     *
+     * @return distinct string count
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeRefs[--freeCount];
+        }
+        if (highWater == values.length) {
+            values = Arrays.copyOf(values, highWater + (highWater >> 1));
+            refCounts = Arrays.copyOf(refCounts, values.length);
+        }
+        return highWater++;
+    }
+
+    private void resize(final int capacity) {
+        final int[] resized = new int[capacity];
+        final int mask = capacity - 1;
+        for (int entry : table) {
+            if (entry != 0) {
+                int bucket = bucketOf(values[entry - 1], mask);
+                while (resized[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                resized[bucket] = entry;
+            }
+        }
+        table = resized;
+    }
+
+    private static int bucketOf(final String value, final int mask) {
+        final int hash = value.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
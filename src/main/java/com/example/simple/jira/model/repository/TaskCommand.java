@@ -0,0 +1,295 @@
+package com.example.simple.jira.model.repository;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+
+/**
+ * Immutable description of a single task mutation executed as part of a batch
+ *
+ * Instances are created through the static factory methods and applied with
+ * {@link TaskStore#applyBatch(int, java.util.List)}. Commands targeting an
+ * existing task may carry the version the caller last read, see
+ * {@link #expectingVersion(long)}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class TaskCommand {
+
+    /**
+     * Kinds of mutations supported by batches
+     */
+    public enum Type {
+        /** Create a new task */
+        ADD,
+        /** Change the title of a task */
+        RENAME,
+        /** Change the description of a task */
+        DESCRIBE,
+        /** Change the status of a task */
+        STATUS,
+        /** Change the priority of a task */
+        PRIORITY,
+        /** Remove a task */
+        DELETE
+    }
+
+    /** Kind of the mutation */
+    private final Type type;
+    /** Identifier of the target task, unused for {@link Type#ADD} */
+    private final int taskId;
+    /** New title, used by {@link Type#ADD} and {@link Type#RENAME} */
+    private final String title;
+    /** New description, used by {@link Type#ADD} and {@link Type#DESCRIBE} */
+    private final String description;
+    /** New status, used by {@link Type#STATUS} and optionally {@link Type#ADD} */
+    private final TaskStatus status;
+    /** New priority, used by {@link Type#PRIORITY} and optionally {@link Type#ADD} */
+    private final TaskPriority priority;
+    /** Version the target task must have, {@link VersionConflictException#ANY_VERSION} when unchecked */
+    private final long expectedVersion;
+
+    private TaskCommand(final Type type, final int taskId, final String title, final String description,
+            final TaskStatus status, final TaskPriority priority) {
+        this(type, taskId, title, description, status, priority, VersionConflictException.ANY_VERSION);
+    }
+
+    private TaskCommand(final Type type, final int taskId, final String title, final String description,
+            final TaskStatus status, final TaskPriority priority, final long expectedVersion) {
+        this.type = type;
+        this.taskId = taskId;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.priority = priority;
+        this.expectedVersion = expectedVersion;
+    }
+
+    /**
+     * Creates a command adding a new task
+     *
+     * @param title task title
+     * @param description task description
+     * @return add command
+     */
+    public static TaskCommand add(final String title, final String description) {
+        return new TaskCommand(Type.ADD, 0, title, description, null, null);
+    }
+
+    /**
+     * Creates a command adding a new task with an explicit initial status and priority
+     *
+     * @param title task title
+     * @param description task description
+     * @param status initial status, {@code null} for {@link TaskStatus#TODO}
+     * @param priority initial priority, {@code null} for {@link TaskPriority#NOT_SET}
+     * @return add command
+     */
+    public static TaskCommand add(final String title, final String description, final TaskStatus status,
+            final TaskPriority priority) {
+        return new TaskCommand(Type.ADD, 0, title, description, status, priority);
+    }
+
+    /**
+     * Creates a command renaming a task
+     *
+     * @param taskId identifier of the task
+     * @param newTitle new task title
+     * @return rename command
+     */
+    public static TaskCommand rename(final int taskId, final String newTitle) {
+        return new TaskCommand(Type.RENAME, taskId, newTitle, null, null, null);
+    }
+
+    /**
+     * Creates a command changing the description of a task
+     *
+     * @param taskId identifier of the task
+     * @param newDescription new description text
+     * @return describe command
+     */
+    public static TaskCommand describe(final int taskId, final String newDescription) {
+        return new TaskCommand(Type.DESCRIBE, taskId, null, newDescription, null, null);
+    }
+
+    /**
+     * Creates a command changing the status of a task
+     *
+     * @param taskId identifier of the task
+     * @param status new status
+     * @return status command
+     */
+    public static TaskCommand status(final int taskId, final TaskStatus status) {
+        return new TaskCommand(Type.STATUS, taskId, null, null, status, null);
+    }
+
+    /**
+     * Creates a command changing the priority of a task
+     *
+     * @param taskId identifier of the task
+     * @param priority new priority
+     * @return priority command
+     */
+    public static TaskCommand priority(final int taskId, final TaskPriority priority) {
+        return new TaskCommand(Type.PRIORITY, taskId, null, null, null, priority);
+    }
+
+    /**
+     * Creates a command removing a task
+     *
+     * @param taskId identifier of the task
+     * @return delete command
+     */
+    public static TaskCommand delete(final int taskId) {
+        return new TaskCommand(Type.DELETE, taskId, null, null, null, null);
+    }
+
+    /**
+     * Creates a copy of the command that fails unless its target task is at the given version
+     *
+     * Versions seen by later commands of the same batch include the changes
+     * of the earlier ones
+     *
+     * @param version version the caller last read
+     * @return command checking the version
+     * @throws IllegalArgumentException for add commands, which have no target task
+     */
+    public TaskCommand expectingVersion(final long version) {
+        if (type == Type.ADD) {
+            throw new IllegalArgumentException("Add commands have no version to check");
+        }
+        return new TaskCommand(type, taskId, title, description, status, priority, version);
+    }
+
+    /**
+     * Returns the version the target task must have
+     *
+     * @return expected version or {@link VersionConflictException#ANY_VERSION} when unchecked
+     */
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /**
+     * Returns the kind of the mutation
+     *
+     * @return command type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the identifier of the target task
+     *
+     * @return task identifier, {@code 0} for add commands
+     */
+    public int getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * Returns the title carried by the command
+     *
+     * @return title or {@code null} when unused
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the description carried by the command
+     *
+     * @return description or {@code null} when unused
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the status carried by the command
+     *
+     * @return status or {@code null} when unused
+     */
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the priority carried by the command
+     *
+     * @return priority or {@code null} when unused
+     */
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Creates the task described by an {@link Type#ADD} command
+     *
+     * @param newTaskId identifier assigned to the task
+     * @param projectId identifier of the owning project
+     * @return new task, {@link TaskStatus#TODO} and {@link TaskPriority#NOT_SET} unless provided
+     */
+    Task toTask(final int newTaskId, final int projectId) {
+        return new Task(newTaskId, title, description, status == null ? TaskStatus.TODO : status,
+                priority == null ? TaskPriority.NOT_SET : priority, projectId);
+    }
+
+    /**
+     * Applies a command other than {@link Type#ADD} to its target task
+     *
+     * @param task current version of the target task
+     * @return new task version, or the task itself for {@link Type#DELETE}
+     * @throws VersionConflictException when the task is not at the expected version
+     */
+    Task applyTo(final Task task) {
+        checkVersion(task, expectedVersion);
+        switch (type) {
+            case RENAME:
+                return task.withTitle(title);
+            case DESCRIBE:
+                return task.withDetails(task.getTitle(), description);
+            case STATUS:
+                return task.withStatus(status);
+            case PRIORITY:
+                return task.withPriority(priority);
+            default:
+                return task;
+        }
+    }
+
+    /**
+     * Verifies that a task is at the version a caller expects
+     *
+     * @param task current state of the task
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} accepts any
+     * @throws VersionConflictException when the versions differ
+     */
+    static void checkVersion(final Task task, final long expectedVersion) {
+        if (expectedVersion != VersionConflictException.ANY_VERSION && task.getVersion() != expectedVersion) {
+            throw new VersionConflictException("Task with id " + task.getTaskId() + " in project "
+                    + task.getProjectId() + " is at version " + task.getVersion() + ", expected "
+                    + expectedVersion, expectedVersion, task.getVersion());
+        }
+    }
+
+    /**
+     * Describes the failure of this command within a batch, keeping version conflicts distinguishable
+     *
+     * @param index zero based position of the command in the batch
+     * @param cause failure of the command
+     * @return exception to throw from the batch
+     */
+    ModelOperationException failedInBatch(final int index, final ModelOperationException cause) {
+        final String message = "Batch command " + (index + 1) + " (" + type + ") failed: " + cause.getMessage();
+        if (cause instanceof VersionConflictException conflict) {
+            return new VersionConflictException(message, conflict.getExpectedVersion(), conflict.getActualVersion(),
+                    cause);
+        }
+        return new ModelOperationException(message, cause);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.simple.jira.model.repository;
+
+import com.example.simple.jira.model.domain.Task;
+
+/**
+ * Outcome of a single command applied as part of a batch
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class TaskCommandResult {
+
+    /** Command that produced this result */
+    private final TaskCommand command;
+    /** Task affected by the command */
+    private final Task task;
+
+    /**
+     * Creates a new immutable command result
+     *
+     * @param command command that was applied
+     * @param task task produced by the command, or the removed task for deletes
+     */
+    public TaskCommandResult(final TaskCommand command, final Task task) {
+        this.command = command;
+        this.task = task;
+    }
+
+    /**
+     * Returns the command that was applied
+     *
+     * @return applied command
+     */
+    public TaskCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the task affected by the command
+     *
+     * For add and update commands this is the stored task after the change,
+     * for delete commands it is the task that was removed
+     *
+     * @return affected task
+     */
+    public Task getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+
+/**
+ * Global index of tasks of all projects in {@link TaskStore#RANK_ORDER}
+ *
+ * Every task is one entry of a concurrent skip list keyed by a {@code long}
+ * packing the inverted priority ordinal, the status ordinal and the task
+ * identifier, so the natural key order is the rank order, and mapping to the
+ * identifier of the owning project. A top-k query seeks to the start of every
+ * included status and priority combination in O(log n) and then walks the
+ * entries in order, resolving each through the owner to its current version
+ *
+ * Like {@link TaskSearchIndex} the index stays disabled, and updates cost
+ * nothing, until {@link #ensureBuilt(Runnable)} runs for the first query.
+ * Owners must serialize updates of the same task and report every change
+ * through {@link #update(Task, Task)}
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class TaskRankIndex {
+
+    /** Cached status constants indexed by ordinal */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    /** Number of priorities */
+    private static final int PRIORITY_COUNT = TaskPriority.values().length;
+
+    /** Owning project identifier by rank key */
+    private final ConcurrentSkipListMap<Long, Integer> ranked = new ConcurrentSkipListMap<>();
+    /** Whether updates are applied */
+    private volatile boolean enabled;
+
+    /**
+     * Enables the index and runs the initial build once
+     *
+     * The index is enabled before the builder runs, so changes made during
+     * the build are indexed as well. The builder must report every existing
+     * task through {@link #update(Task, Task)} while holding off concurrent
+     * changes of that task
+     *
+     * @param builder callback indexing all existing tasks
+     */
+    void ensureBuilt(final Runnable builder) {
+        if (enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (!enabled) {
+                enabled = true;
+                builder.run();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the index has been built and receives updates
+     *
+     * @return {@code true} once {@link #ensureBuilt(Runnable)} has run
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies a change of a task to the index, changes leaving status and
+     * priority untouched are ignored
+     *
+     * @param before previous task version, {@code null} when the task was added
+     * @param after new task version, {@code null} when the task was removed
+     */
+    void update(final Task before, final Task after) {
+        if (!enabled) {
+            return;
+        }
+        if (before != null && after != null && key(before) == key(after)
+                && before.getProjectId() == after.getProjectId()) {
+            return;
+        }
+        if (before != null) {
+            ranked.remove(key(before));
+        }
+        if (after != null) {
+            ranked.put(key(after), after.getProjectId());
+        }
+    }
+
+    /**
+     * Returns the first tasks of all projects in {@link TaskStore#RANK_ORDER}
+     *
+     * Entries are resolved while concurrent changes proceed: an entry whose
+     * task no longer has its status and priority is skipped, and a task
+     * moved by a concurrent change is returned at most once
+     *
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @param lookup resolves indexed identifiers to current task instances
+     * @return immutable list of at most {@code k} tasks, most important first
+     */
+    List<Task> topK(final int k, final Set<TaskStatus> statuses, final TaskSearchIndex.TaskLookup lookup) {
+        final List<Task> top = new ArrayList<>(Math.min(k, 1024));
+        final Set<Integer> returned = new HashSet<>();
+        for (int priority = PRIORITY_COUNT - 1; priority >= 0 && top.size() < k; priority--) {
+            for (int status = 0; status < STATUSES.length && top.size() < k; status++) {
+                if (statuses != null && !statuses.contains(STATUSES[status])) {
+                    continue;
+                }
+                final long first = key(priority, status, 0);
+                for (Map.Entry<Long, Integer> entry : ranked.subMap(first, first + (1L << 32)).entrySet()) {
+                    if (top.size() == k) {
+                        break;
+                    }
+                    final Task task = lookup.find(entry.getValue(), (int) entry.getKey().longValue());
+                    if (task != null && key(task) == entry.getKey() && returned.add(task.getTaskId())) {
+                        top.add(task);
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    private static long key(final Task task) {
+        return key(task.getPriority().ordinal(), task.getStatus().ordinal(), task.getTaskId());
+    }
+
+    private static long key(final int priority, final int status, final int taskId) {
+        return (long) (PRIORITY_COUNT - 1 - priority) << 40 | (long) status << 32 | (taskId & 0xFFFFFFFFL);
+    }
+}
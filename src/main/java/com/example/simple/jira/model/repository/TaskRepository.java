@@ -3,15 +3,22 @@ package com.example.simple.jira.model.repository;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.example.simple.jira.model.domain.Task;
 import com.example.simple.jira.model.domain.TaskPriority;
 import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.events.EventPublisher;
+import com.example.simple.jira.model.events.TaskEvent;
 import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
 
 /**
  * In-memory repository managing tasks assigned to projects
@@ -20,6 +27,39 @@ import com.example.simple.jira.model.exceptions.ModelOperationException;
  * {@link com.example.simple.jira.model.repository.ProjectStore#findById(int)} and
  * keeps task data immutable
  *
+ * Every mutation is applied atomically per project through
+ * {@link ConcurrentHashMap#compute}, so concurrent writers to the same project
+ * are serialized and never lose each other's changes, while writers to
+ * different projects proceed independently
+ *
+ * Next to the primary index by task id every project keeps secondary
+ * indexes by status and priority and live per status and priority counters,
+ * all updated incrementally by each mutation, so filtered queries return an
+ * existing snapshot and counts are answered in O(1)
+ *
+ * Titles and descriptions are covered by a {@link TaskSearchIndex}. It is
+ * built on the first search and from then on updated inside the same atomic
+ * step as the project state, so every mutation is visible to later searches.
+ * {@link #topK(int, int, Set)} walks per project indexes by status and
+ * priority combination, and {@link #topKAcrossProjects(int, Set)} reads a
+ * global rank index maintained the same way as the search index
+ *
+ * Tasks are versioned and every mutation has a compare-and-set variant
+ * taking the version the caller last read. The version is checked inside
+ * the same atomic step as the change, so concurrent edits surface as a
+ * {@link VersionConflictException} instead of silently overwriting each
+ * other, while readers keep reading published snapshots without locking
+ *
+ * Every change is published as a {@link TaskEvent} through
+ * {@link #getEvents()} from inside the same atomic step, so the events of
+ * one project are published in the order its changes were applied. Changes
+ * made by {@link #restoreProject(int, List)} are not published
+ *
+ * {@link #openReadView()} opens a point-in-time {@link ReadView} of all
+ * projects and tasks in O(1). While views are open every mutation first
+ * preserves the project state it replaces for them, otherwise mutations
+ * only check that no view is open
+ *
  * See {@link com.example.simple.jira.model.domain.Task} for the task model and
  * {@link com.example.simple.jira.model.exceptions.ModelOperationException} for
  * domain errors thrown by this class
@@ -31,32 +71,189 @@ import com.example.simple.jira.model.exceptions.ModelOperationException;
  */
 public class TaskRepository implements TaskStore {
 
-    /** Storage for tasks grouped by project identifier */
-    private final Map<Integer, List<Task>> tasksByProject = new ConcurrentHashMap<>();
+    /** Storage for tasks grouped by project identifier, each project indexed by id, status and priority */
+    private final ConcurrentHashMap<Integer, ProjectTasks> tasksByProject = new ConcurrentHashMap<>();
     /** Generator for task identifiers */
-    private final AtomicInteger nextTaskId = new AtomicInteger(1);
+    private final IdBlockAllocator taskIdAllocator;
     /** Repository used to validate project existence */
     private final ProjectRepository projectRepository;
+    /** Full-text index over task titles and descriptions */
+    private final TaskSearchIndex searchIndex;
+    /** Index of all tasks in rank order */
+    private final TaskRankIndex rankIndex;
+    /** Publisher of task change events */
+    private final EventPublisher<TaskEvent> events;
+    /** Identity shared by the stores whose writes the same read views preserve */
+    private final Object readViewGroup;
 
     /**
      * Creates a task repository backed by the provided project repository
+     * publishing its changes with a default {@link EventPublisher}
      *
      * @param projectRepository repository used to confirm project existence
      */
     public TaskRepository(final ProjectRepository projectRepository) {
+        this(projectRepository, new EventPublisher<>());
+    }
+
+    /**
+     * Creates a task repository backed by the provided project repository
+     *
+     * @param projectRepository repository used to confirm project existence
+     * @param events publisher receiving task change events
+     * @throws IllegalArgumentException when the publisher blocks writers on full buffers
+     */
+    public TaskRepository(final ProjectRepository projectRepository, final EventPublisher<TaskEvent> events) {
+        this(projectRepository, events, new IdBlockAllocator(new AtomicInteger(1), 1), new TaskSearchIndex(),
+                new TaskRankIndex(), null);
+    }
+
+    /**
+     * Creates a task repository acting as one partition of a larger store
+     *
+     * @param projectRepository repository used to confirm project existence
+     * @param events publisher receiving task change events
+     * @param taskIdAllocator allocator of task identifiers
+     * @param searchIndex full-text index, may be shared with other partitions
+     * @param rankIndex rank index, may be shared with other partitions
+     * @param readViewGroup identity shared with the other partitions, {@code null} for this repository alone
+     */
+    TaskRepository(final ProjectRepository projectRepository, final EventPublisher<TaskEvent> events,
+                   final IdBlockAllocator taskIdAllocator, final TaskSearchIndex searchIndex,
+                   final TaskRankIndex rankIndex, final Object readViewGroup) {
         this.projectRepository = projectRepository;
+        this.events = ProjectRepository.requireNonBlocking(events);
+        this.taskIdAllocator = taskIdAllocator;
+        this.searchIndex = searchIndex;
+        this.rankIndex = rankIndex;
+        this.readViewGroup = readViewGroup == null ? this : readViewGroup;
+    }
+
+    /**
+     * Returns the stream of task changes
+     *
+     * @return publisher of events for every task change from now on
+     */
+    public Flow.Publisher<TaskEvent> getEvents() {
+        return events;
     }
 
     /**
      * Retrieves tasks associated with the selected project
      *
      * @param projectId identifier of the owning project
-     * @return immutable list of tasks belonging to the project
+     * @return immutable snapshot of tasks belonging to the project, ordered by task id
      * @throws ModelOperationException when the project does not exist
      */
     public List<Task> findByProject(final int projectId) {
+        return projectTasks(projectId).all();
+    }
+
+    /**
+     * Retrieves a page of tasks of the selected project in task id order
+     *
+     * @param projectId identifier of the owning project
+     * @param afterTaskId cursor, only tasks with a greater id are returned; {@link Page#FIRST} to start
+     * @param pageSize maximum number of tasks on the page
+     * @return page of tasks read from a single consistent snapshot
+     * @throws ModelOperationException when the project does not exist
+     */
+    public Page<Task> findPage(final int projectId, final int afterTaskId, final int pageSize) {
+        return Pages.fromIterator(projectTasks(projectId).all().iteratorAfter(afterTaskId), afterTaskId,
+                pageSize, Task::getTaskId);
+    }
+
+    /**
+     * Retrieves tasks of the selected project with the provided status
+     *
+     * @param projectId identifier of the owning project
+     * @param status requested status
+     * @return immutable snapshot of matching tasks ordered by task id
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> findByProjectAndStatus(final int projectId, final TaskStatus status) {
+        return projectTasks(projectId).withStatus(status);
+    }
+
+    /**
+     * Retrieves tasks of the selected project with the provided priority
+     *
+     * @param projectId identifier of the owning project
+     * @param priority requested priority
+     * @return immutable snapshot of matching tasks ordered by task id
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> findByProjectAndPriority(final int projectId, final TaskPriority priority) {
+        return projectTasks(projectId).withPriority(priority);
+    }
+
+    /**
+     * Counts tasks of the selected project with the provided status in O(1)
+     *
+     * @param projectId identifier of the owning project
+     * @param status requested status
+     * @return number of matching tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    public int countByStatus(final int projectId, final TaskStatus status) {
+        return projectTasks(projectId).withStatus(status).size();
+    }
+
+    /**
+     * Counts tasks of the selected project with the provided priority in O(1)
+     *
+     * @param projectId identifier of the owning project
+     * @param priority requested priority
+     * @return number of matching tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    public int countByPriority(final int projectId, final TaskPriority priority) {
+        return projectTasks(projectId).withPriority(priority).size();
+    }
+
+    /**
+     * Counts tasks of the selected project with the provided status and priority in O(1)
+     *
+     * @param projectId identifier of the owning project
+     * @param status requested status
+     * @param priority requested priority
+     * @return number of matching tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    public int countByStatusAndPriority(final int projectId, final TaskStatus status, final TaskPriority priority) {
+        return projectTasks(projectId).count(status, priority);
+    }
+
+    /**
+     * Retrieves a single task of the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @return immutable task instance
+     * @throws ModelOperationException when the project or the task does not exist
+     */
+    public Task findTask(final int projectId, final int taskId) {
         projectRepository.findById(projectId);
-        return Collections.unmodifiableList(new ArrayList<>(tasksByProject.getOrDefault(projectId, Collections.emptyList())));
+        final ProjectTasks tasks = tasksByProject.get(projectId);
+        final Task task = tasks == null ? null : tasks.find(taskId);
+        if (task == null) {
+            throw taskNotFound(projectId, taskId);
+        }
+        return task;
+    }
+
+    /**
+     * Retrieves a single task without throwing when it or its project is missing
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @return immutable task instance, empty when the project or the task does not exist
+     */
+    public Optional<Task> tryFindTask(final int projectId, final int taskId) {
+        if (projectRepository.tryFindById(projectId).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(lookup(projectId, taskId));
     }
 
     /**
@@ -70,11 +267,13 @@ public class TaskRepository implements TaskStore {
      */
     public Task addTask(final int projectId, final String title, final String description) {
         projectRepository.findById(projectId);
-        final int taskId = nextTaskId.getAndIncrement();
+        final int taskId = taskIdAllocator.next();
         final Task task = new Task(taskId, title, description, TaskStatus.TODO, TaskPriority.NOT_SET, projectId);
-        final List<Task> updated = new ArrayList<>(tasksByProject.getOrDefault(projectId, Collections.emptyList()));
-        updated.add(task);
-        tasksByProject.put(projectId, Collections.unmodifiableList(new ArrayList<>(updated)));
+        tasksByProject.compute(projectId, (id, existing) -> {
+            final ProjectTasks updated = (existing == null ? ProjectTasks.EMPTY : existing).with(task);
+            changed(null, task);
+            return commit(projectId, existing, updated);
+        });
         return task;
     }
 
@@ -86,7 +285,22 @@ public class TaskRepository implements TaskStore {
      * @param status new status to apply
      */
     public void updateTaskStatus(final int projectId, final int taskId, final TaskStatus status) {
-        updateTask(projectId, taskId, task -> task.withStatus(status));
+        updateTaskStatus(projectId, taskId, VersionConflictException.ANY_VERSION, status);
+    }
+
+    /**
+     * Updates the status of a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param status new status to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task updateTaskStatus(final int projectId, final int taskId, final long expectedVersion,
+                                 final TaskStatus status) {
+        return updateTask(projectId, taskId, expectedVersion, task -> task.withStatus(status));
     }
 
     /**
@@ -97,7 +311,22 @@ public class TaskRepository implements TaskStore {
      * @param priority new priority to apply
      */
     public void updateTaskPriority(final int projectId, final int taskId, final TaskPriority priority) {
-        updateTask(projectId, taskId, task -> task.withPriority(priority));
+        updateTaskPriority(projectId, taskId, VersionConflictException.ANY_VERSION, priority);
+    }
+
+    /**
+     * Updates the priority of a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param priority new priority to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task updateTaskPriority(final int projectId, final int taskId, final long expectedVersion,
+                                   final TaskPriority priority) {
+        return updateTask(projectId, taskId, expectedVersion, task -> task.withPriority(priority));
     }
     
     /**
@@ -108,7 +337,22 @@ public class TaskRepository implements TaskStore {
      * @param newTitle new title to apply
      */
     public void renameTask(final int projectId, final int taskId, final String newTitle) {
-        updateTask(projectId, taskId, task -> task.withDetails(newTitle, task.getDescription()));
+        renameTask(projectId, taskId, VersionConflictException.ANY_VERSION, newTitle);
+    }
+
+    /**
+     * Renames a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param newTitle new title to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task renameTask(final int projectId, final int taskId, final long expectedVersion, final String newTitle) {
+        return updateTask(projectId, taskId, expectedVersion,
+                task -> task.withTitle(newTitle));
     }
 
     /**
@@ -119,7 +363,23 @@ public class TaskRepository implements TaskStore {
      * @param newDescription new description to apply
      */
     public void updateTaskDescription(final int projectId, final int taskId, final String newDescription) {
-        updateTask(projectId, taskId, task -> task.withDetails(task.getTitle(), newDescription));
+        updateTaskDescription(projectId, taskId, VersionConflictException.ANY_VERSION, newDescription);
+    }
+
+    /**
+     * Updates the description of a task if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task that should be updated
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @param newDescription new description to apply
+     * @return updated task
+     * @throws VersionConflictException when the task is at another version
+     */
+    public Task updateTaskDescription(final int projectId, final int taskId, final long expectedVersion,
+                                      final String newDescription) {
+        return updateTask(projectId, taskId, expectedVersion,
+                task -> task.withDetails(task.getTitle(), newDescription));
     }
 
     /**
@@ -130,12 +390,7 @@ public class TaskRepository implements TaskStore {
      * @throws ModelOperationException when the project has no tasks
      */
     public List<Task> requireTasks(final int projectId) {
-        projectRepository.findById(projectId);
-        final List<Task> existing = tasksByProject.get(projectId);
-        if (existing == null || existing.isEmpty()) {
-            throw new ModelOperationException("No tasks found in project " + projectId);
-        }
-        return Collections.unmodifiableList(new ArrayList<>(existing));
+        return requireProjectTasks(projectId).all();
     }
 
     /**
@@ -146,50 +401,264 @@ public class TaskRepository implements TaskStore {
      * @throws ModelOperationException when the project or task cannot be found
      */
     public void deleteTask(final int projectId, final int taskId) {
-        final List<Task> existing = requireTasks(projectId);
-        final List<Task> updated = new ArrayList<>(existing.size());
-        boolean removed = false;
-        for (Task task : existing) {
-            if (task.getTaskId() == taskId) {
-                removed = true;
-                continue;
+        deleteTask(projectId, taskId, VersionConflictException.ANY_VERSION);
+    }
+
+    /**
+     * Removes a task from the selected project if it is still at the expected version
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task to be removed
+     * @param expectedVersion version the caller last read, {@link VersionConflictException#ANY_VERSION} for any
+     * @throws ModelOperationException when the project or task cannot be found
+     * @throws VersionConflictException when the task is at another version
+     */
+    public void deleteTask(final int projectId, final int taskId, final long expectedVersion) {
+        projectRepository.findById(projectId);
+        tasksByProject.compute(projectId, (id, existing) -> {
+            final ProjectTasks tasks = requireTasks(projectId, existing);
+            final Task task = tasks.find(taskId);
+            if (task == null) {
+                throw taskNotFound(projectId, taskId);
             }
-            updated.add(task);
-        }
-        if (!removed) {
-            throw new ModelOperationException("Task with id " + taskId + " not found in project " + projectId);
-        }
-        if (updated.isEmpty()) {
-            tasksByProject.remove(projectId);
-        } else {
-            tasksByProject.put(projectId, Collections.unmodifiableList(new ArrayList<>(updated)));
-        }
+            TaskCommand.checkVersion(task, expectedVersion);
+            final ProjectTasks updated = tasks.without(taskId);
+            changed(task, null);
+            return commit(projectId, existing, updated.isEmpty() ? null : updated);
+        });
     }
 
     /**
-    * Updates a single task instance and stores the modified list back in the repository
+    * Atomically updates a single task instance and stores the modified project state back in the repository
     * @param projectId identifier of the owning project
     * @param taskId identifier of the task to be updated
+    * @param expectedVersion version the task must have, {@link VersionConflictException#ANY_VERSION} for any
     * @param transformer function that produces a modified task instance
+    * @return updated task
     */
-    private void updateTask(final int projectId, final int taskId, final Function<Task, Task> transformer) {
-        final List<Task> existing = requireTasks(projectId);
-
-        final List<Task> updated = new ArrayList<>(existing.size());
-        boolean replaced = false;
-        for (Task task : existing) {
-            if (task.getTaskId() == taskId) {
-                updated.add(transformer.apply(task));
-                replaced = true;
-            } else {
-                updated.add(task);
+    private Task updateTask(final int projectId, final int taskId, final long expectedVersion,
+                            final Function<Task, Task> transformer) {
+        projectRepository.findById(projectId);
+        final Task[] result = new Task[1];
+        tasksByProject.compute(projectId, (id, existing) -> {
+            final ProjectTasks tasks = requireTasks(projectId, existing);
+            final Task task = tasks.find(taskId);
+            if (task == null) {
+                throw taskNotFound(projectId, taskId);
+            }
+            TaskCommand.checkVersion(task, expectedVersion);
+            final Task updated = transformer.apply(task);
+            changed(task, updated);
+            result[0] = updated;
+            return commit(projectId, existing, tasks.with(updated));
+        });
+        return result[0];
+    }
+
+    /**
+     * Applies a batch of commands to the selected project in a single atomic step
+     *
+     * The project is validated once, the commands are applied in order to a
+     * private version of the project's task state and the result is published
+     * only when all of them succeed
+     *
+     * @param projectId identifier of the owning project
+     * @param commands commands applied in list order
+     * @return immutable list of per-command results
+     * @throws ModelOperationException when the project does not exist or any command fails
+     */
+    public List<TaskCommandResult> applyBatch(final int projectId, final List<TaskCommand> commands) {
+        projectRepository.findById(projectId);
+        final List<TaskCommandResult> results = new ArrayList<>(commands.size());
+        tasksByProject.compute(projectId, (id, existing) -> {
+            ProjectTasks tasks = existing == null ? ProjectTasks.EMPTY : existing;
+            final List<Task> previous = new ArrayList<>(commands.size());
+            for (int index = 0; index < commands.size(); index++) {
+                final TaskCommand command = commands.get(index);
+                try {
+                    final Task task = apply(projectId, tasks, command);
+                    previous.add(command.getType() == TaskCommand.Type.ADD ? null : tasks.find(task.getTaskId()));
+                    tasks = command.getType() == TaskCommand.Type.DELETE
+                            ? tasks.without(task.getTaskId())
+                            : tasks.with(task);
+                    results.add(new TaskCommandResult(command, task));
+                } catch (ModelOperationException ex) {
+                    throw command.failedInBatch(index, ex);
+                }
+            }
+            for (int index = 0; index < results.size(); index++) {
+                final TaskCommandResult result = results.get(index);
+                final boolean deleted = result.getCommand().getType() == TaskCommand.Type.DELETE;
+                changed(previous.get(index), deleted ? null : result.getTask());
             }
+            return commit(projectId, existing, tasks.isEmpty() ? null : tasks);
+        });
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Applies a single command in one atomic step without throwing when its
+     * project or target task is missing
+     *
+     * @param projectId identifier of the owning project
+     * @param command command to apply
+     * @return task produced by the command, or the removed task for deletes;
+     *         empty when the project or the target task does not exist
+     * @throws VersionConflictException when the command expects another version of the task
+     */
+    public Optional<Task> tryApply(final int projectId, final TaskCommand command) {
+        if (projectRepository.tryFindById(projectId).isEmpty()) {
+            return Optional.empty();
+        }
+        final boolean added = command.getType() == TaskCommand.Type.ADD;
+        final boolean deleted = command.getType() == TaskCommand.Type.DELETE;
+        final Task[] result = new Task[1];
+        tasksByProject.compute(projectId, (id, existing) -> {
+            final ProjectTasks tasks = existing == null ? ProjectTasks.EMPTY : existing;
+            final Task before = added ? null : tasks.find(command.getTaskId());
+            if (!added && before == null) {
+                return existing;
+            }
+            final Task task = added ? command.toTask(taskIdAllocator.next(), projectId) : command.applyTo(before);
+            final ProjectTasks updated = deleted ? tasks.without(task.getTaskId()) : tasks.with(task);
+            changed(before, deleted ? null : task);
+            result[0] = task;
+            return commit(projectId, existing, updated.isEmpty() ? null : updated);
+        });
+        return Optional.ofNullable(result[0]);
+    }
+
+    /**
+     * Computes the task produced by a single batch command
+     *
+     * @param projectId identifier of the owning project
+     * @param tasks project state the command is applied to
+     * @param command command to apply
+     * @return new task version, or the task to remove for delete commands
+     * @throws ModelOperationException when the target task does not exist
+     */
+    private Task apply(final int projectId, final ProjectTasks tasks, final TaskCommand command) {
+        if (command.getType() == TaskCommand.Type.ADD) {
+            return command.toTask(taskIdAllocator.next(), projectId);
+        }
+        final Task task = tasks.find(command.getTaskId());
+        if (task == null) {
+            throw taskNotFound(projectId, command.getTaskId());
+        }
+        return command.applyTo(task);
+    }
+
+    /**
+     * Returns the task state of an existing project
+     *
+     * @param projectId identifier of the owning project
+     * @return current task state of the project, empty when it has no tasks
+     * @throws ModelOperationException when the project does not exist
+     */
+    private ProjectTasks projectTasks(final int projectId) {
+        projectRepository.findById(projectId);
+        return tasksByProject.getOrDefault(projectId, ProjectTasks.EMPTY);
+    }
+
+    /**
+     * Returns the task state of a project that is required to contain tasks
+     *
+     * @param projectId identifier of the owning project
+     * @return current task state of the project
+     * @throws ModelOperationException when the project does not exist or has no tasks
+     */
+    private ProjectTasks requireProjectTasks(final int projectId) {
+        projectRepository.findById(projectId);
+        return requireTasks(projectId, tasksByProject.get(projectId));
+    }
+
+    /**
+     * Verifies that the provided task state contains tasks
+     *
+     * @param projectId identifier of the owning project
+     * @param existing task state currently stored for the project, may be {@code null}
+     * @return the provided task state
+     * @throws ModelOperationException when the project has no tasks
+     */
+    private static ProjectTasks requireTasks(final int projectId, final ProjectTasks existing) {
+        if (existing == null || existing.isEmpty()) {
+            throw new ModelOperationException("No tasks found in project " + projectId, false);
         }
-        if (!replaced) {
-            throw new ModelOperationException("Task with id " + taskId + " not found in project " + projectId);
+        return existing;
+    }
+
+    /**
+     * Creates the exception reported for a task missing from a project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the missing task
+     * @return exception describing the failure
+     */
+    private static ModelOperationException taskNotFound(final int projectId, final int taskId) {
+        return new ModelOperationException("Task with id " + taskId + " not found in project " + projectId, false);
+    }
+
+    /**
+     * Stores a task exactly as provided, replacing any task with the same identifier
+     *
+     * Project existence is not validated and the identifier generator is moved
+     * past the task identifier. Intended for persistence layers rebuilding the
+     * repository state
+     *
+     * @param task task to store
+     */
+    public void restore(final Task task) {
+        tasksByProject.compute(task.getProjectId(), (id, existing) -> {
+            final ProjectTasks tasks = existing == null ? ProjectTasks.EMPTY : existing;
+            changed(tasks.find(task.getTaskId()), task);
+            return commit(id, existing, tasks.with(task));
+        });
+        taskIdAllocator.advancePast(task.getTaskId());
+    }
+
+    /**
+     * Replaces all tasks of a project with the provided tasks in one step
+     *
+     * Like {@link #restore(Task)} this bypasses project validation. The tasks
+     * must belong to the project and be ordered by ascending identifier,
+     * which allows the project's task state and indexes to be built in linear time
+     *
+     * @param projectId identifier of the owning project
+     * @param sortedTasks tasks ordered by ascending identifier
+     */
+    public void restoreProject(final int projectId, final List<Task> sortedTasks) {
+        if (sortedTasks.isEmpty()) {
+            deleteAllForProject(projectId);
+            return;
         }
+        final ProjectTasks restored = ProjectTasks.ofSorted(sortedTasks);
+        tasksByProject.compute(projectId, (id, existing) -> {
+            unindex(existing);
+            index(restored);
+            return commit(projectId, existing, restored);
+        });
+        taskIdAllocator.advancePast(sortedTasks.get(sortedTasks.size() - 1).getTaskId());
+    }
 
-        tasksByProject.put(projectId, Collections.unmodifiableList(new ArrayList<>(updated)));
+    /**
+     * Returns the identifier above every task identifier handed out so far,
+     * including identifiers of tasks deleted since
+     *
+     * @return next unused task identifier
+     */
+    public int getNextTaskId() {
+        return taskIdAllocator.nextUnallocated();
+    }
+
+    /**
+     * Moves the identifier generator past a task identifier that may have been used before
+     *
+     * Intended for persistence layers restoring the generator before any task is added
+     *
+     * @param taskId identifier that must never be handed out again
+     */
+    public void advanceTaskIdPast(final int taskId) {
+        taskIdAllocator.advancePast(taskId);
     }
 
     /**
@@ -198,6 +667,267 @@ public class TaskRepository implements TaskStore {
      * @param projectId identifier of the project whose tasks should be removed
      */
     public void deleteAllForProject(final int projectId) {
-        tasksByProject.remove(projectId);
+        tasksByProject.computeIfPresent(projectId, (id, existing) -> {
+            unindex(existing);
+            if (events.hasSubscribers()) {
+                for (Task task : existing.all()) {
+                    events.publish(new TaskEvent(TaskEvent.Type.DELETED, task, null));
+                }
+            }
+            return commit(projectId, existing, null);
+        });
+    }
+
+    /**
+     * Searches task titles and descriptions across all projects
+     *
+     * The first search builds the full-text index, later ones only read it
+     *
+     * @param query free text query, every term of which must match
+     * @param limit maximum number of results
+     * @return immutable list of matching tasks, best match first
+     */
+    public List<Task> search(final String query, final int limit) {
+        searchIndex.ensureBuilt(this::buildSearchIndex);
+        return searchIndex.search(query, limit, this::lookup);
+    }
+
+    /**
+     * Searches task titles and descriptions of the selected project
+     *
+     * @param projectId identifier of the owning project
+     * @param query free text query, every term of which must match
+     * @param limit maximum number of results
+     * @return immutable list of matching tasks, best match first
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> search(final int projectId, final String query, final int limit) {
+        projectRepository.findById(projectId);
+        searchIndex.ensureBuilt(this::buildSearchIndex);
+        return searchIndex.searchProject(projectId, query, limit, this::lookup);
+    }
+
+    /**
+     * Retrieves the most important tasks of the selected project in
+     * {@link TaskStore#RANK_ORDER} in O(k + log n)
+     *
+     * @param projectId identifier of the owning project
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @return immutable list of at most {@code k} tasks read from a single consistent snapshot
+     * @throws IllegalArgumentException when {@code k} is negative
+     * @throws ModelOperationException when the project does not exist
+     */
+    public List<Task> topK(final int projectId, final int k, final Set<TaskStatus> statuses) {
+        requireLimit(k);
+        return projectTasks(projectId).topK(k, statuses);
+    }
+
+    /**
+     * Retrieves the most important tasks of all projects in {@link TaskStore#RANK_ORDER}
+     *
+     * The first call builds the rank index, later ones seek it in
+     * O(log n) per included status and priority combination and then read
+     * the k tasks in order
+     *
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @return immutable list of at most {@code k} tasks, most important first
+     * @throws IllegalArgumentException when {@code k} is negative
+     */
+    public List<Task> topKAcrossProjects(final int k, final Set<TaskStatus> statuses) {
+        requireLimit(k);
+        rankIndex.ensureBuilt(this::buildRankIndex);
+        return rankIndex.topK(k, statuses, this::lookup);
+    }
+
+    /**
+     * Retrieves the tasks of all projects matching a status and priority
+     *
+     * Projects without a match are skipped using their counters
+     *
+     * @param status required status, {@code null} for any
+     * @param priority required priority, {@code null} for any
+     * @return immutable list of matching tasks ordered by project id and task id
+     */
+    public List<Task> findAcrossProjects(final TaskStatus status, final TaskPriority priority) {
+        final List<Integer> projectIds = new ArrayList<>(tasksByProject.keySet());
+        Collections.sort(projectIds);
+        final List<Task> matches = new ArrayList<>();
+        for (Integer projectId : projectIds) {
+            final ProjectTasks tasks = tasksByProject.get(projectId);
+            if (tasks == null || count(tasks, status, priority) == 0) {
+                continue;
+            }
+            final List<Task> candidates = status != null ? tasks.withStatus(status)
+                    : priority != null ? tasks.withPriority(priority) : tasks.all();
+            for (Task task : candidates) {
+                if (priority == null || task.getPriority() == priority) {
+                    matches.add(task);
+                }
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Counts the tasks of all projects matching a status and priority
+     *
+     * @param status required status, {@code null} for any
+     * @param priority required priority, {@code null} for any
+     * @return number of matching tasks
+     */
+    public long countAcrossProjects(final TaskStatus status, final TaskPriority priority) {
+        long total = 0;
+        for (ProjectTasks tasks : tasksByProject.values()) {
+            total += count(tasks, status, priority);
+        }
+        return total;
+    }
+
+    private static int count(final ProjectTasks tasks, final TaskStatus status, final TaskPriority priority) {
+        if (status != null && priority != null) {
+            return tasks.count(status, priority);
+        }
+        if (status != null) {
+            return tasks.withStatus(status).size();
+        }
+        return priority != null ? tasks.withPriority(priority).size() : tasks.all().size();
+    }
+
+    /**
+     * Opens a point-in-time view of all projects and their tasks
+     *
+     * Opening takes O(1), the view must be closed once the reader is done
+     *
+     * @return open read view
+     */
+    public ReadView openReadView() {
+        return projectRepository.openReadView(readViewGroup, this::liveTasks);
+    }
+
+    /**
+     * Returns the live task state of a project
+     *
+     * @param projectId identifier of the owning project
+     * @return current task state, {@code null} when the project has no tasks
+     */
+    ProjectTasks liveTasks(final int projectId) {
+        return tasksByProject.get(projectId);
+    }
+
+    /**
+     * Adds every stored task to the search index
+     */
+    void buildSearchIndex() {
+        build(task -> searchIndex.update(null, task));
+    }
+
+    /**
+     * Adds every stored task to the rank index
+     */
+    void buildRankIndex() {
+        build(task -> rankIndex.update(null, task));
+    }
+
+    /**
+     * Hands every stored task to an index, one project at a time inside its atomic step
+     *
+     * @param indexer callback adding one task to the index
+     */
+    private void build(final Consumer<Task> indexer) {
+        for (Integer projectId : tasksByProject.keySet()) {
+            tasksByProject.computeIfPresent(projectId, (id, existing) -> {
+                existing.all().forEach(indexer);
+                return existing;
+            });
+        }
+    }
+
+    /**
+     * Applies a task change to the indexes and publishes its events,
+     * one per changed field for updates
+     *
+     * @param before task state before the change, null when created
+     * @param after task state after the change, null when deleted
+     */
+    private void changed(final Task before, final Task after) {
+        searchIndex.update(before, after);
+        rankIndex.update(before, after);
+        if (!events.hasSubscribers()) {
+            return;
+        }
+        if (before == null) {
+            events.publish(new TaskEvent(TaskEvent.Type.CREATED, null, after));
+            return;
+        }
+        if (after == null) {
+            events.publish(new TaskEvent(TaskEvent.Type.DELETED, before, null));
+            return;
+        }
+        if (!Objects.equals(before.getTitle(), after.getTitle())) {
+            events.publish(new TaskEvent(TaskEvent.Type.RENAMED, before, after));
+        }
+        if (!Objects.equals(before.getDescription(), after.getDescription())) {
+            events.publish(new TaskEvent(TaskEvent.Type.DESCRIPTION_CHANGED, before, after));
+        }
+        if (before.getStatus() != after.getStatus()) {
+            events.publish(new TaskEvent(TaskEvent.Type.STATUS_CHANGED, before, after));
+        }
+        if (before.getPriority() != after.getPriority()) {
+            events.publish(new TaskEvent(TaskEvent.Type.PRIORITY_CHANGED, before, after));
+        }
+    }
+
+    /**
+     * Completes a mutation of a project's task state inside its atomic step,
+     * preserving the replaced state for every open read view
+     *
+     * @param projectId identifier of the owning project
+     * @param existing task state being replaced, may be {@code null}
+     * @param updated new task state, {@code null} when the project has no tasks left
+     * @return the new task state
+     */
+    private ProjectTasks commit(final int projectId, final ProjectTasks existing, final ProjectTasks updated) {
+        for (ReadView view : projectRepository.readViews()) {
+            view.preserveTasks(readViewGroup, projectId, existing);
+        }
+        return updated;
+    }
+
+    private void index(final ProjectTasks tasks) {
+        if (searchIndex.isEnabled() || rankIndex.isEnabled()) {
+            for (Task task : tasks.all()) {
+                searchIndex.update(null, task);
+                rankIndex.update(null, task);
+            }
+        }
+    }
+
+    private void unindex(final ProjectTasks tasks) {
+        if (tasks != null && (searchIndex.isEnabled() || rankIndex.isEnabled())) {
+            for (Task task : tasks.all()) {
+                searchIndex.update(task, null);
+                rankIndex.update(task, null);
+            }
+        }
+    }
+
+    private static void requireLimit(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Result limit must not be negative: " + k);
+        }
+    }
+
+    /**
+     * Reads a task without validating its project
+     *
+     * @param projectId identifier of the owning project
+     * @param taskId identifier of the task
+     * @return current task or {@code null} when absent
+     */
+    Task lookup(final int projectId, final int taskId) {
+        final ProjectTasks tasks = tasksByProject.get(projectId);
+        return tasks == null ? null : tasks.find(taskId);
     }
 }
@@ -0,0 +1,533 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.simple.jira.model.domain.Task;
+
+/**
+ * In-process inverted index over task titles and descriptions
+ *
+ * Text is split into lower-cased runs of letters and digits. Every term maps
+ * to a postings list kept as parallel primitive arrays of task identifiers,
+ * project identifiers and weights, sorted by task identifier. A term found in
+ * the title weighs {@value #TITLE_WEIGHT} times as much as one found in the
+ * description
+ *
+ * Queries match tasks containing every query term. They start from the rarest
+ * term and probe the other postings lists by binary search, and rank the
+ * matches by the sum of weight times inverse document frequency
+ *
+ * Terms are spread over independently locked segments, so updates of
+ * different tasks rarely contend. Owners must serialize updates of the same
+ * task and report every change through {@link #update(Task, Task)}. The index
+ * stays disabled, and updates cost nothing, until {@link #ensureBuilt(Runnable)}
+ * runs for the first search
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+public final class TaskSearchIndex {
+
+    /**
+     * Resolves indexed identifiers to current task instances
+     */
+    @FunctionalInterface
+    public interface TaskLookup {
+        /**
+         * Finds a task
+         *
+         * @param projectId identifier of the owning project
+         * @param taskId identifier of the task
+         * @return current task or {@code null} when it no longer exists
+         */
+        Task find(int projectId, int taskId);
+    }
+
+    /** Weight of one occurrence of a term in a title */
+    private static final int TITLE_WEIGHT = 3;
+    /** Number of segments, a power of two */
+    private static final int SEGMENTS = 64;
+    /** Project identifier matching every project */
+    private static final int ANY_PROJECT = Integer.MIN_VALUE;
+
+    /** Segments holding the postings */
+    private final Segment[] segments = new Segment[SEGMENTS];
+    /** Number of indexed tasks with at least one term */
+    private final AtomicInteger documentCount = new AtomicInteger();
+    /** Whether updates are applied */
+    private volatile boolean enabled;
+
+    /**
+     * Creates an empty, disabled index
+     */
+    public TaskSearchIndex() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Enables the index and runs the initial build once
+     *
+     * The index is enabled before the builder runs, so changes made during
+     * the build are indexed as well. The builder must report every existing
+     * task through {@link #update(Task, Task)} while holding off concurrent
+     * changes of that task
+     *
+     * @param builder callback indexing all existing tasks
+     */
+    public void ensureBuilt(final Runnable builder) {
+        if (enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (!enabled) {
+                enabled = true;
+                builder.run();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the index has been built and receives updates
+     *
+     * @return {@code true} once {@link #ensureBuilt(Runnable)} has run
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies a change of a task to the index
+     *
+     * Changes leaving title and description untouched are ignored. Adding a
+     * task that is already indexed replaces its entries
+     *
+     * @param before previous task version, {@code null} when the task was added
+     * @param after new task version, {@code null} when the task was removed
+     */
+    public void update(final Task before, final Task after) {
+        if (!enabled) {
+            return;
+        }
+        if (before != null && after != null && before.getTaskId() == after.getTaskId()
+                && before.getProjectId() == after.getProjectId()
+                && Objects.equals(before.getTitle(), after.getTitle())
+                && before.hasSameDescription(after)) {
+            return;
+        }
+        final Map<String, Integer> oldTerms = before == null ? Collections.emptyMap() : weights(before);
+        final Map<String, Integer> newTerms = after == null ? Collections.emptyMap() : weights(after);
+        for (String term : oldTerms.keySet()) {
+            if (!newTerms.containsKey(term)) {
+                segment(term).remove(term, before.getTaskId());
+            }
+        }
+        int added = 0;
+        for (Map.Entry<String, Integer> entry : newTerms.entrySet()) {
+            if (segment(entry.getKey()).put(entry.getKey(), after.getTaskId(), after.getProjectId(), entry.getValue())) {
+                added++;
+            }
+        }
+        if (before == null && !newTerms.isEmpty() && added == newTerms.size()) {
+            documentCount.incrementAndGet();
+        } else if (after == null && !oldTerms.isEmpty()) {
+            documentCount.decrementAndGet();
+        } else if (before != null && after != null) {
+            documentCount.addAndGet(Integer.compare(newTerms.isEmpty() ? 0 : 1, oldTerms.isEmpty() ? 0 : 1));
+        }
+    }
+
+    /**
+     * Searches tasks of all projects
+     *
+     * @param query free text query
+     * @param limit maximum number of results
+     * @param lookup resolver of indexed identifiers
+     * @return tasks containing every query term, best match first
+     */
+    public List<Task> search(final String query, final int limit, final TaskLookup lookup) {
+        return search(ANY_PROJECT, query, limit, lookup);
+    }
+
+    /**
+     * Searches tasks of one project
+     *
+     * @param projectId identifier of the project
+     * @param query free text query
+     * @param limit maximum number of results
+     * @param lookup resolver of indexed identifiers
+     * @return tasks containing every query term, best match first
+     */
+    public List<Task> searchProject(final int projectId, final String query, final int limit,
+            final TaskLookup lookup) {
+        return search(projectId, query, limit, lookup);
+    }
+
+    private List<Task> search(final int projectId, final String query, final int limit, final TaskLookup lookup) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Result limit must be positive: " + limit);
+        }
+        final List<String> terms = new ArrayList<>(tokenize(query).keySet());
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final int[] frequencies = new int[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            frequencies[i] = segment(terms.get(i)).frequency(terms.get(i));
+            if (frequencies[i] == 0) {
+                return Collections.emptyList();
+            }
+        }
+        final Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> Integer.compare(frequencies[left], frequencies[right]));
+
+        final double documents = Math.max(1, documentCount.get());
+        final String rarest = terms.get(order[0]);
+        final Candidates candidates = segment(rarest).collect(rarest, projectId,
+                Math.log(1 + documents / frequencies[order[0]]));
+        for (int i = 1; i < order.length && candidates.size > 0; i++) {
+            final String term = terms.get(order[i]);
+            segment(term).intersect(term, candidates, Math.log(1 + documents / frequencies[order[i]]));
+        }
+
+        final PriorityQueue<Integer> best = new PriorityQueue<>(
+                (left, right) -> Double.compare(candidates.scores[left], candidates.scores[right]));
+        for (int i = 0; i < candidates.size; i++) {
+            best.add(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        final List<Task> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            final int index = best.poll();
+            final Task task = lookup.find(candidates.projectIds[index], candidates.taskIds[index]);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        Collections.reverse(result);
+        return Collections.unmodifiableList(result);
+    }
+
+    private Segment segment(final String term) {
+        final int hash = term.hashCode() * 0x9E3779B9;
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static Map<String, Integer> weights(final Task task) {
+        final Map<String, Integer> weights = tokenize(task.getDescription());
+        for (Map.Entry<String, Integer> entry : tokenize(task.getTitle()).entrySet()) {
+            weights.merge(entry.getKey(), entry.getValue() * TITLE_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    /**
+     * Splits text into lower-cased terms
+     *
+     * @param text text to split, may be {@code null}
+     * @return occurrence count per term
+     */
+    static Map<String, Integer> tokenize(final String text) {
+        final Map<String, Integer> terms = new HashMap<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Matching tasks of a running query with their accumulated scores
+     */
+    private static final class Candidates {
+        /** Task identifiers in ascending order */
+        private int[] taskIds;
+        /** Project identifiers parallel to {@link #taskIds} */
+        private int[] projectIds;
+        /** Scores parallel to {@link #taskIds} */
+        private double[] scores;
+        /** Number of live candidates */
+        private int size;
+    }
+
+    /**
+     * Postings of one term
+     *
+     * Entries live in a main run of parallel arrays sorted by task identifier,
+     * where new tasks are appended. Removed entries are only marked with a
+     * zero weight and compacted once they make up a quarter of the run, and
+     * entries of older tasks are inserted into a small sorted pending run
+     * merged into the main run once it outgrows a sixteenth of it. Every
+     * change therefore costs amortized constant copying instead of shifting
+     * long arrays
+     */
+    private static final class Postings {
+        /** Minimum number of dead or pending entries before reorganizing */
+        private static final int MIN_REORGANIZE = 32;
+
+        /** Task identifiers of the main run in ascending order */
+        private int[] taskIds = new int[4];
+        /** Project identifiers parallel to {@link #taskIds} */
+        private int[] projectIds = new int[4];
+        /** Term weights parallel to {@link #taskIds}, zero for removed entries */
+        private short[] weights = new short[4];
+        /** Number of used entries of the main run */
+        private int size;
+        /** Number of removed entries of the main run */
+        private int dead;
+        /** Task identifiers of the pending run in ascending order */
+        private int[] pendingTaskIds = new int[0];
+        /** Project identifiers parallel to {@link #pendingTaskIds} */
+        private int[] pendingProjectIds = new int[0];
+        /** Term weights parallel to {@link #pendingTaskIds} */
+        private short[] pendingWeights = new short[0];
+        /** Number of used entries of the pending run */
+        private int pendingSize;
+
+        private int liveCount() {
+            return size - dead + pendingSize;
+        }
+
+        private boolean put(final int taskId, final int projectId, final short weight) {
+            final int index = Arrays.binarySearch(taskIds, 0, size, taskId);
+            if (index >= 0) {
+                final boolean revived = weights[index] == 0;
+                if (revived) {
+                    dead--;
+                }
+                projectIds[index] = projectId;
+                weights[index] = weight;
+                return revived;
+            }
+            if (-index - 1 == size) {
+                if (size == taskIds.length) {
+                    final int capacity = size + (size >> 1) + 1;
+                    taskIds = Arrays.copyOf(taskIds, capacity);
+                    projectIds = Arrays.copyOf(projectIds, capacity);
+                    weights = Arrays.copyOf(weights, capacity);
+                }
+                taskIds[size] = taskId;
+                projectIds[size] = projectId;
+                weights[size] = weight;
+                size++;
+                return true;
+            }
+            int pending = Arrays.binarySearch(pendingTaskIds, 0, pendingSize, taskId);
+            if (pending >= 0) {
+                pendingProjectIds[pending] = projectId;
+                pendingWeights[pending] = weight;
+                return false;
+            }
+            pending = -pending - 1;
+            if (pendingSize == pendingTaskIds.length) {
+                final int capacity = pendingSize * 2 + 4;
+                pendingTaskIds = Arrays.copyOf(pendingTaskIds, capacity);
+                pendingProjectIds = Arrays.copyOf(pendingProjectIds, capacity);
+                pendingWeights = Arrays.copyOf(pendingWeights, capacity);
+            }
+            final int moved = pendingSize - pending;
+            System.arraycopy(pendingTaskIds, pending, pendingTaskIds, pending + 1, moved);
+            System.arraycopy(pendingProjectIds, pending, pendingProjectIds, pending + 1, moved);
+            System.arraycopy(pendingWeights, pending, pendingWeights, pending + 1, moved);
+            pendingTaskIds[pending] = taskId;
+            pendingProjectIds[pending] = projectId;
+            pendingWeights[pending] = weight;
+            pendingSize++;
+            if (pendingSize > Math.max(MIN_REORGANIZE, size >> 4)) {
+                reorganize();
+            }
+            return true;
+        }
+
+        private void remove(final int taskId) {
+            final int index = Arrays.binarySearch(taskIds, 0, size, taskId);
+            if (index >= 0) {
+                if (weights[index] != 0) {
+                    weights[index] = 0;
+                    dead++;
+                    if (dead > Math.max(MIN_REORGANIZE, size >> 2)) {
+                        reorganize();
+                    }
+                }
+                return;
+            }
+            final int pending = Arrays.binarySearch(pendingTaskIds, 0, pendingSize, taskId);
+            if (pending >= 0) {
+                final int moved = pendingSize - pending - 1;
+                System.arraycopy(pendingTaskIds, pending + 1, pendingTaskIds, pending, moved);
+                System.arraycopy(pendingProjectIds, pending + 1, pendingProjectIds, pending, moved);
+                System.arraycopy(pendingWeights, pending + 1, pendingWeights, pending, moved);
+                pendingSize--;
+            }
+        }
+
+        private int weightOf(final int taskId) {
+            final int index = Arrays.binarySearch(taskIds, 0, size, taskId);
+            if (index >= 0) {
+                return weights[index];
+            }
+            final int pending = Arrays.binarySearch(pendingTaskIds, 0, pendingSize, taskId);
+            return pending >= 0 ? pendingWeights[pending] : 0;
+        }
+
+        /**
+         * Merges the pending run into the main run and drops removed entries
+         */
+        private void reorganize() {
+            final int capacity = liveCount() + (liveCount() >> 2) + 4;
+            final int[] mergedTaskIds = new int[capacity];
+            final int[] mergedProjectIds = new int[capacity];
+            final short[] mergedWeights = new short[capacity];
+            int merged = 0;
+            int pending = 0;
+            for (int i = 0; i <= size; i++) {
+                while (pending < pendingSize && (i == size || pendingTaskIds[pending] < taskIds[i])) {
+                    mergedTaskIds[merged] = pendingTaskIds[pending];
+                    mergedProjectIds[merged] = pendingProjectIds[pending];
+                    mergedWeights[merged++] = pendingWeights[pending++];
+                }
+                if (i < size && weights[i] != 0) {
+                    mergedTaskIds[merged] = taskIds[i];
+                    mergedProjectIds[merged] = projectIds[i];
+                    mergedWeights[merged++] = weights[i];
+                }
+            }
+            taskIds = mergedTaskIds;
+            projectIds = mergedProjectIds;
+            weights = mergedWeights;
+            size = merged;
+            dead = 0;
+            pendingSize = 0;
+        }
+    }
+
+    /**
+     * Lock protected share of the term dictionary
+     */
+    private static final class Segment {
+        /** Postings by term */
+        private final Map<String, Postings> postings = new HashMap<>();
+        /** Guards {@link #postings} and their contents */
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private boolean put(final String term, final int taskId, final int projectId, final int weight) {
+            lock.writeLock().lock();
+            try {
+                return postings.computeIfAbsent(term, key -> new Postings())
+                        .put(taskId, projectId, (short) Math.min(weight, Short.MAX_VALUE));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(final String term, final int taskId) {
+            lock.writeLock().lock();
+            try {
+                final Postings list = postings.get(term);
+                if (list != null) {
+                    list.remove(taskId);
+                    if (list.liveCount() == 0) {
+                        postings.remove(term);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int frequency(final String term) {
+            lock.readLock().lock();
+            try {
+                final Postings list = postings.get(term);
+                return list == null ? 0 : list.liveCount();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private Candidates collect(final String term, final int projectId, final double idf) {
+            lock.readLock().lock();
+            try {
+                final Candidates candidates = new Candidates();
+                final Postings list = postings.get(term);
+                final int capacity = list == null ? 0 : list.liveCount();
+                candidates.taskIds = new int[capacity];
+                candidates.projectIds = new int[capacity];
+                candidates.scores = new double[capacity];
+                if (list == null) {
+                    return candidates;
+                }
+                int pending = 0;
+                for (int i = 0; i <= list.size; i++) {
+                    while (pending < list.pendingSize
+                            && (i == list.size || list.pendingTaskIds[pending] < list.taskIds[i])) {
+                        add(candidates, projectId, list.pendingTaskIds[pending], list.pendingProjectIds[pending],
+                                list.pendingWeights[pending] * idf);
+                        pending++;
+                    }
+                    if (i < list.size && list.weights[i] != 0) {
+                        add(candidates, projectId, list.taskIds[i], list.projectIds[i], list.weights[i] * idf);
+                    }
+                }
+                return candidates;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static void add(final Candidates candidates, final int projectId, final int taskId,
+                final int taskProjectId, final double score) {
+            if (projectId == ANY_PROJECT || taskProjectId == projectId) {
+                candidates.taskIds[candidates.size] = taskId;
+                candidates.projectIds[candidates.size] = taskProjectId;
+                candidates.scores[candidates.size] = score;
+                candidates.size++;
+            }
+        }
+
+        private void intersect(final String term, final Candidates candidates, final double idf) {
+            lock.readLock().lock();
+            try {
+                final Postings list = postings.get(term);
+                int kept = 0;
+                for (int i = 0; i < candidates.size && list != null; i++) {
+                    final int weight = list.weightOf(candidates.taskIds[i]);
+                    if (weight != 0) {
+                        candidates.taskIds[kept] = candidates.taskIds[i];
+                        candidates.projectIds[kept] = candidates.projectIds[i];
+                        candidates.scores[kept] = candidates.scores[i] + weight * idf;
+                        kept++;
+                    }
+                }
+                candidates.size = kept;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
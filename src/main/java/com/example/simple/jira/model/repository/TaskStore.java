@@ -3,15 +3,32 @@ package com.example.simple.jira.model.repository;
 import com.example.simple.jira.model.domain.Task;
 import com.example.simple.jira.model.domain.TaskPriority;
 import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Persistence contract for tasks
  *
+ * Like {@link ProjectStore} the store offers {@code try} variants reporting
+ * a missing project or task through their result instead of an exception
+ *
  * @author michalkubina
  * @version 1.0
  */
 public interface TaskStore {
+
+    /**
+     * Triage order: highest priority first, then by status ordinal, then by
+     * task identifier, so open tasks of equal priority come before finished ones
+     */
+    Comparator<Task> RANK_ORDER = Comparator.comparing(Task::getPriority, Comparator.reverseOrder())
+            .thenComparing(Task::getStatus).thenComparingInt(Task::getTaskId);
+
     /**
      * Return tasks belonging to the specified project
      *
@@ -20,6 +37,174 @@ public interface TaskStore {
      */
     List<Task> findByProject(int projectId);
 
+    /**
+     * Return a page of tasks of a project ordered by task identifier
+     *
+     * Iterating with the cursor of each returned page visits every task that
+     * exists for the whole iteration exactly once, regardless of concurrent
+     * changes. The default implementation pages over {@link #findByProject(int)}
+     *
+     * @param projectId project identifier
+     * @param afterTaskId cursor, only tasks with a greater id are returned; {@link Page#FIRST} to start
+     * @param pageSize maximum number of tasks on the page
+     * @return page of tasks
+     */
+    default Page<Task> findPage(int projectId, int afterTaskId, int pageSize) {
+        return Pages.fromSorted(findByProject(projectId), afterTaskId, pageSize, Task::getTaskId);
+    }
+
+    /**
+     * Return a single task of a project
+     *
+     * @param projectId project id containing the task
+     * @param taskId task identifier
+     * @return task instance
+     * @throws com.example.simple.jira.model.exceptions.ModelOperationException if the project
+     *         or the task does not exist
+     */
+    Task findTask(int projectId, int taskId);
+
+    /**
+     * Find a task without failing when it or its project is missing
+     *
+     * @param projectId project id containing the task
+     * @param taskId task id to locate
+     * @return task instance, empty when the project or the task is not found
+     */
+    default Optional<Task> tryFindTask(int projectId, int taskId) {
+        try {
+            return Optional.of(findTask(projectId, taskId));
+        } catch (ModelOperationException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Return tasks of a project that is required to contain at least one task
+     *
+     * @param projectId project identifier
+     * @return non-empty list of tasks
+     * @throws com.example.simple.jira.model.exceptions.ModelOperationException if the project
+     *         does not exist or has no tasks
+     */
+    List<Task> requireTasks(int projectId);
+
+    /**
+     * Return tasks of a project that have the provided status
+     *
+     * The default implementation filters {@link #findByProject(int)},
+     * indexed stores answer in time proportional to the result
+     *
+     * @param projectId project identifier
+     * @param status requested status
+     * @return list of matching tasks ordered by task id (may be empty)
+     */
+    default List<Task> findByProjectAndStatus(int projectId, TaskStatus status) {
+        return findByProject(projectId).stream().filter(task -> task.getStatus() == status).toList();
+    }
+
+    /**
+     * Return tasks of a project that have the provided priority
+     *
+     * The default implementation filters {@link #findByProject(int)},
+     * indexed stores answer in time proportional to the result
+     *
+     * @param projectId project identifier
+     * @param priority requested priority
+     * @return list of matching tasks ordered by task id (may be empty)
+     */
+    default List<Task> findByProjectAndPriority(int projectId, TaskPriority priority) {
+        return findByProject(projectId).stream().filter(task -> task.getPriority() == priority).toList();
+    }
+
+    /**
+     * Count tasks of a project that have the provided status
+     *
+     * @param projectId project identifier
+     * @param status requested status
+     * @return number of matching tasks
+     */
+    default int countByStatus(int projectId, TaskStatus status) {
+        return findByProjectAndStatus(projectId, status).size();
+    }
+
+    /**
+     * Count tasks of a project that have the provided priority
+     *
+     * @param projectId project identifier
+     * @param priority requested priority
+     * @return number of matching tasks
+     */
+    default int countByPriority(int projectId, TaskPriority priority) {
+        return findByProjectAndPriority(projectId, priority).size();
+    }
+
+    /**
+     * Count tasks of a project that have both the provided status and priority
+     *
+     * @param projectId project identifier
+     * @param status requested status
+     * @param priority requested priority
+     * @return number of matching tasks
+     */
+    default int countByStatusAndPriority(int projectId, TaskStatus status, TaskPriority priority) {
+        return (int) findByProjectAndStatus(projectId, status).stream()
+                .filter(task -> task.getPriority() == priority).count();
+    }
+
+    /**
+     * Return the most important tasks of a project in {@link #RANK_ORDER}
+     *
+     * The default implementation sorts the matching tasks of
+     * {@link #findByProject(int)}, implementations keeping a ranked index
+     * answer in O(k + log n)
+     *
+     * @param projectId project identifier
+     * @param k maximum number of tasks
+     * @param statuses statuses to include, {@code null} for all
+     * @return list of at most {@code k} tasks, most important first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @throws ModelOperationException if the project does not exist
+     */
+    default List<Task> topK(int projectId, int k, Set<TaskStatus> statuses) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Result limit must not be negative: " + k);
+        }
+        final List<Task> matches = new ArrayList<>();
+        for (Task task : findByProject(projectId)) {
+            if (statuses == null || statuses.contains(task.getStatus())) {
+                matches.add(task);
+            }
+        }
+        matches.sort(RANK_ORDER);
+        return List.copyOf(matches.subList(0, Math.min(k, matches.size())));
+    }
+
+    /**
+     * Search titles and descriptions of tasks in all projects
+     *
+     * Text is matched per lower-cased word and a task matches when it
+     * contains every word of the query. Words found in the title rank higher
+     * than words found in the description
+     *
+     * @param query free text query
+     * @param limit maximum number of results, at least one
+     * @return list of matching tasks, best match first (may be empty)
+     */
+    List<Task> search(String query, int limit);
+
+    /**
+     * Search titles and descriptions of tasks in one project
+     *
+     * @param projectId project identifier
+     * @param query free text query
+     * @param limit maximum number of results, at least one
+     * @return list of matching tasks, best match first (may be empty)
+     * @throws com.example.simple.jira.model.exceptions.ModelOperationException if the project
+     *         does not exist
+     */
+    List<Task> search(int projectId, String query, int limit);
+
     /**
      * Create and add a new task to a project
      *
@@ -74,10 +259,100 @@ public interface TaskStore {
      */
     void deleteTask(int projectId, int taskId);
 
+    /**
+     * Update the status of a task if it is still at the expected version
+     *
+     * @param projectId project id containing the task
+     * @param taskId task identifier
+     * @param expectedVersion version the caller last read
+     * @param status new status
+     * @return updated task at its new version
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the task changed meanwhile
+     */
+    Task updateTaskStatus(int projectId, int taskId, long expectedVersion, TaskStatus status);
+
+    /**
+     * Update the priority of a task if it is still at the expected version
+     *
+     * @param projectId project id containing the task
+     * @param taskId task identifier
+     * @param expectedVersion version the caller last read
+     * @param priority new priority
+     * @return updated task at its new version
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the task changed meanwhile
+     */
+    Task updateTaskPriority(int projectId, int taskId, long expectedVersion, TaskPriority priority);
+
+    /**
+     * Rename a task if it is still at the expected version
+     *
+     * @param projectId project id containing the task
+     * @param taskId task identifier
+     * @param expectedVersion version the caller last read
+     * @param newTitle new task title
+     * @return updated task at its new version
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the task changed meanwhile
+     */
+    Task renameTask(int projectId, int taskId, long expectedVersion, String newTitle);
+
+    /**
+     * Update the description of a task if it is still at the expected version
+     *
+     * @param projectId project id containing the task
+     * @param taskId task identifier
+     * @param expectedVersion version the caller last read
+     * @param newDescription new description text
+     * @return updated task at its new version
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the task changed meanwhile
+     */
+    Task updateTaskDescription(int projectId, int taskId, long expectedVersion, String newDescription);
+
+    /**
+     * Remove a task if it is still at the expected version
+     *
+     * @param projectId project id containing the task
+     * @param taskId task identifier
+     * @param expectedVersion version the caller last read
+     * @throws com.example.simple.jira.model.exceptions.VersionConflictException if the task changed meanwhile
+     */
+    void deleteTask(int projectId, int taskId, long expectedVersion);
+
     /**
      * Remove all tasks that belong to the specified project
      *
      * @param projectId project identifier
      */
     void deleteAllForProject(int projectId);
+
+    /**
+     * Apply a batch of commands to a project as one atomic operation
+     *
+     * The project is validated once and either every command is applied or,
+     * when any command fails, none of them is. Commands carrying an expected
+     * version (see {@link TaskCommand#expectingVersion(long)}) fail on a
+     * version mismatch
+     *
+     * @param projectId project id containing the tasks
+     * @param commands commands applied in list order
+     * @return per-command results in the same order as the commands
+     * @throws com.example.simple.jira.model.exceptions.ModelOperationException if the project
+     *         does not exist or any command cannot be applied
+     */
+    List<TaskCommandResult> applyBatch(int projectId, List<TaskCommand> commands);
+
+    /**
+     * Apply a single command without failing when its project or target task is missing
+     *
+     * Implementations confirm the project through
+     * {@link ProjectStore#tryFindById(int)} and look the target task up in the
+     * same atomic step that applies the command, so a missing entity is
+     * reported without raising an exception
+     *
+     * @param projectId project id containing the task
+     * @param command command to apply
+     * @return task produced by the command, or the removed task for deletes;
+     *         empty when the project or the target task is not found
+     * @throws VersionConflictException if the command expects another version of the task
+     */
+    Optional<Task> tryApply(int projectId, TaskCommand command);
 }
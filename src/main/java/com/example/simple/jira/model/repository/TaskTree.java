@@ -0,0 +1,303 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.example.simple.jira.model.domain.Task;
+
+/**
+ * Persistent, structurally shared collection of the tasks of one project
+ *
+ * Tasks are kept in a height balanced binary tree ordered by task identifier,
+ * so the tree doubles as the id to task index of the project. Every
+ * modification returns a new tree that shares all untouched nodes with its
+ * predecessor, which makes point updates O(log n) in time and allocation
+ *
+ * Instances are immutable and are exposed directly as read-only lists, which
+ * lets repositories hand out snapshots without copying
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class TaskTree extends AbstractList<Task> {
+
+    /** Shared empty tree */
+    static final TaskTree EMPTY = new TaskTree(null);
+
+    /** Root node or {@code null} for the empty tree */
+    private final Node root;
+
+    /**
+     * Creates a tree around the provided root node
+     *
+     * @param root root node, may be {@code null}
+     */
+    private TaskTree(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from tasks already ordered by identifier
+     *
+     * Runs in O(n), which makes it the preferred way to load large projects
+     *
+     * @param sortedTasks tasks in strictly ascending identifier order
+     * @return tree containing the tasks
+     */
+    static TaskTree ofSorted(final List<Task> sortedTasks) {
+        return sortedTasks.isEmpty() ? EMPTY : new TaskTree(build(sortedTasks, 0, sortedTasks.size()));
+    }
+
+    /**
+     * Returns the number of tasks stored in the tree
+     *
+     * @return number of tasks
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the task at the provided position in identifier order
+     *
+     * @param index zero based position
+     * @return task at the requested position
+     * @throws IndexOutOfBoundsException when the index is outside the tree
+     */
+    @Override
+    public Task get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node node = root;
+        int remaining = index;
+        while (true) {
+            final int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize) {
+                return node.task;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator walking the tasks in identifier order
+     *
+     * @return iterator over the snapshot
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new InOrderIterator(root);
+    }
+
+    /**
+     * Returns an iterator over tasks with identifiers greater than the provided one
+     *
+     * Seeking the first task costs O(log n), every further task O(1) amortized
+     *
+     * @param taskId exclusive lower bound of the identifiers
+     * @return iterator in identifier order
+     */
+    Iterator<Task> iteratorAfter(final int taskId) {
+        return new InOrderIterator(root, taskId);
+    }
+
+    /**
+     * Looks up a task by its identifier
+     *
+     * @param taskId identifier of the task
+     * @return task or {@code null} when the tree has no such task
+     */
+    Task find(final int taskId) {
+        Node node = root;
+        while (node != null) {
+            final int id = node.task.getTaskId();
+            if (taskId < id) {
+                node = node.left;
+            } else if (taskId > id) {
+                node = node.right;
+            } else {
+                return node.task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a tree containing the provided task, replacing any task with the
+     * same identifier
+     *
+     * @param task task to insert or replace
+     * @return tree reflecting the change
+     */
+    TaskTree with(final Task task) {
+        return new TaskTree(insert(root, task));
+    }
+
+    /**
+     * Returns a tree without the task with the provided identifier
+     *
+     * @param taskId identifier of the task to remove
+     * @return tree reflecting the change, or this tree when nothing was removed
+     */
+    TaskTree without(final int taskId) {
+        final Node updated = remove(root, taskId);
+        return updated == root ? this : new TaskTree(updated);
+    }
+
+    private static Node build(final List<Task> sortedTasks, final int from, final int to) {
+        if (from >= to) {
+            return null;
+        }
+        final int middle = (from + to) >>> 1;
+        return new Node(sortedTasks.get(middle), build(sortedTasks, from, middle), build(sortedTasks, middle + 1, to));
+    }
+
+    private static Node insert(final Node node, final Task task) {
+        if (node == null) {
+            return new Node(task, null, null);
+        }
+        final int id = node.task.getTaskId();
+        if (task.getTaskId() < id) {
+            return balance(node.task, insert(node.left, task), node.right);
+        }
+        if (task.getTaskId() > id) {
+            return balance(node.task, node.left, insert(node.right, task));
+        }
+        return new Node(task, node.left, node.right);
+    }
+
+    private static Node remove(final Node node, final int taskId) {
+        if (node == null) {
+            return null;
+        }
+        final int id = node.task.getTaskId();
+        if (taskId < id) {
+            final Node left = remove(node.left, taskId);
+            return left == node.left ? node : balance(node.task, left, node.right);
+        }
+        if (taskId > id) {
+            final Node right = remove(node.right, taskId);
+            return right == node.right ? node : balance(node.task, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.task, node.left, remove(node.right, successor.task.getTaskId()));
+    }
+
+    private static Node balance(final Task task, final Node left, final Node right) {
+        final int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.task, left.left, new Node(task, left.right, right));
+            }
+            return new Node(left.right.task,
+                    new Node(left.task, left.left, left.right.left),
+                    new Node(task, left.right.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.task, new Node(task, left, right.left), right.right);
+            }
+            return new Node(right.left.task,
+                    new Node(task, left, right.left.left),
+                    new Node(right.task, right.left.right, right.right));
+        }
+        return new Node(task, left, right);
+    }
+
+    private static int height(final Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(final Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Immutable tree node augmented with height and subtree size
+     */
+    private static final class Node {
+        /** Task stored in the node */
+        private final Task task;
+        /** Subtree with smaller identifiers */
+        private final Node left;
+        /** Subtree with greater identifiers */
+        private final Node right;
+        /** Height of the subtree rooted in this node */
+        private final int height;
+        /** Number of tasks in the subtree rooted in this node */
+        private final int size;
+
+        private Node(final Task task, final Node left, final Node right) {
+            this.task = task;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    /**
+     * Stack based in-order iterator, O(1) amortized per element
+     */
+    private static final class InOrderIterator implements Iterator<Task> {
+        /** Path of nodes still to be visited */
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        private InOrderIterator(final Node root) {
+            pushLeft(root);
+        }
+
+        private InOrderIterator(final Node root, final int afterTaskId) {
+            Node node = root;
+            while (node != null) {
+                if (node.task.getTaskId() > afterTaskId) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Task next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            final Node node = stack.pop();
+            pushLeft(node.right);
+            return node.task;
+        }
+
+        private void pushLeft(Node node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent segmented least recently used cache of decoded texts bounded by a heap budget
+ *
+ * Keys are the immutable disk locations of {@link DiskTextPool}, so an entry
+ * never becomes stale and only has to be dropped to make room. The cache is
+ * split into {@link #SHARD_COUNT} shards selected by the key hash, each
+ * behind its own monitor with an equal share of the budget, so concurrent
+ * readers rarely wait for each other. The heap of an entry is estimated as
+ * {@link #ENTRY_OVERHEAD} plus one byte per character, which matches compact
+ * strings of Latin-1 text
+ *
+ * Every shard keeps two access ordered {@link LinkedHashMap} segments. New
+ * entries start in the probationary segment and move to the protected one
+ * when read again, the protected segment holds at most
+ * {@link #PROTECTED_PERCENT} percent of the budget and demotes its least
+ * recently used entries back to probation. Only probation is evicted, so a
+ * scan reading every text once, such as a search index build or an export,
+ * replaces other probationary entries but leaves the texts read repeatedly
+ * in place
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class TextCache {
+
+    /** Number of independently locked shards, a power of two */
+    private static final int SHARD_COUNT = 16;
+    /** Estimated heap of an entry besides the characters: map entry, boxed key, string and array headers */
+    private static final int ENTRY_OVERHEAD = 96;
+    /** Share of the budget available to entries read more than once, in percent */
+    private static final int PROTECTED_PERCENT = 80;
+
+    /** Shards selected by key hash */
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+    /** Heap budget of the whole cache in bytes */
+    private final long capacityBytes;
+    /** Heap budget of every shard in bytes */
+    private final long shardCapacity;
+    /** Heap budget of the protected segment of every shard in bytes */
+    private final long protectedCapacity;
+    /** Number of reads answered from the cache */
+    private final LongAdder hits = new LongAdder();
+    /** Number of reads not found in the cache */
+    private final LongAdder misses = new LongAdder();
+    /** Number of entries dropped to stay within the budget */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache
+     *
+     * @param capacityBytes heap budget in bytes, {@code 0} disables caching
+     */
+    TextCache(final long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+        this.shardCapacity = capacityBytes / SHARD_COUNT;
+        this.protectedCapacity = shardCapacity * PROTECTED_PERCENT / 100;
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Returns the cached text of a location and marks it as recently used,
+     * promoting it to the protected segment
+     *
+     * @param key location of the text
+     * @return cached text, {@code null} when not cached
+     */
+    String get(final long key) {
+        final Shard shard = shard(key);
+        String value;
+        synchronized (shard) {
+            value = shard.protectedEntries.get(key);
+            if (value == null) {
+                value = shard.probation.remove(key);
+                if (value != null) {
+                    promote(shard, key, value);
+                }
+            }
+        }
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Caches the text of a location in the probationary segment, evicting
+     * its least recently used entries beyond the budget of the shard
+     *
+     * @param key location of the text
+     * @param value decoded text
+     */
+    void put(final long key, final String value) {
+        final long weight = weight(value);
+        if (weight > shardCapacity) {
+            return;
+        }
+        final Shard shard = shard(key);
+        synchronized (shard) {
+            final String protectedPrevious = shard.protectedEntries.replace(key, value);
+            if (protectedPrevious != null) {
+                shard.protectedBytes += weight - weight(protectedPrevious);
+            } else {
+                final String previous = shard.probation.put(key, value);
+                shard.probationBytes += previous == null ? weight : weight - weight(previous);
+            }
+            evict(shard);
+        }
+    }
+
+    /**
+     * Drops the text of a location that will not be read again
+     *
+     * @param key location of the text
+     */
+    void invalidate(final long key) {
+        final Shard shard = shard(key);
+        synchronized (shard) {
+            final String removed = shard.probation.remove(key);
+            if (removed != null) {
+                shard.probationBytes -= weight(removed);
+                return;
+            }
+            final String removedProtected = shard.protectedEntries.remove(key);
+            if (removedProtected != null) {
+                shard.protectedBytes -= weight(removedProtected);
+            }
+        }
+    }
+
+    /**
+     * Returns the counters and current size of the cache
+     *
+     * @return statistics snapshot, approximate while readers are running
+     */
+    CacheStatistics statistics() {
+        long entries = 0;
+        long bytes = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                entries += shard.probation.size() + shard.protectedEntries.size();
+                bytes += shard.probationBytes + shard.protectedBytes;
+            }
+        }
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries, bytes, capacityBytes);
+    }
+
+    /**
+     * Moves an entry read from probation into the protected segment, demoting
+     * the least recently used protected entries beyond its budget
+     *
+     * @param shard shard holding the entry, its monitor held
+     * @param key location of the text
+     * @param value text removed from probation
+     */
+    private void promote(final Shard shard, final long key, final String value) {
+        final long weight = weight(value);
+        shard.probationBytes -= weight;
+        shard.protectedEntries.put(key, value);
+        shard.protectedBytes += weight;
+        final Iterator<Map.Entry<Long, String>> eldest = shard.protectedEntries.entrySet().iterator();
+        while (shard.protectedBytes > protectedCapacity) {
+            final Map.Entry<Long, String> demoted = eldest.next();
+            eldest.remove();
+            shard.protectedBytes -= weight(demoted.getValue());
+            shard.probation.put(demoted.getKey(), demoted.getValue());
+            shard.probationBytes += weight(demoted.getValue());
+        }
+        evict(shard);
+    }
+
+    /**
+     * Drops the least recently used probationary entries beyond the budget of a shard
+     *
+     * @param shard shard to trim, its monitor held
+     */
+    private void evict(final Shard shard) {
+        final Iterator<String> eldest = shard.probation.values().iterator();
+        while (shard.probationBytes + shard.protectedBytes > shardCapacity && eldest.hasNext()) {
+            shard.probationBytes -= weight(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private Shard shard(final long key) {
+        final int hash = Long.hashCode(key) * 0x9E3779B9;
+        return shards[(hash ^ (hash >>> 16)) & (SHARD_COUNT - 1)];
+    }
+
+    private static long weight(final String value) {
+        return ENTRY_OVERHEAD + (long) value.length();
+    }
+
+    /**
+     * Entries of one shard in access order, guarded by the shard monitor
+     */
+    private static final class Shard {
+        /** Texts read once since they were cached, least recently used first */
+        private final Map<Long, String> probation = new LinkedHashMap<>(16, 0.75f, true);
+        /** Texts read again while in probation, least recently used first */
+        private final Map<Long, String> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        /** Estimated heap of the probationary entries in bytes */
+        private long probationBytes;
+        /** Estimated heap of the protected entries in bytes */
+        private long protectedBytes;
+    }
+}
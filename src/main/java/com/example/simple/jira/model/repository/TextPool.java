@@ -0,0 +1,67 @@
+package com.example.simple.jira.model.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Reference counted storage of task texts addressed by int references
+ *
+ * Every holder of a text obtains a reference through {@link #intern(String)}
+ * and gives it back through {@link #release(int)}, the text is dropped with
+ * its last holder. Implementations are not thread safe, readers calling
+ * {@link #get(int)} concurrently must be excluded from writers by the caller
+ *
+ * @author michalkubina
+ * @version 1.0
+ * @see StringPool
+ * @see OffHeapTextPool
+ * @see DiskTextPool
+ */
+interface TextPool {
+
+    /** Reference representing {@code null} */
+    int NULL_REF = -1;
+
+    /**
+     * Adds a holder of the provided text
+     *
+     * @param value text to store, may be {@code null}
+     * @return reference of the text, {@link #NULL_REF} for {@code null}
+     */
+    int intern(String value);
+
+    /**
+     * Returns the text of a reference
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     * @return stored text, {@code null} for {@link #NULL_REF}
+     */
+    String get(int ref);
+
+    /**
+     * Returns a deferred read of the text of a reference, for pools whose reads are costly
+     *
+     * The supplier returns the text the reference holds at the time of this
+     * call, even after the reference has been released, and may be called from
+     * any thread without excluding writers
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     * @return supplier of the text, {@code null} when the pool reads eagerly through {@link #get(int)}
+     */
+    default Supplier<String> defer(int ref) {
+        return null;
+    }
+
+    /**
+     * Removes a holder of a reference, dropping the text with its last holder
+     *
+     * @param ref reference returned by {@link #intern(String)}
+     */
+    void release(int ref);
+
+    /**
+     * Returns the number of distinct texts in the pool
+     *
+     * @return distinct text count
+     */
+    int size();
+}
@@ -67,4 +67,16 @@ public interface AppView {
      * Display the available task priority options (NOT_SET, LOW, MEDIUM, HIGH)
      */
     void displayPrioritySelection();
+
+    /**
+     * Queue a single result line of a scripted command without flushing
+     *
+     * @param result result text without line terminator
+     */
+    void displayResult(CharSequence result);
+
+    /**
+     * Write all queued output
+     */
+    void flush();
 }
@@ -0,0 +1,139 @@
+package com.example.simple.jira.view;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffered text sink writing UTF-8 through a single byte channel
+ *
+ * Text is encoded straight into a reusable byte buffer which is handed to the
+ * channel only when it fills up or on an explicit {@link #flush()}, so large
+ * outputs cost one write per buffer instead of one synchronized, flushing
+ * call per line. Instances are not thread safe
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+final class ConsoleOutput {
+
+    /** Default size of the byte buffer */
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** Destination of the encoded text */
+    private final WritableByteChannel channel;
+    /** Reusable buffer holding encoded bytes not yet written */
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates an output writing to the provided channel
+     *
+     * @param channel destination channel
+     * @param bufferSize size of the byte buffer, at least four bytes
+     */
+    ConsoleOutput(final WritableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(4, bufferSize));
+    }
+
+    /**
+     * Appends text
+     *
+     * @param text characters to append
+     * @return this output
+     */
+    ConsoleOutput append(final CharSequence text) {
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                ensure(1);
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ensure(4);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                ensure(1);
+                buffer.put((byte) '?');
+            } else {
+                ensure(3);
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the decimal representation of an integer without allocating
+     *
+     * @param value number to append
+     * @return this output
+     */
+    ConsoleOutput append(final int value) {
+        if (value == Integer.MIN_VALUE) {
+            return append(Integer.toString(value));
+        }
+        int remaining = value;
+        if (remaining < 0) {
+            ensure(1);
+            buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+        int divisor = 1;
+        while (remaining / divisor >= 10) {
+            divisor *= 10;
+        }
+        ensure(10);
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + remaining / divisor % 10));
+            divisor /= 10;
+        }
+        return this;
+    }
+
+    /**
+     * Terminates the current line
+     *
+     * @return this output
+     */
+    ConsoleOutput newLine() {
+        ensure(1);
+        buffer.put((byte) '\n');
+        return this;
+    }
+
+    /**
+     * Writes all buffered bytes to the channel
+     *
+     * @throws UncheckedIOException when the channel cannot be written
+     */
+    void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write console output", ex);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void ensure(final int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -4,6 +4,10 @@ import com.example.simple.jira.model.domain.Project;
 import com.example.simple.jira.model.domain.Task;
 import com.example.simple.jira.model.domain.TaskStatus;
 
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -12,16 +16,48 @@ import java.util.List;
  * The view renders projects, tasks, and menus while delegating input
  * collection to the controller
  *
+ * Regular output is formatted into a reusable buffer and written through a
+ * single channel with one explicit flush per displayed screen, so rendering
+ * large task boards is not dominated by per-line console calls
+ *
  * @author michalkubina
  * @version 1.0
  */
 public class View implements AppView {
 
+    /** Number of task statuses */
+    private static final int STATUS_COUNT = TaskStatus.values().length;
+
+    /** Buffered sink for regular output */
+    private final ConsoleOutput out;
+    /** Tasks grouped by status ordinal, reused between renders */
+    private final Task[][] statusBuckets = new Task[STATUS_COUNT][16];
+    /** Number of used slots per status ordinal */
+    private final int[] statusBucketSizes = new int[STATUS_COUNT];
+
     /**
-     * Explicit no-arg constructor to provide a documented constructor for Javadoc
+     * Creates a view writing regular output to the standard output
      */
     public View() {
-        // Intentionally empty; view has no runtime state
+        this(System.out);
+    }
+
+    /**
+     * Creates a view writing regular output to the provided stream
+     *
+     * @param output destination of regular output
+     */
+    public View(final OutputStream output) {
+        this(Channels.newChannel(output));
+    }
+
+    /**
+     * Creates a view writing regular output to the provided channel
+     *
+     * @param channel destination of regular output
+     */
+    public View(final WritableByteChannel channel) {
+        this.out = new ConsoleOutput(channel, ConsoleOutput.DEFAULT_BUFFER_SIZE);
     }
 
     /**
@@ -30,7 +66,7 @@ public class View implements AppView {
      * @param message text that should be displayed
      */
     public void displayMessage(final String message) {
-        System.out.println(message);
+        out.append(String.valueOf(message)).newLine().flush();
     }
 
     /**
@@ -48,7 +84,7 @@ public class View implements AppView {
      * @param prompt text explaining what the user should enter
      */
     public void displayPrompt(final String prompt) {
-        System.out.println(prompt);
+        out.append(String.valueOf(prompt)).newLine().flush();
     }
 
     /**
@@ -64,37 +100,47 @@ public class View implements AppView {
      * @param projects projects currently stored in the application
      */
     public void displayProjectList(final List<Project> projects) {
-        displayMessage("==== Projects ====");
+        out.append("==== Projects ====").newLine();
         for (Project project : projects) {
-            displayMessage("ID: " + project.getProjectId() + " | Name: " + project.getProjectName());
+            out.append("ID: ").append(project.getProjectId()).append(" | Name: ").append(project.getProjectName()).newLine();
         }
-    displayMessage("\n#<id> - Open project (e.g., #1)");
-    displayMessage("1 - Create a new project");
-    displayMessage("2 - Rename a project");
-    displayMessage("3 - Delete a project");
-    displayMessage("0 - Exit");
+        out.append("\n#<id> - Open project (e.g., #1)").newLine();
+        out.append("1 - Create a new project").newLine();
+        out.append("2 - Rename a project").newLine();
+        out.append("3 - Delete a project").newLine();
+        out.append("0 - Exit").newLine();
+        out.flush();
     }
 
     /**
      * Displays tasks grouped by status
      *
+     * Tasks are bucketed by status in a single pass and every group is then
+     * written in the original order, followed by a single flush
+     *
      * @param tasks tasks associated with the selected project
      */
     public void displayTasks(final List<Task> tasks) {
-        displayMessage("\n==== TODO ====");
-        tasks.stream()
-                .filter(task -> task.getStatus() == TaskStatus.TODO)
-                .forEach(task -> displayMessage(formatTask(task)));
-
-        displayMessage("\n==== IN_PROGRESS ====");
-        tasks.stream()
-                .filter(task -> task.getStatus() == TaskStatus.IN_PROGRESS)
-                .forEach(task -> displayMessage(formatTask(task)));
-
-        displayMessage("\n==== DONE ====");
-        tasks.stream()
-                .filter(task -> task.getStatus() == TaskStatus.DONE)
-                .forEach(task -> displayMessage(formatTask(task)));
+        for (Task task : tasks) {
+            final int status = task.getStatus().ordinal();
+            Task[] bucket = statusBuckets[status];
+            if (statusBucketSizes[status] == bucket.length) {
+                bucket = Arrays.copyOf(bucket, bucket.length * 2);
+                statusBuckets[status] = bucket;
+            }
+            bucket[statusBucketSizes[status]++] = task;
+        }
+        for (TaskStatus status : TaskStatus.values()) {
+            out.newLine().append("==== ").append(status.name()).append(" ====").newLine();
+            final Task[] bucket = statusBuckets[status.ordinal()];
+            final int size = statusBucketSizes[status.ordinal()];
+            for (int i = 0; i < size; i++) {
+                formatTask(bucket[i]);
+            }
+            Arrays.fill(bucket, 0, size, null);
+            statusBucketSizes[status.ordinal()] = 0;
+        }
+        out.flush();
     }
 
     /**
@@ -103,15 +149,16 @@ public class View implements AppView {
      * @param project project currently selected by the user
      */
     public void displayProjectMenu(final Project project) {
-        displayMessage("\n\n==== Project: " + project.getProjectName() + " ====");
-        displayMessage("1. Show tasks");
-        displayMessage("2. Add task");
-        displayMessage("3. Change task status");
-        displayMessage("4. Change task priority");
-        displayMessage("5. Rename task");
-        displayMessage("6. Update task description");
-        displayMessage("7. Delete task");
-        displayMessage("0. Return to project list");
+        out.append("\n\n==== Project: ").append(project.getProjectName()).append(" ====").newLine();
+        out.append("1. Show tasks").newLine();
+        out.append("2. Add task").newLine();
+        out.append("3. Change task status").newLine();
+        out.append("4. Change task priority").newLine();
+        out.append("5. Rename task").newLine();
+        out.append("6. Update task description").newLine();
+        out.append("7. Delete task").newLine();
+        out.append("0. Return to project list").newLine();
+        out.flush();
     }
 
     /**
@@ -129,12 +176,32 @@ public class View implements AppView {
     }
 
     /**
-     * Formats task information for display
+     * Buffers a result line of a scripted command
+     *
+     * The line is written once the buffer fills up or on {@link #flush()},
+     * so long scripts cost one write per buffer
+     *
+     * @param result result text without line terminator
+     */
+    public void displayResult(final CharSequence result) {
+        out.append(result).newLine();
+    }
+
+    /**
+     * Writes all buffered output
+     */
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Formats task information for display into the output buffer
      *
      * @param task task to format
-     * @return human readable representation of the task
      */
-     private String formatTask(final Task task) {
-        return "Task " + task.getTaskId() + " | " + task.getTitle() + " | " + task.getDescription() + " | Priority: " + task.getPriority();
+    private void formatTask(final Task task) {
+        out.append("Task ").append(task.getTaskId()).append(" | ").append(String.valueOf(task.getTitle()))
+                .append(" | ").append(String.valueOf(task.getDescription()))
+                .append(" | Priority: ").append(task.getPriority().name()).newLine();
     }
 }
@@ -0,0 +1,53 @@
+package com.example.simple.jira.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Parsing and rejection of flat JSON request bodies
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class JsonObjectParserTest {
+
+    @Test
+    void parsesMembersAsText() {
+        final Map<String, String> members = JsonObjectParser.parse(
+                " { \"title\" : \"Fix\" , \"version\": 3, \"done\":true, \"description\": null }\n");
+        assertEquals("Fix", members.get("title"));
+        assertEquals("3", members.get("version"));
+        assertEquals("true", members.get("done"));
+        assertTrue(members.containsKey("description"));
+        assertNull(members.get("description"));
+        assertEquals(4, members.size());
+    }
+
+    @Test
+    void decodesEscapes() {
+        final Map<String, String> members = JsonObjectParser.parse(
+                "{\"text\":\"a\\\"b\\\\c\\/d\\n\\t\\u00e9\\ud83d\\ude00\"}");
+        assertEquals("a\"b\\c/d\n\té😀", members.get("text"));
+    }
+
+    @Test
+    void parsesEmptyObject() {
+        assertTrue(JsonObjectParser.parse("{}").isEmpty());
+        assertTrue(JsonObjectParser.parse(" { } ").isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        for (String text : new String[] {"", "[]", "{", "{\"a\"}", "{\"a\":}", "{\"a\":1,}", "{\"a\":1} x",
+            "{\"a\":{\"b\":1}}", "{\"a\":[1]}", "{\"a\":\"\\u12\"}", "{\"a\":\"\\uzzzz\"}", "{\"a\":\"open}",
+            "{\"a\":1 \"b\":2}", "{a:1}"}) {
+            assertThrows(IllegalArgumentException.class, () -> JsonObjectParser.parse(text), text);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.simple.jira.model.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskCommandResult;
+import com.example.simple.jira.model.repository.TaskRepository;
+
+/**
+ * Journal records applied to empty repositories reproduce the recorded state
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class JournalCodecTest {
+
+    /** Repositories whose changes are recorded */
+    private ProjectRepository projects;
+    /** Task repository whose changes are recorded */
+    private TaskRepository tasks;
+    /** Repository receiving the replayed project records */
+    private ProjectRepository replayedProjects;
+    /** Repository receiving the replayed task records */
+    private TaskRepository replayedTasks;
+
+    @BeforeEach
+    void setUp() {
+        projects = new ProjectRepository();
+        tasks = new TaskRepository(projects);
+        replayedProjects = new ProjectRepository();
+        replayedTasks = new TaskRepository(replayedProjects);
+    }
+
+    @Test
+    void savedProjectsAndTasksKeepTheirState() {
+        final Project project = projects.rename(projects.create("Alpha").getProjectId(), "Renamed");
+        final Task added = tasks.addTask(project.getProjectId(), "Zmena ü€😀", null);
+        final Task updated = tasks.updateTaskPriority(project.getProjectId(), added.getTaskId(), added.getVersion(),
+                TaskPriority.HIGH);
+
+        apply(JournalCodec.projectSaved(project));
+        apply(JournalCodec.taskSaved(updated));
+
+        final Project replayed = replayedProjects.findById(project.getProjectId());
+        assertEquals("Renamed", replayed.getProjectName());
+        assertEquals(project.getVersion(), replayed.getVersion());
+        final Task task = replayedTasks.findTask(project.getProjectId(), added.getTaskId());
+        assertEquals(updated.getTitle(), task.getTitle());
+        assertNull(task.getDescription());
+        assertEquals(TaskPriority.HIGH, task.getPriority());
+        assertEquals(updated.getVersion(), task.getVersion());
+    }
+
+    @Test
+    void batchesApplyEveryCommand() {
+        final int projectId = projects.create("Alpha").getProjectId();
+        final Task kept = tasks.addTask(projectId, "Kept", "Description");
+        final Task removed = tasks.addTask(projectId, "Removed", null);
+        apply(JournalCodec.projectSaved(projects.findById(projectId)));
+        apply(JournalCodec.taskSaved(kept));
+        apply(JournalCodec.taskSaved(removed));
+
+        final List<TaskCommandResult> results = tasks.applyBatch(projectId, List.of(
+                TaskCommand.add("Added", null),
+                TaskCommand.status(kept.getTaskId(), TaskStatus.DONE),
+                TaskCommand.delete(removed.getTaskId())));
+        apply(JournalCodec.taskBatch(results));
+
+        assertEquals(tasks.findByProject(projectId).size(), replayedTasks.findByProject(projectId).size());
+        assertEquals(TaskStatus.DONE, replayedTasks.findTask(projectId, kept.getTaskId()).getStatus());
+        assertTrue(replayedTasks.tryFindTask(projectId, removed.getTaskId()).isEmpty());
+        assertEquals("Added", replayedTasks.findTask(projectId, results.get(0).getTask().getTaskId()).getTitle());
+    }
+
+    @Test
+    void deletionsAreIdempotent() {
+        final int projectId = projects.create("Alpha").getProjectId();
+        final Task task = tasks.addTask(projectId, "Task", null);
+        apply(JournalCodec.projectSaved(projects.findById(projectId)));
+        apply(JournalCodec.taskSaved(task));
+
+        apply(JournalCodec.taskDeleted(projectId, task.getTaskId()));
+        apply(JournalCodec.taskDeleted(projectId, task.getTaskId()));
+        assertTrue(replayedTasks.findByProject(projectId).isEmpty());
+
+        apply(JournalCodec.taskSaved(task));
+        apply(JournalCodec.tasksCleared(projectId));
+        assertTrue(replayedTasks.findByProject(projectId).isEmpty());
+
+        apply(JournalCodec.projectDeleted(projectId));
+        apply(JournalCodec.projectDeleted(projectId));
+        assertTrue(replayedProjects.findAll().isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownRecordTypes() {
+        assertThrows(ModelOperationException.class, () -> apply(new byte[] {99}));
+    }
+
+    private void apply(final byte[] record) {
+        JournalCodec.apply(ByteBuffer.wrap(record), replayedProjects, replayedTasks);
+    }
+}
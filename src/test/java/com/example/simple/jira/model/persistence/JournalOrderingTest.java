@@ -0,0 +1,84 @@
+package com.example.simple.jira.model.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskRepository;
+
+/**
+ * Records of concurrent project and task mutations must reach the log in the order they were applied
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class JournalOrderingTest {
+
+    /** Directory receiving the log */
+    @TempDir
+    Path directory;
+
+    @Test
+    void taskAddedWhileItsProjectIsDeletedIsJournaledBeforeTheDeletion() throws Exception {
+        final Path file = directory.resolve("journal.log");
+        final CountDownLatch added = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final ProjectRepository projects = new ProjectRepository();
+        final TaskRepository tasks = new TaskRepository(projects) {
+            @Override
+            public Task addTask(final int projectId, final String title, final String description) {
+                final Task task = super.addTask(projectId, title, description);
+                added.countDown();
+                try {
+                    proceed.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return task;
+            }
+        };
+        final int projectId;
+        try (WriteAheadLog log = WriteAheadLog.open(file, FsyncPolicy.NEVER, DurableStores.DEFAULT_SYNC_INTERVAL,
+                record -> { })) {
+            final JournaledProjectStore projectStore = new JournaledProjectStore(projects, log);
+            final JournaledTaskStore taskStore = new JournaledTaskStore(tasks, projectStore);
+            projectId = projectStore.create("Doomed").getProjectId();
+
+            final Thread adder = new Thread(() -> taskStore.addTask(projectId, "Late", null));
+            adder.start();
+            assertTrue(added.await(10, TimeUnit.SECONDS));
+            final Thread deleter = new Thread(() -> projectStore.delete(projectId));
+            deleter.start();
+            deleter.join(500);
+            proceed.countDown();
+            adder.join();
+            deleter.join();
+        }
+
+        final ProjectRepository replayedProjects = new ProjectRepository();
+        final List<Task> orphans = new ArrayList<>();
+        final TaskRepository replayedTasks = new TaskRepository(replayedProjects) {
+            @Override
+            public void restore(final Task task) {
+                if (replayedProjects.tryFindById(task.getProjectId()).isEmpty()) {
+                    orphans.add(task);
+                }
+                super.restore(task);
+            }
+        };
+        WriteAheadLog.replay(file, record -> JournalCodec.apply(record, replayedProjects, replayedTasks));
+        assertEquals(List.of(), orphans);
+        assertTrue(replayedProjects.tryFindById(projectId).isEmpty());
+    }
+}
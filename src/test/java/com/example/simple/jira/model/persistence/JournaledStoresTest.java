@@ -0,0 +1,102 @@
+package com.example.simple.jira.model.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.TaskCommand;
+import com.example.simple.jira.model.repository.TaskRepository;
+
+/**
+ * Mutations the log refuses must leave the journaled repositories unchanged
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class JournaledStoresTest {
+
+    /** Directory receiving the log of a test */
+    @TempDir
+    Path directory;
+
+    /** Repository under the journaled project store */
+    private ProjectRepository projects;
+    /** Repository under the journaled task store */
+    private TaskRepository tasks;
+    /** Log refusing every record once closed */
+    private WriteAheadLog log;
+    /** Journaled project store under test */
+    private JournaledProjectStore projectStore;
+    /** Journaled task store under test */
+    private JournaledTaskStore taskStore;
+    /** Identifier of the project holding the tasks */
+    private int projectId;
+    /** Task present before the log is closed */
+    private Task existing;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        projects = new ProjectRepository();
+        tasks = new TaskRepository(projects);
+        log = WriteAheadLog.open(directory.resolve("tasks.log"), FsyncPolicy.NEVER,
+                DurableStores.DEFAULT_SYNC_INTERVAL, record -> { });
+        projectStore = new JournaledProjectStore(projects, log);
+        taskStore = new JournaledTaskStore(tasks, projectStore);
+        projectId = projectStore.create("Journaled").getProjectId();
+        existing = taskStore.addTask(projectId, "Existing", "Kept");
+        log.close();
+    }
+
+    @Test
+    void refusedAddLeavesNoTask() {
+        assertThrows(ModelOperationException.class, () -> taskStore.addTask(projectId, "Lost", null));
+        assertEquals(List.of(existing), tasks.findByProject(projectId));
+    }
+
+    @Test
+    void refusedUpdatesRestoreThePreviousState() {
+        assertThrows(ModelOperationException.class,
+                () -> taskStore.updateTaskStatus(projectId, existing.getTaskId(), TaskStatus.DONE));
+        assertThrows(ModelOperationException.class,
+                () -> taskStore.renameTask(projectId, existing.getTaskId(), existing.getVersion(), "Lost"));
+        assertThrows(ModelOperationException.class, () -> taskStore.deleteTask(projectId, existing.getTaskId()));
+        final Task current = tasks.findTask(projectId, existing.getTaskId());
+        assertEquals(existing.getTitle(), current.getTitle());
+        assertEquals(existing.getStatus(), current.getStatus());
+        assertEquals(existing.getVersion(), current.getVersion());
+    }
+
+    @Test
+    void refusedBatchAndClearRestoreThePreviousState() {
+        assertThrows(ModelOperationException.class, () -> taskStore.applyBatch(projectId, List.of(
+                TaskCommand.add("Lost", null),
+                TaskCommand.rename(existing.getTaskId(), "Lost"),
+                TaskCommand.delete(existing.getTaskId()))));
+        assertEquals(List.of(existing), tasks.findByProject(projectId));
+        assertThrows(ModelOperationException.class, () -> taskStore.deleteAllForProject(projectId));
+        assertEquals(List.of(existing), tasks.findByProject(projectId));
+    }
+
+    @Test
+    void refusedProjectMutationsRestoreThePreviousState() {
+        final int before = projects.findAll().size();
+        assertThrows(ModelOperationException.class, () -> projectStore.create("Lost"));
+        assertThrows(ModelOperationException.class, () -> projectStore.rename(projectId, "Lost"));
+        assertThrows(ModelOperationException.class, () -> projectStore.delete(projectId));
+        assertEquals(before, projects.findAll().size());
+        assertEquals("Journaled", projects.findById(projectId).getProjectName());
+        assertTrue(projects.tryFindById(projectId).isPresent());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.simple.jira.model.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.simple.jira.model.domain.Project;
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+import com.example.simple.jira.model.repository.ProjectRepository;
+import com.example.simple.jira.model.repository.ProjectStore;
+import com.example.simple.jira.model.repository.TaskRepository;
+import com.example.simple.jira.model.repository.TaskStore;
+
+/**
+ * Round trips of snapshots and restarts of durable stores from a checkpoint
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class SnapshotFileTest {
+
+    /** Directory receiving the files of a test */
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsProjectsTasksAndVersions() {
+        final ProjectRepository projects = new ProjectRepository();
+        final TaskRepository tasks = new TaskRepository(projects);
+        final int alpha = projects.create("Alpha").getProjectId();
+        final int empty = projects.create("Empty").getProjectId();
+        projects.rename(empty, "Still empty");
+        final Task plain = tasks.addTask(alpha, "Plain", null);
+        final Task changed = tasks.addTask(alpha, "Zmena ü€😀", "Line\nbreak");
+        tasks.updateTaskStatus(alpha, changed.getTaskId(), TaskStatus.DONE);
+        tasks.updateTaskPriority(alpha, changed.getTaskId(), TaskPriority.HIGH);
+
+        final Path file = directory.resolve("state.snapshot");
+        assertEquals(2, SnapshotFile.write(file, projects, tasks));
+
+        final ProjectRepository loadedProjects = new ProjectRepository();
+        final TaskRepository loadedTasks = new TaskRepository(loadedProjects);
+        assertEquals(2, SnapshotFile.load(file, loadedProjects, loadedTasks));
+        assertEquals(projects.findAll().size(), loadedProjects.findAll().size());
+        final Project renamed = loadedProjects.findById(empty);
+        assertEquals("Still empty", renamed.getProjectName());
+        assertEquals(projects.findById(empty).getVersion(), renamed.getVersion());
+        assertTaskEquals(tasks.findTask(alpha, plain.getTaskId()), loadedTasks.findTask(alpha, plain.getTaskId()));
+        assertTaskEquals(tasks.findTask(alpha, changed.getTaskId()),
+                loadedTasks.findTask(alpha, changed.getTaskId()));
+        assertNull(loadedTasks.findTask(alpha, plain.getTaskId()).getDescription());
+    }
+
+    @Test
+    void loadRestoresIdGeneratorsPastDeletedEntities() {
+        final ProjectRepository projects = new ProjectRepository();
+        final TaskRepository tasks = new TaskRepository(projects);
+        final int kept = projects.create("Kept").getProjectId();
+        final int dropped = projects.create("Dropped").getProjectId();
+        tasks.addTask(kept, "Kept task", null);
+        final Task last = tasks.addTask(kept, "Deleted task", null);
+        tasks.deleteTask(kept, last.getTaskId());
+        projects.delete(dropped);
+
+        final Path file = directory.resolve("state.snapshot");
+        SnapshotFile.write(file, projects, tasks);
+        final ProjectRepository loadedProjects = new ProjectRepository();
+        final TaskRepository loadedTasks = new TaskRepository(loadedProjects);
+        SnapshotFile.load(file, loadedProjects, loadedTasks);
+
+        assertEquals(dropped + 1, loadedProjects.create("New").getProjectId());
+        assertEquals(last.getTaskId() + 1, loadedTasks.addTask(kept, "New task", null).getTaskId());
+    }
+
+    @Test
+    void restartAfterCheckpointDoesNotReuseDeletedIds() throws IOException {
+        final Path log = directory.resolve("journal.log");
+        final int dropped;
+        final int deletedTaskId;
+        try (DurableStores stores = DurableStores.open(log, FsyncPolicy.NEVER, DurableStores.DEFAULT_SYNC_INTERVAL)) {
+            final ProjectStore projects = stores.getProjectStore();
+            final TaskStore tasks = stores.getTaskStore();
+            final int kept = projects.create("Kept").getProjectId();
+            dropped = projects.create("Dropped").getProjectId();
+            deletedTaskId = tasks.addTask(dropped, "Gone", null).getTaskId();
+            tasks.deleteAllForProject(dropped);
+            projects.delete(dropped);
+            tasks.addTask(kept, "Kept task", null);
+            stores.checkpoint();
+        }
+
+        try (DurableStores stores = DurableStores.open(log, FsyncPolicy.NEVER, DurableStores.DEFAULT_SYNC_INTERVAL)) {
+            final int created = stores.getProjectStore().create("New").getProjectId();
+            assertEquals(dropped + 1, created);
+            final List<Task> kept = stores.getTaskStore().findByProject(dropped - 1);
+            assertEquals(1, kept.size());
+            final int newTaskId = stores.getTaskStore().addTask(created, "New task", null).getTaskId();
+            assertEquals(kept.get(0).getTaskId() + 1, newTaskId);
+            assertEquals(deletedTaskId + 2, newTaskId);
+        }
+    }
+
+    @Test
+    void failedCheckpointsAreCountedAndLoseNoRecord() throws IOException {
+        final Path log = directory.resolve("journal.log");
+        final Path blocker = Files.createDirectory(directory.resolve("journal.log.snapshot.tmp"));
+        final DurableStores stores = DurableStores.open(log, FsyncPolicy.ALWAYS, DurableStores.DEFAULT_SYNC_INTERVAL);
+        final int projectId = stores.getProjectStore().create("Alpha").getProjectId();
+        stores.getTaskStore().addTask(projectId, "Before", null);
+        assertThrows(UncheckedIOException.class, stores::checkpoint);
+        stores.getTaskStore().addTask(projectId, "Between", null);
+        assertThrows(UncheckedIOException.class, stores::checkpoint);
+        final JournalStatistics statistics = stores.getStatistics();
+        assertEquals(0, statistics.getCheckpoints());
+        assertEquals(2, statistics.getCheckpointFailures());
+        assertNotNull(statistics.getLastCheckpointError());
+        assertThrows(UncheckedIOException.class, stores::close);
+        Files.delete(blocker);
+
+        try (DurableStores reopened = DurableStores.open(log, FsyncPolicy.ALWAYS,
+                DurableStores.DEFAULT_SYNC_INTERVAL)) {
+            assertEquals(List.of("Before", "Between"),
+                    reopened.getTaskStore().findByProject(projectId).stream().map(Task::getTitle).toList());
+            reopened.checkpoint();
+            assertEquals(1, reopened.getStatistics().getCheckpoints());
+            assertEquals(0, reopened.getStatistics().getCheckpointFailures());
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        final Path file = Files.write(directory.resolve("garbage"), new byte[64]);
+        assertThrows(ModelOperationException.class,
+                () -> SnapshotFile.load(file, new ProjectRepository(), new TaskRepository(new ProjectRepository())));
+    }
+
+    @Test
+    void missingFileLoadsNothing() {
+        final ProjectRepository projects = new ProjectRepository();
+        assertEquals(0, SnapshotFile.load(directory.resolve("absent"), projects, new TaskRepository(projects)));
+        assertEquals(0, projects.findAll().size());
+    }
+
+    private static void assertTaskEquals(final Task expected, final Task actual) {
+        assertEquals(expected.getTaskId(), actual.getTaskId());
+        assertEquals(expected.getProjectId(), actual.getProjectId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.simple.jira.model.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Replay of the write-ahead log, including logs cut short or damaged by a crash
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class WriteAheadLogTest {
+
+    /** Size of the length and checksum preceding every payload */
+    private static final int RECORD_HEADER = 8;
+
+    /** Directory receiving the log of a test */
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsInOrderAfterReopening() {
+        final Path file = directory.resolve("tasks.log");
+        write(file, "first", "second", "third");
+        assertEquals(List.of("first", "second", "third"), replay(file));
+
+        final List<String> replayed = new ArrayList<>();
+        final WriteAheadLog log = open(file, replayed);
+        log.append(bytes("fourth"));
+        close(log);
+        assertEquals(List.of("first", "second", "third"), replayed);
+        assertEquals(List.of("first", "second", "third", "fourth"), replay(file));
+    }
+
+    @Test
+    void tornTailIsDroppedAndOverwritten() throws IOException {
+        final Path file = directory.resolve("tasks.log");
+        write(file, "first", "second", "third");
+        final long intact = Files.size(file) - RECORD_HEADER - "third".length();
+        truncate(file, Files.size(file) - 2);
+        assertEquals(List.of("first", "second"), replay(file));
+
+        final WriteAheadLog log = open(file, new ArrayList<>());
+        assertEquals(intact, Files.size(file));
+        log.append(bytes("fourth"));
+        close(log);
+        assertEquals(List.of("first", "second", "fourth"), replay(file));
+    }
+
+    @Test
+    void tornHeaderIsDropped() throws IOException {
+        final Path file = directory.resolve("tasks.log");
+        write(file, "first", "second");
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(raw.length());
+            raw.write(new byte[] {0, 0, 0});
+        }
+        assertEquals(List.of("first", "second"), replay(file));
+    }
+
+    @Test
+    void replayStopsAtACorruptedRecord() throws IOException {
+        final Path file = directory.resolve("tasks.log");
+        write(file, "first", "second", "third");
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            final long secondPayload = RECORD_HEADER + "first".length() + RECORD_HEADER;
+            raw.seek(secondPayload);
+            raw.write('S');
+        }
+        assertEquals(List.of("first"), replay(file));
+    }
+
+    @Test
+    void missingFileReplaysNothing() {
+        assertTrue(replay(directory.resolve("missing.log")).isEmpty());
+    }
+
+    @Test
+    void closedLogRejectsRecords() {
+        final WriteAheadLog log = open(directory.resolve("tasks.log"), new ArrayList<>());
+        close(log);
+        assertThrows(ModelOperationException.class, () -> log.append(bytes("late")));
+    }
+
+    @Test
+    void rotationArchivesTheRecordsWrittenSoFar() {
+        final Path file = directory.resolve("tasks.log");
+        final Path archive = directory.resolve("tasks.log.prev");
+        final WriteAheadLog log = open(file, new ArrayList<>());
+        log.append(bytes("before"));
+        log.rotate(archive);
+        log.append(bytes("after"));
+        close(log);
+        assertEquals(List.of("before"), replay(archive));
+        assertEquals(List.of("after"), replay(file));
+    }
+
+    @Test
+    void alwaysPolicyWaitsForTheRecord() {
+        final Path file = directory.resolve("tasks.log");
+        final WriteAheadLog log = WriteAheadLog.open(file, FsyncPolicy.ALWAYS, DurableStores.DEFAULT_SYNC_INTERVAL,
+                record -> { });
+        log.awaitDurable(log.append(bytes("durable")));
+        assertEquals(List.of("durable"), replay(file));
+        close(log);
+    }
+
+    private static void write(final Path file, final String... records) {
+        final WriteAheadLog log = open(file, new ArrayList<>());
+        for (String record : records) {
+            log.append(bytes(record));
+        }
+        close(log);
+    }
+
+    private static WriteAheadLog open(final Path file, final List<String> replayed) {
+        return WriteAheadLog.open(file, FsyncPolicy.NEVER, DurableStores.DEFAULT_SYNC_INTERVAL,
+                record -> replayed.add(text(record)));
+    }
+
+    private static List<String> replay(final Path file) {
+        final List<String> records = new ArrayList<>();
+        WriteAheadLog.replay(file, record -> records.add(text(record)));
+        return records;
+    }
+
+    private static void close(final WriteAheadLog log) {
+        try {
+            log.close();
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static void truncate(final Path file, final long length) throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(length);
+        }
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(final ByteBuffer record) {
+        final byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.simple.jira.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+
+/**
+ * Exception-free command application of the columnar store
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class ColumnarTaskStoreTest {
+
+    /** Project store under the task store */
+    private ProjectRepository projects;
+    /** Store under test */
+    private ColumnarTaskStore tasks;
+    /** Identifier of the project holding the tasks */
+    private int projectId;
+
+    @BeforeEach
+    void setUp() {
+        projects = new ProjectRepository();
+        tasks = new ColumnarTaskStore(projects);
+        projectId = projects.create("Columnar").getProjectId();
+    }
+
+    @Test
+    void tryApplyReportsMissingProjectAndTaskAsEmpty() {
+        assertTrue(tasks.tryApply(projectId + 1, TaskCommand.add("Lost", null)).isEmpty());
+        assertTrue(tasks.tryApply(projectId, TaskCommand.status(42, TaskStatus.DONE)).isEmpty());
+        assertTrue(tasks.tryApply(projectId, TaskCommand.delete(42)).isEmpty());
+        assertTrue(tasks.findByProject(projectId).isEmpty());
+    }
+
+    @Test
+    void tryApplyAddsUpdatesAndDeletes() {
+        final Task added = tasks.tryApply(projectId, TaskCommand.add("Title", "Description")).orElseThrow();
+        assertEquals("Title", tasks.findTask(projectId, added.getTaskId()).getTitle());
+
+        final Optional<Task> updated = tasks.tryApply(projectId,
+                TaskCommand.status(added.getTaskId(), TaskStatus.DONE));
+        assertEquals(TaskStatus.DONE, updated.orElseThrow().getStatus());
+        assertEquals(1, tasks.countByStatus(projectId, TaskStatus.DONE));
+
+        assertEquals(added.getTaskId(), tasks.tryApply(projectId,
+                TaskCommand.delete(added.getTaskId())).orElseThrow().getTaskId());
+        assertTrue(tasks.tryFindTask(projectId, added.getTaskId()).isEmpty());
+    }
+
+    @Test
+    void tryApplyStillRejectsStaleVersions() {
+        final Task added = tasks.addTask(projectId, "Title", null);
+        tasks.renameTask(projectId, added.getTaskId(), "Renamed");
+        assertThrows(VersionConflictException.class, () -> tasks.tryApply(projectId,
+                TaskCommand.rename(added.getTaskId(), "Stale").expectingVersion(added.getVersion())));
+        assertEquals("Renamed", tasks.findTask(projectId, added.getTaskId()).getTitle());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.simple.jira.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.ModelOperationException;
+
+/**
+ * Reopening the disk task store from its task file
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class DiskTaskStoreTest {
+
+    /** Heap budget of the description cache */
+    private static final long CACHE_BYTES = 1 << 16;
+
+    /** Directory holding the task file */
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenRestoresEveryFieldAndDoesNotReuseDeletedIds() throws IOException {
+        final ProjectRepository projects = new ProjectRepository();
+        final int projectId = projects.create("Disk").getProjectId();
+        final int otherProjectId = projects.create("Other").getProjectId();
+        final int kept;
+        final int deleted;
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            kept = tasks.addTask(projectId, "Title", null).getTaskId();
+            tasks.updateTaskStatus(projectId, kept, TaskStatus.IN_PROGRESS);
+            tasks.updateTaskPriority(projectId, kept, TaskPriority.HIGH);
+            tasks.updateTaskDescription(projectId, kept, "Description ü€😀");
+            tasks.renameTask(projectId, kept, "Renamed");
+            tasks.addTask(otherProjectId, "Other", "");
+            deleted = tasks.addTask(projectId, "Deleted", "Gone").getTaskId();
+            tasks.deleteTask(projectId, deleted);
+        }
+
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            final Task task = tasks.findTask(projectId, kept);
+            assertEquals("Renamed", task.getTitle());
+            assertEquals("Description ü€😀", task.getDescription());
+            assertEquals(TaskStatus.IN_PROGRESS, task.getStatus());
+            assertEquals(TaskPriority.HIGH, task.getPriority());
+            assertEquals(5, task.getVersion());
+            assertEquals(1, tasks.findByProject(projectId).size());
+            assertEquals("", tasks.findByProject(otherProjectId).get(0).getDescription());
+            assertEquals(1, tasks.countByStatus(projectId, TaskStatus.IN_PROGRESS));
+            assertTrue(tasks.addTask(projectId, "New", null).getTaskId() > deleted);
+        }
+    }
+
+    @Test
+    void tornTailIsCutOffAndLaterChangesSurvive() throws IOException {
+        final ProjectRepository projects = new ProjectRepository();
+        final int projectId = projects.create("Disk").getProjectId();
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            tasks.addTask(projectId, "Complete", "Written before the crash");
+        }
+        Files.write(directory.resolve(DiskTaskStore.FILE_NAME), new byte[] {0, 0, 0, 40, 1, 2},
+                StandardOpenOption.APPEND);
+
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            assertEquals(1, tasks.findByProject(projectId).size());
+            tasks.addTask(projectId, "After", null);
+        }
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            final List<Task> restored = tasks.findByProject(projectId);
+            assertEquals(2, restored.size());
+            assertEquals("After", restored.get(1).getTitle());
+            assertNull(restored.get(1).getDescription());
+        }
+    }
+
+    @Test
+    void rewriteDropsStaleRecordsAndKeepsTheState() throws IOException {
+        final ProjectRepository projects = new ProjectRepository();
+        final int projectId = projects.create("Disk").getProjectId();
+        final TaskStatus[] statuses = TaskStatus.values();
+        final long fileBytes;
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            for (int i = 0; i < 100; i++) {
+                tasks.addTask(projectId, "Task " + i, "Description " + i);
+            }
+            final int last = tasks.addTask(projectId, "Last", null).getTaskId();
+            tasks.deleteTask(projectId, last);
+            for (int round = 0; round < 500; round++) {
+                for (Task task : tasks.findByProject(projectId)) {
+                    tasks.updateTaskStatus(projectId, task.getTaskId(), statuses[round % statuses.length]);
+                }
+            }
+            fileBytes = tasks.getFileBytes();
+            assertTrue(fileBytes < DiskTaskFile.MIN_REWRITE_BYTES, "file of " + fileBytes + " bytes");
+        }
+        assertEquals(fileBytes, Files.size(directory.resolve(DiskTaskStore.FILE_NAME)));
+
+        try (DiskTaskStore tasks = new DiskTaskStore(projects, directory, CACHE_BYTES)) {
+            final List<Task> restored = tasks.findByProject(projectId);
+            assertEquals(100, restored.size());
+            for (int i = 0; i < restored.size(); i++) {
+                assertEquals("Task " + i, restored.get(i).getTitle());
+                assertEquals("Description " + i, restored.get(i).getDescription());
+                assertEquals(statuses[499 % statuses.length], restored.get(i).getStatus());
+                assertEquals(501, restored.get(i).getVersion());
+            }
+            assertEquals(102, tasks.addTask(projectId, "New", null).getTaskId());
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotTaskFiles() throws IOException {
+        Files.write(directory.resolve(DiskTaskStore.FILE_NAME), new byte[64]);
+        assertThrows(ModelOperationException.class,
+                () -> new DiskTaskStore(new ProjectRepository(), directory, CACHE_BYTES));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.simple.jira.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+import com.example.simple.jira.model.exceptions.VersionConflictException;
+
+/**
+ * Concurrent writers to one project must not lose updates or share task identifiers
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class TaskRepositoryConcurrencyTest {
+
+    /** Number of concurrent writers */
+    private static final int THREADS = 8;
+    /** Number of operations per writer */
+    private static final int OPERATIONS = 2_000;
+
+    /** Runs the writers */
+    private ExecutorService executor;
+    /** Project store under the task store */
+    private ProjectRepository projects;
+    /** Store under test */
+    private TaskRepository tasks;
+    /** Identifier of the shared project */
+    private int projectId;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        projects = new ProjectRepository();
+        tasks = new TaskRepository(projects);
+        projectId = projects.create("Shared").getProjectId();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void concurrentAddsKeepEveryTaskWithUniqueIds() throws Exception {
+        final List<List<Integer>> created = runAll(() -> {
+            final List<Integer> ids = new ArrayList<>(OPERATIONS);
+            for (int i = 0; i < OPERATIONS; i++) {
+                ids.add(tasks.addTask(projectId, "Task " + i, null).getTaskId());
+            }
+            return ids;
+        });
+
+        final Set<Integer> unique = new HashSet<>();
+        created.forEach(unique::addAll);
+        assertEquals(THREADS * OPERATIONS, unique.size());
+        final List<Task> stored = tasks.findByProject(projectId);
+        assertEquals(THREADS * OPERATIONS, stored.size());
+        for (Task task : stored) {
+            assertTrue(unique.contains(task.getTaskId()));
+        }
+    }
+
+    @Test
+    void concurrentUpdatesOfDistinctTasksAreAllApplied() throws Exception {
+        final int[] ids = new int[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            ids[i] = tasks.addTask(projectId, "Task " + i, null).getTaskId();
+        }
+        final CountDownLatch claimed = new CountDownLatch(THREADS);
+        final int[] next = {0};
+        runAll(() -> {
+            final int taskId;
+            synchronized (next) {
+                taskId = ids[next[0]++];
+            }
+            claimed.countDown();
+            claimed.await();
+            for (int i = 1; i <= OPERATIONS; i++) {
+                tasks.renameTask(projectId, taskId, "Renamed " + i);
+                tasks.updateTaskPriority(projectId, taskId, TaskPriority.values()[i % TaskPriority.values().length]);
+            }
+            return null;
+        });
+
+        for (int taskId : ids) {
+            final Task task = tasks.findTask(projectId, taskId);
+            assertEquals("Renamed " + OPERATIONS, task.getTitle());
+            assertEquals(Task.INITIAL_VERSION + 2L * OPERATIONS, task.getVersion());
+        }
+    }
+
+    @Test
+    void concurrentStatusAndPriorityUpdatesAddUp() throws Exception {
+        final TaskStatus[] statuses = TaskStatus.values();
+        final TaskPriority[] priorities = TaskPriority.values();
+        runAll(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                final int taskId = tasks.addTask(projectId, "Task " + i, null).getTaskId();
+                tasks.updateTaskStatus(projectId, taskId, statuses[i % statuses.length]);
+                tasks.updateTaskPriority(projectId, taskId, priorities[i % priorities.length]);
+            }
+            return null;
+        });
+
+        final int[] statusCounts = new int[statuses.length];
+        final int[] priorityCounts = new int[priorities.length];
+        final List<Task> stored = tasks.findByProject(projectId);
+        for (Task task : stored) {
+            statusCounts[task.getStatus().ordinal()]++;
+            priorityCounts[task.getPriority().ordinal()]++;
+        }
+        assertEquals(THREADS * OPERATIONS, stored.size());
+        for (int i = 0; i < statuses.length; i++) {
+            assertEquals(THREADS * expectedShare(i, statuses.length), statusCounts[i], statuses[i].name());
+        }
+        for (int i = 0; i < priorities.length; i++) {
+            assertEquals(THREADS * expectedShare(i, priorities.length), priorityCounts[i], priorities[i].name());
+        }
+    }
+
+    @Test
+    void versionedIncrementsOfOneTaskLoseNoUpdate() throws Exception {
+        final int taskId = tasks.addTask(projectId, "0", null).getTaskId();
+        runAll(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                while (true) {
+                    final Task current = tasks.findTask(projectId, taskId);
+                    final String next = String.valueOf(Integer.parseInt(current.getTitle()) + 1);
+                    try {
+                        tasks.renameTask(projectId, taskId, current.getVersion(), next);
+                        break;
+                    } catch (VersionConflictException ex) {
+                        // another writer won, read again
+                    }
+                }
+            }
+            return null;
+        });
+
+        final Task task = tasks.findTask(projectId, taskId);
+        assertEquals(String.valueOf(THREADS * OPERATIONS), task.getTitle());
+        assertEquals(Task.INITIAL_VERSION + THREADS * OPERATIONS, task.getVersion());
+    }
+
+    private static int expectedShare(final int ordinal, final int values) {
+        return OPERATIONS / values + (ordinal < OPERATIONS % values ? 1 : 0);
+    }
+
+    private <T> List<T> runAll(final Callable<T> writer) throws Exception {
+        final List<Future<T>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(writer));
+        }
+        final List<T> results = new ArrayList<>(THREADS);
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.simple.jira.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.simple.jira.model.domain.Task;
+import com.example.simple.jira.model.domain.TaskPriority;
+import com.example.simple.jira.model.domain.TaskStatus;
+
+/**
+ * Ordering, lookups and structural sharing of the persistent task tree
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class TaskTreeTest {
+
+    @Test
+    void randomInsertsAndRemovalsMatchASortedMap() {
+        final Random random = new Random(7);
+        final TreeMap<Integer, Task> expected = new TreeMap<>();
+        TaskTree tree = TaskTree.EMPTY;
+        for (int i = 0; i < 5_000; i++) {
+            final int taskId = 1 + random.nextInt(1_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(taskId);
+                tree = tree.without(taskId);
+            } else {
+                final Task task = task(taskId, "Task " + i);
+                expected.put(taskId, task);
+                tree = tree.with(task);
+            }
+        }
+        assertEquals(new ArrayList<>(expected.values()), tree);
+        for (int taskId = 0; taskId <= 1_001; taskId++) {
+            assertSame(expected.get(taskId), tree.find(taskId));
+        }
+        int index = 0;
+        for (Task task : expected.values()) {
+            assertSame(task, tree.get(index++));
+        }
+    }
+
+    @Test
+    void modificationsLeaveEarlierTreesUnchanged() {
+        final TaskTree original = TaskTree.ofSorted(List.of(task(1, "One"), task(2, "Two"), task(3, "Three")));
+        final TaskTree renamed = original.with(task(2, "Renamed"));
+        final TaskTree shrunk = renamed.without(1);
+
+        assertEquals("Two", original.find(2).getTitle());
+        assertEquals(3, original.size());
+        assertEquals("Renamed", renamed.find(2).getTitle());
+        assertEquals(3, renamed.size());
+        assertNull(shrunk.find(1));
+        assertEquals(2, shrunk.size());
+        assertSame(shrunk, shrunk.without(42));
+    }
+
+    @Test
+    void ofSortedBuildsAnIndexableTree() {
+        final List<Task> tasks = new ArrayList<>();
+        for (int taskId = 1; taskId <= 1_000; taskId += 3) {
+            tasks.add(task(taskId, "Task " + taskId));
+        }
+        final TaskTree tree = TaskTree.ofSorted(tasks);
+        assertEquals(tasks, tree);
+        assertSame(TaskTree.EMPTY, TaskTree.ofSorted(List.of()));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(tasks.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+    }
+
+    @Test
+    void iteratorAfterStartsPastTheCursor() {
+        final TaskTree tree = TaskTree.ofSorted(List.of(task(2, "Two"), task(4, "Four"), task(6, "Six")));
+        assertEquals(List.of(4, 6), ids(tree.iteratorAfter(2)));
+        assertEquals(List.of(4, 6), ids(tree.iteratorAfter(3)));
+        assertEquals(List.of(2, 4, 6), ids(tree.iteratorAfter(Page.FIRST)));
+        assertTrue(ids(tree.iteratorAfter(6)).isEmpty());
+    }
+
+    private static List<Integer> ids(final Iterator<Task> tasks) {
+        final List<Integer> ids = new ArrayList<>();
+        tasks.forEachRemaining(task -> ids.add(task.getTaskId()));
+        return ids;
+    }
+
+    private static Task task(final int taskId, final String title) {
+        return new Task(taskId, title, null, TaskStatus.TODO, TaskPriority.NOT_SET, 1);
+    }
+}
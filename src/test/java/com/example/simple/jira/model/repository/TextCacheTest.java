@@ -0,0 +1,71 @@
+package com.example.simple.jira.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Budget and scan resistance of the description cache
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class TextCacheTest {
+
+    /** Budget of the cache under test, one kilobyte per shard */
+    private static final long CAPACITY = 16 * 1024;
+    /** Text of every entry, weighing about 200 bytes */
+    private static final String TEXT = "x".repeat(100);
+
+    @Test
+    void scanDoesNotEvictTextsReadRepeatedly() {
+        final TextCache cache = new TextCache(CAPACITY);
+        for (long hot = 0; hot < 4; hot++) {
+            cache.put(hot, TEXT + hot);
+            cache.get(hot);
+        }
+        for (long key = 100; key < 10_100; key++) {
+            if (cache.get(key) == null) {
+                cache.put(key, TEXT + key);
+            }
+        }
+        for (long hot = 0; hot < 4; hot++) {
+            assertEquals(TEXT + hot, cache.get(hot));
+        }
+        assertTrue(cache.statistics().getEvictions() > 0);
+    }
+
+    @Test
+    void staysWithinBudget() {
+        final TextCache cache = new TextCache(CAPACITY);
+        for (long key = 0; key < 1_000; key++) {
+            cache.put(key, TEXT);
+            cache.get(key);
+        }
+        final CacheStatistics statistics = cache.statistics();
+        assertTrue(statistics.getBytes() <= CAPACITY, statistics.toString());
+        assertEquals(1_000, statistics.getHits());
+    }
+
+    @Test
+    void invalidatedTextsAreGone() {
+        final TextCache cache = new TextCache(CAPACITY);
+        cache.put(1, TEXT);
+        cache.put(2, TEXT);
+        cache.get(2);
+        cache.invalidate(1);
+        cache.invalidate(2);
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(0, cache.statistics().getBytes());
+    }
+
+    @Test
+    void zeroBudgetCachesNothing() {
+        final TextCache cache = new TextCache(0);
+        cache.put(1, TEXT);
+        assertNull(cache.get(1));
+    }
+}
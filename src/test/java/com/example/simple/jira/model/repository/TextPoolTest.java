@@ -0,0 +1,150 @@
+package com.example.simple.jira.model.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Deduplication, release and compaction of the text pools behind the columnar stores
+ *
+ * @author michalkubina
+ * @version 1.0
+ */
+class TextPoolTest {
+
+    /** Directory receiving the files of the disk pool */
+    @TempDir
+    Path directory;
+
+    /** Disk pool created by the test, closed afterwards */
+    private DiskTextPool diskPool;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (diskPool != null) {
+            diskPool.close();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"string", "offheap", "disk"})
+    void equalTextsShareOneReferenceUntilTheLastRelease(final String kind) {
+        final TextPool pool = pool(kind);
+        final int first = pool.intern("Shared text ü€😀");
+        final int second = pool.intern(new String("Shared text ü€😀"));
+        assertEquals(first, second);
+        assertEquals(1, pool.size());
+
+        pool.release(first);
+        assertEquals("Shared text ü€😀", pool.get(second));
+        pool.release(second);
+        assertEquals(0, pool.size());
+        assertEquals(first, pool.intern("Reused reference"));
+        assertEquals("Reused reference", pool.get(first));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"string", "offheap", "disk"})
+    void nullAndEmptyTextsAreKept(final String kind) {
+        final TextPool pool = pool(kind);
+        assertEquals(TextPool.NULL_REF, pool.intern(null));
+        assertNull(pool.get(TextPool.NULL_REF));
+        pool.release(TextPool.NULL_REF);
+        final int empty = pool.intern("");
+        final int next = pool.intern("Next");
+        assertNotEquals(empty, next);
+        assertEquals("", pool.get(empty));
+        assertEquals("Next", pool.get(next));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"string", "offheap", "disk"})
+    void churnKeepsEveryLiveText(final String kind) {
+        final TextPool pool = pool(kind);
+        final Random random = new Random(11);
+        final Map<Integer, String> live = new HashMap<>();
+        final List<Integer> refs = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            if (!refs.isEmpty() && random.nextInt(2) == 0) {
+                final int ref = refs.remove(random.nextInt(refs.size()));
+                pool.release(ref);
+                live.remove(ref);
+            } else {
+                final int length = random.nextInt(50) == 0 ? OffHeapTextPool.SLAB_SIZE / 4 : 500;
+                final String text = (i + " ").repeat(length / 6 + 1);
+                final int ref = pool.intern(text);
+                refs.add(ref);
+                live.put(ref, text);
+            }
+        }
+        assertEquals(live.size(), pool.size());
+        for (Map.Entry<Integer, String> entry : live.entrySet()) {
+            assertEquals(entry.getValue(), pool.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void offHeapCompactionReturnsMemoryOfReleasedTexts() {
+        final OffHeapTextPool pool = new OffHeapTextPool();
+        final List<Integer> refs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            refs.add(pool.intern(i + "x".repeat(1_000)));
+        }
+        final int large = pool.intern("L".repeat(OffHeapTextPool.SLAB_SIZE));
+        final long filled = pool.reservedBytes();
+        pool.release(large);
+        for (int i = 0; i < refs.size() - 10; i++) {
+            pool.release(refs.get(i));
+        }
+        assertTrue(pool.reservedBytes() <= 2 * pool.liveBytes() + OffHeapTextPool.SLAB_SIZE,
+                pool.reservedBytes() + " reserved for " + pool.liveBytes() + " live bytes");
+        assertTrue(pool.reservedBytes() < filled);
+        for (int i = refs.size() - 10; i < refs.size(); i++) {
+            assertEquals(i + "x".repeat(1_000), pool.get(refs.get(i)));
+        }
+    }
+
+    @Test
+    void diskCompactionDropsSegmentsOfReleasedTexts() {
+        final DiskTextPool pool = (DiskTextPool) pool("disk");
+        final List<Integer> refs = new ArrayList<>();
+        for (int i = 0; i < 3 * DiskTextPool.SEGMENT_SIZE / 100_000; i++) {
+            refs.add(pool.intern(i + "d".repeat(100_000)));
+        }
+        final long filled = pool.diskBytes();
+        for (int i = 0; i < refs.size() - 5; i++) {
+            pool.release(refs.get(i));
+        }
+        assertTrue(pool.diskBytes() < filled / 2, pool.diskBytes() + " of " + filled + " bytes still in use");
+        for (int i = refs.size() - 5; i < refs.size(); i++) {
+            assertEquals(i + "d".repeat(100_000), pool.get(refs.get(i)));
+        }
+    }
+
+    private TextPool pool(final String kind) {
+        switch (kind) {
+            case "offheap":
+                return new OffHeapTextPool();
+            case "disk":
+                diskPool = new DiskTextPool(directory, 1L << 20);
+                return diskPool;
+            default:
+                return new StringPool();
+        }
+    }
+}